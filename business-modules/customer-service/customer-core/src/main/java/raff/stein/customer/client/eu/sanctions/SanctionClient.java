@@ -2,12 +2,16 @@ package raff.stein.customer.client.eu.sanctions;
 
 import jakarta.validation.Valid;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import raff.stein.customer.client.eu.sanctions.config.SanctionClientConfig;
+import raff.stein.customer.client.eu.sanctions.model.list.SanctionListVersion;
 import raff.stein.customer.client.eu.sanctions.model.screen.ScreenRequest;
 import raff.stein.customer.client.eu.sanctions.model.screen.ScreenResponse;
 
+import java.util.List;
+
 @FeignClient(
         name = "sanctionClient",
         url = "${spring.application.rest.client.sanction.host}",
@@ -18,4 +22,13 @@ public interface SanctionClient {
     @PostMapping(value = "/screen-client", consumes = "application/json", produces = "application/json")
     ScreenResponse screenClient(@RequestBody @Valid ScreenRequest request);
 
+    /**
+     * Screens several subjects in one call. Each response echoes the {@code requestId} of its request.
+     */
+    @PostMapping(value = "/screen-clients", consumes = "application/json", produces = "application/json")
+    List<ScreenResponse> screenClients(@RequestBody @Valid List<ScreenRequest> requests);
+
+    @GetMapping(value = "/lists/version", produces = "application/json")
+    SanctionListVersion getListVersion();
+
 }
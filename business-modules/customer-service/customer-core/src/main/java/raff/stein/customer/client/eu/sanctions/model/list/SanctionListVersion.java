@@ -0,0 +1,31 @@
+package raff.stein.customer.client.eu.sanctions.model.list;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Version of the sanctions lists currently used by the screening engine.
+ * A new version is published every time the engine reloads its lists, so screening results are only comparable
+ * within the same version.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SanctionListVersion {
+
+    // IMPORTANT: This is a mock implementation. Replace with real sanction screening logic.
+
+    /** Opaque identifier of the lists snapshot (e.g., hash or publication sequence). */
+    private String version;
+    /** When this snapshot was loaded by the engine. */
+    private OffsetDateTime publishedAt;
+    /** When the engine plans to load the next snapshot, if scheduled. */
+    private OffsetDateTime nextUpdateAt;
+}
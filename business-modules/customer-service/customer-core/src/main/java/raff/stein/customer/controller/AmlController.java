@@ -0,0 +1,65 @@
+package raff.stein.customer.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.openapitools.api.AmlApi;
+import org.openapitools.model.AmlCaseDTO;
+import org.openapitools.model.SanctionRescreeningJobDTO;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RestController;
+import raff.stein.customer.controller.mapper.aml.AmlCaseDTOToAmlCaseMapper;
+import raff.stein.customer.controller.mapper.aml.SanctionRescreeningJobDTOToSanctionRescreeningJobMapper;
+import raff.stein.customer.model.bo.aml.AmlCase;
+import raff.stein.customer.model.bo.aml.SanctionRescreeningJob;
+import raff.stein.customer.service.aml.AmlService;
+import raff.stein.customer.service.aml.rescreening.SanctionRescreeningService;
+
+import java.util.UUID;
+
+@RestController
+@RequiredArgsConstructor
+public class AmlController implements AmlApi {
+
+    private final AmlService amlService;
+    private final SanctionRescreeningService sanctionRescreeningService;
+
+    private static final AmlCaseDTOToAmlCaseMapper amlCaseDTOToAmlCaseMapper = AmlCaseDTOToAmlCaseMapper.MAPPER;
+    private static final SanctionRescreeningJobDTOToSanctionRescreeningJobMapper sanctionRescreeningJobMapper =
+            SanctionRescreeningJobDTOToSanctionRescreeningJobMapper.MAPPER;
+
+    @Override
+    public ResponseEntity<AmlCaseDTO> triggerAmlCheck(UUID customerId) {
+        final AmlCase amlCase = amlService.triggerAmlCheck(customerId);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(amlCaseDTOToAmlCaseMapper.toAmlCaseDTO(amlCase));
+    }
+
+    @Override
+    public ResponseEntity<AmlCaseDTO> getAmlCase(UUID amlCaseId) {
+        final AmlCase amlCase = amlService.getAmlCase(amlCaseId);
+        return ResponseEntity.ok(amlCaseDTOToAmlCaseMapper.toAmlCaseDTO(amlCase));
+    }
+
+    @Override
+    public ResponseEntity<AmlCaseDTO> resumeAmlCase(UUID amlCaseId) {
+        final AmlCase amlCase = amlService.resumeAmlCase(amlCaseId);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(amlCaseDTOToAmlCaseMapper.toAmlCaseDTO(amlCase));
+    }
+
+    @Override
+    public ResponseEntity<SanctionRescreeningJobDTO> startSanctionRescreening() {
+        final SanctionRescreeningJob job = sanctionRescreeningService.startRescreening();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(sanctionRescreeningJobMapper.toSanctionRescreeningJobDTO(job));
+    }
+
+    @Override
+    public ResponseEntity<SanctionRescreeningJobDTO> getSanctionRescreening(UUID jobId) {
+        final SanctionRescreeningJob job = sanctionRescreeningService.getRescreening(jobId);
+        return ResponseEntity.ok(sanctionRescreeningJobMapper.toSanctionRescreeningJobDTO(job));
+    }
+
+    @Override
+    public ResponseEntity<SanctionRescreeningJobDTO> resumeSanctionRescreening(UUID jobId) {
+        final SanctionRescreeningJob job = sanctionRescreeningService.resumeRescreening(jobId);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(sanctionRescreeningJobMapper.toSanctionRescreeningJobDTO(job));
+    }
+}
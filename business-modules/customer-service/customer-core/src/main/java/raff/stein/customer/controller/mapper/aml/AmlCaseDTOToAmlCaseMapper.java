@@ -0,0 +1,15 @@
+package raff.stein.customer.controller.mapper.aml;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.factory.Mappers;
+import org.openapitools.model.AmlCaseDTO;
+import raff.stein.customer.controller.mapper.CustomerControllerCommonMapperConfig;
+import raff.stein.customer.model.bo.aml.AmlCase;
+
+@Mapper(config = CustomerControllerCommonMapperConfig.class)
+public interface AmlCaseDTOToAmlCaseMapper {
+
+    AmlCaseDTOToAmlCaseMapper MAPPER = Mappers.getMapper(AmlCaseDTOToAmlCaseMapper.class);
+
+    AmlCaseDTO toAmlCaseDTO(AmlCase amlCase);
+}
@@ -0,0 +1,16 @@
+package raff.stein.customer.controller.mapper.aml;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.factory.Mappers;
+import org.openapitools.model.SanctionRescreeningJobDTO;
+import raff.stein.customer.controller.mapper.CustomerControllerCommonMapperConfig;
+import raff.stein.customer.model.bo.aml.SanctionRescreeningJob;
+
+@Mapper(config = CustomerControllerCommonMapperConfig.class)
+public interface SanctionRescreeningJobDTOToSanctionRescreeningJobMapper {
+
+    SanctionRescreeningJobDTOToSanctionRescreeningJobMapper MAPPER =
+            Mappers.getMapper(SanctionRescreeningJobDTOToSanctionRescreeningJobMapper.class);
+
+    SanctionRescreeningJobDTO toSanctionRescreeningJobDTO(SanctionRescreeningJob sanctionRescreeningJob);
+}
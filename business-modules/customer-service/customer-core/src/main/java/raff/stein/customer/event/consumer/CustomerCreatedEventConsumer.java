@@ -23,7 +23,8 @@ public class CustomerCreatedEventConsumer extends WMPBaseEventConsumer {
     @KafkaListener(
             topics = "${kafka.topics.customer-service.customer-created.name}",
             containerFactory = "kafkaListenerFactory",
-            groupId = "${kafka.topics.customer-service.customer-created.groupId}")
+            groupId = "${kafka.topics.customer-service.customer-created.groupId}",
+            concurrency = "${kafka.topics.customer-service.customer-created.concurrency:${kafka.consumer.concurrency:1}}")
     public void consume(CloudEvent cloudEvent) {
         withEventPayload(
                 cloudEvent,
@@ -23,7 +23,8 @@ public class CustomerOnboardedEventConsumer extends WMPBaseEventConsumer {
     @KafkaListener(
             topics = "${kafka.topics.customer-service.customer-onboarded.name}",
             containerFactory = "kafkaListenerFactory",
-            groupId = "${kafka.topics.customer-service.customer-onboarded.groupId}")
+            groupId = "${kafka.topics.customer-service.customer-onboarded.groupId}",
+            concurrency = "${kafka.topics.customer-service.customer-onboarded.concurrency:${kafka.consumer.concurrency:1}}")
     public void consume(CloudEvent cloudEvent) {
         withEventPayload(
                 cloudEvent,
@@ -23,7 +23,8 @@ public class CustomerRejectedEventConsumer extends WMPBaseEventConsumer {
     @KafkaListener(
             topics = "${kafka.topics.customer-service.customer-rejected.name}",
             containerFactory = "kafkaListenerFactory",
-            groupId = "${kafka.topics.customer-service.customer-rejected.groupId}")
+            groupId = "${kafka.topics.customer-service.customer-rejected.groupId}",
+            concurrency = "${kafka.topics.customer-service.customer-rejected.concurrency:${kafka.consumer.concurrency:1}}")
     public void consume(CloudEvent cloudEvent) {
         withEventPayload(
                 cloudEvent,
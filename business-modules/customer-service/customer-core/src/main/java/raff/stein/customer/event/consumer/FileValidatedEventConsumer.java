@@ -28,7 +28,8 @@ public class FileValidatedEventConsumer extends WMPBaseEventConsumer {
     @KafkaListener(
             topics = "${kafka.topics.customer-service.document.file-validated.name}",
             containerFactory = "kafkaListenerFactory",
-            groupId = "${kafka.topics.customer-service.document.file-validated.groupId}")
+            groupId = "${kafka.topics.customer-service.document.file-validated.groupId}",
+            concurrency = "${kafka.topics.customer-service.document.file-validated.concurrency:${kafka.consumer.concurrency:1}}")
     public void consume(CloudEvent cloudEvent) {
         withEventPayload(
                 cloudEvent,
@@ -7,7 +7,7 @@ import org.springframework.stereotype.Component;
 import raff.stein.customer.event.producer.mapper.CustomerCreatedMapper;
 import raff.stein.customer.model.entity.customer.CustomerEntity;
 import raff.stein.customer.repository.customer.CustomerRepository;
-import raff.stein.platformcore.messaging.publisher.WMPBaseEventPublisher;
+import raff.stein.platformcore.messaging.publisher.EventPublisher;
 import raff.stein.platformcore.messaging.publisher.model.EventData;
 
 import java.util.UUID;
@@ -16,17 +16,17 @@ import java.util.UUID;
 @Component
 public class CustomerCreatedEventPublisher {
 
-    private final WMPBaseEventPublisher wmpBaseEventPublisher;
+    private final EventPublisher eventPublisher;
     private final String customerCreatedTopic;
     private final CustomerRepository customerRepository;
 
     private static final CustomerCreatedMapper customerCreatedMapper = CustomerCreatedMapper.MAPPER;
 
     public CustomerCreatedEventPublisher(
-            WMPBaseEventPublisher wmpBaseEventPublisher,
+            EventPublisher eventPublisher,
             @Value("${kafka.topics.customer-service.customer-created.name}") String customerCreatedTopic,
             CustomerRepository customerRepository) {
-        this.wmpBaseEventPublisher = wmpBaseEventPublisher;
+        this.eventPublisher = eventPublisher;
         this.customerCreatedTopic = customerCreatedTopic;
         this.customerRepository = customerRepository;
     }
@@ -36,8 +36,8 @@ public class CustomerCreatedEventPublisher {
                 .orElseThrow(() -> new IllegalArgumentException("Customer with ID " + customerId + " not found"));
         final CustomerCreatedEvent customerCreatedEvent =
                 customerCreatedMapper.toCustomerCreatedEvent(customerEntity);
-        EventData eventData = new EventData(customerCreatedEvent);
-        wmpBaseEventPublisher.publishCloudEvent(customerCreatedTopic, eventData);
+        EventData eventData = new EventData(customerCreatedEvent, customerId.toString());
+        eventPublisher.publishCloudEvent(customerCreatedTopic, eventData);
     }
 
 }
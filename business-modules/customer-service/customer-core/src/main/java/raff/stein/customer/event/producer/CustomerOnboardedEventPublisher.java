@@ -8,7 +8,7 @@ import raff.stein.customer.event.producer.mapper.CustomerOnboardedMapper;
 import raff.stein.customer.model.bo.mifid.filling.CustomerRiskProfile;
 import raff.stein.customer.model.entity.customer.CustomerEntity;
 import raff.stein.customer.repository.customer.CustomerRepository;
-import raff.stein.platformcore.messaging.publisher.WMPBaseEventPublisher;
+import raff.stein.platformcore.messaging.publisher.EventPublisher;
 import raff.stein.platformcore.messaging.publisher.model.EventData;
 
 import java.util.UUID;
@@ -17,16 +17,16 @@ import java.util.UUID;
 @Component
 public class CustomerOnboardedEventPublisher {
 
-    private final WMPBaseEventPublisher wmpBaseEventPublisher;
+    private final EventPublisher eventPublisher;
     private final String customerOnboardedTopic;
     private final CustomerRepository customerRepository;
     private static final CustomerOnboardedMapper customerOnboardedMapper = CustomerOnboardedMapper.MAPPER;
 
     public CustomerOnboardedEventPublisher(
-            WMPBaseEventPublisher wmpBaseEventPublisher,
+            EventPublisher eventPublisher,
             @Value("${kafka.topics.customer-service.customer-onboarded.name}") String customerOnboardedTopic,
             CustomerRepository customerRepository) {
-        this.wmpBaseEventPublisher = wmpBaseEventPublisher;
+        this.eventPublisher = eventPublisher;
         this.customerOnboardedTopic = customerOnboardedTopic;
         this.customerRepository = customerRepository;
     }
@@ -36,8 +36,8 @@ public class CustomerOnboardedEventPublisher {
                 .orElseThrow(() -> new IllegalArgumentException("Customer with ID " + customerId + " not found"));
         CustomerOnboardedEvent documentUploadedEvent =
                 customerOnboardedMapper.toCustomerOnboardedEvent(customerRiskProfile, customerEntity);
-        EventData eventData = new EventData(documentUploadedEvent);
-        wmpBaseEventPublisher.publishCloudEvent(customerOnboardedTopic, eventData);
+        EventData eventData = new EventData(documentUploadedEvent, customerId.toString());
+        eventPublisher.publishCloudEvent(customerOnboardedTopic, eventData);
     }
 
 }
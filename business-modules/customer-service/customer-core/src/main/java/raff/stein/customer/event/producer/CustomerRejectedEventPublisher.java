@@ -7,7 +7,7 @@ import org.springframework.stereotype.Component;
 import raff.stein.customer.event.producer.mapper.CustomerRejectedMapper;
 import raff.stein.customer.model.entity.customer.CustomerEntity;
 import raff.stein.customer.repository.customer.CustomerRepository;
-import raff.stein.platformcore.messaging.publisher.WMPBaseEventPublisher;
+import raff.stein.platformcore.messaging.publisher.EventPublisher;
 import raff.stein.platformcore.messaging.publisher.model.EventData;
 
 import java.util.UUID;
@@ -16,17 +16,17 @@ import java.util.UUID;
 @Component
 public class CustomerRejectedEventPublisher {
 
-    private final WMPBaseEventPublisher wmpBaseEventPublisher;
+    private final EventPublisher eventPublisher;
     private final String customerRejectedTopic;
     private final CustomerRepository customerRepository;
 
     private static final CustomerRejectedMapper customerRejectedMapper = CustomerRejectedMapper.MAPPER;
 
     public CustomerRejectedEventPublisher(
-            WMPBaseEventPublisher wmpBaseEventPublisher,
+            EventPublisher eventPublisher,
             @Value("${kafka.topics.customer-service.customer-rejected.name}") String customerRejectedTopic,
             CustomerRepository customerRepository) {
-        this.wmpBaseEventPublisher = wmpBaseEventPublisher;
+        this.eventPublisher = eventPublisher;
         this.customerRejectedTopic = customerRejectedTopic;
         this.customerRepository = customerRepository;
     }
@@ -36,8 +36,8 @@ public class CustomerRejectedEventPublisher {
                 .orElseThrow(() -> new IllegalArgumentException("Customer with ID " + customerId + " not found"));
         final CustomerRejectedEvent customerCreatedEvent =
                 customerRejectedMapper.toCustomerRejectedEvent(customerEntity);
-        EventData eventData = new EventData(customerCreatedEvent);
-        wmpBaseEventPublisher.publishCloudEvent(customerRejectedTopic, eventData);
+        EventData eventData = new EventData(customerCreatedEvent, customerId.toString());
+        eventPublisher.publishCloudEvent(customerRejectedTopic, eventData);
     }
 
 }
@@ -0,0 +1,29 @@
+package raff.stein.customer.model.bo.aml;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import raff.stein.customer.model.entity.aml.enumeration.AmlCaseStatus;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AmlCase {
+    // Business correlation id for the AML case
+    private UUID amlCaseId;
+    private UUID customerId;
+    private AmlCaseStatus status;
+    // Failed executions so far
+    private int attempts;
+    // When a queued case is picked up at the earliest
+    private OffsetDateTime nextAttemptAt;
+    // Error of the last failed execution
+    private String lastError;
+    // Claim of the worker running the case, to pass back when closing it
+    private UUID leaseToken;
+}
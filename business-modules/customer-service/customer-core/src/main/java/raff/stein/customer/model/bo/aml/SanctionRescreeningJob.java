@@ -0,0 +1,31 @@
+package raff.stein.customer.model.bo.aml;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import raff.stein.customer.model.entity.aml.enumeration.SanctionRescreeningStatus;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SanctionRescreeningJob {
+    private UUID jobId;
+    private SanctionRescreeningStatus status;
+    // Sanctions lists version the customers are screened against, when known
+    private String listVersion;
+    // Checkpoint: the customers up to this id are screened
+    private UUID lastCustomerId;
+    private long screened;
+    // Customers with candidate matches, an AML case is queued for each
+    private long flagged;
+    private long errors;
+    private Double screeningsPerSecond;
+    private OffsetDateTime startedAt;
+    private OffsetDateTime finishedAt;
+    private String lastError;
+}
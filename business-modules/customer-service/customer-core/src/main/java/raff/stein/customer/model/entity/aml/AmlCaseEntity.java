@@ -0,0 +1,59 @@
+package raff.stein.customer.model.entity.aml;
+
+import jakarta.persistence.*;
+import lombok.*;
+import raff.stein.customer.model.entity.aml.enumeration.AmlCaseStatus;
+import raff.stein.platformcore.model.audit.entity.BaseDateEntity;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Entry of the AML case queue: the AML check of a customer, from its request to its outcome.
+ */
+@Entity
+@Table(name = "aml_case", indexes = {
+        @Index(name = "idx_aml_case_status_next_attempt", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_aml_case_customer_status", columnList = "customer_id, status")
+})
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AmlCaseEntity extends BaseDateEntity<UUID> {
+
+    // the amlCaseId
+    @Id
+    private UUID id;
+
+    @Column(name = "customer_id", nullable = false)
+    private UUID customerId;
+
+    @Column(nullable = false, length = 32)
+    @Enumerated(EnumType.STRING)
+    @Setter
+    private AmlCaseStatus status;
+
+    // failed executions so far: errors and expired leases, not the runs parked waiting for a provider
+    @Column(nullable = false)
+    @Setter
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    @Setter
+    private OffsetDateTime nextAttemptAt;
+
+    // a RUNNING case whose lease expired, e.g. because its node stopped, is claimed again
+    @Column(name = "lease_expires_at")
+    @Setter
+    private OffsetDateTime leaseExpiresAt;
+
+    // identifies the claim of a RUNNING case: only the worker holding it may close, park or reschedule the case
+    @Column(name = "lease_token")
+    @Setter
+    private UUID leaseToken;
+
+    @Column(length = 1000)
+    @Setter
+    private String lastError;
+}
@@ -0,0 +1,71 @@
+package raff.stein.customer.model.entity.aml;
+
+import jakarta.persistence.*;
+import lombok.*;
+import raff.stein.customer.model.entity.aml.enumeration.SanctionRescreeningStatus;
+import raff.stein.platformcore.model.audit.entity.BaseDateEntity;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * A sanctions re-screening of every active customer, with its checkpoint: the customers are screened in id order, so
+ * a resumed job starts after {@code lastCustomerId}.
+ */
+@Entity
+@Table(name = "sanction_rescreening_job")
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SanctionRescreeningJobEntity extends BaseDateEntity<UUID> {
+
+    // the jobId
+    @Id
+    private UUID id;
+
+    @Column(nullable = false, length = 32)
+    @Enumerated(EnumType.STRING)
+    @Setter
+    private SanctionRescreeningStatus status;
+
+    @Column
+    private String listVersion;
+
+    @Column(name = "last_customer_id")
+    @Setter
+    private UUID lastCustomerId;
+
+    @Column(nullable = false)
+    @Setter
+    private long screened;
+
+    @Column(nullable = false)
+    @Setter
+    private long flagged;
+
+    @Column(nullable = false)
+    @Setter
+    private long errors;
+
+    // time spent screening, resumes included, for the throughput
+    @Column(nullable = false)
+    @Setter
+    private long runningMillis;
+
+    @Column(nullable = false)
+    private OffsetDateTime startedAt;
+
+    // a RUNNING job without checkpoint for aml.rescreening.stale-after lost its node and can be resumed
+    @Column(nullable = false)
+    @Setter
+    private OffsetDateTime checkpointAt;
+
+    @Column
+    @Setter
+    private OffsetDateTime finishedAt;
+
+    @Column(length = 1000)
+    @Setter
+    private String lastError;
+}
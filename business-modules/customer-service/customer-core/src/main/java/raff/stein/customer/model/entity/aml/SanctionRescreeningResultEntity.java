@@ -0,0 +1,59 @@
+package raff.stein.customer.model.entity.aml;
+
+import jakarta.persistence.*;
+import lombok.*;
+import raff.stein.platformcore.model.audit.entity.BaseDateEntity;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Outcome of the screening of one customer by a sanctions re-screening job.
+ */
+@Entity
+@Table(name = "sanction_rescreening_result", indexes = {
+        @Index(name = "idx_sanction_rescreening_result_job", columnList = "job_id"),
+        @Index(name = "idx_sanction_rescreening_result_customer", columnList = "customer_id")
+})
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SanctionRescreeningResultEntity extends BaseDateEntity<UUID> {
+
+    // assigned, so that the results of a page are inserted in JDBC batches
+    @Id
+    private UUID id;
+
+    @Column(name = "job_id", nullable = false)
+    private UUID jobId;
+
+    @Column(name = "customer_id", nullable = false)
+    private UUID customerId;
+
+    @Column
+    private String listVersion;
+
+    // ScreenResponse.Status, null when the engine returned no screening for the customer
+    @Column(length = 32)
+    private String status;
+
+    // ScreenResponse.Decision
+    @Column(length = 32)
+    private String decision;
+
+    @Column
+    private Integer maxMatchScore;
+
+    @Column
+    private Integer matchesCount;
+
+    @Column(nullable = false)
+    private boolean flagged;
+
+    @Column(length = 1000)
+    private String error;
+
+    @Column(nullable = false)
+    private OffsetDateTime screenedAt;
+}
@@ -0,0 +1,13 @@
+package raff.stein.customer.model.entity.aml.enumeration;
+
+public enum AmlCaseStatus {
+    // waiting for a worker, from next_attempt_at
+    QUEUED,
+    // claimed by a worker until lease_expires_at
+    RUNNING,
+    // parked until the external provider calls back
+    WAITING_EXTERNAL,
+    COMPLETED,
+    // retries exhausted
+    FAILED
+}
@@ -0,0 +1,8 @@
+package raff.stein.customer.model.entity.aml.enumeration;
+
+public enum SanctionRescreeningStatus {
+    RUNNING,
+    COMPLETED,
+    // stopped on an error, resumable from its last checkpoint
+    FAILED
+}
@@ -0,0 +1,17 @@
+package raff.stein.customer.model.entity.aml.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.factory.Mappers;
+import raff.stein.customer.model.bo.aml.AmlCase;
+import raff.stein.customer.model.entity.aml.AmlCaseEntity;
+import raff.stein.customer.model.entity.mapper.CustomerEntityCommonMapperConfig;
+
+@Mapper(config = CustomerEntityCommonMapperConfig.class)
+public interface AmlCaseToAmlCaseEntityMapper {
+
+    AmlCaseToAmlCaseEntityMapper MAPPER = Mappers.getMapper(AmlCaseToAmlCaseEntityMapper.class);
+
+    @Mapping(source = "id", target = "amlCaseId")
+    AmlCase toAmlCase(AmlCaseEntity amlCaseEntity);
+}
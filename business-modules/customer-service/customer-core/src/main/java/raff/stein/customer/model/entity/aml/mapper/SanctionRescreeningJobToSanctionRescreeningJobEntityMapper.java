@@ -0,0 +1,23 @@
+package raff.stein.customer.model.entity.aml.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.factory.Mappers;
+import raff.stein.customer.model.bo.aml.SanctionRescreeningJob;
+import raff.stein.customer.model.entity.aml.SanctionRescreeningJobEntity;
+import raff.stein.customer.model.entity.mapper.CustomerEntityCommonMapperConfig;
+
+@Mapper(config = CustomerEntityCommonMapperConfig.class)
+public interface SanctionRescreeningJobToSanctionRescreeningJobEntityMapper {
+
+    SanctionRescreeningJobToSanctionRescreeningJobEntityMapper MAPPER =
+            Mappers.getMapper(SanctionRescreeningJobToSanctionRescreeningJobEntityMapper.class);
+
+    @Mapping(source = "id", target = "jobId")
+    @Mapping(target = "screeningsPerSecond", expression = "java(screeningsPerSecond(jobEntity))")
+    SanctionRescreeningJob toSanctionRescreeningJob(SanctionRescreeningJobEntity jobEntity);
+
+    default Double screeningsPerSecond(SanctionRescreeningJobEntity jobEntity) {
+        return jobEntity.getRunningMillis() > 0 ? jobEntity.getScreened() * 1000.0 / jobEntity.getRunningMillis() : null;
+    }
+}
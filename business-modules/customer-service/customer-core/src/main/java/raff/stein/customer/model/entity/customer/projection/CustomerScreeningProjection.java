@@ -0,0 +1,16 @@
+package raff.stein.customer.model.entity.customer.projection;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Fields of a customer needed by a sanctions screening, read without loading the customer entity and its collections.
+ */
+public record CustomerScreeningProjection(
+        UUID id,
+        String firstName,
+        String lastName,
+        LocalDate dateOfBirth,
+        String nationality,
+        String taxId) {
+}
@@ -0,0 +1,62 @@
+package raff.stein.customer.repository.aml;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import raff.stein.customer.model.entity.aml.AmlCaseEntity;
+import raff.stein.customer.model.entity.aml.enumeration.AmlCaseStatus;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface AmlCaseRepository extends JpaRepository<AmlCaseEntity, UUID> {
+
+    Optional<AmlCaseEntity> findFirstByCustomerIdAndStatusIn(UUID customerId, Collection<AmlCaseStatus> statuses);
+
+    /**
+     * Locks the case row until the end of the transaction, so that a lease is checked and released atomically.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM AmlCaseEntity c WHERE c.id = :id")
+    Optional<AmlCaseEntity> lockById(@Param("id") UUID id);
+
+    /**
+     * Locks the due cases: queued ones whose next attempt has come, and running ones whose lease expired.
+     * SKIP LOCKED lets the nodes of the service claim cases concurrently without waiting on each other.
+     * Must run inside a transaction.
+     */
+    @Query(value = """
+            SELECT * FROM aml_case
+            WHERE (status = 'QUEUED' AND next_attempt_at <= :now)
+               OR (status = 'RUNNING' AND lease_expires_at <= :now)
+            ORDER BY next_attempt_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED""", nativeQuery = true)
+    List<AmlCaseEntity> lockDueCases(@Param("now") OffsetDateTime now, @Param("limit") int limit);
+
+    /**
+     * Queues a case for the customer unless it has an open one. The {@code uk_aml_case_customer_open} index rejects
+     * the duplicate without failing the transaction, so it can run in the transaction of the caller.
+     *
+     * @return 1 if the case was queued, 0 if the customer already had an open case
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO aml_case (id, customer_id, status, attempts, next_attempt_at, created_by, creation_date, version)
+            VALUES (:id, :customerId, 'QUEUED', 0, :now, :createdBy, :now, 0)
+            ON CONFLICT (customer_id) WHERE status IN ('QUEUED', 'RUNNING', 'WAITING_EXTERNAL') DO NOTHING""",
+            nativeQuery = true)
+    int insertQueuedIfNoneOpen(
+            @Param("id") UUID id,
+            @Param("customerId") UUID customerId,
+            @Param("now") OffsetDateTime now,
+            @Param("createdBy") String createdBy);
+}
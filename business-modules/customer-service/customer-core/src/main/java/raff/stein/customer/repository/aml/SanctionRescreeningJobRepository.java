@@ -0,0 +1,27 @@
+package raff.stein.customer.repository.aml;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import raff.stein.customer.model.entity.aml.SanctionRescreeningJobEntity;
+import raff.stein.customer.model.entity.aml.enumeration.SanctionRescreeningStatus;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface SanctionRescreeningJobRepository extends JpaRepository<SanctionRescreeningJobEntity, UUID> {
+
+    List<SanctionRescreeningJobEntity> findByStatus(SanctionRescreeningStatus status);
+
+    /**
+     * Locks the job row until the end of the transaction, so that a job is resumed or checkpointed by one run at a time.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM SanctionRescreeningJobEntity j WHERE j.id = :id")
+    Optional<SanctionRescreeningJobEntity> lockById(@Param("id") UUID id);
+}
@@ -0,0 +1,11 @@
+package raff.stein.customer.repository.aml;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import raff.stein.customer.model.entity.aml.SanctionRescreeningResultEntity;
+
+import java.util.UUID;
+
+@Repository
+public interface SanctionRescreeningResultRepository extends JpaRepository<SanctionRescreeningResultEntity, UUID> {
+}
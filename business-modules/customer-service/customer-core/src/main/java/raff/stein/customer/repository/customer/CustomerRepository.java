@@ -1,11 +1,17 @@
 package raff.stein.customer.repository.customer;
 
 import lombok.NonNull;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import raff.stein.customer.model.entity.customer.CustomerEntity;
+import raff.stein.customer.model.entity.customer.enumeration.CustomerStatus;
+import raff.stein.customer.model.entity.customer.projection.CustomerScreeningProjection;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -26,4 +32,19 @@ public interface CustomerRepository extends JpaRepository<CustomerEntity, UUID>
 
     List<CustomerEntity> findByUserId(@NonNull UUID userId);
 
+    /**
+     * Keyset page of the screening fields of the customers in {@code statuses}: the customers following
+     * {@code afterId} in id order. Unlike offset pages, each page is read from the primary key index whatever its depth.
+     */
+    @Query("""
+            SELECT new raff.stein.customer.model.entity.customer.projection.CustomerScreeningProjection(
+                c.id, c.firstName, c.lastName, c.dateOfBirth, c.nationality, c.taxId)
+            FROM CustomerEntity c
+            WHERE c.customerStatus IN :statuses AND c.id > :afterId
+            ORDER BY c.id""")
+    List<CustomerScreeningProjection> findScreeningPage(
+            @Param("statuses") Collection<CustomerStatus> statuses,
+            @Param("afterId") UUID afterId,
+            Limit limit);
+
 }
@@ -4,8 +4,10 @@ import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import raff.stein.customer.event.producer.CustomerCreatedEventPublisher;
 import raff.stein.customer.event.producer.CustomerRejectedEventPublisher;
+import raff.stein.customer.model.bo.aml.AmlCase;
 import raff.stein.customer.model.bo.aml.AmlVerification;
 import raff.stein.customer.model.bo.customer.Customer;
 import raff.stein.customer.model.entity.aml.mapper.AmlVerificationToAmlVerificationEntityMapper;
@@ -18,11 +20,12 @@ import raff.stein.customer.service.aml.pipeline.AmlPipelineExecutor;
 import raff.stein.customer.service.aml.pipeline.AmlResult;
 import raff.stein.customer.service.aml.pipeline.step.AmlContext;
 import raff.stein.customer.service.aml.pipeline.step.AmlStepResult;
+import raff.stein.customer.service.aml.queue.AmlCaseQueue;
 import raff.stein.customer.service.aml.utils.JurisdictionUtils;
 import raff.stein.customer.service.onboarding.OnboardingService;
 import raff.stein.customer.service.onboarding.handler.OnboardingStepContext;
 
-import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
@@ -38,20 +41,50 @@ public class AmlService {
     private final CustomerCreatedEventPublisher customerCreatedEventPublisher;
     private final CustomerRejectedEventPublisher customerRejectedEventPublisher;
     private final CustomerRepository customerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AmlCaseQueue amlCaseQueue;
 
     private static final AmlVerificationToAmlVerificationEntityMapper amlVerificationMapper = AmlVerificationToAmlVerificationEntityMapper.MAPPER;
     private static final CustomerToCustomerEntityMapper customerMapper = CustomerToCustomerEntityMapper.MAPPER;
 
-    //TODO: add API for AML retrigger
-    public void triggerAmlCheck(@NonNull UUID customerId) {
-        final CustomerEntity customerEntity = customerRepository.findById(customerId)
-                .orElseThrow(() -> new IllegalArgumentException("Customer with ID " + customerId + " not found"));
-        Customer customer = customerMapper.toCustomer(customerEntity);
-        triggerAmlCheck(customer);
+    /**
+     * Queues an AML case for the customer and returns at once: the pipeline runs on an {@code AmlCaseWorker}.
+     */
+    public AmlCase triggerAmlCheck(@NonNull UUID customerId) {
+        if (!customerRepository.existsById(customerId)) {
+            throw new IllegalArgumentException("Customer with ID " + customerId + " not found");
+        }
+        return amlCaseQueue.enqueue(customerId);
     }
 
-    public void triggerAmlCheck(@NonNull Customer customer) {
+    public AmlCase triggerAmlCheck(@NonNull Customer customer) {
         log.info("Triggering AML check for customer {} ", customer.getId());
+        return amlCaseQueue.enqueue(customer.getId());
+    }
+
+    /**
+     * Resumes a case parked in {@code WAITING_EXTERNAL}, when the external provider calls back.
+     */
+    public AmlCase resumeAmlCase(@NonNull UUID amlCaseId) {
+        return amlCaseQueue.resume(amlCaseId);
+    }
+
+    public AmlCase getAmlCase(@NonNull UUID amlCaseId) {
+        return amlCaseQueue.getAmlCase(amlCaseId);
+    }
+
+    /**
+     * Runs the pipeline of a claimed case and persists its outcome. A {@code WAITING_EXTERNAL} outcome parks the case
+     * without advancing the onboarding; it runs again once resumed.
+     */
+    public void processAmlCase(@NonNull AmlCase amlCase) {
+        final CustomerEntity customerEntity = customerRepository.findById(amlCase.getCustomerId())
+                .orElseThrow(() -> new IllegalArgumentException("Customer with ID " + amlCase.getCustomerId() + " not found"));
+        final Customer customer = customerMapper.toCustomer(customerEntity);
+        log.info("Processing AML case {} (attempt {}) for customer {} ",
+                amlCase.getAmlCaseId(),
+                amlCase.getAttempts() + 1,
+                customer.getId());
         final String jurisdiction = JurisdictionUtils.resolveJurisdiction(customer.getCountry())
                 .name()
                 .toLowerCase(Locale.ROOT);
@@ -62,7 +95,7 @@ public class AmlService {
         AmlContext context = AmlContext.builder()
                 .customer(customer)
                 .jurisdiction(jurisdiction)
-                .amlCaseId(UUID.randomUUID())
+                .amlCaseId(amlCase.getAmlCaseId())
                 .build();
 
         final AmlResult amlResult = amlPipelineExecutor.execute(context);
@@ -73,35 +106,51 @@ public class AmlService {
                 .amlCaseId(context.getAmlCaseId())
                 .customer(customer)
                 .jurisdiction(jurisdiction)
-                .verificationDate(OffsetDateTime.from(amlResult.finishedAt()))
+                .verificationDate(amlResult.finishedAt().atOffset(ZoneOffset.UTC))
                 .status(amlResult.overallStatus().name())
                 .countryCode(customer.getCountry())
                 .verificationResult(amlResult.overallStatus().name())
                 .amlResult(amlResult)
                 .build();
 
-        amlVerificationRepository.save(
-                amlVerificationMapper.toAmlVerificationEntity(amlVerification));
-
-        // Proceed with onboarding based on AML result
-        onboardingService.proceedToStep(
-                OnboardingStep.AML,
-                OnboardingStepContext.builder()
-                        .customerId(amlVerification.getCustomer().getId())
-                        .metadata(Map.of(
-                                "amlCaseId", amlVerification.getAmlCaseId(),
-                                "AmlResult", amlVerification.getAmlResult()))
-                        .build());
-
-        // if AML verification is passed, publish CustomerCreatedEvent, otherwise publish CustomerRejectedEvent
-        if(amlVerification.getAmlResult().overallStatus().equals(AmlStepResult.StepStatus.PASSED)) {
-            log.info("AML check passed for customer {}. Proceeding with onboarding.", customer.getId());
-            customerCreatedEventPublisher.publishCustomerCreatedEvent(customer.getId());
-        } else {
-            log.warn("AML check did not pass for customer {}. Further action may be required.", customer.getId());
-            customerRejectedEventPublisher.publishCustomerRejectedEvent(customer.getId());
-        }
+        // the pipeline runs outside any transaction; persisting the outcome and appending the resulting
+        // event (outbox) commit together, with the case locked so that it cannot be claimed again meanwhile
+        transactionTemplate.executeWithoutResult(status -> {
+            final boolean waitingExternal = amlResult.overallStatus() == AmlStepResult.StepStatus.WAITING_EXTERNAL;
+            final boolean leaseHeld = waitingExternal
+                    ? amlCaseQueue.park(context.getAmlCaseId(), amlCase.getLeaseToken())
+                    : amlCaseQueue.complete(context.getAmlCaseId(), amlCase.getLeaseToken());
+            if (!leaseHeld) {
+                // the lease expired and another run owns the case: this outcome is stale
+                return;
+            }
+            amlVerificationRepository.save(
+                    amlVerificationMapper.toAmlVerificationEntity(amlVerification));
+
+            if (waitingExternal) {
+                log.info("AML case {} for customer {} is waiting for an external provider", context.getAmlCaseId(), customer.getId());
+                return;
+            }
+
+            // Proceed with onboarding based on AML result
+            onboardingService.proceedToStep(
+                    OnboardingStep.AML,
+                    OnboardingStepContext.builder()
+                            .customerId(amlVerification.getCustomer().getId())
+                            .metadata(Map.of(
+                                    "amlCaseId", amlVerification.getAmlCaseId(),
+                                    "AmlResult", amlVerification.getAmlResult()))
+                            .build());
 
+            // if AML verification is passed, publish CustomerCreatedEvent, otherwise publish CustomerRejectedEvent
+            if(amlVerification.getAmlResult().overallStatus().equals(AmlStepResult.StepStatus.PASSED)) {
+                log.info("AML check passed for customer {}. Proceeding with onboarding.", customer.getId());
+                customerCreatedEventPublisher.publishCustomerCreatedEvent(customer.getId());
+            } else {
+                log.warn("AML check did not pass for customer {}. Further action may be required.", customer.getId());
+                customerRejectedEventPublisher.publishCustomerRejectedEvent(customer.getId());
+            }
+        });
     }
 
 }
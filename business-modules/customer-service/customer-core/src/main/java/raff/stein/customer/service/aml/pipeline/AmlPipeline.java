@@ -0,0 +1,23 @@
+package raff.stein.customer.service.aml.pipeline;
+
+import raff.stein.customer.service.aml.pipeline.step.AmlStep;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Steps of a jurisdiction with the steps each one waits for, in a topological order: every step comes after its
+ * dependencies.
+ */
+public record AmlPipeline(List<Node> nodes) {
+
+    /**
+     * @param dependsOn {@link AmlStep#name()} of the steps, of this pipeline, that must complete before {@code step}
+     */
+    public record Node(AmlStep step, List<String> dependsOn, Duration timeout) {
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+}
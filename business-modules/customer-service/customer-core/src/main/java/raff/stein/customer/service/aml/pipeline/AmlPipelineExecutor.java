@@ -1,46 +1,90 @@
 package raff.stein.customer.service.aml.pipeline;
 
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
 import org.springframework.stereotype.Service;
 import raff.stein.customer.service.aml.pipeline.step.AmlContext;
 import raff.stein.customer.service.aml.pipeline.step.AmlStep;
 import raff.stein.customer.service.aml.pipeline.step.AmlStepResult;
 
 import java.time.Instant;
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Runs the AML pipeline of a jurisdiction as a dependency graph: each step starts on a virtual thread as soon as the
+ * steps it depends on have completed, so independent checks (sanctions, PEP, adverse media) run at the same time and
+ * a case takes as long as its slowest branch.
+ * <p>
+ * A step running longer than its timeout is interrupted and FAILED. Once a step has FAILED, the steps not started
+ * yet are skipped, its dependents included, as the sequential pipeline stopped at the first failure. The overall
+ * status keeps the precedence FAILED > WAITING_EXTERNAL > REVIEW > PASSED.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AmlPipelineExecutor {
 
     private final AmlPipelineFactory pipelineFactory;
+    private final ExecutorService stepExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("aml-step-", 0).factory());
 
     public AmlResult execute(AmlContext context) {
         Instant startedAt = Instant.now();
-        List<AmlStep> pipeline = pipelineFactory.build(context.getJurisdiction());
-        List<AmlStepResult> executed = new ArrayList<>();
+        AmlPipeline pipeline = pipelineFactory.build(context.getJurisdiction());
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        AtomicBoolean failed = new AtomicBoolean();
+
+        // null result: the step was skipped. Only this thread touches the map, a step sees the futures of its
+        // dependencies captured below, all complete by the time it runs
+        Map<String, CompletableFuture<AmlStepResult>> results = new HashMap<>();
+        for (AmlPipeline.Node node : pipeline.nodes()) {
+            List<CompletableFuture<AmlStepResult>> dependencies = node.dependsOn().stream()
+                    .map(results::get)
+                    .toList();
+            results.put(node.step().name(), CompletableFuture.allOf(dependencies.toArray(CompletableFuture[]::new))
+                    .thenApplyAsync(ignored -> {
+                        restoreMdc(mdc);
+                        if (failed.get() || dependencies.stream().anyMatch(dependency -> dependency.join() == null)) {
+                            log.info("Skipping AML step: {} for case {}", node.step().name(), context.getAmlCaseId());
+                            return null;
+                        }
+                        AmlStepResult result = executeStep(node, context, mdc);
+                        if (result.status() == AmlStepResult.StepStatus.FAILED) {
+                            failed.set(true);
+                            log.error("AML step {} failed for case {}. Skipping the steps not started yet.",
+                                    node.step().name(), context.getAmlCaseId());
+                        }
+                        return result;
+                    }, stepExecutor));
+        }
+
+        // in topological order, the order of the sequential pipeline when no dependency is declared
+        List<AmlStepResult> executed = pipeline.nodes().stream()
+                .map(node -> results.get(node.step().name()).join())
+                .filter(Objects::nonNull)
+                .toList();
 
         boolean anyReview = false;
         boolean anyPending = false;
         AmlStepResult.StepStatus overall = AmlStepResult.StepStatus.PASSED;
 
-        for (AmlStep step : pipeline) {
-            log.info("Executing AML step: {} for case {}", step.name(), context.getAmlCaseId());
-            AmlStepResult result = step.execute(context);
-            executed.add(result);
-            log.info("Completed AML step: {} for case {} with result: {}",
-                    step.name(),
-                    context.getAmlCaseId(),
-                    result.status());
-
-            // Precedence: FAILED > WAITING_EXTERNAL > REVIEW > PASSED
+        // Precedence: FAILED > WAITING_EXTERNAL > REVIEW > PASSED
+        for (AmlStepResult result : executed) {
             if (result.status() == AmlStepResult.StepStatus.FAILED) {
                 overall = AmlStepResult.StepStatus.FAILED;
-                log.error("AML step {} failed for case {}. Stopping pipeline.", step.name(), context.getAmlCaseId());
-                break;
             } else if (result.status() == AmlStepResult.StepStatus.WAITING_EXTERNAL) {
                 anyPending = true;
             } else if (result.status() == AmlStepResult.StepStatus.REVIEW) {
@@ -66,4 +110,58 @@ public class AmlPipelineExecutor {
                 .finishedAt(Instant.now())
                 .build();
     }
+
+    private AmlStepResult executeStep(AmlPipeline.Node node, AmlContext context, Map<String, String> mdc) {
+        AmlStep step = node.step();
+        Instant start = Instant.now();
+        Future<AmlStepResult> execution = stepExecutor.submit(() -> {
+            restoreMdc(mdc);
+            log.info("Executing AML step: {} for case {}", step.name(), context.getAmlCaseId());
+            return step.execute(context);
+        });
+        try {
+            AmlStepResult result = execution.get(node.timeout().toMillis(), TimeUnit.MILLISECONDS);
+            log.info("Completed AML step: {} for case {} with result: {}",
+                    step.name(),
+                    context.getAmlCaseId(),
+                    result.status());
+            return result;
+        } catch (TimeoutException e) {
+            execution.cancel(true);
+            return failedResult(step, start, "TIMEOUT:step did not complete within " + node.timeout(), "timeout", node.timeout().toString());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            return failedResult(step, start, "EXCEPTION:" + cause.getMessage(), "exception", cause.getClass().getSimpleName());
+        } catch (InterruptedException e) {
+            execution.cancel(true);
+            Thread.currentThread().interrupt();
+            return failedResult(step, start, "INTERRUPTED", "exception", e.getClass().getSimpleName());
+        }
+    }
+
+    // virtual threads are never reused: the map does not need to be cleared afterwards
+    private static void restoreMdc(Map<String, String> mdc) {
+        if (mdc != null) {
+            MDC.setContextMap(mdc);
+        }
+    }
+
+    private static AmlStepResult failedResult(AmlStep step, Instant start, String reason, String detailKey, Object detailValue) {
+        Map<String, Object> details = new HashMap<>();
+        details.put(detailKey, detailValue);
+        return AmlStepResult.builder()
+                .stepName(step.name())
+                .status(AmlStepResult.StepStatus.FAILED)
+                .decision(AmlStepResult.Decision.FAIL)
+                .reason(reason)
+                .details(details)
+                .startedAt(start)
+                .finishedAt(Instant.now())
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        stepExecutor.shutdownNow();
+    }
 }
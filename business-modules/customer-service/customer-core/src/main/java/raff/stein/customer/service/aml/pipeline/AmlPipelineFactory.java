@@ -6,9 +6,14 @@ import raff.stein.customer.service.aml.pipeline.config.AmlConfiguration;
 import raff.stein.customer.service.aml.pipeline.config.AmlProperties;
 import raff.stein.customer.service.aml.pipeline.step.AmlStep;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -23,18 +28,106 @@ public class AmlPipelineFactory {
         this.stepMap = allSteps
                 .stream()
                 .collect(Collectors.toMap(AmlStep::name, Function.identity()));
+        // a wrong dependency fails the startup rather than the first AML case of the jurisdiction
+        config.getJurisdictions().forEach(this::build);
     }
 
-    public List<AmlStep> build(@NonNull String jurisdiction) {
+    public AmlPipeline build(@NonNull String jurisdiction) {
         final List<AmlProperties.StepConfig> stepConfigs = config.getStepsFor(jurisdiction);
-        return stepConfigs
-                .stream()
-                .filter(sc -> sc.getEnabled() != null && sc.getEnabled())
-                // step name is prefixed with jurisdiction to allow same step in different jurisdictions
-                // e.g. "ue-sanctions-screening-step"
-                .map(sc -> stepMap.get(jurisdiction + "-" + sc.getName()))
-                .filter(Objects::nonNull)
-                .toList();
+        final Map<String, Set<String>> declaredDependencies = declaredDependencies(jurisdiction, stepConfigs);
+
+        final Map<String, AmlProperties.StepConfig> runnable = new LinkedHashMap<>();
+        final Map<String, AmlStep> steps = new HashMap<>();
+        for (AmlProperties.StepConfig sc : stepConfigs) {
+            // step name is prefixed with jurisdiction to allow same step in different jurisdictions
+            // e.g. "ue-sanctions-screening-step"
+            final AmlStep step = stepMap.get(jurisdiction + "-" + sc.getName());
+            if (sc.getEnabled() != null && sc.getEnabled() && step != null) {
+                runnable.put(sc.getName(), sc);
+                steps.put(sc.getName(), step);
+            }
+        }
+
+        final List<AmlPipeline.Node> nodes = new ArrayList<>();
+        for (String name : topologicalOrder(jurisdiction, declaredDependencies)) {
+            final AmlProperties.StepConfig sc = runnable.get(name);
+            if (sc == null) {
+                continue;
+            }
+            final Duration timeout = sc.getTimeout() != null ? sc.getTimeout() : config.getDefaultStepTimeout();
+            nodes.add(new AmlPipeline.Node(
+                    steps.get(name),
+                    runnableDependencies(name, declaredDependencies, runnable.keySet()).stream()
+                            .map(dependency -> steps.get(dependency).name())
+                            .toList(),
+                    timeout));
+        }
+        return new AmlPipeline(List.copyOf(nodes));
+    }
+
+    /**
+     * @return the dependencies of every configured step, each step depending on the previous one when the
+     * jurisdiction declares none
+     */
+    private static Map<String, Set<String>> declaredDependencies(
+            String jurisdiction, List<AmlProperties.StepConfig> stepConfigs) {
+        final boolean sequential = stepConfigs.stream().allMatch(sc -> sc.getDependsOn() == null);
+        final Map<String, Set<String>> dependencies = new LinkedHashMap<>();
+        String previous = null;
+        for (AmlProperties.StepConfig sc : stepConfigs) {
+            final Set<String> dependsOn = new LinkedHashSet<>();
+            if (sequential && previous != null) {
+                dependsOn.add(previous);
+            } else if (!sequential && sc.getDependsOn() != null) {
+                dependsOn.addAll(sc.getDependsOn());
+            }
+            dependencies.put(sc.getName(), dependsOn);
+            previous = sc.getName();
+        }
+        dependencies.forEach((name, dependsOn) -> dependsOn.forEach(dependency -> {
+            if (!dependencies.containsKey(dependency)) {
+                throw new IllegalStateException("AML step [" + name + "] of jurisdiction [" + jurisdiction
+                        + "] depends on unknown step [" + dependency + "]");
+            }
+        }));
+        return dependencies;
+    }
+
+    /**
+     * @return the configured steps, each one after its dependencies, in configuration order otherwise
+     */
+    private static List<String> topologicalOrder(String jurisdiction, Map<String, Set<String>> dependencies) {
+        final Set<String> ordered = new LinkedHashSet<>();
+        while (ordered.size() < dependencies.size()) {
+            final int before = ordered.size();
+            dependencies.forEach((name, dependsOn) -> {
+                if (!ordered.contains(name) && ordered.containsAll(dependsOn)) {
+                    ordered.add(name);
+                }
+            });
+            if (ordered.size() == before) {
+                throw new IllegalStateException("AML steps of jurisdiction [" + jurisdiction
+                        + "] have cyclic dependencies: " + dependencies.keySet().stream().filter(name -> !ordered.contains(name)).toList());
+            }
+        }
+        return List.copyOf(ordered);
+    }
+
+    /**
+     * @return the dependencies of {@code name} that run, a disabled or missing step being replaced by its own
+     * dependencies so that the order between the remaining steps is kept
+     */
+    private static Set<String> runnableDependencies(
+            String name, Map<String, Set<String>> dependencies, Set<String> runnable) {
+        final Set<String> resolved = new LinkedHashSet<>();
+        for (String dependency : dependencies.get(name)) {
+            if (runnable.contains(dependency)) {
+                resolved.add(dependency);
+            } else {
+                resolved.addAll(runnableDependencies(dependency, dependencies, runnable));
+            }
+        }
+        return resolved;
     }
 
 }
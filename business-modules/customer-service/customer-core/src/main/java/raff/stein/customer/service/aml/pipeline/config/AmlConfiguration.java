@@ -2,12 +2,17 @@ package raff.stein.customer.service.aml.pipeline.config;
 
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 @Configuration
 @EnableConfigurationProperties(AmlProperties.class)
+// polling of the AML case queue
+@EnableScheduling
 public class AmlConfiguration {
 
     private final AmlProperties properties;
@@ -22,4 +27,14 @@ public class AmlConfiguration {
                 ? Collections.emptyList()
                 : Collections.unmodifiableList(cfg.getSteps());
     }
+
+    public Set<String> getJurisdictions() {
+        return properties.getJurisdictions() == null
+                ? Collections.emptySet()
+                : Collections.unmodifiableSet(properties.getJurisdictions().keySet());
+    }
+
+    public Duration getDefaultStepTimeout() {
+        return properties.getDefaultStepTimeout();
+    }
 }
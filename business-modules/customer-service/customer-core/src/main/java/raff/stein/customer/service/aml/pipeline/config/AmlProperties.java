@@ -3,6 +3,7 @@ package raff.stein.customer.service.aml.pipeline.config;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
@@ -11,6 +12,13 @@ import java.util.Map;
 public class AmlProperties {
 
     private Map<String, JurisdictionConfig> jurisdictions;
+    // applies to the steps without their own timeout
+    private Duration defaultStepTimeout = Duration.ofSeconds(30);
+    private Queue queue = new Queue();
+    private SanctionsCache sanctionsCache = new SanctionsCache();
+    private Rescreening rescreening = new Rescreening();
+    private LocalScreening localScreening = new LocalScreening();
+    private SanctionsDecision sanctionsDecision = new SanctionsDecision();
 
     @Data
     public static class JurisdictionConfig {
@@ -24,6 +32,13 @@ public class AmlProperties {
     public static class StepConfig {
         private String name;
         private Boolean enabled;
+        /**
+         * Names of the steps of the same jurisdiction that must complete before this one. When no step of a
+         * jurisdiction declares dependencies, each step depends on the previous one and the pipeline is sequential.
+         * Otherwise the steps without dependencies start right away, in parallel.
+         */
+        private List<String> dependsOn;
+        private Duration timeout;
     }
 
     @Data
@@ -32,4 +47,98 @@ public class AmlProperties {
         private Integer eddRiskScore;
         private List<String> highRiskCountries;
     }
+
+    /**
+     * Workers draining the AML case queue of this node.
+     */
+    @Data
+    public static class Queue {
+
+        // false: cases are queued but processed by the other nodes only
+        private boolean enabled = true;
+        // cases processed at the same time by this node
+        private int workers = 8;
+        private Duration pollInterval = Duration.ofSeconds(1);
+        private int maxAttempts = 5;
+        // doubled on each retry, up to maxRetryBackoff
+        private Duration retryBackoff = Duration.ofSeconds(30);
+        private Duration maxRetryBackoff = Duration.ofMinutes(30);
+        // longer than the slowest pipeline: a case still running past it is claimed again by another worker
+        private Duration lease = Duration.ofMinutes(10);
+    }
+
+    /**
+     * Results of the sanctions screenings, reused while the sanctions lists of the engine do not change.
+     */
+    @Data
+    public static class SanctionsCache {
+
+        private boolean enabled = true;
+        private long maximumSize = 100_000;
+        // upper bound, entries expire earlier when the engine announces its next lists update
+        private Duration ttl = Duration.ofHours(24);
+        // a new lists version drops every cached result within this interval
+        private Duration listVersionRefreshInterval = Duration.ofMinutes(5);
+    }
+
+    /**
+     * Outcome of the sanctions screening step. The decision of the engine wins, these settings apply to the
+     * responses without one and to the incomplete screenings.
+     */
+    @Data
+    public static class SanctionsDecision {
+
+        // without a decision from the engine, a match from this score fails the step, a lower one needs a review
+        private int hitScore = 90;
+        // a FAILED or PARTIAL screening may have missed lists: true sends it to manual review, false decides on the
+        // matches returned
+        private boolean reviewIncompleteScreenings = true;
+    }
+
+    /**
+     * Sanctions re-screening of every active customer, e.g. after a lists update.
+     */
+    @Data
+    public static class Rescreening {
+
+        // customers read, screened and checkpointed together
+        private int pageSize = 1000;
+        // customers per call to the screening engine
+        private int batchSize = 100;
+        private int maxConcurrentBatches = 4;
+        // across the batches of the job, so the engine quota is not exhausted
+        private double maxScreeningsPerSecond = 200;
+        // a failed batch call is retried this many times before the job fails
+        private int maxBatchAttempts = 3;
+        // a RUNNING job without checkpoint for this long lost its node and can be resumed
+        private Duration staleAfter = Duration.ofMinutes(5);
+    }
+
+    /**
+     * Sanctions screening against a list file loaded in memory, when the screening engine fails or is slow.
+     */
+    @Data
+    public static class LocalScreening {
+
+        private boolean enabled = false;
+        // Spring resource location of the JSON list, e.g. file:/data/sanctions/consolidated.json
+        private String listPath;
+        private Mode mode = Mode.FALLBACK;
+        // FALLBACK mode: a slower engine call is abandoned for the local screening
+        private Duration providerTimeout = Duration.ofSeconds(3);
+        // used when the request has none
+        private int minMatchScore = 80;
+        // matches from this score make a HIT, lower ones a REVIEW
+        private int hitScore = 95;
+        private int maxMatches = 10;
+        // the file is reloaded when modified
+        private Duration reloadInterval = Duration.ofHours(1);
+
+        public enum Mode {
+            // the engine screens, the local list only when the engine fails
+            FALLBACK,
+            // the local list screens, the engine is not called
+            PRIMARY
+        }
+    }
 }
@@ -6,6 +6,7 @@ import raff.stein.customer.model.bo.customer.Customer;
 
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Data
 @Builder
@@ -14,8 +15,9 @@ public class AmlContext {
     private UUID amlCaseId;
     private String jurisdiction;
     private Customer customer;
-    // shared data between steps
-    private Map<String,Object> shared;
+    // shared data between steps, written concurrently by the steps of independent branches
+    @Builder.Default
+    private Map<String,Object> shared = new ConcurrentHashMap<>();
 
 
     public void addProperty(String key, Object value) {
@@ -1,25 +1,44 @@
 package raff.stein.customer.service.aml.pipeline.step.ue.impl;
 
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
-import raff.stein.customer.client.eu.sanctions.SanctionClient;
 import raff.stein.customer.client.eu.sanctions.model.screen.ScreenRequest;
 import raff.stein.customer.client.eu.sanctions.model.screen.ScreenResponse;
 import raff.stein.customer.model.bo.customer.Customer;
 import raff.stein.customer.service.aml.pipeline.step.AmlContext;
 import raff.stein.customer.service.aml.pipeline.step.DefaultAmlStep;
 import raff.stein.customer.service.aml.pipeline.step.ue.impl.mapper.SanctionRequestMapper;
+import raff.stein.customer.service.aml.pipeline.config.AmlProperties;
+import raff.stein.customer.service.aml.sanctions.SanctionScreeningCache;
+import raff.stein.customer.service.aml.sanctions.local.LocalSanctionScreeningEngine;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class SanctionScreeningStep extends DefaultAmlStep {
 
-    private final SanctionClient sanctionClient;
+    private final SanctionScreeningCache sanctionScreeningCache;
+    // present when aml.local-screening.enabled
+    private final ObjectProvider<LocalSanctionScreeningEngine> localScreeningEngine;
+    private final AmlProperties amlProperties;
+    private final ExecutorService providerExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sanction-provider-screening-", 0).factory());
     private static final SanctionRequestMapper sanctionRequestMapper = SanctionRequestMapper.MAPPER;
 
     @Override
@@ -31,21 +50,95 @@ public class SanctionScreeningStep extends DefaultAmlStep {
     public StepOutcome doExecute(AmlContext amlContext) {
         // IMPORTANT: This is a mock implementation. Replace with real sanction screening logic.
         final ScreenRequest screenRequest = sanctionRequestMapper.toScreenRequest(amlContext.getCustomer());
-        final ScreenResponse response = sanctionClient.screenClient(screenRequest);
-        final List<ScreenResponse.Match> matches = response.getMatches();
-        final int scoreSum = matches.stream().mapToInt(ScreenResponse.Match::getScore).sum();
+        // repeated screenings of the same identity against the same lists reuse the first result
+        final SanctionScreeningCache.SanctionScreening screening = screen(screenRequest);
+        final ScreenResponse response = screening.response();
+        final List<ScreenResponse.Match> matches = response.getMatches() != null ? response.getMatches() : List.of();
+        final int maxMatchScore = maxMatchScore(response, matches);
         final Map<String, Object> details = new HashMap<>();
         details.put("response", response);
         details.put("matchesCount", matches.size());
-        details.put("scoreSum", scoreSum);
-        // return outcome based on sum of scores
-        if (scoreSum > 0  && scoreSum <= 50) {
-            return StepOutcome.review("Score sum is in 'review' threshold", details);
+        details.put("maxMatchScore", maxMatchScore);
+        details.put("listVersion", screening.listVersion());
+        details.put("cachedScreening", screening.cached());
+        details.put("localScreening", isLocal(response));
+        // aml.sanctions-decision: a partial screening may have missed lists, it is not a clear result
+        final AmlProperties.SanctionsDecision sanctionsDecision = amlProperties.getSanctionsDecision();
+        if (sanctionsDecision.isReviewIncompleteScreenings()
+                && (response.getStatus() == ScreenResponse.Status.FAILED || response.getStatus() == ScreenResponse.Status.PARTIAL)) {
+            return StepOutcome.review("Sanctions screening " + response.getStatus(), details);
         }
-        if (scoreSum > 50 && scoreSum <= 100) {
-            return StepOutcome.fail("Score sum is in critical threshold", details);
+        final ScreenResponse.Decision decision = response.getDecision() != null
+                ? response.getDecision()
+                : decisionFromScore(matches, maxMatchScore, sanctionsDecision.getHitScore());
+        return switch (decision) {
+            case HIT -> StepOutcome.fail("Sanctions hit, max match score " + maxMatchScore, details);
+            case REVIEW -> StepOutcome.review("Sanctions candidate matches, max match score " + maxMatchScore, details);
+            case CLEAR -> StepOutcome.pass("No sanctions match", details);
+        };
+    }
+
+    /**
+     * Decision of a response without one: any candidate match needs a review, a strong one is a hit.
+     */
+    private static ScreenResponse.Decision decisionFromScore(List<ScreenResponse.Match> matches, int maxMatchScore, int hitScore) {
+        if (matches.isEmpty() && maxMatchScore == 0) {
+            return ScreenResponse.Decision.CLEAR;
+        }
+        return maxMatchScore >= hitScore ? ScreenResponse.Decision.HIT : ScreenResponse.Decision.REVIEW;
+    }
+
+    private static int maxMatchScore(ScreenResponse response, List<ScreenResponse.Match> matches) {
+        if (response.getMaxMatchScore() != null) {
+            return response.getMaxMatchScore();
+        }
+        return matches.stream()
+                .map(ScreenResponse.Match::getScore)
+                .filter(Objects::nonNull)
+                .mapToInt(Integer::intValue)
+                .max()
+                .orElse(0);
+    }
+
+    private SanctionScreeningCache.SanctionScreening screen(ScreenRequest screenRequest) {
+        final LocalSanctionScreeningEngine localEngine = localScreeningEngine.getIfAvailable();
+        if (localEngine == null) {
+            return sanctionScreeningCache.screen(screenRequest);
         }
-        return StepOutcome.pass("Score sum is acceptable", details);
+        if (localEngine.isPrimary()) {
+            return screenLocally(localEngine, screenRequest);
+        }
+        final Map<String, String> mdc = MDC.getCopyOfContextMap();
+        // a FutureTask: cancel(true) interrupts the call, which closes its socket on a virtual thread
+        final Future<SanctionScreeningCache.SanctionScreening> providerScreening = providerExecutor.submit(() -> {
+            if (mdc != null) {
+                MDC.setContextMap(mdc);
+            }
+            return sanctionScreeningCache.screen(screenRequest);
+        });
+        try {
+            return providerScreening.get(amlProperties.getLocalScreening().getProviderTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            providerScreening.cancel(true);
+            log.warn("Sanctions engine {}, screening against the local list: {}",
+                    e instanceof TimeoutException ? "too slow" : "failed", e.getMessage());
+            return screenLocally(localEngine, screenRequest);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the sanctions engine", e);
+        }
+    }
+
+    private static SanctionScreeningCache.SanctionScreening screenLocally(
+            LocalSanctionScreeningEngine localEngine,
+            ScreenRequest screenRequest) {
+        return new SanctionScreeningCache.SanctionScreening(
+                localEngine.screen(screenRequest), localEngine.getListVersion(), false);
+    }
+
+    private static boolean isLocal(ScreenResponse response) {
+        return response.getEngineVersion() != null
+                && response.getEngineVersion().startsWith(LocalSanctionScreeningEngine.PROVIDER + ":");
     }
 
     @Override
@@ -82,4 +175,9 @@ public class SanctionScreeningStep extends DefaultAmlStep {
         //TODO: implement persistence for audit/logging purposes (step focused)
 
     }
+
+    @PreDestroy
+    void shutdown() {
+        providerExecutor.shutdownNow();
+    }
 }
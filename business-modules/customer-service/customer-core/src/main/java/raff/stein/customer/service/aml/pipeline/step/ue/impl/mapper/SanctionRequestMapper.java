@@ -1,10 +1,12 @@
 package raff.stein.customer.service.aml.pipeline.step.ue.impl.mapper;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 import raff.stein.customer.client.eu.sanctions.model.screen.ScreenRequest;
 import raff.stein.customer.event.mapper.config.CustomerEventMapperConfig;
 import raff.stein.customer.model.bo.customer.Customer;
+import raff.stein.customer.model.entity.customer.projection.CustomerScreeningProjection;
 
 @Mapper(config = CustomerEventMapperConfig.class)
 public interface SanctionRequestMapper {
@@ -12,4 +14,10 @@ public interface SanctionRequestMapper {
     SanctionRequestMapper MAPPER = Mappers.getMapper(SanctionRequestMapper.class);
 
     ScreenRequest toScreenRequest(Customer customer);
+
+    // the request id matches each response of a batch to its customer
+    @Mapping(source = "id", target = "requestId")
+    @Mapping(source = "id", target = "customerInternalId")
+    @Mapping(target = "screeningType", constant = "CUSTOMER_PERIODIC_REVIEW")
+    ScreenRequest toScreenRequest(CustomerScreeningProjection customer);
 }
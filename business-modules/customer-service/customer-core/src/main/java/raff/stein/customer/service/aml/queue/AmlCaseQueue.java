@@ -0,0 +1,266 @@
+package raff.stein.customer.service.aml.queue;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import raff.stein.customer.model.bo.aml.AmlCase;
+import raff.stein.customer.model.entity.aml.AmlCaseEntity;
+import raff.stein.customer.model.entity.aml.enumeration.AmlCaseStatus;
+import raff.stein.customer.model.entity.aml.mapper.AmlCaseToAmlCaseEntityMapper;
+import raff.stein.customer.repository.aml.AmlCaseRepository;
+import raff.stein.customer.service.aml.pipeline.config.AmlProperties;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Durable queue of the AML cases, stored in the {@code aml_case} table and drained by the {@link AmlCaseWorker}s of
+ * every node.
+ * <p>
+ * A customer has at most one open case: queuing a customer whose case is queued, running or waiting for an
+ * external provider returns that case. The {@code uk_aml_case_customer_open} partial unique index
+ * ({@code sql/amlCaseSchema.sql}) enforces it across nodes.
+ * <p>
+ * A claim gives the case a lease token: {@link #complete}, {@link #park} and {@link #retryOrFail} only act on a
+ * RUNNING case still holding that token, so a worker whose lease expired and whose case was claimed again cannot
+ * overwrite the outcome of the new run.
+ */
+@Slf4j
+@Component
+public class AmlCaseQueue {
+
+    private static final Set<AmlCaseStatus> OPEN_STATUSES =
+            EnumSet.of(AmlCaseStatus.QUEUED, AmlCaseStatus.RUNNING, AmlCaseStatus.WAITING_EXTERNAL);
+
+    private final AmlCaseRepository amlCaseRepository;
+    private final AmlProperties amlProperties;
+    private final AuditorAware<String> auditorAware;
+    private final TransactionTemplate newTransaction;
+
+    private static final AmlCaseToAmlCaseEntityMapper amlCaseMapper = AmlCaseToAmlCaseEntityMapper.MAPPER;
+
+    public AmlCaseQueue(
+            AmlCaseRepository amlCaseRepository,
+            AmlProperties amlProperties,
+            AuditorAware<String> auditorAware,
+            PlatformTransactionManager transactionManager) {
+        this.amlCaseRepository = amlCaseRepository;
+        this.amlProperties = amlProperties;
+        this.auditorAware = auditorAware;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Returns the open case of the customer, queuing a new one if there is none. The case is inserted in its own
+     * transaction: losing the race against another node fails that insert only, and the caller gets the winning case.
+     */
+    public AmlCase enqueue(UUID customerId) {
+        final AmlCaseEntity openCase = amlCaseRepository.findFirstByCustomerIdAndStatusIn(customerId, OPEN_STATUSES)
+                .orElse(null);
+        if (openCase != null) {
+            log.info("AML case {} already {} for customer {}", openCase.getId(), openCase.getStatus(), customerId);
+            return amlCaseMapper.toAmlCase(openCase);
+        }
+        final AmlCaseEntity queued;
+        try {
+            queued = newTransaction.execute(status -> amlCaseRepository.saveAndFlush(AmlCaseEntity.builder()
+                    .id(UUID.randomUUID())
+                    .customerId(customerId)
+                    .status(AmlCaseStatus.QUEUED)
+                    .attempts(0)
+                    .nextAttemptAt(now())
+                    .build()));
+        } catch (DataIntegrityViolationException e) {
+            final AmlCaseEntity concurrentCase = amlCaseRepository.findFirstByCustomerIdAndStatusIn(customerId, OPEN_STATUSES)
+                    .orElseThrow(() -> e);
+            log.info("AML case {} queued concurrently for customer {}", concurrentCase.getId(), customerId);
+            return amlCaseMapper.toAmlCase(concurrentCase);
+        }
+        log.info("AML case {} queued for customer {}", queued.getId(), customerId);
+        return amlCaseMapper.toAmlCase(queued);
+    }
+
+    /**
+     * Queues a case for the customer in the transaction of the caller, unless the customer has an open one: the case
+     * commits or rolls back with the caller's writes. A customer queued concurrently by another node is skipped
+     * without failing the transaction.
+     *
+     * @return false if the customer already had an open case
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean enqueueInTransaction(UUID customerId) {
+        final String createdBy = auditorAware.getCurrentAuditor().orElse("ANONYMOUS");
+        if (amlCaseRepository.insertQueuedIfNoneOpen(UUID.randomUUID(), customerId, now(), createdBy) == 0) {
+            log.info("AML case already open for customer {}", customerId);
+            return false;
+        }
+        log.info("AML case queued for customer {}", customerId);
+        return true;
+    }
+
+    /**
+     * Claims up to {@code limit} due cases for this node: they are RUNNING until {@code aml.queue.lease} expires.
+     * A case whose lease expired counts as a failed attempt, and is FAILED once {@code aml.queue.max-attempts} is
+     * reached.
+     */
+    @Transactional
+    public List<AmlCase> claimDueCases(int limit) {
+        final OffsetDateTime now = now();
+        final List<AmlCaseEntity> dueCases = amlCaseRepository.lockDueCases(now, limit);
+        final List<AmlCase> claimed = new ArrayList<>(dueCases.size());
+        for (AmlCaseEntity dueCase : dueCases) {
+            if (dueCase.getStatus() == AmlCaseStatus.RUNNING) {
+                // the node running it stopped or hung: a failed attempt
+                dueCase.setAttempts(dueCase.getAttempts() + 1);
+                if (dueCase.getAttempts() >= amlProperties.getQueue().getMaxAttempts()) {
+                    dueCase.setStatus(AmlCaseStatus.FAILED);
+                    dueCase.setLeaseExpiresAt(null);
+                    dueCase.setLeaseToken(null);
+                    dueCase.setLastError("Lease expired");
+                    log.error("AML case {} failed after {} attempts: lease expired", dueCase.getId(), dueCase.getAttempts());
+                    continue;
+                }
+                log.warn("AML case {} lease expired, claiming it again", dueCase.getId());
+            }
+            dueCase.setStatus(AmlCaseStatus.RUNNING);
+            dueCase.setLeaseExpiresAt(now.plus(amlProperties.getQueue().getLease()));
+            dueCase.setLeaseToken(UUID.randomUUID());
+            claimed.add(amlCaseMapper.toAmlCase(dueCase));
+        }
+        return claimed;
+    }
+
+    /**
+     * Closes the case, in the transaction persisting its outcome. Call it before persisting the outcome, it locks the
+     * case until that transaction ends.
+     *
+     * @return false when the lease is no longer held: the case was claimed again, the outcome must be dropped
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean complete(UUID amlCaseId, UUID leaseToken) {
+        final AmlCaseEntity amlCase = lockCase(amlCaseId);
+        if (!holdsLease(amlCase, leaseToken)) {
+            return false;
+        }
+        amlCase.setStatus(AmlCaseStatus.COMPLETED);
+        releaseLease(amlCase);
+        amlCase.setLastError(null);
+        return true;
+    }
+
+    /**
+     * Parks the case until {@link #resume(UUID)}, in the transaction persisting its partial outcome. Same contract as
+     * {@link #complete}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean park(UUID amlCaseId, UUID leaseToken) {
+        final AmlCaseEntity amlCase = lockCase(amlCaseId);
+        if (!holdsLease(amlCase, leaseToken)) {
+            return false;
+        }
+        amlCase.setStatus(AmlCaseStatus.WAITING_EXTERNAL);
+        releaseLease(amlCase);
+        return true;
+    }
+
+    /**
+     * Queues a parked case again, e.g. when the external provider calls back. Cases in another status are left
+     * unchanged, so a repeated callback is harmless.
+     */
+    @Transactional
+    public AmlCase resume(UUID amlCaseId) {
+        final AmlCaseEntity amlCase = getCase(amlCaseId);
+        if (amlCase.getStatus() == AmlCaseStatus.WAITING_EXTERNAL) {
+            amlCase.setStatus(AmlCaseStatus.QUEUED);
+            amlCase.setNextAttemptAt(now());
+            log.info("AML case {} resumed", amlCaseId);
+        } else {
+            log.info("AML case {} is {}, not waiting for an external provider: callback ignored", amlCaseId, amlCase.getStatus());
+        }
+        return amlCaseMapper.toAmlCase(amlCase);
+    }
+
+    /**
+     * Queues the case again after an exponential backoff, or marks it FAILED once {@code aml.queue.max-attempts}
+     * executions failed. A worker no longer holding the lease leaves the case unchanged.
+     */
+    @Transactional
+    public void retryOrFail(UUID amlCaseId, UUID leaseToken, Exception error) {
+        final AmlProperties.Queue queue = amlProperties.getQueue();
+        final AmlCaseEntity amlCase = lockCase(amlCaseId);
+        if (!holdsLease(amlCase, leaseToken)) {
+            return;
+        }
+        releaseLease(amlCase);
+        amlCase.setAttempts(amlCase.getAttempts() + 1);
+        amlCase.setLastError(abbreviate(error.getClass().getSimpleName() + ": " + error.getMessage()));
+        if (amlCase.getAttempts() >= queue.getMaxAttempts()) {
+            amlCase.setStatus(AmlCaseStatus.FAILED);
+            log.error("AML case {} failed after {} attempts: {}", amlCaseId, amlCase.getAttempts(), error.getMessage(), error);
+            return;
+        }
+        final Duration backoff = backoff(queue, amlCase.getAttempts());
+        amlCase.setStatus(AmlCaseStatus.QUEUED);
+        amlCase.setNextAttemptAt(now().plus(backoff));
+        log.warn("AML case {} attempt {} failed, retrying in {}: {}", amlCaseId, amlCase.getAttempts(), backoff, error.getMessage());
+    }
+
+    @Transactional(readOnly = true)
+    public AmlCase getAmlCase(UUID amlCaseId) {
+        return amlCaseMapper.toAmlCase(getCase(amlCaseId));
+    }
+
+    private AmlCaseEntity getCase(UUID amlCaseId) {
+        return amlCaseRepository.findById(amlCaseId).orElseThrow(() -> notFound(amlCaseId));
+    }
+
+    private AmlCaseEntity lockCase(UUID amlCaseId) {
+        return amlCaseRepository.lockById(amlCaseId).orElseThrow(() -> notFound(amlCaseId));
+    }
+
+    private static boolean holdsLease(AmlCaseEntity amlCase, UUID leaseToken) {
+        if (amlCase.getStatus() == AmlCaseStatus.RUNNING && Objects.equals(amlCase.getLeaseToken(), leaseToken)) {
+            return true;
+        }
+        log.warn("AML case {} is {} and no longer leased by this worker: its result is dropped",
+                amlCase.getId(), amlCase.getStatus());
+        return false;
+    }
+
+    private static void releaseLease(AmlCaseEntity amlCase) {
+        amlCase.setLeaseExpiresAt(null);
+        amlCase.setLeaseToken(null);
+    }
+
+    private static IllegalArgumentException notFound(UUID amlCaseId) {
+        return new IllegalArgumentException("AML case with ID " + amlCaseId + " not found");
+    }
+
+    static Duration backoff(AmlProperties.Queue queue, int attempts) {
+        // attempts >= 1 here; the shift is bounded to avoid overflowing
+        final Duration backoff = queue.getRetryBackoff().multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(queue.getMaxRetryBackoff()) > 0 ? queue.getMaxRetryBackoff() : backoff;
+    }
+
+    private static String abbreviate(String message) {
+        return message.length() <= 1000 ? message : message.substring(0, 1000);
+    }
+
+    private static OffsetDateTime now() {
+        return OffsetDateTime.now(ZoneOffset.UTC);
+    }
+}
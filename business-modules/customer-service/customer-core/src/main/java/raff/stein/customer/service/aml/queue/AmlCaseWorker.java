@@ -0,0 +1,86 @@
+package raff.stein.customer.service.aml.queue;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import raff.stein.customer.model.bo.aml.AmlCase;
+import raff.stein.customer.service.aml.AmlService;
+import raff.stein.customer.service.aml.pipeline.config.AmlProperties;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the {@link AmlCaseQueue} with at most {@code aml.queue.workers} cases running at the same time on this node.
+ * <p>
+ * The queue is polled every {@code aml.queue.poll-interval}, and again as soon as a case completes while the last
+ * claim filled every free worker, so a backlog is drained without waiting for the next poll. A case whose execution
+ * throws is retried with backoff by {@link AmlCaseQueue#retryOrFail}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "aml.queue", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AmlCaseWorker {
+
+    private final AmlCaseQueue amlCaseQueue;
+    private final AmlService amlService;
+    private final int workers;
+    private final ExecutorService caseExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("aml-case-", 0).factory());
+    private final AtomicInteger running = new AtomicInteger();
+    private volatile boolean backlog;
+
+    public AmlCaseWorker(AmlCaseQueue amlCaseQueue, AmlService amlService, AmlProperties amlProperties) {
+        this.amlCaseQueue = amlCaseQueue;
+        this.amlService = amlService;
+        this.workers = amlProperties.getQueue().getWorkers();
+    }
+
+    @Scheduled(fixedDelayString = "${aml.queue.poll-interval:1s}")
+    public synchronized void poll() {
+        final int free = workers - running.get();
+        if (free <= 0) {
+            return;
+        }
+        final List<AmlCase> claimed;
+        try {
+            claimed = amlCaseQueue.claimDueCases(free);
+        } catch (Exception e) {
+            log.error("Could not claim AML cases, retrying on next poll: {}", e.getMessage(), e);
+            return;
+        }
+        backlog = claimed.size() == free;
+        for (AmlCase amlCase : claimed) {
+            running.incrementAndGet();
+            caseExecutor.execute(() -> process(amlCase));
+        }
+    }
+
+    private void process(AmlCase amlCase) {
+        try {
+            amlService.processAmlCase(amlCase);
+        } catch (Exception e) {
+            try {
+                amlCaseQueue.retryOrFail(amlCase.getAmlCaseId(), amlCase.getLeaseToken(), e);
+            } catch (Exception retryError) {
+                // the lease expires and the case is claimed again
+                log.error("Could not reschedule AML case {}: {}", amlCase.getAmlCaseId(), retryError.getMessage(), retryError);
+            }
+        } finally {
+            running.decrementAndGet();
+        }
+        if (backlog) {
+            poll();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // running cases are claimed again by another node once their lease expires
+        caseExecutor.shutdownNow();
+    }
+}
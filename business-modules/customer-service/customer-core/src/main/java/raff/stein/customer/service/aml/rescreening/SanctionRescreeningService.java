@@ -0,0 +1,270 @@
+package raff.stein.customer.service.aml.rescreening;
+
+import jakarta.annotation.PreDestroy;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import raff.stein.customer.client.eu.sanctions.SanctionClient;
+import raff.stein.customer.client.eu.sanctions.model.list.SanctionListVersion;
+import raff.stein.customer.client.eu.sanctions.model.screen.ScreenRequest;
+import raff.stein.customer.client.eu.sanctions.model.screen.ScreenResponse;
+import raff.stein.customer.model.bo.aml.SanctionRescreeningJob;
+import raff.stein.customer.model.entity.aml.SanctionRescreeningResultEntity;
+import raff.stein.customer.model.entity.customer.enumeration.CustomerStatus;
+import raff.stein.customer.model.entity.customer.projection.CustomerScreeningProjection;
+import raff.stein.customer.repository.customer.CustomerRepository;
+import raff.stein.customer.service.aml.pipeline.config.AmlProperties;
+import raff.stein.customer.service.aml.pipeline.step.ue.impl.mapper.SanctionRequestMapper;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Screens every active customer against the current sanctions lists, e.g. after a lists update.
+ * <p>
+ * The customers are read in keyset pages of {@code aml.rescreening.page-size}, with the screening fields only. Each
+ * page is screened in batches of {@code aml.rescreening.batch-size}, at most {@code max-concurrent-batches} at a time
+ * and {@code max-screenings-per-second} overall; its results are then persisted in bulk together with the checkpoint.
+ * A flagged customer gets an AML case. A failed job, or a job whose node stopped, resumes from its last checkpoint.
+ * <p>
+ * Only one job runs at a time. A job runs on the node that started or resumed it.
+ */
+@Slf4j
+@Service
+public class SanctionRescreeningService {
+
+    private static final Set<CustomerStatus> RESCREENED_STATUSES = EnumSet.of(CustomerStatus.ACTIVE);
+    // smallest id in the PostgreSQL uuid order: the first page starts after it
+    private static final UUID FIRST_CUSTOMER_ID = new UUID(0, 0);
+    private static final Duration BATCH_RETRY_BACKOFF = Duration.ofSeconds(1);
+
+    private final CustomerRepository customerRepository;
+    private final SanctionClient sanctionClient;
+    private final SanctionRescreeningStore rescreeningStore;
+    private final AmlProperties.Rescreening rescreening;
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sanction-rescreening-", 0).factory());
+
+    private static final SanctionRequestMapper sanctionRequestMapper = SanctionRequestMapper.MAPPER;
+
+    public SanctionRescreeningService(
+            CustomerRepository customerRepository,
+            SanctionClient sanctionClient,
+            SanctionRescreeningStore rescreeningStore,
+            AmlProperties amlProperties) {
+        this.customerRepository = customerRepository;
+        this.sanctionClient = sanctionClient;
+        this.rescreeningStore = rescreeningStore;
+        this.rescreening = amlProperties.getRescreening();
+    }
+
+    /**
+     * Starts a job in the background and returns at once.
+     */
+    public SanctionRescreeningJob startRescreening() {
+        final SanctionRescreeningJob job = rescreeningStore.start(currentListVersion(), rescreening.getStaleAfter());
+        executor.execute(() -> run(job));
+        return job;
+    }
+
+    /**
+     * Resumes a job from its last checkpoint in the background and returns at once.
+     */
+    public SanctionRescreeningJob resumeRescreening(@NonNull UUID jobId) {
+        final SanctionRescreeningJob job = rescreeningStore.resume(jobId, rescreening.getStaleAfter());
+        executor.execute(() -> run(job));
+        return job;
+    }
+
+    public SanctionRescreeningJob getRescreening(@NonNull UUID jobId) {
+        return rescreeningStore.getJob(jobId);
+    }
+
+    void run(SanctionRescreeningJob job) {
+        final UUID jobId = job.getJobId();
+        final ScreeningRateLimiter rateLimiter = new ScreeningRateLimiter(rescreening.getMaxScreeningsPerSecond());
+        final Semaphore batchPermits = new Semaphore(rescreening.getMaxConcurrentBatches());
+        final long runStart = System.nanoTime();
+        UUID checkpoint = job.getLastCustomerId();
+        long screened = 0;
+        try {
+            while (true) {
+                final long pageStart = System.nanoTime();
+                final List<CustomerScreeningProjection> page = customerRepository.findScreeningPage(
+                        RESCREENED_STATUSES,
+                        checkpoint != null ? checkpoint : FIRST_CUSTOMER_ID,
+                        Limit.of(rescreening.getPageSize()));
+                if (page.isEmpty()) {
+                    break;
+                }
+                final List<SanctionRescreeningResultEntity> results = screenPage(job, page, rateLimiter, batchPermits);
+                final UUID lastCustomerId = page.getLast().id();
+                if (!rescreeningStore.checkpoint(jobId, checkpoint, lastCustomerId, results, elapsedMillis(pageStart))) {
+                    log.warn("Sanction re-screening job {} was resumed by another run, stopping this one", jobId);
+                    return;
+                }
+                checkpoint = lastCustomerId;
+                screened += results.size();
+                log.info("Sanction re-screening job {}: {} customers screened by this run, {} screenings/s",
+                        jobId, screened, screeningsPerSecond(screened, elapsedMillis(runStart)));
+            }
+            final SanctionRescreeningJob completed = rescreeningStore.complete(jobId, checkpoint);
+            log.info("Sanction re-screening job {} {}: {} customers screened, {} flagged, {} errors, {} screenings/s",
+                    jobId, completed.getStatus(), completed.getScreened(), completed.getFlagged(), completed.getErrors(),
+                    completed.getScreeningsPerSecond());
+        } catch (Exception e) {
+            log.error("Sanction re-screening job {} failed after customer {}, resumable from there: {}",
+                    jobId, checkpoint, e.getMessage(), e);
+            final boolean interrupted = Thread.interrupted();
+            try {
+                rescreeningStore.fail(jobId, checkpoint, e);
+            } catch (Exception failError) {
+                // the job becomes resumable once aml.rescreening.stale-after elapses
+                log.error("Could not mark sanction re-screening job {} as failed: {}", jobId, failError.getMessage(), failError);
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private List<SanctionRescreeningResultEntity> screenPage(
+            SanctionRescreeningJob job,
+            List<CustomerScreeningProjection> page,
+            ScreeningRateLimiter rateLimiter,
+            Semaphore batchPermits) throws Exception {
+        final List<Future<List<SanctionRescreeningResultEntity>>> batches = new ArrayList<>();
+        try {
+            for (int from = 0; from < page.size(); from += rescreening.getBatchSize()) {
+                final List<CustomerScreeningProjection> batch =
+                        page.subList(from, Math.min(from + rescreening.getBatchSize(), page.size()));
+                batchPermits.acquire();
+                batches.add(executor.submit(() -> {
+                    try {
+                        rateLimiter.acquire(batch.size());
+                        return screenBatch(job, batch);
+                    } finally {
+                        batchPermits.release();
+                    }
+                }));
+            }
+            final List<SanctionRescreeningResultEntity> results = new ArrayList<>(page.size());
+            for (Future<List<SanctionRescreeningResultEntity>> batch : batches) {
+                results.addAll(batch.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            // the error of the batch, not its wrapper, is recorded on the job
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } finally {
+            // no-op for the completed batches, stops the others when one failed
+            batches.forEach(batch -> batch.cancel(true));
+        }
+    }
+
+    private List<SanctionRescreeningResultEntity> screenBatch(
+            SanctionRescreeningJob job,
+            List<CustomerScreeningProjection> batch) throws InterruptedException {
+        final List<ScreenRequest> requests = batch.stream().map(sanctionRequestMapper::toScreenRequest).toList();
+        final List<ScreenResponse> responses = screenWithRetries(requests);
+        final Map<String, ScreenResponse> responsesByRequestId = responses.stream()
+                .filter(response -> response.getRequestId() != null)
+                .collect(Collectors.toMap(ScreenResponse::getRequestId, Function.identity(), (first, second) -> first));
+        final OffsetDateTime screenedAt = OffsetDateTime.now(ZoneOffset.UTC);
+        return batch.stream()
+                .map(customer -> toResult(job, customer.id(), responsesByRequestId.get(customer.id().toString()), screenedAt))
+                .toList();
+    }
+
+    private List<ScreenResponse> screenWithRetries(List<ScreenRequest> requests) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                final List<ScreenResponse> responses = sanctionClient.screenClients(requests);
+                return responses != null ? responses : List.of();
+            } catch (RuntimeException e) {
+                if (attempt >= rescreening.getMaxBatchAttempts()) {
+                    throw e;
+                }
+                log.warn("Sanction screening batch of {} customers failed on attempt {}, retrying: {}",
+                        requests.size(), attempt, e.getMessage());
+                TimeUnit.MILLISECONDS.sleep(BATCH_RETRY_BACKOFF.toMillis() * attempt);
+            }
+        }
+    }
+
+    static SanctionRescreeningResultEntity toResult(
+            SanctionRescreeningJob job,
+            UUID customerId,
+            ScreenResponse response,
+            OffsetDateTime screenedAt) {
+        final SanctionRescreeningResultEntity.SanctionRescreeningResultEntityBuilder result = SanctionRescreeningResultEntity.builder()
+                .id(UUID.randomUUID())
+                .jobId(job.getJobId())
+                .customerId(customerId)
+                .listVersion(job.getListVersion())
+                .screenedAt(screenedAt);
+        if (response == null) {
+            return result.error("No screening returned for the customer").build();
+        }
+        final int matchesCount = response.getMatches() != null ? response.getMatches().size() : 0;
+        // without a decision, any candidate match needs a review
+        final boolean flagged = response.getDecision() != null
+                ? response.getDecision() != ScreenResponse.Decision.CLEAR
+                : matchesCount > 0;
+        // a partial screening may have missed lists: it is not a clear result
+        final boolean incomplete = response.getStatus() == ScreenResponse.Status.FAILED
+                || response.getStatus() == ScreenResponse.Status.PARTIAL;
+        return result
+                .status(response.getStatus() != null ? response.getStatus().name() : null)
+                .decision(response.getDecision() != null ? response.getDecision().name() : null)
+                .maxMatchScore(response.getMaxMatchScore())
+                .matchesCount(matchesCount)
+                .flagged(flagged)
+                .error(incomplete ? abbreviate("Screening " + response.getStatus() + ": " + response.getErrors()) : null)
+                .build();
+    }
+
+    private String currentListVersion() {
+        try {
+            final SanctionListVersion listVersion = sanctionClient.getListVersion();
+            return listVersion != null ? listVersion.getVersion() : null;
+        } catch (Exception e) {
+            log.warn("Could not read the sanctions lists version, the job records none: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    static double screeningsPerSecond(long screenings, long elapsedMillis) {
+        return elapsedMillis > 0 ? screenings * 1000.0 / elapsedMillis : 0;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static String abbreviate(String message) {
+        return message.length() <= 1000 ? message : message.substring(0, 1000);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // running jobs are marked failed, or resumable once aml.rescreening.stale-after elapses
+        executor.shutdownNow();
+    }
+}
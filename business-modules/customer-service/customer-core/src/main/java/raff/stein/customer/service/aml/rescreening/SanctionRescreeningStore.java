@@ -0,0 +1,170 @@
+package raff.stein.customer.service.aml.rescreening;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import raff.stein.customer.model.bo.aml.SanctionRescreeningJob;
+import raff.stein.customer.model.entity.aml.SanctionRescreeningJobEntity;
+import raff.stein.customer.model.entity.aml.SanctionRescreeningResultEntity;
+import raff.stein.customer.model.entity.aml.enumeration.SanctionRescreeningStatus;
+import raff.stein.customer.model.entity.aml.mapper.SanctionRescreeningJobToSanctionRescreeningJobEntityMapper;
+import raff.stein.customer.repository.aml.SanctionRescreeningJobRepository;
+import raff.stein.customer.repository.aml.SanctionRescreeningResultRepository;
+import raff.stein.customer.service.aml.queue.AmlCaseQueue;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Persistence of the sanctions re-screening jobs. A page of results and the checkpoint following it are written in
+ * the same transaction, so a resumed job neither skips nor screens twice the customers of a page.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SanctionRescreeningStore {
+
+    private final SanctionRescreeningJobRepository jobRepository;
+    private final SanctionRescreeningResultRepository resultRepository;
+    private final AmlCaseQueue amlCaseQueue;
+
+    private static final SanctionRescreeningJobToSanctionRescreeningJobEntityMapper jobMapper =
+            SanctionRescreeningJobToSanctionRescreeningJobEntityMapper.MAPPER;
+
+    @Transactional
+    public SanctionRescreeningJob start(String listVersion, Duration staleAfter) {
+        final OffsetDateTime now = now();
+        jobRepository.findByStatus(SanctionRescreeningStatus.RUNNING).stream()
+                .filter(running -> running.getCheckpointAt().isAfter(now.minus(staleAfter)))
+                .findFirst()
+                .ifPresent(running -> {
+                    throw new IllegalStateException("Sanction re-screening job " + running.getId() + " is already running");
+                });
+        final SanctionRescreeningJobEntity job = jobRepository.save(SanctionRescreeningJobEntity.builder()
+                .id(UUID.randomUUID())
+                .status(SanctionRescreeningStatus.RUNNING)
+                .listVersion(listVersion)
+                .startedAt(now)
+                .checkpointAt(now)
+                .build());
+        log.info("Sanction re-screening job {} started against lists version [{}]", job.getId(), listVersion);
+        return jobMapper.toSanctionRescreeningJob(job);
+    }
+
+    /**
+     * Marks a failed job, or a running job without checkpoint for {@code staleAfter}, as running again.
+     */
+    @Transactional
+    public SanctionRescreeningJob resume(UUID jobId, Duration staleAfter) {
+        final SanctionRescreeningJobEntity job = lockJob(jobId);
+        final OffsetDateTime now = now();
+        if (job.getStatus() == SanctionRescreeningStatus.COMPLETED) {
+            throw new IllegalStateException("Sanction re-screening job " + jobId + " is already completed");
+        }
+        if (job.getStatus() == SanctionRescreeningStatus.RUNNING && job.getCheckpointAt().isAfter(now.minus(staleAfter))) {
+            throw new IllegalStateException("Sanction re-screening job " + jobId + " is still running");
+        }
+        job.setStatus(SanctionRescreeningStatus.RUNNING);
+        job.setCheckpointAt(now);
+        job.setLastError(null);
+        log.info("Sanction re-screening job {} resumed after customer {}", jobId, job.getLastCustomerId());
+        return jobMapper.toSanctionRescreeningJob(job);
+    }
+
+    /**
+     * Persists the results of a page, queues an AML case for each flagged customer and moves the checkpoint to
+     * {@code lastCustomerId}, all in one transaction: the cases commit or roll back with the checkpoint.
+     *
+     * @param expectedCheckpoint checkpoint the page was read after
+     * @return {@code false}, writing nothing, if another run of the job moved the checkpoint meanwhile
+     */
+    @Transactional
+    public boolean checkpoint(
+            UUID jobId,
+            UUID expectedCheckpoint,
+            UUID lastCustomerId,
+            List<SanctionRescreeningResultEntity> results,
+            long elapsedMillis) {
+        final SanctionRescreeningJobEntity job = lockJob(jobId);
+        if (!isCurrentRun(job, expectedCheckpoint)) {
+            return false;
+        }
+        // inserted in JDBC batches of hibernate.jdbc.batch_size
+        resultRepository.saveAll(results);
+        long flagged = 0;
+        long errors = 0;
+        for (SanctionRescreeningResultEntity result : results) {
+            if (result.isFlagged()) {
+                flagged++;
+                amlCaseQueue.enqueueInTransaction(result.getCustomerId());
+            }
+            if (result.getError() != null) {
+                errors++;
+            }
+        }
+        job.setLastCustomerId(lastCustomerId);
+        job.setScreened(job.getScreened() + results.size());
+        job.setFlagged(job.getFlagged() + flagged);
+        job.setErrors(job.getErrors() + errors);
+        job.setRunningMillis(job.getRunningMillis() + elapsedMillis);
+        job.setCheckpointAt(now());
+        return true;
+    }
+
+    /**
+     * Same checkpoint contract as {@link #checkpoint}: a run superseded by another one leaves the job unchanged.
+     */
+    @Transactional
+    public SanctionRescreeningJob complete(UUID jobId, UUID expectedCheckpoint) {
+        final SanctionRescreeningJobEntity job = lockJob(jobId);
+        if (isCurrentRun(job, expectedCheckpoint)) {
+            job.setStatus(SanctionRescreeningStatus.COMPLETED);
+            job.setFinishedAt(now());
+        }
+        return jobMapper.toSanctionRescreeningJob(job);
+    }
+
+    /**
+     * Same checkpoint contract as {@link #checkpoint}: a run superseded by another one leaves the job unchanged.
+     */
+    @Transactional
+    public void fail(UUID jobId, UUID expectedCheckpoint, Exception error) {
+        final SanctionRescreeningJobEntity job = lockJob(jobId);
+        if (isCurrentRun(job, expectedCheckpoint)) {
+            job.setStatus(SanctionRescreeningStatus.FAILED);
+            job.setLastError(abbreviate(error.getClass().getSimpleName() + ": " + error.getMessage()));
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public SanctionRescreeningJob getJob(UUID jobId) {
+        return jobRepository.findById(jobId)
+                .map(jobMapper::toSanctionRescreeningJob)
+                .orElseThrow(() -> notFound(jobId));
+    }
+
+    private static boolean isCurrentRun(SanctionRescreeningJobEntity job, UUID expectedCheckpoint) {
+        return job.getStatus() == SanctionRescreeningStatus.RUNNING && Objects.equals(job.getLastCustomerId(), expectedCheckpoint);
+    }
+
+    private SanctionRescreeningJobEntity lockJob(UUID jobId) {
+        return jobRepository.lockById(jobId).orElseThrow(() -> notFound(jobId));
+    }
+
+    private static IllegalArgumentException notFound(UUID jobId) {
+        return new IllegalArgumentException("Sanction re-screening job with ID " + jobId + " not found");
+    }
+
+    private static String abbreviate(String message) {
+        return message.length() <= 1000 ? message : message.substring(0, 1000);
+    }
+
+    private static OffsetDateTime now() {
+        return OffsetDateTime.now(ZoneOffset.UTC);
+    }
+}
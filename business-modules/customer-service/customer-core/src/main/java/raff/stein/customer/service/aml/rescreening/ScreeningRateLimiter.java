@@ -0,0 +1,35 @@
+package raff.stein.customer.service.aml.rescreening;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands out screening permits at a fixed rate, shared by the concurrent batches of a job. Each caller reserves its
+ * permits after those already reserved and waits for its turn, so the batches reach the engine evenly spaced instead
+ * of in bursts.
+ */
+final class ScreeningRateLimiter {
+
+    private final double nanosPerPermit;
+    // guarded by this
+    private long nextFreeNanos;
+
+    ScreeningRateLimiter(double permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("Screenings per second must be positive: " + permitsPerSecond);
+        }
+        this.nanosPerPermit = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    void acquire(int permits) throws InterruptedException {
+        final long startAt;
+        synchronized (this) {
+            startAt = Math.max(nextFreeNanos, System.nanoTime());
+            nextFreeNanos = startAt + (long) (permits * nanosPerPermit);
+        }
+        final long waitNanos = startAt - System.nanoTime();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
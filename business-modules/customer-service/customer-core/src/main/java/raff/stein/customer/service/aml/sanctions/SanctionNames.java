@@ -0,0 +1,42 @@
+package raff.stein.customer.service.aml.sanctions;
+
+import java.text.Normalizer;
+
+/**
+ * Normalization of the names compared by the sanctions screenings, so that spelling variants of the same name compare
+ * equal: {@code "José  DE-LA Cruz"} and {@code "jose de la cruz"} both become {@code "jose de la cruz"}.
+ */
+public final class SanctionNames {
+
+    private SanctionNames() {
+    }
+
+    /**
+     * Lower case letters and digits without diacritics, words separated by a single space.
+     */
+    public static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        final String decomposed = Normalizer.normalize(name, Normalizer.Form.NFKD);
+        final StringBuilder normalized = new StringBuilder(decomposed.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < decomposed.length(); ) {
+            final int codePoint = decomposed.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.getType(codePoint) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (pendingSpace && !normalized.isEmpty()) {
+                    normalized.append(' ');
+                }
+                pendingSpace = false;
+                normalized.appendCodePoint(Character.toLowerCase(codePoint));
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return normalized.toString();
+    }
+}
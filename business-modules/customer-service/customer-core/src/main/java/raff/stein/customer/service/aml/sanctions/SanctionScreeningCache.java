@@ -0,0 +1,228 @@
+package raff.stein.customer.service.aml.sanctions;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import raff.stein.customer.client.eu.sanctions.SanctionClient;
+import raff.stein.customer.client.eu.sanctions.model.list.SanctionListVersion;
+import raff.stein.customer.client.eu.sanctions.model.screen.ScreenRequest;
+import raff.stein.customer.client.eu.sanctions.model.screen.ScreenResponse;
+import raff.stein.customer.service.aml.pipeline.config.AmlProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Screens customers through the {@link SanctionClient}, reusing the result of a previous screening of the same
+ * identity as long as the sanctions lists of the engine have not changed.
+ * <p>
+ * Entries are keyed by the SHA-256 of a normalized fingerprint of the request: names (accents, case, punctuation and
+ * spacing ignored), date of birth, nationality and tax id, plus the screening options that change the outcome. The
+ * other request fields, e.g. the address or the correlation id, do not take part in the match.
+ * <p>
+ * Each entry is tagged with the lists version it was screened against. The version is polled every
+ * {@code aml.sanctions-cache.list-version-refresh-interval}: a new version drops every entry. Entries also expire
+ * when the engine announces its next lists update, and after {@code aml.sanctions-cache.ttl} at the latest. Until a
+ * version is known, every request is screened; only complete screenings are cached.
+ */
+@Slf4j
+@Component
+public class SanctionScreeningCache {
+
+    private static final String CACHE_NAME = "sanctionScreenings";
+    // never found in the normalized fields
+    private static final char SEPARATOR = '\u001f';
+
+    private final SanctionClient sanctionClient;
+    private final Duration ttl;
+    private final Clock clock;
+    // null when the cache is disabled
+    private final Cache<String, CachedScreening> screenings;
+    private volatile SanctionListVersion listVersion;
+
+    @Autowired
+    public SanctionScreeningCache(SanctionClient sanctionClient, AmlProperties amlProperties, MeterRegistry meterRegistry) {
+        this(sanctionClient, amlProperties.getSanctionsCache(), meterRegistry, Clock.systemUTC());
+    }
+
+    SanctionScreeningCache(
+            SanctionClient sanctionClient,
+            AmlProperties.SanctionsCache cacheConfig,
+            MeterRegistry meterRegistry,
+            Clock clock) {
+        this.sanctionClient = sanctionClient;
+        this.ttl = cacheConfig.getTtl();
+        this.clock = clock;
+        if (!cacheConfig.isEnabled()) {
+            this.screenings = null;
+            return;
+        }
+        this.screenings = Caffeine.newBuilder()
+                .maximumSize(cacheConfig.getMaximumSize())
+                .expireAfter(Expiry.creating((String fingerprint, CachedScreening screening) ->
+                        Duration.ofMillis(Math.max(0, screening.expiresAt().toEpochMilli() - clock.millis()))))
+                // expiries are wall-clock instants
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, screenings, CACHE_NAME);
+    }
+
+    /**
+     * Screens the subject of {@code request}, or returns the result of its last screening against the current lists.
+     */
+    public SanctionScreening screen(ScreenRequest request) {
+        final SanctionListVersion version = listVersion;
+        if (screenings == null || version == null) {
+            final String versionId = version != null ? version.getVersion() : null;
+            return new SanctionScreening(sanctionClient.screenClient(request), versionId, false);
+        }
+        final String fingerprint = fingerprint(request);
+        final CachedScreening cached = screenings.getIfPresent(fingerprint);
+        if (cached != null && cached.listVersion().equals(version.getVersion())) {
+            return new SanctionScreening(cached.response(), cached.listVersion(), true);
+        }
+        final ScreenResponse response = sanctionClient.screenClient(request);
+        final Instant expiresAt = expiresAt(version);
+        if (isComplete(response) && expiresAt.isAfter(clock.instant())) {
+            // tagged with the version read before the call: a version published meanwhile makes it a miss
+            screenings.put(fingerprint, new CachedScreening(version.getVersion(), response, expiresAt));
+        }
+        return new SanctionScreening(response, version.getVersion(), false);
+    }
+
+    /**
+     * Polls the lists version of the engine and drops every cached screening when it changed. A failure keeps the
+     * current version. Runs on startup.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${aml.sanctions-cache.list-version-refresh-interval:5m}")
+    public void refreshListVersion() {
+        if (screenings == null) {
+            return;
+        }
+        final SanctionListVersion loaded;
+        try {
+            loaded = sanctionClient.getListVersion();
+        } catch (Exception e) {
+            log.warn("Could not refresh the sanctions lists version, keeping [{}]: {}",
+                    listVersion != null ? listVersion.getVersion() : null, e.getMessage());
+            return;
+        }
+        if (loaded == null || !StringUtils.hasText(loaded.getVersion())) {
+            log.warn("Sanctions engine returned no lists version, keeping the current one");
+            return;
+        }
+        final SanctionListVersion previous = listVersion;
+        listVersion = loaded;
+        if (previous != null && !previous.getVersion().equals(loaded.getVersion())) {
+            invalidateAll();
+            log.info("Sanctions lists updated from version [{}] to [{}], cached screenings dropped",
+                    previous.getVersion(), loaded.getVersion());
+        }
+    }
+
+    /**
+     * Drops every cached screening, e.g. when the lists are known to have changed before the next poll.
+     */
+    public void invalidateAll() {
+        if (screenings != null) {
+            screenings.invalidateAll();
+        }
+    }
+
+    private Instant expiresAt(SanctionListVersion version) {
+        final Instant maxExpiry = clock.instant().plus(ttl);
+        if (version.getNextUpdateAt() == null) {
+            return maxExpiry;
+        }
+        final Instant nextUpdate = version.getNextUpdateAt().toInstant();
+        return nextUpdate.isBefore(maxExpiry) ? nextUpdate : maxExpiry;
+    }
+
+    private static boolean isComplete(ScreenResponse response) {
+        return response != null
+                && (response.getStatus() == null || response.getStatus() == ScreenResponse.Status.SUCCESS)
+                && (response.getErrors() == null || response.getErrors().isEmpty());
+    }
+
+    static String fingerprint(ScreenRequest request) {
+        final String identity = String.join(String.valueOf(SEPARATOR),
+                SanctionNames.normalize(request.getFirstName()),
+                SanctionNames.normalize(request.getMiddleName()),
+                SanctionNames.normalize(request.getLastName()),
+                sortedNames(request.getAliases()),
+                Objects.toString(request.getDateOfBirth(), ""),
+                normalizeCode(request.getNationality()),
+                normalizeCode(request.getTaxId()),
+                Objects.toString(request.getMatchMode(), ""),
+                Objects.toString(request.getMinMatchScore(), ""),
+                sorted(request.getListTypes()),
+                sorted(request.getProviders()));
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(identity.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Upper case letters and digits only, e.g. {@code "rss mra 80a01 h501u"} becomes {@code "RSSMRA80A01H501U"}.
+     */
+    static String normalizeCode(String code) {
+        if (code == null) {
+            return "";
+        }
+        final StringBuilder normalized = new StringBuilder(code.length());
+        code.codePoints()
+                .filter(Character::isLetterOrDigit)
+                .map(Character::toUpperCase)
+                .forEach(normalized::appendCodePoint);
+        return normalized.toString();
+    }
+
+    private static String sortedNames(Collection<String> names) {
+        if (names == null) {
+            return "";
+        }
+        return names.stream()
+                .map(SanctionNames::normalize)
+                .filter(name -> !name.isEmpty())
+                .sorted()
+                .distinct()
+                .collect(Collectors.joining(","));
+    }
+
+    private static String sorted(Collection<?> values) {
+        if (values == null) {
+            return "";
+        }
+        return values.stream().map(String::valueOf).sorted().distinct().collect(Collectors.joining(","));
+    }
+
+    /**
+     * @param listVersion lists version the response was screened against, {@code null} if not known yet
+     * @param cached      whether the response comes from an earlier screening
+     */
+    public record SanctionScreening(ScreenResponse response, String listVersion, boolean cached) {
+    }
+
+    private record CachedScreening(String listVersion, ScreenResponse response, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,394 @@
+package raff.stein.customer.service.aml.sanctions.local;
+
+import raff.stein.customer.service.aml.sanctions.SanctionNames;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Immutable in-memory index of the names of a sanctions list, for fuzzy name matching.
+ * <p>
+ * Every name, aliases included, is indexed by its character trigrams and by the Soundex key of each of its words.
+ * A query counts the trigrams and the Soundex keys it shares with each name through the postings; the names sharing
+ * enough trigrams ({@link #MIN_TRIGRAM_SIMILARITY}), or sounding the same word by word, are the candidates. Only the
+ * candidates are scored, by an edit distance bounded by the minimum score: a candidate whose letters alone differ too
+ * much is not compared, the others stop being compared as soon as they cannot reach it. Names are also compared with
+ * their words sorted, so that word order does not matter.
+ * <p>
+ * Thread-safe: queries only read the index and borrow their counters from a pool.
+ */
+final class FuzzyNameIndex {
+
+    // Dice coefficient over the trigrams of the query and of a name
+    static final double MIN_TRIGRAM_SIMILARITY = 0.4;
+    // a name sounding like the query, word by word, scores at least this much
+    static final int PHONETIC_MATCH_SCORE = 85;
+    private static final int[] NO_POSTINGS = new int[0];
+    // letters histogram buckets of the bag distance, colliding letters only lower the bound
+    private static final int LETTER_BUCKETS = 64;
+
+    private final int entryCount;
+    // normalized names, aliases included, and the entry each one belongs to
+    private final String[] names;
+    private final String[] sortedWordNames;
+    private final int[] entryOfName;
+    private final int[] trigramCountOfName;
+    private final Map<Long, int[]> trigramPostings;
+    private final Map<String, int[]> soundexPostings;
+    private final ConcurrentLinkedQueue<Counters> counterPool = new ConcurrentLinkedQueue<>();
+
+    FuzzyNameIndex(List<SanctionListEntry> entries) {
+        this.entryCount = entries.size();
+        final List<String> indexedNames = new ArrayList<>();
+        final List<Integer> entryIndexes = new ArrayList<>();
+        for (int entryIndex = 0; entryIndex < entries.size(); entryIndex++) {
+            final SanctionListEntry entry = entries.get(entryIndex);
+            final List<String> entryNames = new ArrayList<>();
+            entryNames.add(entry.name());
+            entryNames.addAll(entry.aliases());
+            for (String entryName : entryNames) {
+                final String normalized = SanctionNames.normalize(entryName);
+                if (!normalized.isEmpty()) {
+                    indexedNames.add(normalized);
+                    entryIndexes.add(entryIndex);
+                }
+            }
+        }
+        this.names = indexedNames.toArray(String[]::new);
+        this.sortedWordNames = new String[names.length];
+        this.entryOfName = entryIndexes.stream().mapToInt(Integer::intValue).toArray();
+        this.trigramCountOfName = new int[names.length];
+
+        final Map<Long, IntList> trigrams = new HashMap<>();
+        final Map<String, IntList> soundexKeys = new HashMap<>();
+        for (int nameIndex = 0; nameIndex < names.length; nameIndex++) {
+            sortedWordNames[nameIndex] = sortWords(names[nameIndex]);
+            final long[] nameTrigrams = trigrams(names[nameIndex]);
+            trigramCountOfName[nameIndex] = nameTrigrams.length;
+            for (long trigram : nameTrigrams) {
+                trigrams.computeIfAbsent(trigram, key -> new IntList()).add(nameIndex);
+            }
+            for (String soundexKey : soundexKeys(names[nameIndex])) {
+                soundexKeys.computeIfAbsent(soundexKey, key -> new IntList()).addDistinct(nameIndex);
+            }
+        }
+        this.trigramPostings = freeze(trigrams);
+        this.soundexPostings = freeze(soundexKeys);
+    }
+
+    int entryCount() {
+        return entryCount;
+    }
+
+    int nameCount() {
+        return names.length;
+    }
+
+    /**
+     * @return the best match of each entry scoring at least {@code minScore} (0-100) against {@code name}, in no
+     * particular order
+     */
+    List<Hit> search(String name, int minScore) {
+        final String query = SanctionNames.normalize(name);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+        final String sortedWordQuery = sortWords(query);
+        final long[] queryTrigrams = trigrams(query);
+        final List<String> querySoundexKeys = soundexKeys(query);
+        final int[] queryLetters = letterHistogram(query);
+
+        final Counters counters = borrowCounters();
+        try {
+            for (long trigram : queryTrigrams) {
+                for (int nameIndex : trigramPostings.getOrDefault(trigram, NO_POSTINGS)) {
+                    counters.hitTrigram(nameIndex);
+                }
+            }
+            for (String soundexKey : querySoundexKeys) {
+                for (int nameIndex : soundexPostings.getOrDefault(soundexKey, NO_POSTINGS)) {
+                    counters.hitSoundex(nameIndex);
+                }
+            }
+
+            final Map<Integer, Hit> bestHitOfEntry = new HashMap<>();
+            for (int i = 0; i < counters.touchedCount; i++) {
+                final int nameIndex = counters.touched[i];
+                final double trigramSimilarity = 2.0 * counters.trigramHits[nameIndex]
+                        / (queryTrigrams.length + trigramCountOfName[nameIndex]);
+                final boolean soundsAlike = !querySoundexKeys.isEmpty()
+                        && counters.soundexHits[nameIndex] == querySoundexKeys.size()
+                        && wordCount(names[nameIndex]) == querySoundexKeys.size();
+                if (trigramSimilarity < MIN_TRIGRAM_SIMILARITY && !soundsAlike) {
+                    continue;
+                }
+                // same letters in both word orders: one bound for both comparisons
+                final boolean comparable = bagDistance(queryLetters, names[nameIndex], counters.letters)
+                        <= maxDistance(query, names[nameIndex], minScore);
+                if (!comparable && !soundsAlike) {
+                    continue;
+                }
+                int score = !comparable ? -1 : Math.max(
+                        score(query, names[nameIndex], minScore),
+                        score(sortedWordQuery, sortedWordNames[nameIndex], minScore));
+                final boolean phonetic = soundsAlike && score < PHONETIC_MATCH_SCORE;
+                if (phonetic) {
+                    score = PHONETIC_MATCH_SCORE;
+                }
+                if (score < minScore) {
+                    continue;
+                }
+                final Hit hit = new Hit(entryOfName[nameIndex], names[nameIndex], score, phonetic);
+                bestHitOfEntry.merge(hit.entryIndex(), hit, (current, candidate) -> candidate.score() > current.score() ? candidate : current);
+            }
+            return List.copyOf(bestHitOfEntry.values());
+        } finally {
+            counters.reset();
+            counterPool.offer(counters);
+        }
+    }
+
+    /**
+     * @return {@code 100 * (1 - distance / longest length)}, or {@code -1} when below {@code minScore}
+     */
+    static int score(String query, String name, int minScore) {
+        final int maxLength = Math.max(query.length(), name.length());
+        final int distance = boundedLevenshtein(query, name, maxDistance(query, name, minScore));
+        return distance < 0 ? -1 : 100 - (100 * distance + maxLength - 1) / maxLength;
+    }
+
+    private static int maxDistance(String query, String name, int minScore) {
+        return Math.max(query.length(), name.length()) * (100 - Math.max(0, minScore)) / 100;
+    }
+
+    /**
+     * Lower bound of the edit distance counting the letters only, whatever their order: the letters of {@code name}
+     * missing from the query, or the other way round.
+     *
+     * @param scratch overwritten
+     */
+    static int bagDistance(int[] queryLetters, String name, int[] scratch) {
+        System.arraycopy(queryLetters, 0, scratch, 0, LETTER_BUCKETS);
+        for (int i = 0; i < name.length(); i++) {
+            scratch[name.charAt(i) % LETTER_BUCKETS]--;
+        }
+        int missingFromName = 0;
+        int missingFromQuery = 0;
+        for (int count : scratch) {
+            if (count > 0) {
+                missingFromName += count;
+            } else {
+                missingFromQuery -= count;
+            }
+        }
+        return Math.max(missingFromName, missingFromQuery);
+    }
+
+    static int[] letterHistogram(String name) {
+        final int[] letters = new int[LETTER_BUCKETS];
+        for (int i = 0; i < name.length(); i++) {
+            letters[name.charAt(i) % LETTER_BUCKETS]++;
+        }
+        return letters;
+    }
+
+    /**
+     * Levenshtein distance of {@code a} and {@code b}, or {@code -1} as soon as it is known to exceed {@code maxDistance}.
+     */
+    static int boundedLevenshtein(String a, String b, int maxDistance) {
+        if (Math.abs(a.length() - b.length()) > maxDistance) {
+            return -1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMinimum = current[0];
+            final char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                final int substitution = previous[j - 1] + (ca == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            // every later row is at least this distance
+            if (rowMinimum > maxDistance) {
+                return -1;
+            }
+            final int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= maxDistance ? previous[b.length()] : -1;
+    }
+
+    /**
+     * Distinct trigrams of the name padded with a space on both sides, each packed in a long.
+     */
+    static long[] trigrams(String name) {
+        final String padded = " " + name + " ";
+        final long[] trigrams = new long[Math.max(0, padded.length() - 2)];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+        }
+        return Arrays.stream(trigrams).distinct().toArray();
+    }
+
+    /**
+     * Distinct Soundex keys of the words of the name, for the words starting with a Latin letter.
+     */
+    static List<String> soundexKeys(String name) {
+        final List<String> keys = new ArrayList<>();
+        for (String word : name.split(" ")) {
+            final String key = soundex(word);
+            if (key != null && !keys.contains(key)) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * American Soundex of the word, not truncated to four characters: long words only sound alike when all their
+     * consonants do.
+     */
+    static String soundex(String word) {
+        if (word.isEmpty() || word.charAt(0) < 'a' || word.charAt(0) > 'z') {
+            return null;
+        }
+        final StringBuilder key = new StringBuilder(word.length()).append(Character.toUpperCase(word.charAt(0)));
+        char previousCode = soundexCode(word.charAt(0));
+        for (int i = 1; i < word.length(); i++) {
+            final char c = word.charAt(i);
+            final char code = soundexCode(c);
+            if (code != '0' && code != previousCode) {
+                key.append(code);
+            }
+            // h and w do not separate letters with the same code, vowels do
+            if (c != 'h' && c != 'w') {
+                previousCode = code;
+            }
+        }
+        return key.toString();
+    }
+
+    private static char soundexCode(char c) {
+        return switch (c) {
+            case 'b', 'f', 'p', 'v' -> '1';
+            case 'c', 'g', 'j', 'k', 'q', 's', 'x', 'z' -> '2';
+            case 'd', 't' -> '3';
+            case 'l' -> '4';
+            case 'm', 'n' -> '5';
+            case 'r' -> '6';
+            default -> '0';
+        };
+    }
+
+    private static String sortWords(String name) {
+        final String[] words = name.split(" ");
+        Arrays.sort(words);
+        return String.join(" ", words);
+    }
+
+    private static int wordCount(String name) {
+        int words = 1;
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) == ' ') {
+                words++;
+            }
+        }
+        return words;
+    }
+
+    private Counters borrowCounters() {
+        final Counters counters = counterPool.poll();
+        return counters != null ? counters : new Counters(names.length);
+    }
+
+    private static <K> Map<K, int[]> freeze(Map<K, IntList> postings) {
+        final Map<K, int[]> frozen = new HashMap<>(postings.size() * 2);
+        postings.forEach((key, nameIndexes) -> frozen.put(key, nameIndexes.toArray()));
+        return frozen;
+    }
+
+    /**
+     * Best match of an entry.
+     *
+     * @param matchedName normalized name or alias of the entry that matched
+     * @param phonetic    whether the name only sounds like the query
+     */
+    record Hit(int entryIndex, String matchedName, int score, boolean phonetic) {
+    }
+
+    /**
+     * Shared trigrams and Soundex keys of each name with the current query; only the touched names are reset.
+     */
+    private static final class Counters {
+
+        private final int[] trigramHits;
+        private final int[] soundexHits;
+        private final int[] touched;
+        private final int[] letters = new int[LETTER_BUCKETS];
+        private int touchedCount;
+
+        private Counters(int nameCount) {
+            this.trigramHits = new int[nameCount];
+            this.soundexHits = new int[nameCount];
+            this.touched = new int[nameCount];
+        }
+
+        private void hitTrigram(int nameIndex) {
+            touch(nameIndex);
+            trigramHits[nameIndex]++;
+        }
+
+        private void hitSoundex(int nameIndex) {
+            touch(nameIndex);
+            soundexHits[nameIndex]++;
+        }
+
+        private void touch(int nameIndex) {
+            if (trigramHits[nameIndex] == 0 && soundexHits[nameIndex] == 0) {
+                touched[touchedCount++] = nameIndex;
+            }
+        }
+
+        private void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                trigramHits[touched[i]] = 0;
+                soundexHits[touched[i]] = 0;
+            }
+            touchedCount = 0;
+        }
+    }
+
+    private static final class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        // names are indexed in increasing order: a repeated value is the last one
+        private void addDistinct(int value) {
+            if (size == 0 || values[size - 1] != value) {
+                add(value);
+            }
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package raff.stein.customer.service.aml.sanctions.local;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import raff.stein.customer.client.eu.sanctions.model.screen.ScreenRequest;
+import raff.stein.customer.client.eu.sanctions.model.screen.ScreenResponse;
+import raff.stein.customer.service.aml.pipeline.config.AmlProperties;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Screens customers against a sanctions list file loaded in memory, without calling the screening engine.
+ * <p>
+ * The file at {@code aml.local-screening.list-path} is a JSON array of {@link SanctionListEntry}, indexed by a
+ * {@link FuzzyNameIndex} on startup and reloaded when it changes. The full name and the aliases of the customer are
+ * searched; a different year of birth lowers the score of a match. The response has the shape of the engine one, with
+ * {@code LOCAL} as provider of the matches.
+ * <p>
+ * In {@code FALLBACK} mode, the default, it only screens when the engine fails or is slower than
+ * {@code aml.local-screening.provider-timeout}; in {@code PRIMARY} mode it replaces the engine.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "aml.local-screening", name = "enabled", havingValue = "true")
+public class LocalSanctionScreeningEngine {
+
+    public static final String PROVIDER = "LOCAL";
+    // lowered score of a match whose year of birth differs from the customer one
+    static final int DATE_OF_BIRTH_MISMATCH_PENALTY = 15;
+    private static final TypeReference<List<SanctionListEntry>> LIST_TYPE = new TypeReference<>() {
+    };
+
+    private final AmlProperties.LocalScreening config;
+    private final Resource listResource;
+    private final ObjectMapper objectMapper;
+    private volatile LoadedList loadedList;
+
+    public LocalSanctionScreeningEngine(AmlProperties amlProperties, ResourceLoader resourceLoader, ObjectMapper objectMapper) {
+        this.config = amlProperties.getLocalScreening();
+        this.listResource = resourceLoader.getResource(config.getListPath());
+        this.objectMapper = objectMapper;
+        // fails the startup: an enabled engine without list would clear every customer
+        this.loadedList = load();
+    }
+
+    LocalSanctionScreeningEngine(AmlProperties.LocalScreening config, List<SanctionListEntry> entries) {
+        this.config = config;
+        this.listResource = null;
+        this.objectMapper = null;
+        this.loadedList = new LoadedList(entries, new FuzzyNameIndex(entries), "local", 0);
+    }
+
+    public boolean isPrimary() {
+        return config.getMode() == AmlProperties.LocalScreening.Mode.PRIMARY;
+    }
+
+    /**
+     * @return the loaded list version, the last modification time of the file
+     */
+    public String getListVersion() {
+        return loadedList.version();
+    }
+
+    public ScreenResponse screen(ScreenRequest request) {
+        final LoadedList list = loadedList;
+        final int minScore = request.getMinMatchScore() != null ? request.getMinMatchScore() : config.getMinMatchScore();
+        final Map<Integer, FuzzyNameIndex.Hit> bestHitOfEntry = new HashMap<>();
+        for (String name : searchedNames(request)) {
+            for (FuzzyNameIndex.Hit hit : list.index().search(name, minScore)) {
+                final FuzzyNameIndex.Hit adjusted = adjustForDateOfBirth(hit, list.entries().get(hit.entryIndex()), request);
+                if (adjusted.score() >= minScore) {
+                    bestHitOfEntry.merge(adjusted.entryIndex(), adjusted,
+                            (current, candidate) -> candidate.score() > current.score() ? candidate : current);
+                }
+            }
+        }
+        final List<ScreenResponse.Match> matches = bestHitOfEntry.values().stream()
+                .filter(hit -> isScreenedList(list.entries().get(hit.entryIndex()), request))
+                .sorted(Comparator.comparingInt(FuzzyNameIndex.Hit::score).reversed())
+                .limit(config.getMaxMatches())
+                .map(hit -> toMatch(list.entries().get(hit.entryIndex()), hit))
+                .toList();
+        final int maxMatchScore = matches.stream().mapToInt(ScreenResponse.Match::getScore).max().orElse(0);
+        return ScreenResponse.builder()
+                .correlationId(request.getCorrelationId())
+                .requestId(request.getRequestId())
+                .screenedAt(OffsetDateTime.now(ZoneOffset.UTC))
+                .engineVersion(PROVIDER + ":" + list.version())
+                .status(ScreenResponse.Status.SUCCESS)
+                .decision(decision(matches, maxMatchScore))
+                .matchFound(!matches.isEmpty())
+                .maxMatchScore(maxMatchScore)
+                .matchesCount(matches.size())
+                .matches(matches)
+                .build();
+    }
+
+    /**
+     * Reloads the list when the file changed since it was loaded. A failure keeps the loaded list.
+     */
+    @Scheduled(initialDelayString = "${aml.local-screening.reload-interval:1h}",
+            fixedDelayString = "${aml.local-screening.reload-interval:1h}")
+    public void reloadIfModified() {
+        try {
+            if (lastModified(listResource) == loadedList.lastModified()) {
+                return;
+            }
+            final LoadedList previous = loadedList;
+            loadedList = load();
+            log.info("Local sanctions list reloaded from version [{}] to [{}]", previous.version(), loadedList.version());
+        } catch (Exception e) {
+            log.warn("Could not reload the local sanctions list, keeping version [{}]: {}",
+                    loadedList.version(), e.getMessage());
+        }
+    }
+
+    private LoadedList load() {
+        final long start = System.nanoTime();
+        final List<SanctionListEntry> entries;
+        final long lastModified;
+        try (InputStream inputStream = listResource.getInputStream()) {
+            entries = List.copyOf(objectMapper.readValue(inputStream, LIST_TYPE));
+            lastModified = lastModified(listResource);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read the local sanctions list " + listResource.getDescription(), e);
+        }
+        final FuzzyNameIndex index = new FuzzyNameIndex(entries);
+        log.info("Local sanctions list {} loaded: {} entries, {} names indexed in {} ms",
+                listResource.getDescription(), index.entryCount(), index.nameCount(), (System.nanoTime() - start) / 1_000_000);
+        return new LoadedList(entries, index, String.valueOf(lastModified), lastModified);
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            // e.g. a classpath resource inside a jar: loaded once
+            return 0;
+        }
+    }
+
+    private static List<String> searchedNames(ScreenRequest request) {
+        final List<String> names = new ArrayList<>();
+        names.add(String.join(" ",
+                Objects.toString(request.getFirstName(), ""),
+                Objects.toString(request.getMiddleName(), ""),
+                Objects.toString(request.getLastName(), "")));
+        if (request.getAliases() != null) {
+            names.addAll(request.getAliases());
+        }
+        return names;
+    }
+
+    private static FuzzyNameIndex.Hit adjustForDateOfBirth(FuzzyNameIndex.Hit hit, SanctionListEntry entry, ScreenRequest request) {
+        if (entry.dateOfBirth() == null
+                || request.getDateOfBirth() == null
+                || entry.dateOfBirth().getYear() == request.getDateOfBirth().getYear()) {
+            return hit;
+        }
+        return new FuzzyNameIndex.Hit(hit.entryIndex(), hit.matchedName(),
+                Math.max(0, hit.score() - DATE_OF_BIRTH_MISMATCH_PENALTY), hit.phonetic());
+    }
+
+    private static boolean isScreenedList(SanctionListEntry entry, ScreenRequest request) {
+        return request.getListTypes() == null
+                || request.getListTypes().isEmpty()
+                || request.getListTypes().contains(entry.listType());
+    }
+
+    private ScreenResponse.Decision decision(List<ScreenResponse.Match> matches, int maxMatchScore) {
+        if (matches.isEmpty()) {
+            return ScreenResponse.Decision.CLEAR;
+        }
+        return maxMatchScore >= config.getHitScore() ? ScreenResponse.Decision.HIT : ScreenResponse.Decision.REVIEW;
+    }
+
+    private static ScreenResponse.Match toMatch(SanctionListEntry entry, FuzzyNameIndex.Hit hit) {
+        final ScreenRequest.MatchMode matchMode;
+        if (hit.phonetic()) {
+            matchMode = ScreenRequest.MatchMode.PHONETIC;
+        } else {
+            matchMode = hit.score() == 100 ? ScreenRequest.MatchMode.EXACT : ScreenRequest.MatchMode.FUZZY;
+        }
+        return ScreenResponse.Match.builder()
+                .matchId(PROVIDER + "-" + entry.id())
+                .listType(entry.listType())
+                .provider(PROVIDER)
+                .entityExternalId(entry.id())
+                .entityName(entry.name())
+                .akaNames(entry.aliases())
+                .score(hit.score())
+                .matchMode(matchMode)
+                .pep(entry.listType() == ScreenRequest.ListType.PEP)
+                .sanction(entry.listType() != ScreenRequest.ListType.PEP)
+                .references(List.of(ScreenResponse.SanctionReference.builder()
+                        .regime(entry.regime())
+                        .listName(entry.listName())
+                        .referenceId(entry.id())
+                        .build()))
+                .notes("Matched on " + hit.matchedName())
+                .build();
+    }
+
+    private record LoadedList(List<SanctionListEntry> entries, FuzzyNameIndex index, String version, long lastModified) {
+    }
+}
@@ -0,0 +1,28 @@
+package raff.stein.customer.service.aml.sanctions.local;
+
+import raff.stein.customer.client.eu.sanctions.model.screen.ScreenRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * One listed entity of the local sanctions list file, a JSON array of these entries.
+ *
+ * @param id          reference of the entity on the source list
+ * @param aliases     also-known-as names, matched like the name
+ * @param dateOfBirth optional, a different year of birth lowers the score of a match
+ */
+public record SanctionListEntry(
+        String id,
+        String name,
+        List<String> aliases,
+        ScreenRequest.ListType listType,
+        String regime,
+        String listName,
+        LocalDate dateOfBirth,
+        String nationality) {
+
+    public SanctionListEntry {
+        aliases = aliases != null ? List.copyOf(aliases) : List.of();
+    }
+}
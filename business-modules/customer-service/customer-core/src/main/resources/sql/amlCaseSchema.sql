@@ -0,0 +1,4 @@
+-- Run after Hibernate created the tables (spring.jpa.defer-datasource-initialization).
+-- A customer has at most one open AML case; a partial index cannot be declared on the entity.
+CREATE UNIQUE INDEX IF NOT EXISTS uk_aml_case_customer_open ON aml_case (customer_id)
+    WHERE status IN ('QUEUED', 'RUNNING', 'WAITING_EXTERNAL');
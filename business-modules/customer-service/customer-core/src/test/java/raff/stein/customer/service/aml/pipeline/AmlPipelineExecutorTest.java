@@ -0,0 +1,104 @@
+package raff.stein.customer.service.aml.pipeline;
+
+import org.junit.jupiter.api.Test;
+import raff.stein.customer.service.aml.pipeline.config.AmlConfiguration;
+import raff.stein.customer.service.aml.pipeline.config.AmlProperties;
+import raff.stein.customer.service.aml.pipeline.step.AmlContext;
+import raff.stein.customer.service.aml.pipeline.step.AmlStep;
+import raff.stein.customer.service.aml.pipeline.step.AmlStepResult;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AmlPipelineExecutorTest {
+
+    @Test
+    void shouldRunIndependentStepsConcurrentlyAndKeepTheStatusPrecedence() {
+        AmlPipelineExecutor executor = executor(List.of(
+                stepConfig("identity", null, null),
+                stepConfig("sanctions", List.of("identity"), null),
+                stepConfig("pep", List.of("identity"), null),
+                stepConfig("media", List.of("identity"), null),
+                stepConfig("decision", List.of("sanctions", "pep", "media"), null)),
+                List.of(
+                        new SleepingStep("eu-identity", 0, AmlStepResult.StepStatus.PASSED),
+                        new SleepingStep("eu-sanctions", 400, AmlStepResult.StepStatus.REVIEW),
+                        new SleepingStep("eu-pep", 400, AmlStepResult.StepStatus.WAITING_EXTERNAL),
+                        new SleepingStep("eu-media", 400, AmlStepResult.StepStatus.PASSED),
+                        new SleepingStep("eu-decision", 0, AmlStepResult.StepStatus.PASSED)));
+
+        AmlResult result = executor.execute(context());
+
+        assertThat(Duration.between(result.startedAt(), result.finishedAt())).isLessThan(Duration.ofMillis(1000));
+        assertThat(result.executedSteps()).extracting(AmlStepResult::stepName)
+                .containsExactly("eu-identity", "eu-sanctions", "eu-pep", "eu-media", "eu-decision");
+        assertThat(result.overallStatus()).isEqualTo(AmlStepResult.StepStatus.WAITING_EXTERNAL);
+    }
+
+    @Test
+    void shouldFailTimedOutStepsAndSkipTheirDependents() {
+        AmlPipelineExecutor executor = executor(List.of(
+                stepConfig("identity", null, null),
+                stepConfig("sanctions", List.of("identity"), Duration.ofMillis(100)),
+                stepConfig("decision", List.of("sanctions"), null)),
+                List.of(
+                        new SleepingStep("eu-identity", 0, AmlStepResult.StepStatus.PASSED),
+                        new SleepingStep("eu-sanctions", 5_000, AmlStepResult.StepStatus.PASSED),
+                        new SleepingStep("eu-decision", 0, AmlStepResult.StepStatus.PASSED)));
+
+        AmlResult result = executor.execute(context());
+
+        assertThat(result.executedSteps()).extracting(AmlStepResult::stepName)
+                .containsExactly("eu-identity", "eu-sanctions");
+        assertThat(result.executedSteps().getLast().reason()).startsWith("TIMEOUT");
+        assertThat(result.overallStatus()).isEqualTo(AmlStepResult.StepStatus.FAILED);
+    }
+
+    private static AmlPipelineExecutor executor(List<AmlProperties.StepConfig> stepConfigs, List<AmlStep> steps) {
+        AmlProperties.JurisdictionConfig jurisdictionConfig = new AmlProperties.JurisdictionConfig();
+        jurisdictionConfig.setSteps(stepConfigs);
+        AmlProperties properties = new AmlProperties();
+        properties.setJurisdictions(Map.of("eu", jurisdictionConfig));
+        return new AmlPipelineExecutor(new AmlPipelineFactory(new AmlConfiguration(properties), steps));
+    }
+
+    private static AmlProperties.StepConfig stepConfig(String name, List<String> dependsOn, Duration timeout) {
+        AmlProperties.StepConfig stepConfig = new AmlProperties.StepConfig();
+        stepConfig.setName(name);
+        stepConfig.setEnabled(true);
+        stepConfig.setDependsOn(dependsOn);
+        stepConfig.setTimeout(timeout);
+        return stepConfig;
+    }
+
+    private static AmlContext context() {
+        return AmlContext.builder()
+                .amlCaseId(UUID.randomUUID())
+                .jurisdiction("eu")
+                .build();
+    }
+
+    private record SleepingStep(String name, long sleepMillis, AmlStepResult.StepStatus status) implements AmlStep {
+
+        @Override
+        public AmlStepResult execute(AmlContext context) {
+            Instant start = Instant.now();
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return AmlStepResult.builder()
+                    .stepName(name)
+                    .status(status)
+                    .startedAt(start)
+                    .finishedAt(Instant.now())
+                    .build();
+        }
+    }
+}
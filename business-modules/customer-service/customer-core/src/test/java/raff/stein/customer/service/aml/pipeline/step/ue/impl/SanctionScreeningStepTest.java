@@ -0,0 +1,112 @@
+package raff.stein.customer.service.aml.pipeline.step.ue.impl;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import raff.stein.customer.client.eu.sanctions.model.screen.ScreenRequest;
+import raff.stein.customer.client.eu.sanctions.model.screen.ScreenResponse;
+import raff.stein.customer.model.bo.customer.Customer;
+import raff.stein.customer.service.aml.pipeline.config.AmlProperties;
+import raff.stein.customer.service.aml.pipeline.step.AmlContext;
+import raff.stein.customer.service.aml.pipeline.step.AmlStepResult;
+import raff.stein.customer.service.aml.sanctions.SanctionScreeningCache;
+import raff.stein.customer.service.aml.sanctions.local.LocalSanctionScreeningEngine;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SanctionScreeningStepTest {
+
+    private final SanctionScreeningCache sanctionScreeningCache = mock(SanctionScreeningCache.class);
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<LocalSanctionScreeningEngine> localScreeningEngine = mock(ObjectProvider.class);
+    private final AmlProperties amlProperties = new AmlProperties();
+    private final SanctionScreeningStep sanctionScreeningStep =
+            new SanctionScreeningStep(sanctionScreeningCache, localScreeningEngine, amlProperties);
+
+    @Test
+    void shouldFailOnExactHitsOnSeveralLists() {
+        screened(ScreenResponse.builder()
+                .status(ScreenResponse.Status.SUCCESS)
+                .decision(ScreenResponse.Decision.HIT)
+                .maxMatchScore(100)
+                .matches(List.of(match(ScreenRequest.ListType.EU, 100), match(ScreenRequest.ListType.UN, 100)))
+                .build());
+
+        AmlStepResult result = sanctionScreeningStep.execute(context());
+
+        assertThat(result.decision()).isEqualTo(AmlStepResult.Decision.FAIL);
+        assertThat(result.details()).containsEntry("maxMatchScore", 100);
+    }
+
+    @Test
+    void shouldDecideOnTheMaxMatchScoreWithoutEngineDecision() {
+        screened(ScreenResponse.builder()
+                .matches(List.of(match(ScreenRequest.ListType.EU, 100), match(ScreenRequest.ListType.UN, 100)))
+                .build());
+        assertThat(sanctionScreeningStep.execute(context()).decision()).isEqualTo(AmlStepResult.Decision.FAIL);
+
+        screened(ScreenResponse.builder()
+                .matches(List.of(match(ScreenRequest.ListType.OFAC, 60)))
+                .build());
+        assertThat(sanctionScreeningStep.execute(context()).decision()).isEqualTo(AmlStepResult.Decision.MANUAL_REVIEW);
+
+        screened(ScreenResponse.builder()
+                .status(ScreenResponse.Status.SUCCESS)
+                .matches(List.of())
+                .build());
+        assertThat(sanctionScreeningStep.execute(context()).decision()).isEqualTo(AmlStepResult.Decision.PASS);
+    }
+
+    @Test
+    void shouldApplyConfiguredDecisionSettings() {
+        amlProperties.getSanctionsDecision().setHitScore(50);
+        screened(ScreenResponse.builder()
+                .status(ScreenResponse.Status.SUCCESS)
+                .matches(List.of(match(ScreenRequest.ListType.OFAC, 60)))
+                .build());
+        assertThat(sanctionScreeningStep.execute(context()).decision()).isEqualTo(AmlStepResult.Decision.FAIL);
+
+        screened(ScreenResponse.builder()
+                .status(ScreenResponse.Status.PARTIAL)
+                .matches(List.of())
+                .build());
+        assertThat(sanctionScreeningStep.execute(context()).decision()).isEqualTo(AmlStepResult.Decision.MANUAL_REVIEW);
+
+        amlProperties.getSanctionsDecision().setReviewIncompleteScreenings(false);
+        assertThat(sanctionScreeningStep.execute(context()).decision()).isEqualTo(AmlStepResult.Decision.PASS);
+    }
+
+    private void screened(ScreenResponse response) {
+        when(sanctionScreeningCache.screen(any()))
+                .thenReturn(new SanctionScreeningCache.SanctionScreening(response, "2024-06-01", false));
+    }
+
+    private static ScreenResponse.Match match(ScreenRequest.ListType listType, int score) {
+        return ScreenResponse.Match.builder().listType(listType).entityName("Mario Rossi").score(score).build();
+    }
+
+    private static AmlContext context() {
+        return AmlContext.builder()
+                .amlCaseId(UUID.randomUUID())
+                .jurisdiction("EU")
+                .customer(Customer.builder()
+                        .id(UUID.randomUUID())
+                        .firstName("Mario")
+                        .lastName("Rossi")
+                        .taxId("RSSMRA80A01H501U")
+                        .dateOfBirth(LocalDate.of(1980, 1, 1))
+                        .nationality("IT")
+                        .gender("M")
+                        .addressLine1("Via Roma 1")
+                        .addressLine2("Scala A")
+                        .city("Milano")
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,138 @@
+package raff.stein.customer.service.aml.queue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import raff.stein.customer.model.bo.aml.AmlCase;
+import raff.stein.customer.model.entity.aml.AmlCaseEntity;
+import raff.stein.customer.model.entity.aml.enumeration.AmlCaseStatus;
+import raff.stein.customer.repository.aml.AmlCaseRepository;
+import raff.stein.customer.service.aml.pipeline.config.AmlProperties;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AmlCaseQueueTest {
+
+    private final AmlCaseRepository amlCaseRepository = mock(AmlCaseRepository.class);
+    private final AmlProperties amlProperties = new AmlProperties();
+    private final AmlCaseQueue amlCaseQueue =
+            new AmlCaseQueue(amlCaseRepository, amlProperties, () -> Optional.of("rescreening"),
+                    mock(PlatformTransactionManager.class));
+
+    @Test
+    void shouldRetryWithExponentialBackoffThenFail() {
+        AmlCaseEntity amlCase = runningCase(1);
+
+        amlCaseQueue.retryOrFail(amlCase.getId(), amlCase.getLeaseToken(), new IllegalStateException("provider timeout"));
+
+        assertThat(amlCase.getStatus()).isEqualTo(AmlCaseStatus.QUEUED);
+        assertThat(amlCase.getAttempts()).isEqualTo(2);
+        assertThat(amlCase.getNextAttemptAt())
+                .isCloseTo(OffsetDateTime.now(ZoneOffset.UTC).plusSeconds(60), within(Duration.ofSeconds(5)));
+        assertThat(amlCase.getLastError()).isEqualTo("IllegalStateException: provider timeout");
+        assertThat(AmlCaseQueue.backoff(amlProperties.getQueue(), 30)).isEqualTo(Duration.ofMinutes(30));
+
+        amlCase.setStatus(AmlCaseStatus.RUNNING);
+        amlCase.setLeaseToken(UUID.randomUUID());
+        amlCase.setAttempts(amlProperties.getQueue().getMaxAttempts() - 1);
+        amlCaseQueue.retryOrFail(amlCase.getId(), amlCase.getLeaseToken(), new IllegalStateException("provider timeout"));
+
+        assertThat(amlCase.getStatus()).isEqualTo(AmlCaseStatus.FAILED);
+    }
+
+    @Test
+    void shouldOnlyResumeParkedCases() {
+        AmlCaseEntity amlCase = runningCase(1);
+
+        amlCaseQueue.resume(amlCase.getId());
+        assertThat(amlCase.getStatus()).isEqualTo(AmlCaseStatus.RUNNING);
+
+        amlCase.setStatus(AmlCaseStatus.WAITING_EXTERNAL);
+        amlCaseQueue.resume(amlCase.getId());
+        assertThat(amlCase.getStatus()).isEqualTo(AmlCaseStatus.QUEUED);
+    }
+
+    @Test
+    void shouldDropResultOfWorkerWithoutLease() {
+        AmlCaseEntity amlCase = runningCase(0);
+        UUID staleLease = UUID.randomUUID();
+
+        assertThat(amlCaseQueue.complete(amlCase.getId(), staleLease)).isFalse();
+        assertThat(amlCaseQueue.park(amlCase.getId(), staleLease)).isFalse();
+        amlCaseQueue.retryOrFail(amlCase.getId(), staleLease, new IllegalStateException("provider timeout"));
+        assertThat(amlCase.getStatus()).isEqualTo(AmlCaseStatus.RUNNING);
+        assertThat(amlCase.getAttempts()).isZero();
+
+        assertThat(amlCaseQueue.complete(amlCase.getId(), amlCase.getLeaseToken())).isTrue();
+        assertThat(amlCase.getStatus()).isEqualTo(AmlCaseStatus.COMPLETED);
+        assertThat(amlCase.getLeaseToken()).isNull();
+        // a completed case is not RUNNING anymore: a late duplicate is dropped as well
+        assertThat(amlCaseQueue.park(amlCase.getId(), null)).isFalse();
+    }
+
+    @Test
+    void shouldCountOnlyFailuresAsAttempts() {
+        AmlCaseEntity parked = runningCase(1);
+        parked.setStatus(AmlCaseStatus.QUEUED);
+        AmlCaseEntity expiredLease = runningCase(1);
+        when(amlCaseRepository.lockDueCases(any(), anyInt())).thenReturn(List.of(parked, expiredLease));
+
+        List<AmlCase> claimed = amlCaseQueue.claimDueCases(2);
+
+        // a resumed case runs again without a failure, a lost lease is one
+        assertThat(claimed).extracting(AmlCase::getAttempts).containsExactly(1, 2);
+        assertThat(claimed).extracting(AmlCase::getLeaseToken).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(parked.getStatus()).isEqualTo(AmlCaseStatus.RUNNING);
+    }
+
+    @Test
+    void shouldReturnCaseQueuedConcurrently() {
+        AmlCaseEntity concurrentCase = runningCase(0);
+        when(amlCaseRepository.findFirstByCustomerIdAndStatusIn(eq(concurrentCase.getCustomerId()), anyCollection()))
+                .thenReturn(Optional.empty(), Optional.of(concurrentCase));
+        when(amlCaseRepository.saveAndFlush(any()))
+                .thenThrow(new DataIntegrityViolationException("uk_aml_case_customer_open"));
+
+        AmlCase amlCase = amlCaseQueue.enqueue(concurrentCase.getCustomerId());
+
+        assertThat(amlCase.getAmlCaseId()).isEqualTo(concurrentCase.getId());
+    }
+
+    @Test
+    void shouldSkipCustomerWithOpenCaseInCallerTransaction() {
+        UUID customerId = UUID.randomUUID();
+        when(amlCaseRepository.insertQueuedIfNoneOpen(any(), eq(customerId), any(), eq("rescreening")))
+                .thenReturn(1, 0);
+
+        assertThat(amlCaseQueue.enqueueInTransaction(customerId)).isTrue();
+        assertThat(amlCaseQueue.enqueueInTransaction(customerId)).isFalse();
+    }
+
+    private AmlCaseEntity runningCase(int attempts) {
+        AmlCaseEntity amlCase = AmlCaseEntity.builder()
+                .id(UUID.randomUUID())
+                .customerId(UUID.randomUUID())
+                .status(AmlCaseStatus.RUNNING)
+                .attempts(attempts)
+                .nextAttemptAt(OffsetDateTime.now(ZoneOffset.UTC))
+                .leaseToken(UUID.randomUUID())
+                .build();
+        when(amlCaseRepository.findById(amlCase.getId())).thenReturn(Optional.of(amlCase));
+        when(amlCaseRepository.lockById(amlCase.getId())).thenReturn(Optional.of(amlCase));
+        return amlCase;
+    }
+}
@@ -0,0 +1,101 @@
+package raff.stein.customer.service.aml.rescreening;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import raff.stein.customer.client.eu.sanctions.SanctionClient;
+import raff.stein.customer.client.eu.sanctions.model.screen.ScreenRequest;
+import raff.stein.customer.client.eu.sanctions.model.screen.ScreenResponse;
+import raff.stein.customer.model.bo.aml.SanctionRescreeningJob;
+import raff.stein.customer.model.entity.aml.SanctionRescreeningResultEntity;
+import raff.stein.customer.model.entity.aml.enumeration.SanctionRescreeningStatus;
+import raff.stein.customer.model.entity.customer.projection.CustomerScreeningProjection;
+import raff.stein.customer.repository.customer.CustomerRepository;
+import raff.stein.customer.service.aml.pipeline.config.AmlProperties;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SanctionRescreeningServiceTest {
+
+    private final CustomerRepository customerRepository = mock(CustomerRepository.class);
+    private final SanctionClient sanctionClient = mock(SanctionClient.class);
+    private final SanctionRescreeningStore rescreeningStore = mock(SanctionRescreeningStore.class);
+    private final AmlProperties amlProperties = new AmlProperties();
+    private final SanctionRescreeningService sanctionRescreeningService =
+            new SanctionRescreeningService(customerRepository, sanctionClient, rescreeningStore, amlProperties);
+
+    private final SanctionRescreeningJob job = SanctionRescreeningJob.builder()
+            .jobId(UUID.randomUUID())
+            .status(SanctionRescreeningStatus.RUNNING)
+            .listVersion("2024-06-01")
+            .build();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldScreenEachPageInBatchesAndCheckpointAfterIt() {
+        amlProperties.getRescreening().setBatchSize(1);
+        CustomerScreeningProjection first = customer("Mario");
+        CustomerScreeningProjection second = customer("Luigi");
+        CustomerScreeningProjection third = customer("Anna");
+        when(customerRepository.findScreeningPage(any(), any(), any()))
+                .thenReturn(List.of(first, second), List.of(third), List.of());
+        when(sanctionClient.screenClients(anyList())).thenAnswer(invocation -> ((List<ScreenRequest>) invocation.getArgument(0))
+                .stream()
+                .map(request -> ScreenResponse.builder()
+                        .requestId(request.getRequestId())
+                        .status(ScreenResponse.Status.SUCCESS)
+                        .decision("Luigi".equals(request.getFirstName()) ? ScreenResponse.Decision.HIT : ScreenResponse.Decision.CLEAR)
+                        .matches(List.of())
+                        .build())
+                .toList());
+        when(rescreeningStore.checkpoint(eq(job.getJobId()), any(), any(), anyList(), anyLong())).thenReturn(true);
+        when(rescreeningStore.complete(job.getJobId(), third.id())).thenReturn(job);
+
+        sanctionRescreeningService.run(job);
+
+        ArgumentCaptor<List<SanctionRescreeningResultEntity>> results = ArgumentCaptor.forClass(List.class);
+        verify(rescreeningStore).checkpoint(eq(job.getJobId()), isNull(), eq(second.id()), results.capture(), anyLong());
+        verify(rescreeningStore).checkpoint(eq(job.getJobId()), eq(second.id()), eq(third.id()), anyList(), anyLong());
+        verify(rescreeningStore).complete(job.getJobId(), third.id());
+        verify(sanctionClient, times(3)).screenClients(anyList());
+        assertThat(results.getValue())
+                .extracting(SanctionRescreeningResultEntity::getCustomerId, SanctionRescreeningResultEntity::isFlagged)
+                .containsExactly(
+                        tuple(first.id(), false),
+                        tuple(second.id(), true));
+        assertThat(results.getValue()).allSatisfy(result -> assertThat(result.getListVersion()).isEqualTo("2024-06-01"));
+    }
+
+    @Test
+    void shouldFailResumablyFromTheLastCheckpoint() {
+        amlProperties.getRescreening().setMaxBatchAttempts(1);
+        job.setLastCustomerId(UUID.randomUUID());
+        when(customerRepository.findScreeningPage(any(), eq(job.getLastCustomerId()), any()))
+                .thenReturn(List.of(customer("Mario")));
+        IllegalStateException engineDown = new IllegalStateException("engine unavailable");
+        when(sanctionClient.screenClients(anyList())).thenThrow(engineDown);
+
+        sanctionRescreeningService.run(job);
+
+        verify(rescreeningStore).fail(job.getJobId(), job.getLastCustomerId(), engineDown);
+        verify(rescreeningStore, never()).checkpoint(any(), any(), any(), anyList(), anyLong());
+    }
+
+    private static CustomerScreeningProjection customer(String firstName) {
+        return new CustomerScreeningProjection(UUID.randomUUID(), firstName, "Rossi", LocalDate.of(1980, 1, 1), "IT", "TAX" + firstName);
+    }
+}
@@ -0,0 +1,102 @@
+package raff.stein.customer.service.aml.sanctions;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import raff.stein.customer.client.eu.sanctions.SanctionClient;
+import raff.stein.customer.client.eu.sanctions.model.list.SanctionListVersion;
+import raff.stein.customer.client.eu.sanctions.model.screen.ScreenRequest;
+import raff.stein.customer.client.eu.sanctions.model.screen.ScreenResponse;
+import raff.stein.customer.service.aml.pipeline.config.AmlProperties;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SanctionScreeningCacheTest {
+
+    private final SanctionClient sanctionClient = mock(SanctionClient.class);
+    private final SanctionScreeningCache sanctionScreeningCache = new SanctionScreeningCache(
+            sanctionClient, new AmlProperties.SanctionsCache(), new SimpleMeterRegistry(), Clock.systemUTC());
+
+    @Test
+    void shouldReuseTheScreeningOfTheSameNormalizedIdentity() {
+        listVersion("2024-06-01");
+        when(sanctionClient.screenClient(any())).thenReturn(clearResponse());
+
+        SanctionScreeningCache.SanctionScreening first = sanctionScreeningCache.screen(request("José", "De La Cruz", "rss mra 80a01 h501u"));
+        SanctionScreeningCache.SanctionScreening second = sanctionScreeningCache.screen(request(" JOSE ", "de la  cruz", "RSSMRA80A01H501U"));
+        SanctionScreeningCache.SanctionScreening other = sanctionScreeningCache.screen(request("Josefa", "De La Cruz", "RSSMRA80A01H501U"));
+
+        assertThat(first.cached()).isFalse();
+        assertThat(second.cached()).isTrue();
+        assertThat(second.response()).isSameAs(first.response());
+        assertThat(second.listVersion()).isEqualTo("2024-06-01");
+        assertThat(other.cached()).isFalse();
+        verify(sanctionClient, times(2)).screenClient(any());
+    }
+
+    @Test
+    void shouldDropTheScreeningsWhenTheListsVersionChanges() {
+        listVersion("2024-06-01");
+        when(sanctionClient.screenClient(any())).thenReturn(clearResponse());
+        sanctionScreeningCache.screen(request("Mario", "Rossi", "RSSMRA80A01H501U"));
+
+        listVersion("2024-06-02");
+        SanctionScreeningCache.SanctionScreening screening = sanctionScreeningCache.screen(request("Mario", "Rossi", "RSSMRA80A01H501U"));
+
+        assertThat(screening.cached()).isFalse();
+        assertThat(screening.listVersion()).isEqualTo("2024-06-02");
+        verify(sanctionClient, times(2)).screenClient(any());
+    }
+
+    @Test
+    void shouldNotCacheWithoutListsVersionOrIncompleteScreenings() {
+        when(sanctionClient.getListVersion()).thenThrow(new IllegalStateException("engine unavailable"));
+        sanctionScreeningCache.refreshListVersion();
+        when(sanctionClient.screenClient(any())).thenReturn(clearResponse());
+        sanctionScreeningCache.screen(request("Mario", "Rossi", "RSSMRA80A01H501U"));
+        sanctionScreeningCache.screen(request("Mario", "Rossi", "RSSMRA80A01H501U"));
+
+        listVersion("2024-06-01");
+        when(sanctionClient.screenClient(any())).thenReturn(ScreenResponse.builder()
+                .status(ScreenResponse.Status.PARTIAL)
+                .matches(List.of())
+                .build());
+        sanctionScreeningCache.screen(request("Mario", "Rossi", "RSSMRA80A01H501U"));
+        SanctionScreeningCache.SanctionScreening screening = sanctionScreeningCache.screen(request("Mario", "Rossi", "RSSMRA80A01H501U"));
+
+        assertThat(screening.cached()).isFalse();
+        verify(sanctionClient, times(4)).screenClient(any());
+    }
+
+    private void listVersion(String version) {
+        doReturn(SanctionListVersion.builder().version(version).build()).when(sanctionClient).getListVersion();
+        sanctionScreeningCache.refreshListVersion();
+    }
+
+    private static ScreenRequest request(String firstName, String lastName, String taxId) {
+        return ScreenRequest.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .dateOfBirth(LocalDate.of(1980, 1, 1))
+                .nationality("IT")
+                .taxId(taxId)
+                .build();
+    }
+
+    private static ScreenResponse clearResponse() {
+        return ScreenResponse.builder()
+                .status(ScreenResponse.Status.SUCCESS)
+                .decision(ScreenResponse.Decision.CLEAR)
+                .matches(List.of())
+                .build();
+    }
+}
@@ -0,0 +1,106 @@
+package raff.stein.customer.service.aml.sanctions.local;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import raff.stein.customer.client.eu.sanctions.model.screen.ScreenRequest;
+import raff.stein.customer.client.eu.sanctions.model.screen.ScreenResponse;
+import raff.stein.customer.service.aml.pipeline.config.AmlProperties;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a {@link LocalSanctionScreeningEngine} screening against a synthetic list of 50k entries, for a listed
+ * name, a listed name with a typo and an unlisted name.
+ * Not part of the test suite: run {@link #main} from the IDE after {@code mvn test-compile}.
+ */
+@Slf4j
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalSanctionScreeningEngineBenchmark {
+
+    private static final int LIST_SIZE = 50_000;
+    private static final String[] FIRST_NAMES = {
+            "Viktor", "Mohammed", "Maria", "Ahmed", "Olga", "Hassan", "Elena", "Ivan", "Fatima", "Dmitri",
+            "Omar", "Svetlana", "Ali", "Natalia", "Yusuf", "Irina", "Kim", "Sergei", "Leila", "Abdul"};
+    private static final String CONSONANTS = "bcdfghjklmnprstvwyz";
+    private static final String VOWELS = "aeiou";
+
+    @Param({"exact", "typo", "miss"})
+    private String query;
+
+    private LocalSanctionScreeningEngine engine;
+    private ScreenRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final Random random = new Random(42);
+        final List<SanctionListEntry> entries = new ArrayList<>(LIST_SIZE);
+        for (int i = 0; i < LIST_SIZE; i++) {
+            final String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            final String lastName = lastName(random);
+            entries.add(new SanctionListEntry("EU-" + i, firstName + " " + lastName,
+                    i % 3 == 0 ? List.of(firstName + " " + lastName(random)) : List.of(),
+                    ScreenRequest.ListType.EU, "EU", "EU Consolidated",
+                    LocalDate.of(1950 + random.nextInt(50), 1 + random.nextInt(12), 1 + random.nextInt(28)), null));
+        }
+        engine = new LocalSanctionScreeningEngine(new AmlProperties.LocalScreening(), entries);
+        final String[] listedName = entries.get(LIST_SIZE / 2).name().split(" ");
+        request = switch (query) {
+            case "exact" -> request(listedName[0], listedName[1]);
+            // one letter dropped from the last name
+            case "typo" -> request(listedName[0], listedName[1].substring(0, 2) + listedName[1].substring(3));
+            default -> request("Giuseppe", "Verdi");
+        };
+        log.info("{} query: {} matches", query, screen().getMatchesCount());
+    }
+
+    @Benchmark
+    public ScreenResponse screen() {
+        return engine.screen(request);
+    }
+
+    private static String lastName(Random random) {
+        final StringBuilder lastName = new StringBuilder();
+        for (int syllables = 2 + random.nextInt(3); syllables > 0; syllables--) {
+            lastName.append(CONSONANTS.charAt(random.nextInt(CONSONANTS.length())))
+                    .append(VOWELS.charAt(random.nextInt(VOWELS.length())));
+            if (random.nextInt(3) == 0) {
+                lastName.append(CONSONANTS.charAt(random.nextInt(CONSONANTS.length())));
+            }
+        }
+        lastName.setCharAt(0, Character.toUpperCase(lastName.charAt(0)));
+        return lastName.toString();
+    }
+
+    private static ScreenRequest request(String firstName, String lastName) {
+        return ScreenRequest.builder().requestId("benchmark").firstName(firstName).lastName(lastName).build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LocalSanctionScreeningEngineBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,77 @@
+package raff.stein.customer.service.aml.sanctions.local;
+
+import org.junit.jupiter.api.Test;
+import raff.stein.customer.client.eu.sanctions.model.screen.ScreenRequest;
+import raff.stein.customer.client.eu.sanctions.model.screen.ScreenResponse;
+import raff.stein.customer.service.aml.pipeline.config.AmlProperties;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class LocalSanctionScreeningEngineTest {
+
+    private final LocalSanctionScreeningEngine engine = new LocalSanctionScreeningEngine(new AmlProperties.LocalScreening(), List.of(
+            new SanctionListEntry("EU-1", "Viktor Petrovich Sokolov", List.of("Viktor Sokolow"),
+                    ScreenRequest.ListType.EU, "EU", "EU Consolidated", LocalDate.of(1965, 3, 12), "RU"),
+            new SanctionListEntry("OFAC-2", "Mohammed Al-Rashid", List.of(),
+                    ScreenRequest.ListType.OFAC, "OFAC", "SDN", null, null),
+            new SanctionListEntry("UN-3", "Maria Gonzalez", List.of(),
+                    ScreenRequest.ListType.UN, "UN", "UN Consolidated", LocalDate.of(1990, 1, 1), "VE")));
+
+    @Test
+    void shouldMatchTyposAccentsAndSwappedNames() {
+        assertThat(engine.screen(request("Viktor Petrovich", "Sokolov", LocalDate.of(1965, 3, 12))).getMatches())
+                .singleElement()
+                .satisfies(match -> {
+                    assertThat(match.getEntityExternalId()).isEqualTo("EU-1");
+                    assertThat(match.getScore()).isEqualTo(100);
+                    assertThat(match.getMatchMode()).isEqualTo(ScreenRequest.MatchMode.EXACT);
+                    assertThat(match.getProvider()).isEqualTo(LocalSanctionScreeningEngine.PROVIDER);
+                });
+        // a typo in a name only listed as alias
+        assertThat(engine.screen(request("Viktr", "Sokolow", null)).getMatches())
+                .extracting(ScreenResponse.Match::getEntityExternalId, ScreenResponse.Match::getMatchMode)
+                .containsExactly(tuple("EU-1", ScreenRequest.MatchMode.FUZZY));
+        // accents and word order do not matter
+        final ScreenResponse swapped = engine.screen(request("González", "María", null));
+        assertThat(swapped.getDecision()).isEqualTo(ScreenResponse.Decision.HIT);
+        assertThat(swapped.getMatches()).extracting(ScreenResponse.Match::getEntityExternalId).containsExactly("UN-3");
+    }
+
+    @Test
+    void shouldMatchNamesSoundingAlike() {
+        final ScreenResponse response = engine.screen(request("Muhamad", "Al Rasheed", null));
+
+        assertThat(response.getDecision()).isEqualTo(ScreenResponse.Decision.REVIEW);
+        assertThat(response.getMatches())
+                .singleElement()
+                .satisfies(match -> {
+                    assertThat(match.getEntityExternalId()).isEqualTo("OFAC-2");
+                    assertThat(match.getMatchMode()).isEqualTo(ScreenRequest.MatchMode.PHONETIC);
+                });
+    }
+
+    @Test
+    void shouldClearUnrelatedNamesAndLowerMatchesBornInAnotherYear() {
+        final ScreenResponse unrelated = engine.screen(request("Giuseppe", "Verdi", null));
+        assertThat(unrelated.getDecision()).isEqualTo(ScreenResponse.Decision.CLEAR);
+        assertThat(unrelated.getMatches()).isEmpty();
+
+        // the exact name scores 85 with the other year of birth, above the minimum score of 80
+        final ScreenResponse otherYear = engine.screen(request("Maria", "Gonzalez", LocalDate.of(1970, 1, 1)));
+        assertThat(otherYear.getMaxMatchScore()).isEqualTo(100 - LocalSanctionScreeningEngine.DATE_OF_BIRTH_MISMATCH_PENALTY);
+        assertThat(otherYear.getDecision()).isEqualTo(ScreenResponse.Decision.REVIEW);
+    }
+
+    private static ScreenRequest request(String firstName, String lastName, LocalDate dateOfBirth) {
+        return ScreenRequest.builder()
+                .requestId("request-1")
+                .firstName(firstName)
+                .lastName(lastName)
+                .dateOfBirth(dateOfBirth)
+                .build();
+    }
+}
@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import raff.stein.document.event.producer.DocumentUploadedEventPublisher;
 import raff.stein.document.exception.FileValidationException;
 import raff.stein.document.model.Document;
@@ -34,6 +35,7 @@ public class DocumentService {
     private final DocumentAccessLogRepository documentAccessLogRepository;
     private final DocumentMetadataRepository documentMetadataRepository;
     private final DocumentVersionRepository documentVersionRepository;
+    private final TransactionTemplate transactionTemplate;
 
     private static final DocumentEntityToDocumentMapper documentEntityToDocumentMapper = DocumentEntityToDocumentMapper.MAPPER;
     private static final DocumentVersionEntityToDocumentMapper documentVersionEntityToDocumentMapper = DocumentVersionEntityToDocumentMapper.MAPPER;
@@ -52,13 +54,15 @@ public class DocumentService {
         if(Boolean.TRUE.equals(isValid)) {
             // upload file to storage (e.g., S3, local file system, etc.)
             final Document uploadedDocument = cloudStorageService.uploadFile(fileInput);
-            // save document and related metadata to the database
-            final DocumentEntity savedDocument = buildDocumentEntityAndRelatedEntities(uploadedDocument, documentTypeEntity);
-            // publish an event to notify other services for upload and validation
-            final Document uploadedDocumentWithMetadata = documentEntityToDocumentMapper.toDocument(savedDocument);
-            documentUploadedEventPublisher.publishDocumentUploadedEvent(uploadedDocumentWithMetadata);
-            // return the uploaded document with metadata
-            return uploadedDocumentWithMetadata;
+            // save document and related metadata and append the uploaded event (outbox) in one transaction
+            return transactionTemplate.execute(status -> {
+                final DocumentEntity savedDocument = buildDocumentEntityAndRelatedEntities(uploadedDocument, documentTypeEntity);
+                // publish an event to notify other services for upload and validation
+                final Document uploadedDocumentWithMetadata = documentEntityToDocumentMapper.toDocument(savedDocument);
+                documentUploadedEventPublisher.publishDocumentUploadedEvent(uploadedDocumentWithMetadata);
+                // return the uploaded document with metadata
+                return uploadedDocumentWithMetadata;
+            });
         } else {
             throw FileValidationException.with(fileInput.getCustomerId().toString()).get();
         }
@@ -12,7 +12,7 @@ import org.springframework.stereotype.Component;
 import raff.stein.email.service.EmailService;
 import raff.stein.platformcore.messaging.consumer.WMPBaseEventConsumer;
 
-import java.util.Optional;
+import java.util.List;
 
 @Slf4j
 @Component
@@ -22,16 +22,15 @@ public class UserCreatedEventConsumer extends WMPBaseEventConsumer {
 
     private final EmailService emailService;
 
+    // SMTP calls block: a whole poll is spread over virtual threads, one lane per user,
+    // instead of sending the onboarding emails of a partition one at a time
     @KafkaListener(
             topics = "${kafka.topics.user-service.user-created.name}",
-            containerFactory = "kafkaListenerFactory",
-            groupId = "${kafka.topics.user-service.user-created.groupId}")
-    public void consume(CloudEvent cloudEvent) {
-        Optional<UserCreatedEvent> eventData = getEventPayload(cloudEvent, UserCreatedEvent.class);
-        if(eventData.isEmpty()) {
-            log.warn("Received empty payload from user-created topic for eventId: [{}]", cloudEvent.getId());
-        }
-        eventData.ifPresent(this::processUserCreatedEvent);
+            containerFactory = "kafkaBatchListenerFactory",
+            groupId = "${kafka.topics.user-service.user-created.groupId}",
+            concurrency = "${kafka.topics.user-service.user-created.concurrency:${kafka.consumer.concurrency:1}}")
+    public void consume(List<CloudEvent> cloudEvents) {
+        withEventPayloadsInParallel(cloudEvents, UserCreatedEvent.class, this::processUserCreatedEvent);
     }
 
     private void processUserCreatedEvent(@NotNull UserCreatedEvent userCreatedEvent) {
@@ -1,7 +1,6 @@
 package raff.stein.profiler.event.consumer;
 
 import io.cloudevents.CloudEvent;
-import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.tuple.ImmutablePair;
@@ -14,8 +13,10 @@ import org.springframework.stereotype.Component;
 import raff.stein.platformcore.messaging.consumer.WMPBaseEventConsumer;
 import raff.stein.profiler.service.PermissionService;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 @Slf4j
 @Component
@@ -27,35 +28,39 @@ public class UserCreatedEventConsumer extends WMPBaseEventConsumer {
 
     @KafkaListener(
             topics = "${kafka.topics.user-service.user-created.name}",
-            containerFactory = "kafkaListenerFactory",
-            groupId = "${kafka.topics.user-service.user-created.groupId}")
-    public void consume(CloudEvent cloudEvent) {
-        Optional<UserCreatedEvent> eventData = getEventPayload(cloudEvent, UserCreatedEvent.class);
-        if(eventData.isEmpty()) {
-            log.warn("Received empty payload from user-created topic for eventId: [{}]", cloudEvent.getId());
-        }
-        eventData.ifPresent(this::processUserCreatedEvent);
+            containerFactory = "kafkaBatchListenerFactory",
+            groupId = "${kafka.topics.user-service.user-created.groupId}",
+            concurrency = "${kafka.topics.user-service.user-created.concurrency:${kafka.consumer.concurrency:1}}")
+    public void consume(List<CloudEvent> cloudEvents) {
+        withEventPayloads(cloudEvents, UserCreatedEvent.class, this::processUserCreatedEvents);
     }
 
-    private void processUserCreatedEvent(@NotNull UserCreatedEvent userCreatedEvent) {
-        final User user = userCreatedEvent.getUser();
-        log.info("Processing UserCreatedEvent for userId: [{}], email: [{}]",
-                userCreatedEvent.getUserId(),
-                user.getEmail());
-        final List<UserBankBranch> bankBranches = user.getUserBankBranches();
-        final String userEmail = user.getEmail();
-        if (bankBranches == null || bankBranches.isEmpty()) {
-            log.info("No bank branches associated with user: [{}]. Skipping permission setup.", userEmail);
-            return;
+    private void processUserCreatedEvents(List<UserCreatedEvent> userCreatedEvents) {
+        log.info("Processing batch of [{}] UserCreatedEvents", userCreatedEvents.size());
+        // merge the (bankCode, role) pairs per user, so the whole poll is saved in one transaction
+        final Map<String, List<ImmutablePair<String, String>>> bankCodeRolePairsByEmail = new LinkedHashMap<>();
+        for (UserCreatedEvent userCreatedEvent : userCreatedEvents) {
+            final User user = userCreatedEvent.getUser();
+            log.info("Processing UserCreatedEvent for userId: [{}], email: [{}]",
+                    userCreatedEvent.getUserId(),
+                    user.getEmail());
+            final List<UserBankBranch> bankBranches = user.getUserBankBranches();
+            final String userEmail = user.getEmail();
+            if (bankBranches == null || bankBranches.isEmpty()) {
+                log.info("No bank branches associated with user: [{}]. Skipping permission setup.", userEmail);
+                continue;
+            }
+            bankCodeRolePairsByEmail
+                    .computeIfAbsent(userEmail, email -> new ArrayList<>())
+                    .addAll(bankBranches.stream()
+                            .map(branch -> new ImmutablePair<>(
+                                    branch.getBankCode(),
+                                    branch.getRole())
+                            )
+                            .toList());
+        }
+        if (!bankCodeRolePairsByEmail.isEmpty()) {
+            permissionService.saveUserPermissionsInBatch(bankCodeRolePairsByEmail);
         }
-
-        permissionService.saveUserPermissions(
-                userEmail,
-                bankBranches.stream()
-                        .map(branch -> new ImmutablePair<>(
-                                branch.getBankCode(),
-                                branch.getRole())
-                        )
-                        .toList());
     }
 }
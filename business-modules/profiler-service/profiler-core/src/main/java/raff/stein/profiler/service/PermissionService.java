@@ -82,6 +82,19 @@ public class PermissionService {
      */
     @Transactional
     public void saveUserPermissions(String userEmail, List<ImmutablePair<String, String>> bankCodeRolePairs) {
+        doSaveUserPermissions(userEmail, bankCodeRolePairs);
+    }
+
+    /**
+     * Batch variant of {@link #saveUserPermissions(String, List)} used when draining a whole Kafka poll:
+     * all users are processed inside a single transaction, so the batch commits once.
+     */
+    @Transactional
+    public void saveUserPermissionsInBatch(Map<String, List<ImmutablePair<String, String>>> bankCodeRolePairsByUserEmail) {
+        bankCodeRolePairsByUserEmail.forEach(this::doSaveUserPermissions);
+    }
+
+    private void doSaveUserPermissions(String userEmail, List<ImmutablePair<String, String>> bankCodeRolePairs) {
         if (isInvalidInput(userEmail, bankCodeRolePairs)) {
             log.warn("Skipping saveUserPermissions: invalid input - userEmail or role pairs are empty");
             return;
@@ -0,0 +1,29 @@
+package raff.stein.user.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import raff.stein.user.security.JwtTokenIssuer;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Public keys verifying the tokens issued by user-service, read by the key ring of every platform service.
+ */
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final JwtTokenIssuer jwtTokenIssuer;
+
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(jwtTokenIssuer.load().toJSONObject(true));
+    }
+}
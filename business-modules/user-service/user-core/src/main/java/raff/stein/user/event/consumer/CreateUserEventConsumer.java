@@ -32,7 +32,8 @@ public class CreateUserEventConsumer extends WMPBaseEventConsumer {
     @KafkaListener(
             topics = "${kafka.topics.user-service.create-user.name}",
             containerFactory = "kafkaListenerFactory",
-            groupId = "${kafka.topics.user-service.create-user.groupId}")
+            groupId = "${kafka.topics.user-service.create-user.groupId}",
+            concurrency = "${kafka.topics.user-service.create-user.concurrency:${kafka.consumer.concurrency:1}}")
     public void consume(CloudEvent cloudEvent) {
         Optional<CreateUserEvent> eventData = getEventPayload(cloudEvent, CreateUserEvent.class);
         if(eventData.isEmpty()) {
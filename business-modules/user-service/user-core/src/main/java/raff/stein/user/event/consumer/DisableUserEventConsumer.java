@@ -17,7 +17,8 @@ public class DisableUserEventConsumer extends WMPBaseEventConsumer {
     @KafkaListener(
             topics = "${kafka.topics.user-service.disable-user.name}",
             containerFactory = "kafkaListenerFactory",
-            groupId = "${kafka.topics.user-service.disable-user.groupId}")
+            groupId = "${kafka.topics.user-service.disable-user.groupId}",
+            concurrency = "${kafka.topics.user-service.disable-user.concurrency:${kafka.consumer.concurrency:1}}")
     public void consume(CloudEvent cloudEvent) {
         //TODO: Implement the logic to handle the disable user event
     }
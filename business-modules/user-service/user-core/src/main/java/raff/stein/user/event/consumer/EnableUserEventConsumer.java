@@ -17,7 +17,8 @@ public class EnableUserEventConsumer extends WMPBaseEventConsumer {
     @KafkaListener(
             topics = "${kafka.topics.user-service.enable-user.name}",
             containerFactory = "kafkaListenerFactory",
-            groupId = "${kafka.topics.user-service.enable-user.groupId}")
+            groupId = "${kafka.topics.user-service.enable-user.groupId}",
+            concurrency = "${kafka.topics.user-service.enable-user.concurrency:${kafka.consumer.concurrency:1}}")
     public void consume(CloudEvent cloudEvent) {
         //TODO: Implement the logic to handle the enable user event
     }
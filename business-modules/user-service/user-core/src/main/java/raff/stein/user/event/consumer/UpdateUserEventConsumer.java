@@ -17,7 +17,8 @@ public class UpdateUserEventConsumer extends WMPBaseEventConsumer {
     @KafkaListener(
             topics = "${kafka.topics.user-service.update-user.name}",
             containerFactory = "kafkaListenerFactory",
-            groupId = "${kafka.topics.user-service.update-user.groupId}")
+            groupId = "${kafka.topics.user-service.update-user.groupId}",
+            concurrency = "${kafka.topics.user-service.update-user.concurrency:${kafka.consumer.concurrency:1}}")
     public void consume(CloudEvent cloudEvent) {
         //TODO: Implement the logic to handle the update user event
     }
@@ -2,25 +2,16 @@ package raff.stein.user.service;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
-import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.SignatureException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
+import raff.stein.platformcore.security.jwt.JwtKeyRing;
 
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-import java.security.KeyFactory;
-import java.security.PublicKey;
-import java.security.interfaces.RSAPublicKey;
-import java.security.spec.X509EncodedKeySpec;
 import java.time.Instant;
-import java.util.Base64;
 import java.util.Date;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Validates and consumes password setup tokens to prevent reuse.
@@ -31,10 +22,8 @@ import java.util.concurrent.atomic.AtomicReference;
 @SuppressWarnings("unused")
 public class PasswordSetupTokenService {
 
-    @Value("${security.jwt.public-key-path:classpath:keys/public_key.pem}")
-    private Resource publicKeyResource;
+    private final JwtKeyRing jwtKeyRing;
 
-    private final AtomicReference<RSAPublicKey> publicKeyRef = new AtomicReference<>();
     // Track consumed JTIs with their expiration to allow future cleanup
     private final Map<String, Long> consumedJtis = new ConcurrentHashMap<>();
 
@@ -54,12 +43,10 @@ public class PasswordSetupTokenService {
 
     private Claims parseClaims(String jwt) {
         try {
-            return Jwts.parser()
-                    .verifyWith(loadPublicKey())
-                    .build()
+            return jwtKeyRing.getParser()
                     .parseSignedClaims(jwt)
                     .getPayload();
-        } catch (ExpiredJwtException | SignatureException | IllegalArgumentException e) {
+        } catch (ExpiredJwtException | SignatureException | UnsupportedJwtException | IllegalArgumentException e) {
             throw new IllegalArgumentException("Invalid token");
         }
     }
@@ -112,25 +99,4 @@ public class PasswordSetupTokenService {
             throw new IllegalArgumentException("Invalid token");
         }
     }
-
-    private RSAPublicKey loadPublicKey() {
-        RSAPublicKey existing = publicKeyRef.get();
-        if (existing != null) {
-            return existing;
-        }
-        try (InputStream is = publicKeyResource.getInputStream()) {
-            String keyPem = new String(is.readAllBytes(), StandardCharsets.UTF_8)
-                    .replace("-----BEGIN PUBLIC KEY-----", "")
-                    .replace("-----END PUBLIC KEY-----", "")
-                    .replaceAll("\\s", "");
-            byte[] decoded = Base64.getDecoder().decode(keyPem);
-            X509EncodedKeySpec spec = new X509EncodedKeySpec(decoded);
-            PublicKey pk = KeyFactory.getInstance("RSA").generatePublic(spec);
-            RSAPublicKey rsa = (RSAPublicKey) pk;
-            publicKeyRef.compareAndSet(null, rsa);
-            return rsa;
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to load public key for JWT validation", e);
-        }
-    }
 }
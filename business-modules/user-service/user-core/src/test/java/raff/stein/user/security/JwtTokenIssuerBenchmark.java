@@ -0,0 +1,86 @@
+package raff.stein.user.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.KeyPair;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens issued per second by {@link JwtTokenIssuer} for each signing algorithm, keys held in memory.
+ * Not part of the test suite: run {@link #main} from the IDE after {@code mvn test-compile}.
+ */
+@Slf4j
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenIssuerBenchmark {
+
+    @Param({"RS256", "ES256", "EdDSA"})
+    private JwtSigningAlgorithm algorithm;
+
+    private JwtTokenIssuer jwtTokenIssuer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        KeyPair keyPair = switch (algorithm) {
+            case RS256 -> Jwts.SIG.RS256.keyPair().build();
+            case ES256 -> Jwts.SIG.ES256.keyPair().build();
+            case EdDSA -> Jwks.CRV.Ed25519.keyPair().build();
+        };
+        JwtSigningKeyHolder signingKeyHolder = new JwtSigningKeyHolder(
+                pem("PRIVATE KEY", keyPair.getPrivate()),
+                pem("PUBLIC KEY", keyPair.getPublic()),
+                algorithm);
+        jwtTokenIssuer = new JwtTokenIssuer(signingKeyHolder, new String[0], "user-service", 3600, 900);
+        log.info("{} token size: {} chars", algorithm, issueToken().length());
+    }
+
+    @Benchmark
+    public String issueToken() {
+        return jwtTokenIssuer.issueToken(
+                "user-1",
+                "john@doe.com",
+                List.of("ADVISOR", "SUPERVISOR"),
+                Map.of("userId", "user-1", "bankCode", "code"));
+    }
+
+    private static ByteArrayResource pem(String type, Key key) {
+        String pem = "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder().encodeToString(key.getEncoded())
+                + "\n-----END " + type + "-----\n";
+        return new ByteArrayResource(pem.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtTokenIssuerBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import raff.stein.platformcore.async.AsyncTaskExecutorProperties;
 import raff.stein.platformcore.async.TracingTaskDecorator;
+import raff.stein.platformcore.logging.RequestResponseLoggingProperties;
 
 import java.util.concurrent.ThreadPoolExecutor;
 
@@ -20,7 +21,7 @@ import java.util.concurrent.ThreadPoolExecutor;
  */
 @Configuration
 @EnableAsync
-@EnableConfigurationProperties(AsyncTaskExecutorProperties.class)
+@EnableConfigurationProperties({AsyncTaskExecutorProperties.class, RequestResponseLoggingProperties.class})
 public class PlatformCoreBeans {
 
     /**
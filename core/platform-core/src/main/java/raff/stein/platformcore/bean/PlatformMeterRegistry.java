@@ -0,0 +1,23 @@
+package raff.stein.platformcore.bean;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Registry resolution shared by the platform metrics.
+ */
+public final class PlatformMeterRegistry {
+
+    private PlatformMeterRegistry() {
+    }
+
+    /**
+     * Returns the {@link MeterRegistry} bean, or the Micrometer global registry in services without actuator.
+     * Every platform component falls back to the same registry, which records nothing until a registry is added
+     * to it, instead of each creating a local one nobody exports.
+     */
+    public static MeterRegistry resolve(ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        return meterRegistryProvider.getIfAvailable(() -> Metrics.globalRegistry);
+    }
+}
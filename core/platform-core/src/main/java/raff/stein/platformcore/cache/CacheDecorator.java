@@ -0,0 +1,24 @@
+package raff.stein.platformcore.cache;
+
+import org.springframework.cache.Cache;
+
+/**
+ * Wraps the caches built by the platform cache managers, once per cache, when the manager creates it.
+ */
+@FunctionalInterface
+public interface CacheDecorator {
+
+    /**
+     * @param name  logical cache name, as declared under {@code platform.cache.caches}
+     * @param cache the cache built by the provider
+     * @return the cache to hand out to callers
+     */
+    Cache decorate(String name, Cache cache);
+
+    /**
+     * @return a decorator wrapping the result of this one in {@code outer}
+     */
+    default CacheDecorator andThen(CacheDecorator outer) {
+        return (name, cache) -> outer.decorate(name, decorate(name, cache));
+    }
+}
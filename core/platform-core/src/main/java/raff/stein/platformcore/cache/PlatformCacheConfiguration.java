@@ -1,22 +1,41 @@
 package raff.stein.platformcore.cache;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.cache.support.NoOpCacheManager;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import raff.stein.platformcore.bean.PlatformMeterRegistry;
 import raff.stein.platformcore.cache.PlatformCacheProperties.Provider;
+import raff.stein.platformcore.cache.actuator.PlatformCachesEndpoint;
+import raff.stein.platformcore.cache.local.PlatformCacheLoader;
+import raff.stein.platformcore.cache.local.PlatformCaffeineCacheManager;
+import raff.stein.platformcore.cache.metrics.CacheInstrumentation;
+import raff.stein.platformcore.cache.stampede.StampedeProtection;
 
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Shared cache configuration that exposes a {@link CacheManager} for all services.
@@ -30,12 +49,58 @@ import java.util.Map;
 @Slf4j
 public class PlatformCacheConfiguration {
 
+    /**
+     * Name of the platform {@link CacheManager} bean, also the {@code cache.manager} tag of its cache meters.
+     */
+    public static final String CACHE_MANAGER_BEAN_NAME = "cacheManager";
+
     private final PlatformCacheProperties cacheProperties;
     private final Environment environment;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ObjectProvider<PlatformCacheLoader> cacheLoaders;
+
+    /**
+     * Applies the per-cache {@code single-flight}, {@code early-refresh} and {@code stale-while-revalidate} settings,
+     * running background reloads on the shared {@code platformTaskExecutor}.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public StampedeProtection cacheStampedeProtection(
+            @Qualifier("platformTaskExecutor") ObjectProvider<TaskExecutor> platformTaskExecutor) {
+        return new StampedeProtection(cacheProperties, platformTaskExecutor.getIfAvailable(SimpleAsyncTaskExecutor::new));
+    }
 
     @Bean
+    @ConditionalOnMissingBean
+    public CacheInstrumentation cacheInstrumentation() {
+        return new CacheInstrumentation(PlatformMeterRegistry.resolve(meterRegistry));
+    }
+
+    /**
+     * Decorations applied by every platform cache manager: the instrumentation wraps the stampede protection,
+     * so hits and misses are counted as callers see them.
+     */
+    @Bean
+    public CacheDecorator platformCacheDecorator(
+            StampedeProtection stampedeProtection,
+            CacheInstrumentation cacheInstrumentation) {
+        return stampedeProtection.andThen(cacheInstrumentation);
+    }
+
+    /**
+     * Exposed by services that include the actuator and list {@code platformcaches} in
+     * {@code management.endpoints.web.exposure.include}.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public PlatformCachesEndpoint platformCachesEndpoint(CacheInstrumentation cacheInstrumentation) {
+        return new PlatformCachesEndpoint(cacheInstrumentation);
+    }
+
+    @Bean(name = CACHE_MANAGER_BEAN_NAME)
     @ConditionalOnMissingBean(CacheManager.class)
-    public CacheManager cacheManager() {
+    @Conditional(NotRedisBackedProviderCondition.class)
+    public CacheManager cacheManager(@Qualifier("platformCacheDecorator") CacheDecorator platformCacheDecorator) {
         Provider provider = cacheProperties.getProvider();
         if (provider == null) {
             provider = Provider.NONE;
@@ -44,19 +109,45 @@ public class PlatformCacheConfiguration {
         log.info("Configuring platform CacheManager with provider={} and enabled=true", provider);
 
         return switch (provider) {
-            case REDIS -> new NoOpCacheManager(); // real Redis manager is configured in Redis-specific configuration
-            case SIMPLE_IN_MEMORY -> createInMemoryCacheManager();
+            case REDIS, TWO_LEVEL -> throw new IllegalStateException(
+                    "Redis-backed cache managers are configured in PlatformRedisCacheConfiguration");
+            case SIMPLE_IN_MEMORY -> createInMemoryCacheManager(platformCacheDecorator);
+            case LOCAL_BOUNDED -> createLocalBoundedCacheManager(platformCacheDecorator);
             case NONE -> new NoOpCacheManager();
         };
     }
 
-    private CacheManager createInMemoryCacheManager() {
-        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+    private CacheManager createInMemoryCacheManager(CacheDecorator cacheDecorator) {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager() {
+            @Override
+            protected Cache createConcurrentMapCache(String name) {
+                return cacheDecorator.decorate(name, super.createConcurrentMapCache(name));
+            }
+        };
         cacheManager.setCacheNames(predefinedCacheNames());
         log.info("Using SIMPLE_IN_MEMORY ConcurrentMapCacheManager for caches={}", cacheManager.getCacheNames());
         return cacheManager;
     }
 
+    private CacheManager createLocalBoundedCacheManager(CacheDecorator cacheDecorator) {
+        final Map<String, PlatformCacheLoader> loadersByCache = cacheLoaders.orderedStream()
+                .collect(Collectors.toMap(PlatformCacheLoader::cacheName, Function.identity()));
+        // tagged with the bean name, so the meters are the same ones the actuator cache binder would register
+        PlatformCaffeineCacheManager cacheManager = new PlatformCaffeineCacheManager(
+                cacheProperties,
+                loadersByCache,
+                PlatformMeterRegistry.resolve(meterRegistry),
+                CACHE_MANAGER_BEAN_NAME,
+                cacheDecorator);
+        // predefined names make the set of caches fixed, otherwise caches are created on first use
+        Collection<String> cacheNames = predefinedCacheNames();
+        if (!cacheNames.isEmpty()) {
+            cacheManager.setCacheNames(cacheNames);
+        }
+        log.info("Using LOCAL_BOUNDED CaffeineCacheManager for caches={}", cacheManager.getCacheNames());
+        return cacheManager;
+    }
+
     private Collection<String> predefinedCacheNames() {
         Map<String, PlatformCacheProperties.CacheConfig> caches = cacheProperties.getCaches();
         if (caches == null || caches.isEmpty()) {
@@ -90,4 +181,19 @@ public class PlatformCacheConfiguration {
         builder.append(serviceName).append("::").append(logicalName);
         return builder.toString();
     }
+
+    /**
+     * Keeps this configuration from registering a competing manager when the Redis configuration builds it,
+     * whatever the order in which both configurations are processed.
+     */
+    static class NotRedisBackedProviderCondition implements Condition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return !Binder.get(context.getEnvironment())
+                    .bind("platform.cache.provider", Provider.class)
+                    .orElse(Provider.NONE)
+                    .isRedisBacked();
+        }
+    }
 }
@@ -3,9 +3,12 @@ package raff.stein.platformcore.cache;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
+import org.springframework.util.unit.DataSize;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -30,6 +33,11 @@ public class PlatformCacheProperties {
      */
     private Duration defaultTtl;
 
+    /**
+     * Default maximum number of entries of a {@code LOCAL_BOUNDED} cache, for caches that do not set {@code max-size}.
+     */
+    private long defaultMaxSize = 10_000;
+
     /**
      * Optional global key prefix applied to all cache names.
      */
@@ -40,6 +48,22 @@ public class PlatformCacheProperties {
      */
     private String serviceName;
 
+    /**
+     * Serialization of Redis cache values, for caches that do not set {@code value-codec}.
+     */
+    private ValueCodec defaultValueCodec = ValueCodec.JSON;
+
+    /**
+     * Package prefixes whose classes may be instantiated from {@code SMILE} and {@code CBOR} cache values,
+     * on top of the JDK value types. Binary values carry the class name of the cached object.
+     */
+    private List<String> trustedPackages = new ArrayList<>(List.of("raff.stein.", "org.openapitools."));
+
+    /**
+     * Settings of the {@code TWO_LEVEL} provider.
+     */
+    private NearCache nearCache = new NearCache();
+
     /**
      * Per-cache specific configuration.
      */
@@ -53,12 +77,133 @@ public class PlatformCacheProperties {
          * Time-to-live for this specific cache. Overrides {@link #defaultTtl} when set.
          */
         private Duration ttl;
+
+        /**
+         * Maximum number of entries ({@code LOCAL_BOUNDED} only). Overrides {@link #defaultMaxSize} when set;
+         * least recently and least frequently used entries are evicted first.
+         */
+        private Long maxSize;
+
+        /**
+         * Evicts entries not read for this long ({@code LOCAL_BOUNDED} only), on top of {@link #ttl}.
+         */
+        private Duration expireAfterAccess;
+
+        /**
+         * Reloads entries older than this in the background on their next read, serving the stale value meanwhile
+         * ({@code LOCAL_BOUNDED} only). Requires a {@code PlatformCacheLoader} bean for the cache.
+         */
+        private Duration refreshAfterWrite;
+
+        /**
+         * Serialization of the Redis values of this cache. Overrides {@link #defaultValueCodec} when set.
+         * Changing it makes the entries already stored unreadable: clear the cache when switching.
+         */
+        private ValueCodec valueCodec;
+
+        /**
+         * Redis values of at least this size are stored LZ4-compressed; unset disables compression.
+         */
+        private DataSize compressionThreshold;
+
+        /**
+         * Concurrent misses of the same key on a node wait for a single load instead of each invoking the cached
+         * method. Applies to {@code @Cacheable(sync = true)} lookups.
+         */
+        private boolean singleFlight;
+
+        /**
+         * Probabilistically reloads an entry shortly before its {@link #ttl}, earlier the longer it took to compute,
+         * so popular keys are refreshed by a single caller before they expire. Requires a ttl.
+         */
+        private boolean earlyRefresh;
+
+        /**
+         * Scales how early {@link #earlyRefresh} reloads entries: above {@code 1.0} favors earlier refreshes,
+         * below {@code 1.0} later ones.
+         */
+        private double earlyRefreshBeta = 1.0;
+
+        /**
+         * Keeps serving an expired entry for this long while a single reload runs on the {@code platformTaskExecutor};
+         * early refreshes also run in the background when set. Requires a ttl.
+         */
+        private Duration staleWhileRevalidate;
+    }
+
+    /**
+     * Time-to-live of the entries of a cache: its own {@code ttl}, otherwise {@link #defaultTtl}.
+     *
+     * @return the ttl, or {@code null} when entries do not expire
+     */
+    public Duration ttl(CacheConfig cacheConfig) {
+        return cacheConfig.getTtl() != null ? cacheConfig.getTtl() : defaultTtl;
+    }
+
+    /**
+     * Time the cache provider keeps an entry: its {@link #ttl(CacheConfig) ttl} extended by the
+     * {@code stale-while-revalidate} window, during which the expired value can still be served. The cache
+     * providers expire entries after this retention; within the window, the stampede protection tells expired values.
+     *
+     * @return the retention, or {@code null} when entries do not expire
+     */
+    public Duration storeTtl(CacheConfig cacheConfig) {
+        final Duration ttl = ttl(cacheConfig);
+        if (ttl == null || cacheConfig.getStaleWhileRevalidate() == null) {
+            return ttl;
+        }
+        return ttl.plus(cacheConfig.getStaleWhileRevalidate());
+    }
+
+    public enum ValueCodec {
+        /**
+         * Jackson JSON, human-readable in {@code redis-cli}.
+         */
+        JSON,
+        /**
+         * Jackson Smile: binary JSON with back-references, so repeated property names and class names are written once.
+         */
+        SMILE,
+        /**
+         * Jackson CBOR (RFC 8949), binary without back-references.
+         */
+        CBOR
+    }
+
+    @Data
+    public static class NearCache {
+
+        /**
+         * Upper bound of the time an entry stays in the in-process L1. Writes on other nodes evict it through
+         * Redis pub/sub within milliseconds; this bound only matters if an invalidation message is lost.
+         */
+        private Duration localTtl = Duration.ofMinutes(1);
+
+        /**
+         * Redis pub/sub channel carrying the evictions between the nodes.
+         */
+        private String invalidationChannel = "wmp:cache:invalidation";
     }
 
     public enum Provider {
         NONE,
         REDIS,
-        SIMPLE_IN_MEMORY
+        SIMPLE_IN_MEMORY,
+        /**
+         * Caffeine, bounded in size and honoring the per-cache expiry settings.
+         */
+        LOCAL_BOUNDED,
+        /**
+         * Bounded in-process L1 in front of the Redis L2, kept coherent across nodes through Redis pub/sub.
+         */
+        TWO_LEVEL;
+
+        /**
+         * @return whether the cache manager is built by {@code PlatformRedisCacheConfiguration}
+         */
+        public boolean isRedisBacked() {
+            return this == REDIS || this == TWO_LEVEL;
+        }
     }
 }
 
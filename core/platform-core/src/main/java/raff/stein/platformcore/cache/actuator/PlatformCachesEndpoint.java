@@ -0,0 +1,141 @@
+package raff.stein.platformcore.cache.actuator;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.OperationResponseBody;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCache;
+import raff.stein.platformcore.cache.metrics.CacheInstrumentation;
+import raff.stein.platformcore.cache.metrics.InstrumentedCache;
+import raff.stein.platformcore.cache.redis.TwoLevelCache;
+import raff.stein.platformcore.cache.stampede.StampedeProtectedCache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@code /actuator/platformcaches}: statistics of every platform cache by logical name, and admin operations.
+ * <ul>
+ *     <li>{@code GET /actuator/platformcaches}, {@code GET /actuator/platformcaches/{cache}}: statistics of this node</li>
+ *     <li>{@code DELETE /actuator/platformcaches/{cache}}: clears the cache</li>
+ *     <li>{@code DELETE /actuator/platformcaches/{cache}/{key}}: evicts the key, matched on its string form</li>
+ * </ul>
+ * Evictions reach every node for {@code REDIS} and {@code TWO_LEVEL} caches, whose nodes share Redis; the response
+ * {@code scope} tells whether the operation only applied to the node that served the request.
+ */
+@Endpoint(id = "platformcaches")
+@RequiredArgsConstructor
+@Slf4j
+public class PlatformCachesEndpoint {
+
+    private final CacheInstrumentation cacheInstrumentation;
+
+    @ReadOperation
+    public CachesDescriptor caches() {
+        final Map<String, CacheDescriptor> caches = new TreeMap<>();
+        cacheInstrumentation.getCaches().forEach((name, cache) -> caches.put(name, describe(cache)));
+        return new CachesDescriptor(caches);
+    }
+
+    @ReadOperation
+    public CacheDescriptor cache(@Selector String cache) {
+        final InstrumentedCache instrumentedCache = cacheInstrumentation.getCache(cache);
+        return instrumentedCache != null ? describe(instrumentedCache) : null;
+    }
+
+    @DeleteOperation
+    public CacheOperationDescriptor clearCache(@Selector String cache) {
+        final InstrumentedCache instrumentedCache = cacheInstrumentation.getCache(cache);
+        if (instrumentedCache == null) {
+            return null;
+        }
+        instrumentedCache.clear();
+        log.info("Cleared cache [{}] through the platformcaches endpoint", cache);
+        return new CacheOperationDescriptor(cache, null, scopeOf(instrumentedCache));
+    }
+
+    @DeleteOperation
+    public CacheOperationDescriptor evictKey(@Selector String cache, @Selector String key) {
+        final InstrumentedCache instrumentedCache = cacheInstrumentation.getCache(cache);
+        if (instrumentedCache == null) {
+            return null;
+        }
+        // Redis-backed caches store keys in their string form
+        instrumentedCache.evict(key);
+        // local caches hold the original key objects (Long, UUID, SimpleKey, ...)
+        nativeKeys(instrumentedCache).stream()
+                .filter(nativeKey -> !key.equals(nativeKey) && key.equals(String.valueOf(nativeKey)))
+                .forEach(instrumentedCache::evict);
+        log.info("Evicted key [{}] from cache [{}] through the platformcaches endpoint", key, cache);
+        return new CacheOperationDescriptor(cache, key, scopeOf(instrumentedCache));
+    }
+
+    private static CacheDescriptor describe(InstrumentedCache cache) {
+        return new CacheDescriptor(
+                cache.getName(),
+                cache.getHitCount(),
+                cache.getMissCount(),
+                Double.isNaN(cache.getHitRatio()) ? null : cache.getHitRatio(),
+                cache.getLoadCount(),
+                cache.getLoadMeanMillis(),
+                cache.getEvictionCount(),
+                cache.getEntryCount(),
+                cache.getEstimatedMemoryBytes(),
+                scopeOf(cache));
+    }
+
+    private static List<Object> nativeKeys(InstrumentedCache cache) {
+        return switch (cache.getNativeCache()) {
+            case com.github.benmanes.caffeine.cache.Cache<?, ?> caffeineCache -> List.copyOf(caffeineCache.asMap().keySet());
+            case Map<?, ?> map -> List.copyOf(map.keySet());
+            case null, default -> List.of();
+        };
+    }
+
+    private static Scope scopeOf(InstrumentedCache cache) {
+        Cache providerCache = cache.getTarget();
+        if (providerCache instanceof StampedeProtectedCache stampedeProtectedCache) {
+            providerCache = stampedeProtectedCache.getTarget();
+        }
+        return providerCache instanceof RedisCache || providerCache instanceof TwoLevelCache ? Scope.CLUSTER : Scope.NODE;
+    }
+
+    public enum Scope {
+        /**
+         * Applies to every node of the service.
+         */
+        CLUSTER,
+        /**
+         * Applies to the node that served the request only.
+         */
+        NODE
+    }
+
+    public record CachesDescriptor(Map<String, CacheDescriptor> caches) implements OperationResponseBody {
+    }
+
+    /**
+     * Statistics since the node started. {@code evictions}, {@code entries} and {@code estimatedMemoryBytes} are
+     * {@code null} for providers that do not expose them, and describe the local level of {@code TWO_LEVEL} caches.
+     */
+    public record CacheDescriptor(
+            String target,
+            long hits,
+            long misses,
+            Double hitRatio,
+            long loads,
+            double loadMeanMillis,
+            Long evictions,
+            Long entries,
+            Long estimatedMemoryBytes,
+            Scope scope) implements OperationResponseBody {
+    }
+
+    public record CacheOperationDescriptor(String cache, String key, Scope scope) implements OperationResponseBody {
+    }
+}
@@ -0,0 +1,18 @@
+package raff.stein.platformcore.cache.local;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+
+/**
+ * Source of the values of a single {@code LOCAL_BOUNDED} cache, required when the cache sets
+ * {@code refresh-after-write}: Caffeine reloads stale entries in the background through this loader
+ * while still serving the old value.
+ * <p>
+ * The loader also serves misses of that cache, so it must return the same values as the cached method.
+ */
+public interface PlatformCacheLoader extends CacheLoader<Object, Object> {
+
+    /**
+     * Logical cache name, as declared under {@code platform.cache.caches}.
+     */
+    String cacheName();
+}
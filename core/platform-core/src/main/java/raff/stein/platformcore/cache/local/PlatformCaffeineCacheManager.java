@@ -0,0 +1,83 @@
+package raff.stein.platformcore.cache.local;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import raff.stein.platformcore.cache.CacheDecorator;
+import raff.stein.platformcore.cache.PlatformCacheProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Bounded in-process {@link CaffeineCacheManager} for the {@code LOCAL_BOUNDED} provider.
+ * <p>
+ * Every cache is built from its own {@code platform.cache.caches.<name>} entry, falling back to
+ * {@code default-ttl} and {@code default-max-size}, records statistics and is bound to Micrometer
+ * ({@code cache.gets{result=hit|miss}}, {@code cache.evictions}, {@code cache.size}, ...) when it is created.
+ */
+@Slf4j
+public class PlatformCaffeineCacheManager extends CaffeineCacheManager {
+
+    private final PlatformCacheProperties cacheProperties;
+    private final Map<String, PlatformCacheLoader> cacheLoaders;
+    private final MeterRegistry meterRegistry;
+    private final String cacheManagerName;
+    private final CacheDecorator cacheDecorator;
+
+    public PlatformCaffeineCacheManager(
+            PlatformCacheProperties cacheProperties,
+            Map<String, PlatformCacheLoader> cacheLoaders,
+            MeterRegistry meterRegistry,
+            String cacheManagerName,
+            CacheDecorator cacheDecorator) {
+        this.cacheProperties = cacheProperties;
+        this.cacheLoaders = cacheLoaders;
+        this.meterRegistry = meterRegistry;
+        this.cacheManagerName = cacheManagerName;
+        this.cacheDecorator = cacheDecorator;
+    }
+
+    @Override
+    protected org.springframework.cache.Cache adaptCaffeineCache(String name, Cache<Object, Object> cache) {
+        return cacheDecorator.decorate(name, super.adaptCaffeineCache(name, cache));
+    }
+
+    @Override
+    protected Cache<Object, Object> createNativeCaffeineCache(String name) {
+        final PlatformCacheProperties.CacheConfig cacheConfig = cacheProperties.getCaches()
+                .getOrDefault(name, new PlatformCacheProperties.CacheConfig());
+
+        final Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+        final long maxSize = cacheConfig.getMaxSize() != null ? cacheConfig.getMaxSize() : cacheProperties.getDefaultMaxSize();
+        builder.maximumSize(maxSize);
+        final Duration ttl = cacheProperties.storeTtl(cacheConfig);
+        if (ttl != null) {
+            builder.expireAfterWrite(ttl);
+        }
+        if (cacheConfig.getExpireAfterAccess() != null) {
+            builder.expireAfterAccess(cacheConfig.getExpireAfterAccess());
+        }
+
+        final Cache<Object, Object> cache;
+        if (cacheConfig.getRefreshAfterWrite() != null) {
+            final PlatformCacheLoader cacheLoader = cacheLoaders.get(name);
+            if (cacheLoader == null) {
+                throw new IllegalStateException("Cache [" + name + "] sets refresh-after-write but no PlatformCacheLoader bean "
+                        + "declares cacheName() = [" + name + "]");
+            }
+            cache = builder.refreshAfterWrite(cacheConfig.getRefreshAfterWrite()).build(cacheLoader);
+        } else {
+            cache = builder.build();
+        }
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name, Tags.of("cache.manager", cacheManagerName));
+        log.info("Created LOCAL_BOUNDED cache [{}] with maxSize={}, ttl={}, expireAfterAccess={}, refreshAfterWrite={}",
+                name, maxSize, ttl, cacheConfig.getExpireAfterAccess(), cacheConfig.getRefreshAfterWrite());
+        return cache;
+    }
+}
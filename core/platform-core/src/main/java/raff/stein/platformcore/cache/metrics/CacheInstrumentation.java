@@ -0,0 +1,89 @@
+package raff.stein.platformcore.cache.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import raff.stein.platformcore.cache.CacheDecorator;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Wraps every platform cache in an {@link InstrumentedCache} and binds its meters, tagged with the logical cache name:
+ * <ul>
+ *     <li>{@code platform.cache.gets} (tag {@code result=hit|miss})</li>
+ *     <li>{@code platform.cache.hit.ratio}: hits over lookups since startup</li>
+ *     <li>{@code platform.cache.loads} (tag {@code outcome}): time spent in the cached method on a miss or refresh,
+ *     with percentile histogram</li>
+ *     <li>{@code platform.cache.evictions}: entries removed by the size or expiry policy</li>
+ *     <li>{@code platform.cache.entries}: entries held by this node</li>
+ *     <li>{@code platform.cache.memory.estimated}: estimated bytes held by this node</li>
+ * </ul>
+ * The last three are only bound for caches whose provider exposes them, that is not for {@code REDIS}.
+ */
+public class CacheInstrumentation implements CacheDecorator {
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, InstrumentedCache> caches = new ConcurrentHashMap<>();
+
+    public CacheInstrumentation(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache decorate(String name, Cache cache) {
+        final InstrumentedCache instrumentedCache = new InstrumentedCache(name, cache, meterRegistry);
+        // a manager recreating a cache replaces it here, the gauges read whichever instance is current
+        if (caches.put(name, instrumentedCache) == null) {
+            bindGauges(name, instrumentedCache);
+        }
+        return instrumentedCache;
+    }
+
+    /**
+     * @return the instrumented caches by logical name
+     */
+    public Map<String, InstrumentedCache> getCaches() {
+        return Collections.unmodifiableMap(caches);
+    }
+
+    public InstrumentedCache getCache(String name) {
+        return caches.get(name);
+    }
+
+    private void bindGauges(String name, InstrumentedCache instrumentedCache) {
+        Gauge.builder("platform.cache.hit.ratio", caches, gauge(name, InstrumentedCache::getHitRatio))
+                .tag("cache", name)
+                .register(meterRegistry);
+        if (instrumentedCache.getEvictionCount() != null) {
+            FunctionCounter.builder("platform.cache.evictions", caches, gauge(name, cache -> orNaN(cache.getEvictionCount())))
+                    .tag("cache", name)
+                    .register(meterRegistry);
+        }
+        if (instrumentedCache.getEntryCount() != null) {
+            Gauge.builder("platform.cache.entries", caches, gauge(name, cache -> orNaN(cache.getEntryCount())))
+                    .tag("cache", name)
+                    .register(meterRegistry);
+            Gauge.builder("platform.cache.memory.estimated", caches, gauge(name, cache -> orNaN(cache.getEstimatedMemoryBytes())))
+                    .tag("cache", name)
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+    }
+
+    private static ToDoubleFunction<Map<String, InstrumentedCache>> gauge(
+            String name, ToDoubleFunction<InstrumentedCache> value) {
+        return caches -> {
+            final InstrumentedCache cache = caches.get(name);
+            return cache != null ? value.applyAsDouble(cache) : Double.NaN;
+        };
+    }
+
+    private static double orNaN(Long value) {
+        return value != null ? value : Double.NaN;
+    }
+}
@@ -0,0 +1,251 @@
+package raff.stein.platformcore.cache.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link Cache} decorator counting hits and misses and timing the loads of a logical cache, whatever the provider.
+ * <p>
+ * Entry count, eviction count and estimated memory are read from the native cache when it exposes them:
+ * Caffeine caches ({@code LOCAL_BOUNDED}, the L1 of {@code TWO_LEVEL}) and maps ({@code SIMPLE_IN_MEMORY}).
+ */
+public class InstrumentedCache implements Cache {
+
+    private static final int MEMORY_SAMPLE_SIZE = 32;
+    private static final long MEMORY_SAMPLE_WRITES = 1_000;
+    private static final long MEMORY_SAMPLE_MAX_AGE_NANOS = Duration.ofMinutes(5).toNanos();
+    private static final ObjectMapper SIZE_ESTIMATE_MAPPER = new ObjectMapper();
+
+    private final String logicalName;
+    private final Cache target;
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer successfulLoads;
+    private final Timer failedLoads;
+    private final AtomicLong writesSinceMemorySample = new AtomicLong();
+    private volatile MemorySample memorySample;
+
+    InstrumentedCache(String logicalName, Cache target, MeterRegistry meterRegistry) {
+        this.logicalName = logicalName;
+        this.target = target;
+        this.hits = meterRegistry.counter("platform.cache.gets", "cache", logicalName, "result", "hit");
+        this.misses = meterRegistry.counter("platform.cache.gets", "cache", logicalName, "result", "miss");
+        this.successfulLoads = loadTimer(meterRegistry, logicalName, "success");
+        this.failedLoads = loadTimer(meterRegistry, logicalName, "failure");
+    }
+
+    private static Timer loadTimer(MeterRegistry meterRegistry, String logicalName, String outcome) {
+        return Timer.builder("platform.cache.loads")
+                .tags("cache", logicalName, "outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public String getLogicalName() {
+        return logicalName;
+    }
+
+    /**
+     * @return the provider cache, possibly decorated by other platform decorators
+     */
+    public Cache getTarget() {
+        return target;
+    }
+
+    @Override
+    public String getName() {
+        return target.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return target.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        final ValueWrapper valueWrapper = target.get(key);
+        (valueWrapper != null ? hits : misses).increment();
+        return valueWrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        final ValueWrapper valueWrapper = get(key);
+        final Object value = valueWrapper != null ? valueWrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        final AtomicBoolean loaded = new AtomicBoolean();
+        final T value = target.get(key, () -> {
+            loaded.set(true);
+            writesSinceMemorySample.incrementAndGet();
+            return timedLoad(valueLoader);
+        });
+        // a background refresh triggered by this lookup still counts as a hit
+        (loaded.get() ? misses : hits).increment();
+        return value;
+    }
+
+    private <T> T timedLoad(Callable<T> valueLoader) throws Exception {
+        final long start = System.nanoTime();
+        try {
+            final T value = valueLoader.call();
+            successfulLoads.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return value;
+        } catch (Exception | Error e) {
+            failedLoads.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        writesSinceMemorySample.incrementAndGet();
+        target.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        writesSinceMemorySample.incrementAndGet();
+        return target.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        target.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return target.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        target.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return target.invalidate();
+    }
+
+    public long getHitCount() {
+        return (long) hits.count();
+    }
+
+    public long getMissCount() {
+        return (long) misses.count();
+    }
+
+    /**
+     * @return hits over lookups since startup, {@code NaN} before the first lookup
+     */
+    public double getHitRatio() {
+        final double lookups = hits.count() + misses.count();
+        return lookups == 0 ? Double.NaN : hits.count() / lookups;
+    }
+
+    public long getLoadCount() {
+        return successfulLoads.count() + failedLoads.count();
+    }
+
+    public double getLoadMeanMillis() {
+        final long loads = getLoadCount();
+        if (loads == 0) {
+            return 0;
+        }
+        return (successfulLoads.totalTime(TimeUnit.MILLISECONDS) + failedLoads.totalTime(TimeUnit.MILLISECONDS)) / loads;
+    }
+
+    /**
+     * @return entries removed by the size or expiry policy, {@code null} when the provider does not track them
+     */
+    public Long getEvictionCount() {
+        if (getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeineCache
+                && caffeineCache.policy().isRecordingStats()) {
+            return caffeineCache.stats().evictionCount();
+        }
+        return null;
+    }
+
+    /**
+     * @return entries held by this node, {@code null} when the provider does not expose them (Redis)
+     */
+    public Long getEntryCount() {
+        return switch (getNativeCache()) {
+            case com.github.benmanes.caffeine.cache.Cache<?, ?> caffeineCache -> caffeineCache.estimatedSize();
+            case Map<?, ?> map -> (long) map.size();
+            case null, default -> null;
+        };
+    }
+
+    /**
+     * Estimates the memory held by this node as the entry count times the mean JSON size of a sample of values.
+     * Heap usage is usually a small multiple of it; use it to compare caches and follow trends.
+     * <p>
+     * The mean size is sampled again only after {@value #MEMORY_SAMPLE_WRITES} writes or five minutes, so metrics
+     * scrapes do not serialize values each time; the entry count is always current.
+     *
+     * @return the estimate in bytes, {@code null} when the provider does not expose its entries
+     */
+    public Long getEstimatedMemoryBytes() {
+        final Collection<?> values = switch (getNativeCache()) {
+            case com.github.benmanes.caffeine.cache.Cache<?, ?> caffeineCache -> caffeineCache.asMap().values();
+            case Map<?, ?> map -> map.values();
+            case null, default -> null;
+        };
+        if (values == null) {
+            return null;
+        }
+        if (values.isEmpty()) {
+            return 0L;
+        }
+        MemorySample sample = memorySample;
+        if (sample == null
+                || writesSinceMemorySample.get() >= MEMORY_SAMPLE_WRITES
+                || System.nanoTime() - sample.sampledAtNanos() >= MEMORY_SAMPLE_MAX_AGE_NANOS) {
+            writesSinceMemorySample.set(0);
+            sample = sampleMemory(values);
+            memorySample = sample;
+        }
+        return sample.bytesPerEntry() * values.size();
+    }
+
+    private static MemorySample sampleMemory(Collection<?> values) {
+        long sampledBytes = 0;
+        int sampled = 0;
+        final Iterator<?> iterator = values.iterator();
+        while (iterator.hasNext() && sampled < MEMORY_SAMPLE_SIZE) {
+            try {
+                sampledBytes += SIZE_ESTIMATE_MAPPER.writeValueAsBytes(iterator.next()).length;
+                sampled++;
+            } catch (RuntimeException e) {
+                // values that are not serializable to JSON are left out of the sample
+            }
+        }
+        return new MemorySample(sampled == 0 ? 0 : sampledBytes / sampled, System.nanoTime());
+    }
+
+    private record MemorySample(long bytesPerEntry, long sampledAtNanos) {
+    }
+}
@@ -0,0 +1,11 @@
+package raff.stein.platformcore.cache.redis;
+
+/**
+ * Eviction broadcast by {@link TwoLevelCacheManager} on the invalidation channel.
+ *
+ * @param origin    id of the publishing node, which ignores its own messages
+ * @param cacheName Redis cache name, as built by {@code PlatformCacheConfiguration.buildCacheName}
+ * @param key       string form of the evicted key, {@code null} when the whole cache was cleared
+ */
+public record CacheInvalidationMessage(String origin, String cacheName, String key) {
+}
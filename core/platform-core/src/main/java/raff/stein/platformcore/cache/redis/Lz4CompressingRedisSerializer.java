@@ -0,0 +1,97 @@
+package raff.stein.platformcore.cache.redis;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Wraps a value serializer and LZ4-compresses the values reaching a size threshold.
+ * <p>
+ * Every value starts with a one byte marker, followed for compressed values by the uncompressed length:
+ * {@code [0][payload]} or {@code [1][length:int][lz4 block]}. Small values stay uncompressed, where the
+ * CPU cost would outweigh the bytes saved.
+ */
+public class Lz4CompressingRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte RAW = 0;
+    private static final byte LZ4 = 1;
+    private static final int LZ4_HEADER_LENGTH = 1 + Integer.BYTES;
+    // an LZ4 block cannot expand beyond about 255 times its size: a larger length header is not ours
+    private static final int MAX_COMPRESSION_RATIO = 255;
+
+    private static final LZ4Factory LZ4_FACTORY = LZ4Factory.fastestInstance();
+
+    private final RedisSerializer<Object> delegate;
+    private final int compressionThreshold;
+    private final LZ4Compressor compressor = LZ4_FACTORY.fastCompressor();
+    // the safe decompressor validates the block against the buffer bounds
+    private final LZ4SafeDecompressor decompressor = LZ4_FACTORY.safeDecompressor();
+
+    public Lz4CompressingRedisSerializer(RedisSerializer<Object> delegate, int compressionThreshold) {
+        this.delegate = delegate;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        final byte[] payload = delegate.serialize(value);
+        if (payload == null) {
+            return null;
+        }
+        if (payload.length < compressionThreshold) {
+            final byte[] raw = new byte[payload.length + 1];
+            raw[0] = RAW;
+            System.arraycopy(payload, 0, raw, 1, payload.length);
+            return raw;
+        }
+        final byte[] compressed = new byte[LZ4_HEADER_LENGTH + compressor.maxCompressedLength(payload.length)];
+        compressed[0] = LZ4;
+        ByteBuffer.wrap(compressed, 1, Integer.BYTES).putInt(payload.length);
+        final int compressedLength = compressor.compress(
+                payload, 0, payload.length, compressed, LZ4_HEADER_LENGTH, compressed.length - LZ4_HEADER_LENGTH);
+        return Arrays.copyOf(compressed, LZ4_HEADER_LENGTH + compressedLength);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        return switch (bytes[0]) {
+            case RAW -> delegate.deserialize(Arrays.copyOfRange(bytes, 1, bytes.length));
+            case LZ4 -> delegate.deserialize(decompress(bytes));
+            default -> throw new SerializationException("Unknown cache value marker [" + bytes[0] + "], "
+                    + "the value was probably written with another codec");
+        };
+    }
+
+    private byte[] decompress(byte[] bytes) {
+        if (bytes.length < LZ4_HEADER_LENGTH) {
+            throw new SerializationException("Truncated LZ4 cache value of " + bytes.length + " bytes");
+        }
+        final int length = ByteBuffer.wrap(bytes, 1, Integer.BYTES).getInt();
+        final int blockLength = bytes.length - LZ4_HEADER_LENGTH;
+        // checked before allocating, a corrupted header could otherwise ask for up to 2 GB
+        if (length < 0 || length > (long) blockLength * MAX_COMPRESSION_RATIO) {
+            throw new SerializationException("Corrupted LZ4 cache value, length " + length
+                    + " for a block of " + blockLength + " bytes");
+        }
+        final byte[] payload = new byte[length];
+        final int decompressedLength;
+        try {
+            decompressedLength = decompressor.decompress(bytes, LZ4_HEADER_LENGTH, blockLength, payload, 0);
+        } catch (RuntimeException e) {
+            throw new SerializationException("Corrupted LZ4 cache value", e);
+        }
+        if (decompressedLength != length) {
+            throw new SerializationException("Corrupted LZ4 cache value, " + decompressedLength
+                    + " bytes decompressed instead of " + length);
+        }
+        return payload;
+    }
+}
@@ -1,78 +1,155 @@
 package raff.stein.platformcore.cache.redis;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.serializer.GenericJacksonJsonRedisSerializer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import raff.stein.platformcore.bean.PlatformMeterRegistry;
+import raff.stein.platformcore.cache.CacheDecorator;
 import raff.stein.platformcore.cache.PlatformCacheConfiguration;
 import raff.stein.platformcore.cache.PlatformCacheProperties;
-import tools.jackson.databind.ObjectMapper;
+import raff.stein.platformcore.cache.stampede.StampedeProtection;
 
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Redis-backed {@link CacheManager} configuration shared across services.
+ * Redis-backed {@link CacheManager} configuration shared across services, for the {@code REDIS} and
+ * {@code TWO_LEVEL} providers.
  */
 @Configuration
 @EnableConfigurationProperties(PlatformCacheProperties.class)
 @ConditionalOnClass(RedisConnectionFactory.class)
-@ConditionalOnProperty(prefix = "platform.cache", name = {"enabled", "provider"}, havingValue = "true,REDIS")
+@ConditionalOnProperty(prefix = "platform.cache", name = "enabled", havingValue = "true")
 @RequiredArgsConstructor
 @Slf4j
 public class PlatformRedisCacheConfiguration {
 
+    /**
+     * Name of the {@link TwoLevelCacheManager} bean, also the {@code cache.manager} tag of its L1 meters.
+     */
+    public static final String TWO_LEVEL_CACHE_MANAGER_BEAN_NAME = "twoLevelCacheManager";
+
     private final PlatformCacheProperties cacheProperties;
     private final PlatformCacheConfiguration platformCacheConfiguration;
 
     @Bean
     @ConditionalOnMissingBean(CacheManager.class)
-    public CacheManager redisCacheManager(RedisConnectionFactory redisConnectionFactory) {
+    @ConditionalOnProperty(prefix = "platform.cache", name = "provider", havingValue = "REDIS")
+    public CacheManager redisCacheManager(
+            RedisConnectionFactory redisConnectionFactory,
+            @Qualifier("platformCacheDecorator") CacheDecorator platformCacheDecorator) {
+        return buildRedisCacheManager(redisConnectionFactory, platformCacheDecorator);
+    }
+
+    @Bean(name = TWO_LEVEL_CACHE_MANAGER_BEAN_NAME)
+    @ConditionalOnMissingBean(CacheManager.class)
+    @ConditionalOnProperty(prefix = "platform.cache", name = "provider", havingValue = "TWO_LEVEL")
+    public TwoLevelCacheManager twoLevelCacheManager(
+            RedisConnectionFactory redisConnectionFactory,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Qualifier("platformCacheDecorator") CacheDecorator platformCacheDecorator) {
+        // the L2 manager is not a bean of its own, initialize it by hand; decorations apply to the two-level caches
+        RedisCacheManager redisCacheManager = buildRedisCacheManager(redisConnectionFactory, null);
+        redisCacheManager.afterPropertiesSet();
+        return new TwoLevelCacheManager(
+                redisCacheManager,
+                platformCacheConfiguration::buildCacheName,
+                cacheProperties,
+                new StringRedisTemplate(redisConnectionFactory),
+                PlatformMeterRegistry.resolve(meterRegistry),
+                TWO_LEVEL_CACHE_MANAGER_BEAN_NAME,
+                platformCacheDecorator);
+    }
+
+    @Bean
+    @ConditionalOnBean(TwoLevelCacheManager.class)
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+            RedisConnectionFactory redisConnectionFactory,
+            TwoLevelCacheManager twoLevelCacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(twoLevelCacheManager,
+                new ChannelTopic(cacheProperties.getNearCache().getInvalidationChannel()));
+        return container;
+    }
+
+    /**
+     * @param cacheDecorator applied to the caches of the manager, {@code null} to leave them undecorated
+     */
+    private RedisCacheManager buildRedisCacheManager(
+            RedisConnectionFactory redisConnectionFactory,
+            CacheDecorator cacheDecorator) {
         RedisCacheConfiguration defaultConfig = defaultRedisCacheConfiguration();
 
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
+        Map<String, String> logicalNames = new HashMap<>();
         for (Map.Entry<String, PlatformCacheProperties.CacheConfig> entry : cacheProperties.getCaches().entrySet()) {
             String logicalName = entry.getKey();
             PlatformCacheProperties.CacheConfig cacheConfig = entry.getValue();
 
-            Duration ttl = cacheConfig.getTtl() != null
-                    ? cacheConfig.getTtl()
-                    : cacheProperties.getDefaultTtl();
+            Duration ttl = cacheProperties.storeTtl(cacheConfig);
 
             RedisCacheConfiguration specificConfig = defaultConfig;
             if (ttl != null) {
                 specificConfig = defaultConfig.entryTtl(ttl);
             }
+            PlatformCacheProperties.ValueCodec valueCodec = cacheConfig.getValueCodec() != null
+                    ? cacheConfig.getValueCodec()
+                    : cacheProperties.getDefaultValueCodec();
+            if (StampedeProtection.isRefreshAhead(cacheConfig) && valueCodec == PlatformCacheProperties.ValueCodec.JSON) {
+                // JSON values are read back without their type, the entry age would be lost
+                throw new IllegalStateException("Cache [" + logicalName + "] sets early-refresh or stale-while-revalidate, "
+                        + "which requires value-codec SMILE or CBOR");
+            }
+            if (cacheConfig.getValueCodec() != null || cacheConfig.getCompressionThreshold() != null) {
+                specificConfig = specificConfig.serializeValuesWith(SerializationPair.fromSerializer(
+                        RedisCacheValueSerializers.create(
+                                valueCodec, cacheConfig.getCompressionThreshold(), cacheProperties.getTrustedPackages())));
+            }
 
             String cacheName = platformCacheConfiguration.buildCacheName(logicalName);
             cacheConfigurations.put(cacheName, specificConfig);
+            logicalNames.put(cacheName, logicalName);
         }
 
-        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager
-                .builder(redisConnectionFactory)
-                .cacheDefaults(defaultConfig)
-                .withInitialCacheConfigurations(cacheConfigurations);
-
         log.info("Using RedisCacheManager with {} predefined caches", cacheConfigurations.size());
-        return builder.build();
+        RedisCacheWriter cacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(redisConnectionFactory);
+        if (cacheDecorator == null) {
+            return new RedisCacheManager(cacheWriter, defaultConfig, cacheConfigurations);
+        }
+        return new RedisCacheManager(cacheWriter, defaultConfig, cacheConfigurations) {
+            @Override
+            protected Cache decorateCache(Cache cache) {
+                return cacheDecorator.decorate(
+                        logicalNames.getOrDefault(cache.getName(), cache.getName()), super.decorateCache(cache));
+            }
+        };
     }
 
     private RedisCacheConfiguration defaultRedisCacheConfiguration() {
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig();
-        ObjectMapper objectMapper = new ObjectMapper();
-        config = config.serializeValuesWith(
-                SerializationPair.fromSerializer(new GenericJacksonJsonRedisSerializer(objectMapper)));
+        config = config.serializeValuesWith(SerializationPair.fromSerializer(RedisCacheValueSerializers.create(
+                cacheProperties.getDefaultValueCodec(), null, cacheProperties.getTrustedPackages())));
 
         Duration defaultTtl = cacheProperties.getDefaultTtl();
         if (defaultTtl != null) {
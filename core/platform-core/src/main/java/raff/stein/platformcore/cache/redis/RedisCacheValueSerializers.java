@@ -0,0 +1,58 @@
+package raff.stein.platformcore.cache.redis;
+
+import org.springframework.data.redis.serializer.GenericJacksonJsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.util.unit.DataSize;
+import raff.stein.platformcore.cache.PlatformCacheProperties;
+import raff.stein.platformcore.cache.stampede.RefreshAheadValue;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import tools.jackson.databind.jsontype.PolymorphicTypeValidator;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.util.List;
+
+/**
+ * Builds the Redis value serializer of a cache from its {@code value-codec} and {@code compression-threshold}.
+ */
+public final class RedisCacheValueSerializers {
+
+    private RedisCacheValueSerializers() {
+        // Prevent instantiation
+    }
+
+    public static RedisSerializer<Object> create(
+            PlatformCacheProperties.ValueCodec valueCodec,
+            DataSize compressionThreshold,
+            List<String> trustedPackages) {
+        final RedisSerializer<Object> serializer = switch (valueCodec) {
+            case JSON -> new GenericJacksonJsonRedisSerializer(new ObjectMapper());
+            case SMILE -> GenericJacksonJsonRedisSerializer.builder(SmileMapper::builder)
+                    .enableSpringCacheNullValueSupport()
+                    .enableDefaultTyping(typeValidator(trustedPackages))
+                    .build();
+            case CBOR -> GenericJacksonJsonRedisSerializer.builder(CBORMapper::builder)
+                    .enableSpringCacheNullValueSupport()
+                    .enableDefaultTyping(typeValidator(trustedPackages))
+                    .build();
+        };
+        if (compressionThreshold == null) {
+            return serializer;
+        }
+        return new Lz4CompressingRedisSerializer(serializer, (int) compressionThreshold.toBytes());
+    }
+
+    private static PolymorphicTypeValidator typeValidator(List<String> trustedPackages) {
+        final BasicPolymorphicTypeValidator.Builder builder = BasicPolymorphicTypeValidator.builder()
+                .allowIfSubType("java.lang.")
+                .allowIfSubType("java.util.")
+                .allowIfSubType("java.time.")
+                .allowIfSubType("java.math.")
+                .allowIfSubType("org.springframework.cache.support.NullValue")
+                .allowIfSubType(RefreshAheadValue.class)
+                .allowIfSubTypeIsArray();
+        trustedPackages.forEach(builder::allowIfSubType);
+        return builder.build();
+    }
+}
@@ -0,0 +1,138 @@
+package raff.stein.platformcore.cache.redis;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * {@link Cache} reading through a bounded in-process L1 to the shared Redis L2.
+ * <p>
+ * Writes go to L2 first, then update or drop the local entry and ask {@link TwoLevelCacheManager} to broadcast
+ * the eviction, so the L1 of the other nodes drops the entry and reloads it from L2 on the next read.
+ * L1 keys are the string form of the cache keys, which is also how {@code RedisCache} identifies them.
+ */
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final String remoteName;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final TwoLevelCacheManager cacheManager;
+
+    TwoLevelCache(
+            String name,
+            com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+            Cache remote,
+            TwoLevelCacheManager cacheManager) {
+        // null values are cached as NullValue in both levels, as RedisCache does by default
+        super(true);
+        this.name = name;
+        this.remoteName = remote.getName();
+        this.local = local;
+        this.remote = remote;
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    /**
+     * Name of the Redis cache backing this cache, used as the cache name in invalidation messages.
+     */
+    public String getRemoteName() {
+        return remoteName;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        final String localKey = localKey(key);
+        final Object localValue = local.getIfPresent(localKey);
+        if (localValue != null) {
+            return localValue;
+        }
+        final ValueWrapper remoteValue = remote.get(key);
+        if (remoteValue == null) {
+            return null;
+        }
+        final Object storeValue = toStoreValue(remoteValue.get());
+        local.put(localKey, storeValue);
+        return storeValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        // concurrent misses for the same key on this node wait for a single L2 read or load
+        return (T) fromStoreValue(local.get(localKey(key), k -> toStoreValue(remote.get(key, valueLoader))));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        local.put(localKey(key), toStoreValue(value));
+        cacheManager.publishEviction(remoteName, localKey(key));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        final ValueWrapper existing = remote.putIfAbsent(key, value);
+        local.invalidate(localKey(key));
+        if (existing == null) {
+            cacheManager.publishEviction(remoteName, localKey(key));
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        local.invalidate(localKey(key));
+        cacheManager.publishEviction(remoteName, localKey(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        final boolean evicted = remote.evictIfPresent(key);
+        local.invalidate(localKey(key));
+        cacheManager.publishEviction(remoteName, localKey(key));
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        cacheManager.publishClear(remoteName);
+    }
+
+    @Override
+    public boolean invalidate() {
+        final boolean invalidated = remote.invalidate();
+        local.invalidateAll();
+        cacheManager.publishClear(remoteName);
+        return invalidated;
+    }
+
+    /**
+     * Applies an eviction received from another node, L2 is already up to date.
+     */
+    void evictLocal(String localKey) {
+        local.invalidate(localKey);
+    }
+
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
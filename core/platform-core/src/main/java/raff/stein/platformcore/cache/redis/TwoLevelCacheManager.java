@@ -0,0 +1,155 @@
+package raff.stein.platformcore.cache.redis;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisOperations;
+import raff.stein.platformcore.cache.CacheDecorator;
+import raff.stein.platformcore.cache.PlatformCacheProperties;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link CacheManager} of the {@code TWO_LEVEL} provider: every cache is a {@link TwoLevelCache} combining a bounded
+ * Caffeine L1 with the Redis L2 cache named after {@code PlatformCacheConfiguration.buildCacheName}.
+ * <p>
+ * Writes and evictions are broadcast on {@code platform.cache.near-cache.invalidation-channel}; as the
+ * {@link MessageListener} of that channel, the manager drops the matching L1 entries written by other nodes.
+ * L1 entries also expire after {@code near-cache.local-ttl}, which bounds staleness when a message is lost.
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    private final CacheManager remoteCacheManager;
+    private final UnaryOperator<String> remoteNameResolver;
+    private final PlatformCacheProperties cacheProperties;
+    private final RedisOperations<String, String> redisOperations;
+    private final MeterRegistry meterRegistry;
+    private final String cacheManagerName;
+    private final CacheDecorator cacheDecorator;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, TwoLevelCache> cachesByRemoteName = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(
+            CacheManager remoteCacheManager,
+            UnaryOperator<String> remoteNameResolver,
+            PlatformCacheProperties cacheProperties,
+            RedisOperations<String, String> redisOperations,
+            MeterRegistry meterRegistry,
+            String cacheManagerName,
+            CacheDecorator cacheDecorator) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.remoteNameResolver = remoteNameResolver;
+        this.cacheProperties = cacheProperties;
+        this.redisOperations = redisOperations;
+        this.meterRegistry = meterRegistry;
+        this.cacheManagerName = cacheManagerName;
+        this.cacheDecorator = cacheDecorator;
+        cacheProperties.getCaches().keySet().forEach(this::getCache);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    private Cache createCache(String name) {
+        final String remoteName = remoteNameResolver.apply(name);
+        final Cache remote = Objects.requireNonNull(remoteCacheManager.getCache(remoteName),
+                () -> "No Redis cache available for [" + remoteName + "]");
+        final TwoLevelCache cache = new TwoLevelCache(name, createLocalCache(name), remote, this);
+        cachesByRemoteName.put(remoteName, cache);
+        return cacheDecorator.decorate(name, cache);
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<String, Object> createLocalCache(String name) {
+        final PlatformCacheProperties.CacheConfig cacheConfig = cacheProperties.getCaches()
+                .getOrDefault(name, new PlatformCacheProperties.CacheConfig());
+        final long maxSize = cacheConfig.getMaxSize() != null ? cacheConfig.getMaxSize() : cacheProperties.getDefaultMaxSize();
+        final Duration ttl = cacheProperties.storeTtl(cacheConfig);
+        final Duration localTtl = cacheProperties.getNearCache().getLocalTtl();
+        // an L1 entry never outlives its L2 copy
+        final Duration expireAfterWrite = ttl != null && ttl.compareTo(localTtl) < 0 ? ttl : localTtl;
+
+        final Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .recordStats()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite);
+        if (cacheConfig.getExpireAfterAccess() != null) {
+            builder.expireAfterAccess(cacheConfig.getExpireAfterAccess());
+        }
+        final com.github.benmanes.caffeine.cache.Cache<String, Object> local = builder.build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, name, Tags.of("cache.manager", cacheManagerName));
+        log.info("Created TWO_LEVEL cache [{}] over Redis cache [{}] with L1 maxSize={}, expireAfterWrite={}",
+                name, remoteNameResolver.apply(name), maxSize, expireAfterWrite);
+        return local;
+    }
+
+    void publishEviction(String remoteName, String key) {
+        publish(new CacheInvalidationMessage(nodeId, remoteName, key));
+    }
+
+    void publishClear(String remoteName) {
+        publish(new CacheInvalidationMessage(nodeId, remoteName, null));
+    }
+
+    private void publish(CacheInvalidationMessage invalidationMessage) {
+        try {
+            redisOperations.convertAndSend(
+                    cacheProperties.getNearCache().getInvalidationChannel(),
+                    objectMapper.writeValueAsString(invalidationMessage));
+        } catch (RuntimeException e) {
+            // L2 is already written: other nodes converge at the latest when their L1 entry expires
+            log.warn("Failed to broadcast cache invalidation for cache [{}], key [{}]: {}",
+                    invalidationMessage.cacheName(), invalidationMessage.key(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        final CacheInvalidationMessage invalidationMessage;
+        try {
+            invalidationMessage = objectMapper.readValue(
+                    new String(message.getBody(), StandardCharsets.UTF_8), CacheInvalidationMessage.class);
+        } catch (RuntimeException e) {
+            log.warn("Ignoring unreadable cache invalidation message: {}", e.getMessage());
+            return;
+        }
+        if (nodeId.equals(invalidationMessage.origin())) {
+            // local level already updated by the write itself
+            return;
+        }
+        final TwoLevelCache cache = cachesByRemoteName.get(invalidationMessage.cacheName());
+        if (cache == null) {
+            // cache not used on this node, or owned by another service sharing the channel
+            return;
+        }
+        if (invalidationMessage.key() == null) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(invalidationMessage.key());
+        }
+    }
+}
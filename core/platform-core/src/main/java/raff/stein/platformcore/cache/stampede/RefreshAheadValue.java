@@ -0,0 +1,12 @@
+package raff.stein.platformcore.cache.stampede;
+
+/**
+ * Cached value stored by {@link StampedeProtectedCache} for caches using {@code early-refresh} or
+ * {@code stale-while-revalidate}, so every node reading the entry agrees on its age.
+ *
+ * @param value         the cached value, possibly {@code null}
+ * @param computeMillis time the value took to load, {@code 0} when it was put directly
+ * @param expiresAt     epoch millis at which the value expires, the provider keeps it longer to serve it stale
+ */
+public record RefreshAheadValue(Object value, long computeMillis, long expiresAt) {
+}
@@ -0,0 +1,283 @@
+package raff.stein.platformcore.cache.stampede;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import raff.stein.platformcore.cache.PlatformCacheProperties;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Cache} decorator protecting the provider cache and the cached method against thundering herds.
+ * <ul>
+ *     <li>{@code single-flight}: concurrent misses of a key on this node wait for one load.</li>
+ *     <li>{@code early-refresh}: entries are reloaded before their ttl with a probability growing as the expiry
+ *     approaches and with the time the value took to compute (XFetch), so a single caller refreshes a popular key
+ *     instead of all of them at expiry.</li>
+ *     <li>{@code stale-while-revalidate}: expired entries keep being served for the configured window while one
+ *     reload runs on the refresh executor.</li>
+ * </ul>
+ * Loads only go through this cache on {@code @Cacheable(sync = true)} lookups. Plain lookups see an expired entry
+ * as a miss and the caller reloads it, as without the decorator.
+ */
+@Slf4j
+public class StampedeProtectedCache implements Cache {
+
+    private final Cache target;
+    private final boolean singleFlight;
+    private final boolean earlyRefresh;
+    private final double earlyRefreshBeta;
+    private final Duration staleWhileRevalidate;
+    private final Duration ttl;
+    private final boolean refreshAhead;
+    private final Executor refreshExecutor;
+    private final Clock clock;
+    // loads in progress on this node, joined by the callers missing the same key
+    private final ConcurrentMap<Object, CompletableFuture<Object>> loads = new ConcurrentHashMap<>();
+    // start time of the background reloads in progress on this node
+    private final ConcurrentMap<Object, Long> refreshes = new ConcurrentHashMap<>();
+
+    StampedeProtectedCache(
+            Cache target,
+            PlatformCacheProperties.CacheConfig cacheConfig,
+            Duration ttl,
+            Executor refreshExecutor,
+            Clock clock) {
+        this.target = target;
+        this.singleFlight = cacheConfig.isSingleFlight();
+        this.earlyRefresh = cacheConfig.isEarlyRefresh();
+        this.earlyRefreshBeta = cacheConfig.getEarlyRefreshBeta();
+        this.staleWhileRevalidate = cacheConfig.getStaleWhileRevalidate();
+        this.ttl = ttl;
+        this.refreshAhead = StampedeProtection.isRefreshAhead(cacheConfig);
+        this.refreshExecutor = refreshExecutor;
+        this.clock = clock;
+    }
+
+    /**
+     * @return the provider cache this cache decorates
+     */
+    public Cache getTarget() {
+        return target;
+    }
+
+    @Override
+    public String getName() {
+        return target.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return target.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        final ValueWrapper valueWrapper = target.get(key);
+        if (valueWrapper == null || !(valueWrapper.get() instanceof RefreshAheadValue refreshAheadValue)) {
+            return valueWrapper;
+        }
+        // without a loader an expired entry cannot be revalidated, the caller reloads it as on a miss
+        return clock.millis() < refreshAheadValue.expiresAt() ? new SimpleValueWrapper(refreshAheadValue.value()) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        final ValueWrapper valueWrapper = get(key);
+        final Object value = valueWrapper != null ? valueWrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        final ValueWrapper valueWrapper = target.get(key);
+        if (valueWrapper == null) {
+            return (T) load(key, valueLoader, null);
+        }
+        if (!(valueWrapper.get() instanceof RefreshAheadValue refreshAheadValue)) {
+            return (T) valueWrapper.get();
+        }
+
+        final long now = clock.millis();
+        if (now < refreshAheadValue.expiresAt()) {
+            if (earlyRefresh && shouldRefreshEarly(refreshAheadValue, now)) {
+                if (staleWhileRevalidate == null) {
+                    return (T) load(key, valueLoader, refreshAheadValue);
+                }
+                refreshInBackground(key, valueLoader, now);
+            }
+            return (T) refreshAheadValue.value();
+        }
+        if (staleWhileRevalidate != null && now < refreshAheadValue.expiresAt() + staleWhileRevalidate.toMillis()) {
+            refreshInBackground(key, valueLoader, now);
+            return (T) refreshAheadValue.value();
+        }
+        return (T) load(key, valueLoader, refreshAheadValue);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        target.put(key, toStoreValue(value, 0));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        final ValueWrapper existing = target.putIfAbsent(key, toStoreValue(value, 0));
+        if (existing != null && existing.get() instanceof RefreshAheadValue refreshAheadValue) {
+            return new SimpleValueWrapper(refreshAheadValue.value());
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        target.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return target.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        target.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return target.invalidate();
+    }
+
+    /**
+     * Loads a missing or expired entry.
+     *
+     * @param replaced the expired or early-refreshed entry, {@code null} on a miss
+     */
+    private Object load(Object key, Callable<?> valueLoader, RefreshAheadValue replaced) {
+        if (!singleFlight) {
+            if (replaced == null) {
+                // the provider cache may apply its own per-key locking on misses
+                return fromStoreValue(target.get(key, () -> loadStoreValue(valueLoader)));
+            }
+            return loadAndStore(key, valueLoader);
+        }
+
+        final CompletableFuture<Object> load = new CompletableFuture<>();
+        final CompletableFuture<Object> inFlight = loads.putIfAbsent(key, load);
+        if (inFlight != null) {
+            return await(key, inFlight);
+        }
+        try {
+            // the entry may have been stored by a load completed since this caller looked it up
+            final ValueWrapper stored = freshEntry(key, replaced);
+            final Object value = stored != null ? stored.get() : loadAndStore(key, valueLoader);
+            load.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(key, load);
+        }
+    }
+
+    private void refreshInBackground(Object key, Callable<?> valueLoader, long now) {
+        final Long previous = refreshes.putIfAbsent(key, now);
+        // a refresh discarded by a saturated executor stops blocking the key after one ttl
+        if (previous != null && (now - previous < ttl.toMillis() || !refreshes.replace(key, previous, now))) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    loadAndStore(key, valueLoader);
+                } catch (RuntimeException e) {
+                    log.warn("Background refresh of key [{}] in cache [{}] failed, the stale value is served until it expires: {}",
+                            key, getName(), e.getMessage());
+                } finally {
+                    refreshes.remove(key, now);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshes.remove(key, now);
+            log.warn("Background refresh of key [{}] in cache [{}] rejected: {}", key, getName(), e.getMessage());
+        }
+    }
+
+    private Object await(Object key, CompletableFuture<Object> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new ValueRetrievalException(key, null, e.getCause());
+        }
+    }
+
+    private ValueWrapper freshEntry(Object key, RefreshAheadValue replaced) {
+        final ValueWrapper valueWrapper = target.get(key);
+        if (valueWrapper == null || !(valueWrapper.get() instanceof RefreshAheadValue refreshAheadValue)) {
+            return valueWrapper;
+        }
+        if (replaced != null && replaced.expiresAt() == refreshAheadValue.expiresAt()) {
+            // still the entry this caller decided to reload
+            return null;
+        }
+        return clock.millis() < refreshAheadValue.expiresAt() ? new SimpleValueWrapper(refreshAheadValue.value()) : null;
+    }
+
+    private Object loadAndStore(Object key, Callable<?> valueLoader) {
+        final Object storeValue;
+        try {
+            storeValue = loadStoreValue(valueLoader);
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        target.put(key, storeValue);
+        return fromStoreValue(storeValue);
+    }
+
+    private Object loadStoreValue(Callable<?> valueLoader) throws Exception {
+        final long start = System.nanoTime();
+        final Object value = valueLoader.call();
+        return toStoreValue(value, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private Object toStoreValue(Object value, long computeMillis) {
+        if (!refreshAhead) {
+            return value;
+        }
+        return new RefreshAheadValue(value, computeMillis, clock.millis() + ttl.toMillis());
+    }
+
+    private static Object fromStoreValue(Object storeValue) {
+        return storeValue instanceof RefreshAheadValue refreshAheadValue ? refreshAheadValue.value() : storeValue;
+    }
+
+    private boolean shouldRefreshEarly(RefreshAheadValue refreshAheadValue, long now) {
+        // XFetch: -log(u) is exponentially distributed, so the refresh gets likelier as the expiry approaches
+        final double gap = refreshAheadValue.computeMillis() * earlyRefreshBeta
+                * -Math.log(1.0 - ThreadLocalRandom.current().nextDouble());
+        return now + gap >= refreshAheadValue.expiresAt();
+    }
+}
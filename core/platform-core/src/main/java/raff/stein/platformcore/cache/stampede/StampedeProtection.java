@@ -0,0 +1,58 @@
+package raff.stein.platformcore.cache.stampede;
+
+import org.springframework.cache.Cache;
+import raff.stein.platformcore.cache.CacheDecorator;
+import raff.stein.platformcore.cache.PlatformCacheProperties;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * Applies the {@code single-flight}, {@code early-refresh} and {@code stale-while-revalidate} settings of
+ * {@code platform.cache.caches.<name>} to the caches built by the platform cache managers.
+ */
+public class StampedeProtection implements CacheDecorator {
+
+    private final PlatformCacheProperties cacheProperties;
+    private final Executor refreshExecutor;
+    private final Clock clock;
+
+    /**
+     * @param refreshExecutor runs background reloads, the {@code platformTaskExecutor} in a service
+     */
+    public StampedeProtection(PlatformCacheProperties cacheProperties, Executor refreshExecutor) {
+        this(cacheProperties, refreshExecutor, Clock.systemUTC());
+    }
+
+    StampedeProtection(PlatformCacheProperties cacheProperties, Executor refreshExecutor, Clock clock) {
+        this.cacheProperties = cacheProperties;
+        this.refreshExecutor = refreshExecutor;
+        this.clock = clock;
+    }
+
+    /**
+     * @return the cache protected as configured, or the cache itself when no protection is enabled
+     */
+    @Override
+    public Cache decorate(String name, Cache cache) {
+        final PlatformCacheProperties.CacheConfig cacheConfig = cacheProperties.getCaches().get(name);
+        if (cacheConfig == null || !(cacheConfig.isSingleFlight() || isRefreshAhead(cacheConfig))) {
+            return cache;
+        }
+        final Duration ttl = cacheProperties.ttl(cacheConfig);
+        if (isRefreshAhead(cacheConfig) && ttl == null) {
+            throw new IllegalStateException("Cache [" + name + "] sets early-refresh or stale-while-revalidate "
+                    + "but neither ttl nor default-ttl");
+        }
+        return new StampedeProtectedCache(cache, cacheConfig, ttl, refreshExecutor, clock);
+    }
+
+    /**
+     * @return whether entries of the cache are stored as {@link RefreshAheadValue}, which the value serializer
+     * must be able to read back as such
+     */
+    public static boolean isRefreshAhead(PlatformCacheProperties.CacheConfig cacheConfig) {
+        return cacheConfig.isEarlyRefresh() || cacheConfig.getStaleWhileRevalidate() != null;
+    }
+}
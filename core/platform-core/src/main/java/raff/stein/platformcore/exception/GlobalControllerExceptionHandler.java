@@ -3,6 +3,7 @@ package raff.stein.platformcore.exception;
 import io.micrometer.tracing.Span;
 import io.micrometer.tracing.TraceContext;
 import io.micrometer.tracing.Tracer;
+import jakarta.validation.ConstraintViolationException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.openapitools.model.ErrorCategory;
@@ -57,6 +58,25 @@ public class GlobalControllerExceptionHandler {
 
     }
 
+    @ExceptionHandler(ConstraintViolationException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleConstraintViolationException(ConstraintViolationException ex) {
+
+        String errorMessages = ex
+                .getConstraintViolations()
+                .stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .collect(Collectors.joining(","));
+
+        log.warn("Validation failed traceId={} errors={}", getTraceId(), errorMessages, ex);
+
+        return new ErrorResponse()
+                .errorMessage(errorMessages)
+                .errorCode(getErrorCode(ex))
+                .category(getErrorCategory(ex))
+                .traceId(getTraceId());
+    }
+
     /**
      * ============= BAD REQUEST (400) exception handlers =============
      */
@@ -0,0 +1,212 @@
+package raff.stein.platformcore.logging;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Predicate;
+
+/**
+ * Response wrapper streaming the body to the client as it is written, and keeping a copy of its first
+ * {@code maxPayloadBytes} for logging.
+ * <p>
+ * Unlike {@link org.springframework.web.util.ContentCachingResponseWrapper}, the body is never buffered: the memory
+ * held per response is bounded by the limit whatever the body size. Bodies whose content type is not loggable,
+ * checked on the first write, are not copied at all.
+ */
+class PayloadCapturingResponseWrapper extends HttpServletResponseWrapper {
+
+    private final int maxPayloadBytes;
+    private final Predicate<String> loggableContentType;
+    // copy of the head of the body, written either as bytes or as chars
+    private byte[] capturedBytes;
+    private StringBuilder capturedChars;
+    private int capturedLength;
+    private long writtenLength;
+    // decided on the first write, once the content type is set
+    private Boolean capturing;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    PayloadCapturingResponseWrapper(HttpServletResponse response, int maxPayloadBytes, Predicate<String> loggableContentType) {
+        super(response);
+        this.maxPayloadBytes = maxPayloadBytes;
+        this.loggableContentType = loggableContentType;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = new CapturingOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            writer = new CapturingWriter(super.getWriter());
+        }
+        return writer;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        clearCapture();
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        clearCapture();
+    }
+
+    /**
+     * @return the head of the body, empty if it was not captured
+     */
+    String getCapturedPayload() {
+        if (capturedChars != null) {
+            return capturedChars.toString();
+        }
+        return capturedBytes != null ? new String(capturedBytes, 0, capturedLength, StandardCharsets.UTF_8) : "";
+    }
+
+    /**
+     * @return whether the body was copied, that is its content type is loggable
+     */
+    boolean isCaptured() {
+        return Boolean.TRUE.equals(capturing);
+    }
+
+    /**
+     * @return bytes, or chars when the body was written through {@link #getWriter()}, sent to the client
+     */
+    long getWrittenLength() {
+        return writtenLength;
+    }
+
+    boolean isTruncated() {
+        return writtenLength > capturedLength;
+    }
+
+    private boolean capturing() {
+        if (capturing == null) {
+            capturing = maxPayloadBytes > 0 && loggableContentType.test(getContentType());
+        }
+        return capturing;
+    }
+
+    private void captureBytes(byte[] b, int off, int len) {
+        writtenLength += len;
+        final int captured = Math.min(len, maxPayloadBytes - capturedLength);
+        if (captured > 0 && capturing()) {
+            if (capturedBytes == null) {
+                capturedBytes = new byte[maxPayloadBytes];
+            }
+            System.arraycopy(b, off, capturedBytes, capturedLength, captured);
+            capturedLength += captured;
+        }
+    }
+
+    private void captureByte(int b) {
+        writtenLength++;
+        if (capturedLength < maxPayloadBytes && capturing()) {
+            if (capturedBytes == null) {
+                capturedBytes = new byte[maxPayloadBytes];
+            }
+            capturedBytes[capturedLength++] = (byte) b;
+        }
+    }
+
+    private void captureChars(CharSequence chars, int off, int len) {
+        writtenLength += len;
+        final int captured = Math.min(len, maxPayloadBytes - capturedLength);
+        if (captured > 0 && capturing()) {
+            if (capturedChars == null) {
+                capturedChars = new StringBuilder(Math.min(maxPayloadBytes, 1024));
+            }
+            capturedChars.append(chars, off, off + captured);
+            capturedLength += captured;
+        }
+    }
+
+    private void clearCapture() {
+        capturedBytes = null;
+        capturedChars = null;
+        capturedLength = 0;
+        writtenLength = 0;
+        capturing = null;
+    }
+
+    private class CapturingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+
+        CapturingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            captureByte(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            captureBytes(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+
+    private class CapturingWriter extends PrintWriter {
+
+        CapturingWriter(PrintWriter delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void write(int c) {
+            super.write(c);
+            captureChars(String.valueOf((char) c), 0, 1);
+        }
+
+        @Override
+        public void write(char[] buf, int off, int len) {
+            super.write(buf, off, len);
+            captureChars(CharBuffer.wrap(buf), off, len);
+        }
+
+        @Override
+        public void write(String s, int off, int len) {
+            super.write(s, off, len);
+            captureChars(s, off, len);
+        }
+    }
+}
@@ -4,45 +4,73 @@ import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
 import org.springframework.stereotype.Component;
 import org.springframework.web.util.ContentCachingRequestWrapper;
-import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
- * Filter that logs all HTTP requests and responses, including payloads.
+ * Filter that logs HTTP requests and responses, including payloads.
  * This filter is intended to be shared across all microservices for centralized logging.
+ * <p>
+ * The memory used per request is bounded whatever the payload size: only the first
+ * {@code platform.http-logging.max-payload-bytes} of each payload are held, and only for loggable content types.
+ * Requests are sampled with {@code platform.http-logging.sample-rate} and {@code path-sample-rates}; a request not
+ * sampled goes through unwrapped. The lines are written by an asynchronous appender (see {@code logback-spring.xml}).
  */
 @Component
 @Slf4j
 public class RequestResponseLoggingFilter implements Filter {
 
+    private final RequestResponseLoggingProperties properties;
+    private final List<PathPattern> excludedPaths;
+    private final Map<PathPattern, Double> pathSampleRates = new LinkedHashMap<>();
+    private final List<MediaType> payloadContentTypes;
+
+    public RequestResponseLoggingFilter(RequestResponseLoggingProperties properties) {
+        this.properties = properties;
+        this.excludedPaths = properties.getExcludedPaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+        properties.getPathSampleRates().forEach((pattern, rate) ->
+                pathSampleRates.put(PathPatternParser.defaultInstance.parse(pattern), rate));
+        this.payloadContentTypes = properties.getPayloadContentTypes().stream().map(MediaType::parseMediaType).toList();
+    }
+
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
-        if (!(request instanceof HttpServletRequest httpRequest) || !(response instanceof HttpServletResponse)) {
+        if (!(request instanceof HttpServletRequest httpRequest) || !(response instanceof HttpServletResponse httpResponse)
+                || !properties.isEnabled() || !log.isInfoEnabled()) {
             chain.doFilter(request, response);
             return;
         }
         String path = httpRequest.getRequestURI();
-        // Exclude actuator/health and actuator/prometheus endpoints from logging
         // Also exclude password setup/reset endpoints to avoid logging sensitive payloads
-        if (path.startsWith("/actuator/health")
-                || path.startsWith("/actuator/prometheus")
-                || isPasswordFlow(path)) {
+        if (isPasswordFlow(path) || !isSampled(PathContainer.parsePath(path))) {
             chain.doFilter(request, response);
             return;
         }
-        ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper(httpRequest, 1024 * 1024);
-        ContentCachingResponseWrapper wrappedResponse = new ContentCachingResponseWrapper((HttpServletResponse) response);
+        final int maxPayloadBytes = properties.getMaxPayloadBytes();
+        // the wrapper stops caching past its limit, the rest of the body is read by the application only
+        HttpServletRequest loggedRequest = maxPayloadBytes > 0 && isLoggable(httpRequest.getContentType())
+                ? new ContentCachingRequestWrapper(httpRequest, maxPayloadBytes)
+                : httpRequest;
+        PayloadCapturingResponseWrapper wrappedResponse =
+                new PayloadCapturingResponseWrapper(httpResponse, maxPayloadBytes, this::isLoggable);
         try {
-            chain.doFilter(wrappedRequest, wrappedResponse);
+            chain.doFilter(loggedRequest, wrappedResponse);
         } finally {
-            logRequest(wrappedRequest);
+            logRequest(loggedRequest);
             logResponse(wrappedResponse);
-            wrappedResponse.copyBodyToResponse();
         }
     }
 
@@ -56,8 +84,41 @@ public class RequestResponseLoggingFilter implements Filter {
                 || path.contains("/auth/login");
     }
 
-    private void logRequest(ContentCachingRequestWrapper request) {
-        StringBuilder msg = new StringBuilder();
+    private boolean isSampled(PathContainer path) {
+        for (PathPattern excludedPath : excludedPaths) {
+            if (excludedPath.matches(path)) {
+                return false;
+            }
+        }
+        double sampleRate = properties.getSampleRate();
+        for (Map.Entry<PathPattern, Double> pathSampleRate : pathSampleRates.entrySet()) {
+            if (pathSampleRate.getKey().matches(path)) {
+                sampleRate = pathSampleRate.getValue();
+                break;
+            }
+        }
+        return sampleRate >= 1.0 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    private boolean isLoggable(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            final MediaType mediaType = MediaType.parseMediaType(contentType);
+            for (MediaType payloadContentType : payloadContentTypes) {
+                if (payloadContentType.includes(mediaType)) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    private void logRequest(HttpServletRequest request) {
+        StringBuilder msg = new StringBuilder(256);
         msg.append("[REQUEST] ")
            .append(request.getMethod())
            .append(" ")
@@ -65,27 +126,54 @@ public class RequestResponseLoggingFilter implements Filter {
         if (request.getQueryString() != null) {
             msg.append('?').append(request.getQueryString());
         }
-        String payload = getPayload(request.getContentAsByteArray());
-        if (!payload.isEmpty()) {
-            msg.append(" | Payload: ").append(payload.replaceAll("\\s+", ""));
+        final long contentLength = request.getContentLengthLong();
+        if (request instanceof ContentCachingRequestWrapper cachingRequest) {
+            byte[] payload = cachingRequest.getContentAsByteArray();
+            if (payload.length > 0) {
+                msg.append(" | Payload: ");
+                appendWithoutWhitespace(msg, new String(payload, StandardCharsets.UTF_8));
+                if (contentLength > payload.length || (contentLength < 0 && payload.length == properties.getMaxPayloadBytes())) {
+                    appendTruncated(msg, contentLength);
+                }
+            }
+        } else if (contentLength > 0) {
+            appendOmitted(msg, contentLength, request.getContentType());
         }
-        String msgString = msg.toString();
-        log.info(msgString);
+        log.info(msg.toString());
     }
 
-    private void logResponse(ContentCachingResponseWrapper response) {
-        StringBuilder msg = new StringBuilder();
+    private void logResponse(PayloadCapturingResponseWrapper response) {
+        StringBuilder msg = new StringBuilder(256);
         msg.append("[RESPONSE] Status: ").append(response.getStatus());
-        String payload = getPayload(response.getContentAsByteArray());
-        if (!payload.isEmpty()) {
-            msg.append(" | Payload: ").append(payload);
+        if (response.isCaptured()) {
+            msg.append(" | Payload: ").append(response.getCapturedPayload());
+            if (response.isTruncated()) {
+                appendTruncated(msg, response.getWrittenLength());
+            }
+        } else if (response.getWrittenLength() > 0) {
+            appendOmitted(msg, response.getWrittenLength(), response.getContentType());
+        }
+        log.info(msg.toString());
+    }
+
+    private static void appendWithoutWhitespace(StringBuilder msg, String payload) {
+        for (int i = 0; i < payload.length(); i++) {
+            final char c = payload.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                msg.append(c);
+            }
+        }
+    }
+
+    private static void appendTruncated(StringBuilder msg, long length) {
+        msg.append("... [truncated");
+        if (length > 0) {
+            msg.append(", ").append(length).append(" total");
         }
-        String msgString = msg.toString();
-        log.info(msgString);
+        msg.append(']');
     }
 
-    private String getPayload(byte[] buf) {
-        if (buf == null || buf.length == 0) return "";
-        return new String(buf, StandardCharsets.UTF_8);
+    private static void appendOmitted(StringBuilder msg, long length, String contentType) {
+        msg.append(" | Payload omitted: ").append(length).append(" bytes of ").append(contentType);
     }
 }
@@ -0,0 +1,63 @@
+package raff.stein.platformcore.logging;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration properties of the {@link RequestResponseLoggingFilter}, bound from the {@code platform.http-logging}
+ * prefix.
+ * <p>
+ * Every request is logged by default, as in development. Production sets {@code sample-rate} to a small fraction
+ * (the shared {@code prod} profile logs 1% of the requests) and lowers the rate of the heavy paths further with
+ * {@code path-sample-rates}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "platform.http-logging")
+public class RequestResponseLoggingProperties {
+
+    /**
+     * Whether HTTP requests and responses are logged at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Fraction of the requests logged, from 0 (none) to 1 (all).
+     */
+    private double sampleRate = 1.0;
+
+    /**
+     * Sample rates of the paths matching a pattern (e.g. {@code "[/api/documents/**]": 0}), overriding
+     * {@link #sampleRate}. The first matching pattern, in declaration order, applies.
+     */
+    private Map<String, Double> pathSampleRates = new LinkedHashMap<>();
+
+    /**
+     * Path patterns never logged. The password setup, reset and login flows are never logged whatever this list.
+     */
+    private List<String> excludedPaths = new ArrayList<>(List.of("/actuator/health/**", "/actuator/prometheus/**"));
+
+    /**
+     * Maximum bytes of each payload held and logged. Longer payloads are truncated: the bytes past the limit are
+     * streamed to the client without being copied.
+     */
+    private int maxPayloadBytes = 4096;
+
+    /**
+     * Content types whose payloads are logged. The payloads of other types (PDF, images, octet streams) are neither
+     * held nor logged, only their size.
+     */
+    private List<String> payloadContentTypes = new ArrayList<>(List.of(
+            "application/json",
+            "application/*+json",
+            "application/xml",
+            "application/*+xml",
+            "application/x-www-form-urlencoded",
+            "text/*"));
+}
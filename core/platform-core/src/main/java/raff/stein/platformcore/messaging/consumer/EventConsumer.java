@@ -2,6 +2,7 @@ package raff.stein.platformcore.messaging.consumer;
 
 import io.cloudevents.CloudEvent;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Consumer;
 
@@ -10,4 +11,17 @@ public interface EventConsumer {
     <T> Optional<T> getEventPayload(CloudEvent cloudEvent, Class<T> clazz);
 
     <T> void withEventPayload(CloudEvent cloudEvent, Class<T> clazz, Consumer<T> consumer);
+
+    /**
+     * Decodes a whole poll and hands the payloads to the consumer grouped by consecutive records of the same
+     * security context, so that a handler can process (and commit) each group in a single transaction.
+     */
+    <T> void withEventPayloads(List<CloudEvent> cloudEvents, Class<T> clazz, Consumer<List<T>> consumer);
+
+    /**
+     * Hands the payloads of a whole poll to the consumer one by one, processing events with different
+     * partition keys in parallel while keeping the publishing order of events sharing a key.
+     * Meant for handlers blocked on I/O, where one slow event should not hold the rest of the partition.
+     */
+    <T> void withEventPayloadsInParallel(List<CloudEvent> cloudEvents, Class<T> clazz, Consumer<T> consumer);
 }
@@ -5,12 +5,28 @@ import io.cloudevents.CloudEventData;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import raff.stein.platformcore.messaging.consumer.exception.EventPayloadDeserializationException;
+import raff.stein.platformcore.messaging.consumer.idempotency.ProcessedEventStore;
+import raff.stein.platformcore.messaging.consumer.parallel.KeyOrderedParallelProcessor;
+import raff.stein.platformcore.messaging.extension.WMPCloudEventExtensions;
+import raff.stein.platformcore.messaging.metrics.EventMetrics;
+import raff.stein.platformcore.messaging.payload.PayloadCodecResolver;
+import raff.stein.platformcore.messaging.payload.PayloadFormat;
 import raff.stein.platformcore.security.context.SecurityContextHolder;
 import raff.stein.platformcore.security.context.WMPContext;
 import tools.jackson.databind.ObjectMapper;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Consumer;
 
 @Slf4j
@@ -19,12 +35,43 @@ import java.util.function.Consumer;
 public class WMPBaseEventConsumer implements EventConsumer {
 
     private ObjectMapper objectMapper;
+    private PayloadCodecResolver payloadCodecResolver;
+    private ProcessedEventStore processedEventStore;
+    private KeyOrderedParallelProcessor keyOrderedParallelProcessor;
+    private EventMetrics eventMetrics;
+    private String listenerName;
 
     @Autowired
     public void setObjectMapper(ObjectMapper objectMapper) {
         this.objectMapper = objectMapper;
     }
 
+    /**
+     * Optional, present when {@code kafka.consumer.idempotency.enabled=true}.
+     */
+    @Autowired(required = false)
+    public void setProcessedEventStore(ProcessedEventStore processedEventStore) {
+        this.processedEventStore = processedEventStore;
+    }
+
+    @Autowired(required = false)
+    public void setEventMetrics(EventMetrics eventMetrics) {
+        this.eventMetrics = eventMetrics;
+    }
+
+    /**
+     * Required: it carries the {@code kafka.consumer.parallel} bound shared by every listener.
+     */
+    @Autowired
+    public void setKeyOrderedParallelProcessor(KeyOrderedParallelProcessor keyOrderedParallelProcessor) {
+        this.keyOrderedParallelProcessor = keyOrderedParallelProcessor;
+    }
+
+    @Autowired
+    public void setPayloadCodecResolver(PayloadCodecResolver payloadCodecResolver) {
+        this.payloadCodecResolver = payloadCodecResolver;
+    }
+
     @Override
     public <T> Optional<T> getEventPayload(CloudEvent cloudEvent, Class<T> clazz) {
         log.info("CloudEvent received for class: [{}], eventId; [{}]",
@@ -34,12 +81,13 @@ public class WMPBaseEventConsumer implements EventConsumer {
                 clazz.getName(),
                 cloudEvent.getId(),
                 cloudEvent.getData());
+        recordReceived(cloudEvent);
         CloudEventData cloudEventData = cloudEvent.getData();
         if(cloudEventData != null ) {
             // rebuild the context
             SecurityContextHolder.setContext(getContextFromCloudEvent(cloudEvent));
             try {
-                return Optional.ofNullable(objectMapper.readValue(cloudEventData.toBytes(), clazz));
+                return Optional.ofNullable(timedReadData(cloudEvent, cloudEventData, clazz));
 
             } catch (Exception e) {
                 log.error("Error deserializing CloudEvent data for eventId: [{}], class: [{}], error: {}",
@@ -58,38 +106,312 @@ public class WMPBaseEventConsumer implements EventConsumer {
                 cloudEvent.getId());
 
         try {
+            if (isAlreadyProcessed(cloudEvent, clazz)) {
+                log.info("CloudEvent already processed for class: [{}], eventId: [{}], skipping...",
+                        clazz.getName(),
+                        cloudEvent.getId());
+                return;
+            }
+            recordReceived(cloudEvent);
             CloudEventData cloudEventData = cloudEvent.getData();
             if (cloudEventData != null) {
                 // initialize the security context from the CloudEvent
                 SecurityContextHolder.setContext(getContextFromCloudEvent(cloudEvent));
                 // Deserialize the payload
-                final Optional<T> payloadOptional = Optional.ofNullable(objectMapper.readValue(
-                        cloudEventData.toBytes(),
-                        clazz));
+                final Optional<T> payloadOptional;
+                try {
+                    payloadOptional = Optional.ofNullable(timedReadData(
+                            cloudEvent,
+                            cloudEventData,
+                            clazz));
+                } catch (Exception e) {
+                    throw new EventPayloadDeserializationException(cloudEvent.getId(), clazz, e);
+                }
                 // If the payload is present, consume it
                 if (payloadOptional.isPresent()) {
-                    consumer.accept(payloadOptional.get());
+                    acceptTimed(cloudEvent, () -> consumer.accept(payloadOptional.get()));
+                    markProcessed(clazz, List.of(cloudEvent.getId()));
                 } else {
                     log.warn("Received null payload for eventId: [{}], class: [{}]", cloudEvent.getId(), clazz);
                 }
             } else {
                 log.warn("CloudEvent data is null for eventId: [{}], skipping...", cloudEvent.getId());
             }
-        } catch (Exception e) {
-            log.error("Failed to parse event payload: {}", e.getMessage(), e);
+        } catch (RuntimeException e) {
+            // rethrown so the container error handler can retry the record or dead-letter it
+            log.error("Failed to process event payload for eventId: [{}], class: [{}], error: {}",
+                    cloudEvent.getId(),
+                    clazz.getName(),
+                    e.getMessage());
+            throw e;
         } finally {
             // Clear the security context after processing the event
             SecurityContextHolder.clear();
         }
     }
 
+    /**
+     * Consecutive records of the same security context are handed over together, the first group failing stops the
+     * batch with a {@link BatchListenerFailedException} on the first record of the group: the container error handler
+     * commits the records before it, which all belong to the groups already handled, and redelivers the others, none
+     * of which has been handled yet. An undecodable record fails the batch the same way, once the records before it
+     * have been handled.
+     */
+    @Override
+    public <T> void withEventPayloads(List<CloudEvent> cloudEvents, Class<T> clazz, Consumer<List<T>> consumer) {
+        log.info("CloudEvent batch received for class: [{}], size: [{}]", clazz.getName(), cloudEvents.size());
+
+        // one lookup for the whole poll, redeliveries are dropped before deserialization
+        final Set<String> processedEventIds = findProcessed(cloudEvents, clazz);
+
+        // decode the poll up to its first undecodable record; a group only spans consecutive records, so every record
+        // before the first one of a group belongs to the groups handled before it
+        final List<ContextGroup<T>> groups = new ArrayList<>();
+        BatchListenerFailedException undecodable = null;
+        for (int index = 0; index < cloudEvents.size() && undecodable == null; index++) {
+            final CloudEvent cloudEvent = cloudEvents.get(index);
+            if (cloudEvent != null && processedEventIds.contains(cloudEvent.getId())) {
+                log.info("CloudEvent already processed for class: [{}], eventId: [{}], skipping...",
+                        clazz.getName(),
+                        cloudEvent.getId());
+                continue;
+            }
+            try {
+                final int eventIndex = index;
+                decodePayload(cloudEvent, clazz).ifPresent(payload -> {
+                    final WMPContext context = getContextFromCloudEvent(cloudEvent);
+                    if (groups.isEmpty() || !groups.getLast().context.equals(context)) {
+                        groups.add(new ContextGroup<>(context, eventIndex));
+                    }
+                    groups.getLast().add(cloudEvent, payload);
+                });
+            } catch (EventPayloadDeserializationException e) {
+                undecodable = new BatchListenerFailedException(e.getMessage(), e, index);
+            }
+        }
+
+        for (ContextGroup<T> group : groups) {
+            try {
+                SecurityContextHolder.setContext(group.context);
+                // one handler call per group, timed under the type of its first event
+                acceptTimed(group.events.getFirst(), () -> consumer.accept(group.payloads));
+                markProcessed(clazz, group.events.stream().map(CloudEvent::getId).toList());
+            } catch (RuntimeException e) {
+                log.error("Failed to process batch of [{}] payloads for class: [{}], error: {}",
+                        group.payloads.size(), clazz.getName(), e.getMessage(), e);
+                throw new BatchListenerFailedException(
+                        "Failed to process batch of " + group.payloads.size() + " payloads for " + clazz.getName(),
+                        e,
+                        group.firstIndex);
+            } finally {
+                SecurityContextHolder.clear();
+            }
+        }
+        if (undecodable != null) {
+            throw undecodable;
+        }
+    }
+
+    @Override
+    public <T> void withEventPayloadsInParallel(List<CloudEvent> cloudEvents, Class<T> clazz, Consumer<T> consumer) {
+        log.info("CloudEvent batch received for parallel processing, class: [{}], size: [{}]",
+                clazz.getName(),
+                cloudEvents.size());
+
+        final Set<String> processedEventIds = findProcessed(cloudEvents, clazz);
+
+        // one lane per partition key, in poll order: the same key always lands on the same partition,
+        // so offset order inside a lane is the publishing order
+        final Map<String, List<Runnable>> lanes = new LinkedHashMap<>();
+        BatchListenerFailedException undecodable = null;
+        for (int index = 0; index < cloudEvents.size() && undecodable == null; index++) {
+            final CloudEvent cloudEvent = cloudEvents.get(index);
+            if (cloudEvent != null && processedEventIds.contains(cloudEvent.getId())) {
+                log.info("CloudEvent already processed for class: [{}], eventId: [{}], skipping...",
+                        clazz.getName(),
+                        cloudEvent.getId());
+                continue;
+            }
+            try {
+                final int eventIndex = index;
+                decodePayload(cloudEvent, clazz).ifPresent(payload -> lanes
+                        .computeIfAbsent(getLaneKey(cloudEvent), k -> new ArrayList<>())
+                        .add(() -> processInLane(cloudEvent, eventIndex, payload, clazz, consumer)));
+            } catch (EventPayloadDeserializationException e) {
+                // the records before it are handled first, the error handler commits them
+                undecodable = new BatchListenerFailedException(e.getMessage(), e, index);
+            }
+        }
+
+        if (!lanes.isEmpty()) {
+            try {
+                keyOrderedParallelProcessor.process(lanes.values());
+            } catch (RuntimeException e) {
+                // the earliest failed record: every record before it completed in its lane
+                throw earliestFailure(e);
+            }
+        }
+        if (undecodable != null) {
+            throw undecodable;
+        }
+    }
+
+    private static RuntimeException earliestFailure(RuntimeException laneFailure) {
+        RuntimeException earliest = laneFailure;
+        final List<Throwable> failures = new ArrayList<>(List.of(laneFailure.getSuppressed()));
+        failures.addFirst(laneFailure);
+        for (Throwable failure : failures) {
+            if (failure instanceof BatchListenerFailedException failed
+                    && (!(earliest instanceof BatchListenerFailedException current) || failed.getIndex() < current.getIndex())) {
+                earliest = failed;
+            }
+        }
+        return earliest;
+    }
+
+    private <T> void processInLane(CloudEvent cloudEvent, int index, T payload, Class<T> clazz, Consumer<T> consumer) {
+        try {
+            SecurityContextHolder.setContext(getContextFromCloudEvent(cloudEvent));
+            acceptTimed(cloudEvent, () -> consumer.accept(payload));
+            // marked one by one: after a failure the redelivered poll only replays what did not complete
+            markProcessed(clazz, List.of(cloudEvent.getId()));
+        } catch (RuntimeException e) {
+            log.error("Failed to process event payload for eventId: [{}], class: [{}], error: {}",
+                    cloudEvent.getId(),
+                    clazz.getName(),
+                    e.getMessage());
+            throw new BatchListenerFailedException("Failed to process event " + cloudEvent.getId(), e, index);
+        } finally {
+            SecurityContextHolder.clear();
+        }
+    }
+
+    private String getLaneKey(CloudEvent cloudEvent) {
+        final Object partitionKey = cloudEvent.getExtension(WMPCloudEventExtensions.PARTITION_KEY);
+        // events published without a key carry no ordering guarantee, each gets its own lane
+        return partitionKey != null ? "key:" + partitionKey : "event:" + cloudEvent.getId();
+    }
+
+    private boolean isAlreadyProcessed(CloudEvent cloudEvent, Class<?> clazz) {
+        return processedEventStore != null && processedEventStore.isProcessed(clazz.getName(), cloudEvent.getId());
+    }
+
+    private Set<String> findProcessed(List<CloudEvent> cloudEvents, Class<?> clazz) {
+        if (processedEventStore == null) {
+            return Set.of();
+        }
+        return processedEventStore.findProcessed(clazz.getName(), cloudEvents.stream()
+                .filter(Objects::nonNull)
+                .map(CloudEvent::getId)
+                .toList());
+    }
+
+    private void markProcessed(Class<?> clazz, Collection<String> eventIds) {
+        if (processedEventStore != null) {
+            // scoped by payload class: the same event may feed several handlers of a service
+            processedEventStore.markProcessed(clazz.getName(), eventIds);
+        }
+    }
+
+    /**
+     * @return the payload, empty when the event carries no data
+     * @throws EventPayloadDeserializationException when the record or its payload cannot be read
+     */
+    private <T> Optional<T> decodePayload(CloudEvent cloudEvent, Class<T> clazz) {
+        if (cloudEvent == null) {
+            // value that failed deserialization in the ErrorHandlingDeserializer
+            throw new EventPayloadDeserializationException(null, clazz,
+                    new IllegalArgumentException("Record value could not be deserialized as a CloudEvent"));
+        }
+        recordReceived(cloudEvent);
+        CloudEventData cloudEventData = cloudEvent.getData();
+        if (cloudEventData == null) {
+            log.warn("CloudEvent data is null for eventId: [{}], skipping...", cloudEvent.getId());
+            return Optional.empty();
+        }
+        try {
+            return Optional.ofNullable(timedReadData(cloudEvent, cloudEventData, clazz));
+        } catch (Exception e) {
+            log.error("Error deserializing CloudEvent data for eventId: [{}], class: [{}], error: {}",
+                    cloudEvent.getId(),
+                    clazz,
+                    e.getMessage());
+            throw new EventPayloadDeserializationException(cloudEvent.getId(), clazz, e);
+        }
+    }
+
+    private <T> T timedReadData(CloudEvent cloudEvent, CloudEventData cloudEventData, Class<T> clazz) {
+        if (eventMetrics == null) {
+            return readData(cloudEvent, cloudEventData, clazz);
+        }
+        final long start = eventMetrics.start();
+        final T payload = readData(cloudEvent, cloudEventData, clazz);
+        eventMetrics.recordDeserialization(getListenerName(), cloudEvent, start);
+        return payload;
+    }
+
+    private void acceptTimed(CloudEvent cloudEvent, Runnable handler) {
+        if (eventMetrics == null) {
+            handler.run();
+            return;
+        }
+        final long start = eventMetrics.start();
+        boolean success = false;
+        try {
+            handler.run();
+            success = true;
+        } finally {
+            eventMetrics.recordHandled(getListenerName(), cloudEvent, start, success);
+        }
+    }
+
+    private void recordReceived(CloudEvent cloudEvent) {
+        if (eventMetrics != null) {
+            eventMetrics.recordReceived(getListenerName(), cloudEvent);
+        }
+    }
+
+    private String getListenerName() {
+        if (listenerName == null) {
+            // the concrete consumer, not a possible CGLIB subclass
+            listenerName = ClassUtils.getUserClass(getClass()).getSimpleName();
+        }
+        return listenerName;
+    }
+
+    private <T> T readData(CloudEvent cloudEvent, CloudEventData cloudEventData, Class<T> clazz) {
+        // the data content type tells which codec the producer used for this topic
+        final String dataContentType = cloudEvent.getDataContentType();
+        if (payloadCodecResolver == null || PayloadFormat.fromContentType(dataContentType) == PayloadFormat.JSON) {
+            return objectMapper.readValue(cloudEventData.toBytes(), clazz);
+        }
+        return payloadCodecResolver.forContentType(dataContentType)
+                .decode(cloudEventData.toBytes(), clazz, cloudEvent.getDataSchema());
+    }
+
     private WMPContext getContextFromCloudEvent(CloudEvent cloudEvent) {
-        return WMPContext.builder()
-                .email((String) cloudEvent.getExtension("email"))
-                .userId((String) cloudEvent.getExtension("userid"))
-                .bankCode((String) cloudEvent.getExtension("bankcode"))
-                .correlationId((String) cloudEvent.getExtension("correlationid"))
-                .build();
+        // extensions are available for both STRUCTURED and BINARY encoded records
+        return WMPCloudEventExtensions.fromCloudEvent(cloudEvent);
     }
 
+    /**
+     * Events of a poll sharing a security context, in poll order.
+     */
+    private static final class ContextGroup<T> {
+
+        private final WMPContext context;
+        private final int firstIndex;
+        private final List<CloudEvent> events = new ArrayList<>();
+        private final List<T> payloads = new ArrayList<>();
+
+        private ContextGroup(WMPContext context, int firstIndex) {
+            this.context = context;
+            this.firstIndex = firstIndex;
+        }
+
+        private void add(CloudEvent cloudEvent, T payload) {
+            events.add(cloudEvent);
+            payloads.add(payload);
+        }
+    }
 }
@@ -1,19 +1,45 @@
 package raff.stein.platformcore.messaging.consumer.config;
 
+import io.cloudevents.CloudEvent;
 import io.cloudevents.kafka.CloudEventDeserializer;
+import io.cloudevents.kafka.CloudEventSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.adapter.RecordFilterStrategy;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.util.backoff.FixedBackOff;
 import raff.stein.platformcore.messaging.configuration.kafka.KafkaConfiguration;
+import raff.stein.platformcore.messaging.consumer.exception.EventPayloadDeserializationException;
+import raff.stein.platformcore.messaging.consumer.retry.RetryTopicMetrics;
+import raff.stein.platformcore.messaging.publisher.config.KafkaProducerConfiguration;
+import raff.stein.platformcore.messaging.publisher.config.KafkaProducerProperties;
 
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
@@ -22,20 +48,138 @@ import java.util.Map;
 public class KafkaConsumerConfiguration {
 
     private static final String EARLIEST_OFFSET = "earliest";
+    static final String DEAD_LETTER_TOPIC_SUFFIX = "-dlt";
+    /**
+     * Failures dead-lettered on their first attempt, by the retry topics and by the batch error handler alike:
+     * retrying cannot fix them, a payload that cannot be decoded will not decode better later.
+     */
+    static final List<Class<? extends Exception>> NOT_RETRYABLE_EXCEPTIONS =
+            List.of(EventPayloadDeserializationException.class);
+
     private final KafkaConfiguration kafkaConfiguration;
+    private final KafkaConsumerProperties kafkaConsumerProperties;
+    private final KafkaProducerProperties kafkaProducerProperties;
+    private final ObjectProvider<RetryTopicMetrics> retryTopicMetrics;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
 
     @Bean(name = "kafkaListenerFactory")
     @Primary
-    public ConcurrentKafkaListenerContainerFactory<Object, Object> kafkaListenerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> kafkaListenerFactory(
+            RecordFilterStrategy<Object, Object> recordFilterStrategy) {
         ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
-        factory.setRecordFilterStrategy(new SecurityContextInitializingStrategy());
+        applyThreading(factory, "wmp-kafka-listener-");
+        factory.setRecordFilterStrategy(recordFilterStrategy);
+        // failed records are logged and skipped; with kafka.consumer.retry.enabled the retry topic
+        // containers replace this handler with one publishing to retry and dead-letter topics
+        factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(0L, 0L)));
+        retryTopicMetrics.ifAvailable(metrics -> factory.setRecordInterceptor((consumerRecord, consumer) -> {
+            metrics.recordDelivery(consumerRecord);
+            return consumerRecord;
+        }));
+        return factory;
+    }
+
+    /**
+     * Listener factory delivering a whole poll as {@code List<CloudEvent>}, to be used together with
+     * {@code WMPBaseEventConsumer.withEventPayloads} so handlers can commit once per batch.
+     */
+    @Bean(name = "kafkaBatchListenerFactory")
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> kafkaBatchListenerFactory(
+            RecordFilterStrategy<Object, Object> recordFilterStrategy) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(batchConsumerFactory());
+        factory.setBatchListener(true);
+        applyThreading(factory, "wmp-kafka-batch-listener-");
+        factory.setRecordFilterStrategy(recordFilterStrategy);
+        factory.setCommonErrorHandler(batchErrorHandler());
         return factory;
     }
 
+    /**
+     * Default record filter of both listener factories, keeping every record.
+     * Services can declare their own {@link RecordFilterStrategy} bean to override it.
+     */
+    @Bean
+    @ConditionalOnMissingBean(RecordFilterStrategy.class)
+    public RecordFilterStrategy<Object, Object> recordFilterStrategy() {
+        return new SecurityContextInitializingStrategy();
+    }
+
+    /**
+     * Batch listeners are not covered by the retry topics: the listener reports the failed record of the poll with a
+     * {@code BatchListenerFailedException}, the records before it are committed, the failed one is retried in place
+     * with the {@code kafka.consumer.retry} backoff, then published to {@code <topic>-dlt}. The rest of the poll is
+     * redelivered.
+     */
+    private DefaultErrorHandler batchErrorHandler() {
+        KafkaConsumerProperties.Retry retry = kafkaConsumerProperties.getRetry();
+        ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(retry.getMaxAttempts() - 1);
+        backOff.setInitialInterval(retry.getInitialInterval().toMillis());
+        backOff.setMultiplier(retry.getMultiplier());
+        backOff.setMaxInterval(retry.getMaxInterval().toMillis());
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(
+                new DeadLetterPublishingRecoverer(deadLetterKafkaTemplate(),
+                        // same -dlt suffix as the retry topics, so DeadLetterReplayService replays both
+                        (failedRecord, e) -> new TopicPartition(failedRecord.topic() + DEAD_LETTER_TOPIC_SUFFIX, -1)),
+                backOff);
+        NOT_RETRYABLE_EXCEPTIONS.forEach(errorHandler::addNotRetryableExceptions);
+        return errorHandler;
+    }
+
+    /**
+     * Template forwarding failed records to retry and dead-letter topics. CloudEvents keep the configured encoding;
+     * records that could not be deserialized at all are forwarded as raw bytes.
+     */
+    @Bean
+    public KafkaTemplate<String, Object> deadLetterKafkaTemplate() {
+        Map<String, Object> props = kafkaConfiguration.getBasicBrokerProperties();
+        props.put(ProducerConfig.CLIENT_ID_CONFIG, "wmp-dead-letter-producer");
+        props.putAll(KafkaProducerConfiguration.cloudEventSerializerProperties(kafkaProducerProperties.getEncoding()));
+        Map<Class<?>, Serializer<?>> serializers = new LinkedHashMap<>();
+        serializers.put(byte[].class, new ByteArraySerializer());
+        serializers.put(CloudEvent.class, new CloudEventSerializer());
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+                props,
+                new StringSerializer(),
+                new DelegatingByTypeSerializer(serializers, true)));
+    }
+
+    private void applyThreading(ConcurrentKafkaListenerContainerFactory<Object, Object> factory, String threadNamePrefix) {
+        // default only, @KafkaListener(concurrency = ...) wins for a given topic
+        factory.setConcurrency(kafkaConsumerProperties.getConcurrency());
+        if (kafkaConsumerProperties.isVirtualThreads()) {
+            // one long-lived poll loop per container: a virtual thread keeps a blocking handler
+            // from holding a platform thread while it waits on I/O
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+            executor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(executor);
+        }
+    }
+
     @Bean(name = "consumerFactory")
     @Primary
     public ConsumerFactory<Object, Object> consumerFactory() {
+        return instrument(new DefaultKafkaConsumerFactory<>(getBasicConsumerProperties()));
+    }
+
+    @Bean(name = "batchConsumerFactory")
+    public ConsumerFactory<Object, Object> batchConsumerFactory() {
+        KafkaConsumerProperties.Batch batch = kafkaConsumerProperties.getBatch();
+        Map<String, Object> props = getBasicConsumerProperties();
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batch.getMaxPollRecords());
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, batch.getFetchMinBytes());
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, batch.getFetchMaxWaitMs());
+        return instrument(new DefaultKafkaConsumerFactory<>(props));
+    }
+
+    private ConsumerFactory<Object, Object> instrument(DefaultKafkaConsumerFactory<Object, Object> consumerFactory) {
+        // native client metrics, including the offset lag per partition (kafka.consumer.fetch.manager.records.lag)
+        meterRegistry.ifAvailable(registry -> consumerFactory.addListener(new MicrometerConsumerListener<>(registry)));
+        return consumerFactory;
+    }
+
+    private Map<String, Object> getBasicConsumerProperties() {
         Map<String, Object> props = kafkaConfiguration.getBasicBrokerProperties();
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
@@ -43,6 +187,6 @@ public class KafkaConsumerConfiguration {
         props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, CloudEventDeserializer.class);
         props.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, 45000);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, EARLIEST_OFFSET);
-        return new DefaultKafkaConsumerFactory<>(props);
+        return props;
     }
 }
@@ -0,0 +1,155 @@
+package raff.stein.platformcore.messaging.consumer.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tuning properties for the shared Kafka consumers, bound from the {@code kafka.consumer} prefix.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "kafka.consumer")
+@Data
+public class KafkaConsumerProperties {
+
+    /**
+     * Default number of listener containers (consumer threads) per {@code @KafkaListener}.
+     * A listener overrides it for its topic with
+     * {@code concurrency = "${kafka.topics.<domain>.<topic>.concurrency:1}"}.
+     * Threads beyond the topic partition count stay idle.
+     */
+    private int concurrency = 1;
+
+    /**
+     * Runs the listener containers on virtual threads, so a handler blocked on I/O
+     * (SMTP, HTTP, JDBC) does not pin a platform thread.
+     */
+    private boolean virtualThreads = false;
+
+    /**
+     * Settings applied to the {@code kafkaBatchListenerFactory} consumers.
+     */
+    private Batch batch = new Batch();
+
+    /**
+     * Key-ordered parallel processing of a poll through {@code WMPBaseEventConsumer.withEventPayloadsInParallel}.
+     */
+    private Parallel parallel = new Parallel();
+
+    /**
+     * Deduplication of redelivered CloudEvents in {@code WMPBaseEventConsumer}.
+     */
+    private Idempotency idempotency = new Idempotency();
+
+    /**
+     * Non-blocking retry topics and dead-letter topic for record listeners.
+     */
+    private Retry retry = new Retry();
+
+    @Data
+    public static class Batch {
+
+        /**
+         * Maximum number of records handed to a batch listener per poll ({@code max.poll.records}).
+         */
+        private int maxPollRecords = 500;
+
+        /**
+         * Minimum amount of data in bytes the broker should return for a fetch ({@code fetch.min.bytes}).
+         * Larger values produce fuller batches when draining a backlog.
+         */
+        private int fetchMinBytes = 1;
+
+        /**
+         * Maximum time in milliseconds the broker waits to satisfy {@link #fetchMinBytes} ({@code fetch.max.wait.ms}).
+         */
+        private int fetchMaxWaitMs = 500;
+    }
+
+    @Data
+    public static class Parallel {
+
+        /**
+         * Maximum number of partition keys processed at the same time, across all listeners of the service.
+         * Events sharing a partition key are always processed one after the other, in offset order.
+         */
+        private int maxConcurrency = 64;
+    }
+
+    @Data
+    public static class Idempotency {
+
+        /**
+         * Skips CloudEvents whose id was already processed for the same payload class.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Creates the processed events table on startup if it does not exist (PostgreSQL DDL).
+         */
+        private boolean initializeSchema = true;
+
+        /**
+         * Number of recently processed event ids kept in memory to answer redeliveries without a database lookup.
+         */
+        private int cacheSize = 10_000;
+
+        /**
+         * Dedup window: processed event ids older than this are purged and would be processed again.
+         */
+        private Duration retention = Duration.ofDays(7);
+
+        /**
+         * Interval between two purges of expired processed event ids.
+         */
+        private Duration cleanupInterval = Duration.ofHours(1);
+    }
+
+    @Data
+    public static class Retry {
+
+        /**
+         * Routes failed records to retry topics ({@code <topic>-retry-<delay ms>}) and finally to {@code <topic>-dlt}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Total delivery attempts, including the first one on the main topic.
+         */
+        private int maxAttempts = 4;
+
+        /**
+         * Delay before the first retry; each following retry waits {@link #multiplier} times longer.
+         */
+        private Duration initialInterval = Duration.ofSeconds(1);
+
+        private double multiplier = 2.0;
+
+        /**
+         * Upper bound of the delay between two retries.
+         */
+        private Duration maxInterval = Duration.ofMinutes(1);
+
+        /**
+         * Main topics the retry pipeline applies to; empty means every record listener.
+         * Batch listeners are never covered, non-blocking retries only work per record.
+         */
+        private List<String> includeTopics = new ArrayList<>();
+
+        /**
+         * Creates the retry and dead-letter topics at startup.
+         */
+        private boolean autoCreateTopics = true;
+
+        private int topicPartitions = 1;
+
+        /**
+         * Replication factor of created topics, {@code -1} to use the broker default.
+         */
+        private short topicReplicationFactor = -1;
+    }
+}
@@ -0,0 +1,60 @@
+package raff.stein.platformcore.messaging.consumer.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+import raff.stein.platformcore.messaging.configuration.kafka.KafkaConfiguration;
+import raff.stein.platformcore.messaging.consumer.retry.RetryTopicMetrics;
+
+import java.util.List;
+
+/**
+ * Non-blocking retries: a failed record is re-published to {@code <topic>-retry-<delay ms>} and consumed again after an
+ * exponential delay by a separate container, so the main partition keeps flowing. Once {@code max-attempts} is reached
+ * the record lands on {@code <topic>-dlt}, from where it can be replayed.
+ */
+@Configuration
+@Profile("!integration-test")
+@ConditionalOnProperty(prefix = "kafka.consumer.retry", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class KafkaRetryTopicConfiguration {
+
+    private final KafkaConfiguration kafkaConfiguration;
+    private final KafkaConsumerProperties kafkaConsumerProperties;
+
+    @Bean
+    public RetryTopicConfiguration retryTopicConfiguration(KafkaTemplate<String, Object> deadLetterKafkaTemplate) {
+        KafkaConsumerProperties.Retry retry = kafkaConsumerProperties.getRetry();
+        RetryTopicConfigurationBuilder builder = RetryTopicConfigurationBuilder.newInstance()
+                .maxAttempts(retry.getMaxAttempts())
+                .exponentialBackoff(
+                        retry.getInitialInterval().toMillis(),
+                        retry.getMultiplier(),
+                        retry.getMaxInterval().toMillis())
+                .notRetryOn(List.copyOf(KafkaConsumerConfiguration.NOT_RETRYABLE_EXCEPTIONS))
+                .traversingCauses()
+                .dltHandlerMethod("retryTopicMetrics", RetryTopicMetrics.DLT_HANDLER_METHOD)
+                .autoCreateTopics(
+                        retry.isAutoCreateTopics(),
+                        retry.getTopicPartitions(),
+                        retry.getTopicReplicationFactor());
+        if (!retry.getIncludeTopics().isEmpty()) {
+            builder.includeTopics(retry.getIncludeTopics());
+        }
+        return builder.create(deadLetterKafkaTemplate);
+    }
+
+    /**
+     * Admin pointed at the platform broker, used to create the retry and dead-letter topics.
+     */
+    @Bean
+    public KafkaAdmin kafkaAdmin() {
+        return new KafkaAdmin(kafkaConfiguration.getBasicBrokerProperties());
+    }
+}
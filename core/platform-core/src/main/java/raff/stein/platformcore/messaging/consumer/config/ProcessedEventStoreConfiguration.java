@@ -0,0 +1,29 @@
+package raff.stein.platformcore.messaging.consumer.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.DataSourceInitializer;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import javax.sql.DataSource;
+
+/**
+ * Wiring of the idempotent consumer store, active only with {@code kafka.consumer.idempotency.enabled=true}.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "kafka.consumer.idempotency", name = "enabled", havingValue = "true")
+public class ProcessedEventStoreConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "kafka.consumer.idempotency", name = "initialize-schema", havingValue = "true", matchIfMissing = true)
+    public DataSourceInitializer processedEventSchemaInitializer(DataSource dataSource) {
+        DataSourceInitializer initializer = new DataSourceInitializer();
+        initializer.setDataSource(dataSource);
+        initializer.setDatabasePopulator(new ResourceDatabasePopulator(new ClassPathResource("idempotency/processed-event-schema-postgresql.sql")));
+        return initializer;
+    }
+}
@@ -2,14 +2,21 @@ package raff.stein.platformcore.messaging.consumer.config;
 
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.listener.adapter.RecordFilterStrategy;
+import raff.stein.platformcore.messaging.extension.WMPCloudEventExtensions;
 
+/**
+ * Record filter evaluated before the listener is invoked.
+ * <p>
+ * Default {@link RecordFilterStrategy} bean of the listener factories. Keeps every record: none of the context
+ * extensions is mandatory, so the platform has no caller to reject. A service that needs to discard records by caller
+ * declares its own {@link RecordFilterStrategy} bean, e.g. extending this class, and rebuilds the context with
+ * {@link WMPCloudEventExtensions#fromBinaryHeaders}, which reads the headers of {@code BINARY} encoded records
+ * without touching the payload.
+ */
 public class SecurityContextInitializingStrategy implements RecordFilterStrategy<Object, Object> {
 
     @Override
     public boolean filter(ConsumerRecord<Object, Object> consumerRecord) {
-        // Initialize security context here if needed
-        // For example, you can set the security context based on the record
-        // This is a placeholder implementation
         return false; // Return true to filter out the record, false to keep it
     }
 }
@@ -0,0 +1,12 @@
+package raff.stein.platformcore.messaging.consumer.exception;
+
+/**
+ * The data of a CloudEvent cannot be decoded into the expected payload class.
+ * Retrying cannot fix it, so the record goes straight to the dead-letter topic when retry topics are enabled.
+ */
+public class EventPayloadDeserializationException extends RuntimeException {
+
+    public EventPayloadDeserializationException(String eventId, Class<?> clazz, Throwable cause) {
+        super("Cannot deserialize CloudEvent [" + eventId + "] into " + clazz.getName(), cause);
+    }
+}
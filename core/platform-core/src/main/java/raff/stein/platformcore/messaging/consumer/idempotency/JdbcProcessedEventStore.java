@@ -0,0 +1,118 @@
+package raff.stein.platformcore.messaging.consumer.idempotency;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import raff.stein.platformcore.messaging.consumer.config.KafkaConsumerProperties;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link ProcessedEventStore} backed by the {@code wmp_processed_event} table, with a bounded LRU of recently
+ * processed ids in front of it.
+ * <p>
+ * The LRU answers redeliveries to the same instance without touching the database; the table is the source
+ * of truth across instances and restarts. Rows older than {@code kafka.consumer.idempotency.retention} are purged.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "kafka.consumer.idempotency", name = "enabled", havingValue = "true")
+public class JdbcProcessedEventStore implements ProcessedEventStore {
+
+    public static final String TABLE_NAME = "wmp_processed_event";
+
+    private static final String EXISTS_SQL = "SELECT event_id FROM " + TABLE_NAME
+            + " WHERE scope = :scope AND event_id IN (:eventIds)";
+    private static final String INSERT_SQL = "INSERT INTO " + TABLE_NAME
+            + " (scope, event_id, processed_at) VALUES (?, ?, ?) ON CONFLICT DO NOTHING";
+    private static final String PURGE_SQL = "DELETE FROM " + TABLE_NAME + " WHERE processed_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final Duration retention;
+    // access-ordered, so the least recently seen id is evicted first
+    private final Map<String, Boolean> recentlyProcessed;
+
+    public JdbcProcessedEventStore(JdbcTemplate jdbcTemplate, KafkaConsumerProperties kafkaConsumerProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        final KafkaConsumerProperties.Idempotency idempotency = kafkaConsumerProperties.getIdempotency();
+        this.retention = idempotency.getRetention();
+        final int cacheSize = idempotency.getCacheSize();
+        this.recentlyProcessed = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    @Override
+    public boolean isProcessed(String scope, String eventId) {
+        return !findProcessed(scope, List.of(eventId)).isEmpty();
+    }
+
+    @Override
+    public Set<String> findProcessed(String scope, Collection<String> eventIds) {
+        final Set<String> processed = new HashSet<>();
+        final List<String> unknown = new ArrayList<>();
+        for (String eventId : eventIds) {
+            if (recentlyProcessed.containsKey(cacheKey(scope, eventId))) {
+                processed.add(eventId);
+            } else {
+                unknown.add(eventId);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            final List<String> stored = namedParameterJdbcTemplate.queryForList(
+                    EXISTS_SQL,
+                    new MapSqlParameterSource()
+                            .addValue("scope", scope)
+                            .addValue("eventIds", unknown),
+                    String.class);
+            stored.forEach(eventId -> recentlyProcessed.put(cacheKey(scope, eventId), Boolean.TRUE));
+            processed.addAll(stored);
+        }
+        return processed;
+    }
+
+    @Override
+    public void markProcessed(String scope, Collection<String> eventIds) {
+        if (eventIds.isEmpty()) {
+            return;
+        }
+        final Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, eventIds, eventIds.size(), (ps, eventId) -> {
+            ps.setString(1, scope);
+            ps.setString(2, eventId);
+            ps.setTimestamp(3, now);
+        });
+        eventIds.forEach(eventId -> recentlyProcessed.put(cacheKey(scope, eventId), Boolean.TRUE));
+    }
+
+    @Scheduled(
+            initialDelayString = "${kafka.consumer.idempotency.cleanup-interval:1h}",
+            fixedDelayString = "${kafka.consumer.idempotency.cleanup-interval:1h}")
+    public void purgeExpired() {
+        final int purged = jdbcTemplate.update(PURGE_SQL, Timestamp.from(Instant.now().minus(retention)));
+        log.info("Purged [{}] processed event ids older than [{}]", purged, retention);
+    }
+
+    private static String cacheKey(String scope, String eventId) {
+        return scope + '|' + eventId;
+    }
+}
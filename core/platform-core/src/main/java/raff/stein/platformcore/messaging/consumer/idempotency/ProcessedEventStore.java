@@ -0,0 +1,22 @@
+package raff.stein.platformcore.messaging.consumer.idempotency;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Records the CloudEvents already handled by this service, so that redeliveries (rebalances, retries,
+ * at-least-once relays) are skipped before their payload is even deserialized.
+ * <p>
+ * Event ids are scoped (e.g. by payload class) because the same event may feed several handlers of a service.
+ */
+public interface ProcessedEventStore {
+
+    boolean isProcessed(String scope, String eventId);
+
+    /**
+     * @return the subset of {@code eventIds} already processed within {@code scope}
+     */
+    Set<String> findProcessed(String scope, Collection<String> eventIds);
+
+    void markProcessed(String scope, Collection<String> eventIds);
+}
@@ -0,0 +1,65 @@
+package raff.stein.platformcore.messaging.consumer.parallel;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+import raff.stein.platformcore.messaging.consumer.config.KafkaConsumerProperties;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Runs lanes of tasks on virtual threads: tasks of the same lane run one after the other in order,
+ * different lanes run concurrently, bounded by {@code kafka.consumer.parallel.max-concurrency}.
+ * <p>
+ * Used to spread a poll across its partition keys without breaking per-key ordering.
+ * When the bound is reached the submitting listener thread blocks, which in turn slows down polling.
+ */
+@Slf4j
+@Component
+public class KeyOrderedParallelProcessor {
+
+    private final SimpleAsyncTaskExecutor executor;
+
+    public KeyOrderedParallelProcessor(KafkaConsumerProperties kafkaConsumerProperties) {
+        this.executor = new SimpleAsyncTaskExecutor("wmp-kafka-lane-");
+        this.executor.setVirtualThreads(true);
+        this.executor.setConcurrencyLimit(kafkaConsumerProperties.getParallel().getMaxConcurrency());
+    }
+
+    /**
+     * Runs every lane and waits for all of them, even when one fails, so that no task is still
+     * running once the listener returns and the offsets are committed.
+     * A lane stops at its first failing task; the first failure is rethrown, the others are suppressed.
+     */
+    public void process(Collection<List<Runnable>> lanes) {
+        final List<CompletableFuture<Void>> futures = new ArrayList<>(lanes.size());
+        for (List<Runnable> lane : lanes) {
+            futures.add(CompletableFuture.runAsync(() -> lane.forEach(Runnable::run), executor));
+        }
+
+        RuntimeException failure = null;
+        for (CompletableFuture<Void> future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                final RuntimeException cause = e.getCause() instanceof RuntimeException runtimeException
+                        ? runtimeException
+                        : e;
+                if (failure == null) {
+                    failure = cause;
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+        if (failure != null) {
+            log.error("[{}] of [{}] lanes failed, first error: {}",
+                    failure.getSuppressed().length + 1, lanes.size(), failure.getMessage());
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package raff.stein.platformcore.messaging.consumer.retry;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Operations endpoint re-publishing dead-lettered records to their main topic.
+ * {@code maxRecords} becomes the {@code max.poll.records} of the replay consumer, hence its bounds.
+ */
+@RestController
+@Validated
+@Profile("!integration-test")
+@ConditionalOnProperty(prefix = "kafka.consumer.retry", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class DeadLetterReplayController {
+
+    private final DeadLetterReplayService deadLetterReplayService;
+
+    @PostMapping("/platform/kafka/dead-letters/{deadLetterTopic}/replay")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<DeadLetterReplayResult> replay(
+            @PathVariable String deadLetterTopic,
+            @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int maxRecords) {
+        return ResponseEntity.ok(deadLetterReplayService.replay(deadLetterTopic, maxRecords));
+    }
+}
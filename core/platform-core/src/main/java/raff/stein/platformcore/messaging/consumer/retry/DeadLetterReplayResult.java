@@ -0,0 +1,4 @@
+package raff.stein.platformcore.messaging.consumer.retry;
+
+public record DeadLetterReplayResult(String deadLetterTopic, int replayed) {
+}
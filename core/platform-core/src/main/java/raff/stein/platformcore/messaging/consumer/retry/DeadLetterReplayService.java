@@ -0,0 +1,145 @@
+package raff.stein.platformcore.messaging.consumer.retry;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Service;
+import raff.stein.platformcore.messaging.configuration.kafka.KafkaConfiguration;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Sends dead-lettered records back to their main topic, once the cause of the failure has been fixed.
+ * <p>
+ * Records are copied byte for byte (key, value, CloudEvent headers) without the retry/DLT bookkeeping headers,
+ * so they start over with a fresh attempt count. Progress on the DLT is tracked by the {@code <dlt>.replay}
+ * consumer group: each call continues where the previous one stopped.
+ */
+@Slf4j
+@Service
+@Profile("!integration-test")
+@ConditionalOnProperty(prefix = "kafka.consumer.retry", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class DeadLetterReplayService {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(2);
+    private static final int MAX_POLL_RECORDS = 500;
+    private static final List<String> BOOKKEEPING_HEADER_PREFIXES = List.of("kafka_dlt-", "kafka_original-", "retry_topic-");
+
+    private final KafkaConfiguration kafkaConfiguration;
+    private final RetryTopicMetrics retryTopicMetrics;
+
+    /**
+     * Replays at most {@code maxRecords} records; the offsets committed are exactly the replayed ones, so records
+     * fetched beyond the limit stay on the DLT for the next call.
+     */
+    public DeadLetterReplayResult replay(String deadLetterTopic, int maxRecords) {
+        try (KafkaConsumer<byte[], byte[]> consumer = new KafkaConsumer<>(consumerProperties(deadLetterTopic, maxRecords));
+             KafkaProducer<byte[], byte[]> producer = new KafkaProducer<>(producerProperties())) {
+            return replay(consumer, producer, deadLetterTopic, maxRecords);
+        }
+    }
+
+    DeadLetterReplayResult replay(Consumer<byte[], byte[]> consumer, Producer<byte[], byte[]> producer,
+                                  String deadLetterTopic, int maxRecords) {
+        int replayed = 0;
+        final Map<TopicPartition, OffsetAndMetadata> replayedOffsets = new HashMap<>();
+        try {
+            consumer.subscribe(List.of(deadLetterTopic));
+            while (replayed < maxRecords) {
+                final ConsumerRecords<byte[], byte[]> records = consumer.poll(POLL_TIMEOUT);
+                if (records.isEmpty()) {
+                    break;
+                }
+                for (ConsumerRecord<byte[], byte[]> deadLetter : records) {
+                    if (replayed == maxRecords) {
+                        break;
+                    }
+                    final String mainTopic = mainTopic(deadLetter);
+                    producer.send(new ProducerRecord<>(
+                            mainTopic, null, deadLetter.key(), deadLetter.value(), replayHeaders(deadLetter))).get();
+                    retryTopicMetrics.recordReplay(mainTopic, 1);
+                    replayedOffsets.put(new TopicPartition(deadLetter.topic(), deadLetter.partition()),
+                            new OffsetAndMetadata(deadLetter.offset() + 1));
+                    replayed++;
+                }
+                commit(consumer, replayedOffsets);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            commit(consumer, replayedOffsets);
+            throw new IllegalStateException("Interrupted while replaying " + deadLetterTopic, e);
+        } catch (ExecutionException e) {
+            // the records re-published before the failure are not replayed twice
+            commit(consumer, replayedOffsets);
+            throw new IllegalStateException("Failed to replay " + deadLetterTopic + " after " + replayed + " records", e.getCause());
+        }
+        log.info("Replayed [{}] records from dead-letter topic: [{}]", replayed, deadLetterTopic);
+        return new DeadLetterReplayResult(deadLetterTopic, replayed);
+    }
+
+    private static void commit(Consumer<byte[], byte[]> consumer, Map<TopicPartition, OffsetAndMetadata> replayedOffsets) {
+        if (!replayedOffsets.isEmpty()) {
+            consumer.commitSync(replayedOffsets);
+        }
+    }
+
+    private Map<String, Object> consumerProperties(String deadLetterTopic, int maxRecords) {
+        Map<String, Object> props = kafkaConfiguration.getBasicBrokerProperties();
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, deadLetterTopic + ".replay");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Math.min(maxRecords, MAX_POLL_RECORDS));
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        return props;
+    }
+
+    private Map<String, Object> producerProperties() {
+        Map<String, Object> props = kafkaConfiguration.getBasicBrokerProperties();
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        return props;
+    }
+
+    private static String mainTopic(ConsumerRecord<byte[], byte[]> deadLetter) {
+        final Header originalTopic = deadLetter.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_TOPIC);
+        if (originalTopic == null) {
+            throw new IllegalStateException("Record at offset " + deadLetter.offset() + " of " + deadLetter.topic()
+                    + " has no " + KafkaHeaders.DLT_ORIGINAL_TOPIC + " header");
+        }
+        return new String(originalTopic.value(), StandardCharsets.UTF_8);
+    }
+
+    private static RecordHeaders replayHeaders(ConsumerRecord<byte[], byte[]> deadLetter) {
+        final RecordHeaders headers = new RecordHeaders();
+        for (Header header : deadLetter.headers()) {
+            if (BOOKKEEPING_HEADER_PREFIXES.stream().noneMatch(header.key()::startsWith)) {
+                headers.add(header);
+            }
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,76 @@
+package raff.stein.platformcore.messaging.consumer.retry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+import org.springframework.stereotype.Component;
+import raff.stein.platformcore.bean.PlatformMeterRegistry;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Meters of the retry pipeline:
+ * <ul>
+ *     <li>{@code wmp.kafka.consumer.retries} (tags {@code topic}, {@code attempt}): records consumed from a retry topic,
+ *     the attempt tag shows how deep records go before succeeding</li>
+ *     <li>{@code wmp.kafka.consumer.dead-letters} (tag {@code topic}): records that exhausted their attempts</li>
+ *     <li>{@code wmp.kafka.consumer.dead-letters.replayed} (tag {@code topic}): records sent back to the main topic</li>
+ * </ul>
+ * Topic tags always carry the main topic name.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "kafka.consumer.retry", name = "enabled", havingValue = "true")
+public class RetryTopicMetrics {
+
+    public static final String DLT_HANDLER_METHOD = "handleDeadLetter";
+
+    private final MeterRegistry meterRegistry;
+
+    public RetryTopicMetrics(ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.meterRegistry = PlatformMeterRegistry.resolve(meterRegistryProvider);
+    }
+
+    /**
+     * Counts the record if it comes from a retry topic; main topic records carry no attempts header.
+     */
+    public void recordDelivery(ConsumerRecord<?, ?> consumerRecord) {
+        final Header attempts = consumerRecord.headers().lastHeader(RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS);
+        if (attempts == null) {
+            return;
+        }
+        meterRegistry.counter("wmp.kafka.consumer.retries",
+                "topic", originalTopic(consumerRecord, KafkaHeaders.ORIGINAL_TOPIC),
+                "attempt", String.valueOf(new BigInteger(attempts.value()).intValue()))
+                .increment();
+    }
+
+    /**
+     * DLT handler registered on every retry-enabled listener: the record is already stored on the DLT,
+     * this only meters and logs it.
+     */
+    public void handleDeadLetter(ConsumerRecord<?, ?> consumerRecord) {
+        final String topic = originalTopic(consumerRecord, KafkaHeaders.DLT_ORIGINAL_TOPIC);
+        meterRegistry.counter("wmp.kafka.consumer.dead-letters", "topic", topic).increment();
+        log.error("Record dead-lettered for topic: [{}], key: [{}], dlt: [{}], offset: [{}]",
+                topic,
+                consumerRecord.key(),
+                consumerRecord.topic(),
+                consumerRecord.offset());
+    }
+
+    public void recordReplay(String topic, int replayed) {
+        meterRegistry.counter("wmp.kafka.consumer.dead-letters.replayed", "topic", topic).increment(replayed);
+    }
+
+    private static String originalTopic(ConsumerRecord<?, ?> consumerRecord, String headerName) {
+        final Header header = consumerRecord.headers().lastHeader(headerName);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : consumerRecord.topic();
+    }
+}
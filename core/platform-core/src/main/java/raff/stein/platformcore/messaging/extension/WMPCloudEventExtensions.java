@@ -0,0 +1,78 @@
+package raff.stein.platformcore.messaging.extension;
+
+import io.cloudevents.CloudEvent;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import raff.stein.platformcore.security.context.WMPContext;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * CloudEvent extensions used by the platform to propagate the {@link WMPContext} across services.
+ * <p>
+ * With {@code BINARY} encoding every attribute and extension travels as a Kafka header prefixed with
+ * {@value #BINARY_HEADER_PREFIX}, so the context can be rebuilt from the record headers alone,
+ * without deserializing the payload.
+ */
+public final class WMPCloudEventExtensions {
+
+    public static final String USER_ID = "userid";
+    public static final String EMAIL = "email";
+    public static final String BANK_CODE = "bankcode";
+    public static final String CORRELATION_ID = "correlationid";
+    public static final String PARTITION_KEY = "partitionkey";
+
+    /**
+     * Prefix used by the CloudEvents Kafka binding for attributes and extensions in binary mode.
+     */
+    public static final String BINARY_HEADER_PREFIX = "ce_";
+    private static final String SPEC_VERSION_HEADER = BINARY_HEADER_PREFIX + "specversion";
+
+    private WMPCloudEventExtensions() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Rebuilds the context from the extensions of a deserialized CloudEvent (any encoding).
+     */
+    public static WMPContext fromCloudEvent(CloudEvent cloudEvent) {
+        return WMPContext.builder()
+                .email((String) cloudEvent.getExtension(EMAIL))
+                .userId((String) cloudEvent.getExtension(USER_ID))
+                .bankCode((String) cloudEvent.getExtension(BANK_CODE))
+                .correlationId((String) cloudEvent.getExtension(CORRELATION_ID))
+                .build();
+    }
+
+    /**
+     * Returns true if the record was written with {@code BINARY} encoding.
+     */
+    public static boolean isBinaryEncoded(Headers headers) {
+        return headers != null && headers.lastHeader(SPEC_VERSION_HEADER) != null;
+    }
+
+    /**
+     * Rebuilds the context from the headers of a {@code BINARY} encoded record, without touching the body.
+     *
+     * @return the context, or {@code null} if the record is not binary encoded
+     */
+    public static WMPContext fromBinaryHeaders(Headers headers) {
+        if (!isBinaryEncoded(headers)) {
+            return null;
+        }
+        return WMPContext.builder()
+                .email(headerValue(headers, EMAIL))
+                .userId(headerValue(headers, USER_ID))
+                .bankCode(headerValue(headers, BANK_CODE))
+                .correlationId(headerValue(headers, CORRELATION_ID))
+                .build();
+    }
+
+    private static String headerValue(Headers headers, String extensionName) {
+        Header header = headers.lastHeader(BINARY_HEADER_PREFIX + extensionName);
+        if (header == null || header.value() == null) {
+            return null;
+        }
+        return new String(header.value(), StandardCharsets.UTF_8);
+    }
+}
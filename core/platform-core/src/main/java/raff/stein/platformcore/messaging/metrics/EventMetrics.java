@@ -0,0 +1,104 @@
+package raff.stein.platformcore.messaging.metrics;
+
+import io.cloudevents.CloudEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import raff.stein.platformcore.bean.PlatformMeterRegistry;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the WMP event traffic, every one tagged with the CloudEvent {@code type}:
+ * <ul>
+ *     <li>{@code wmp.kafka.producer.publish} (tags {@code topic}, {@code type}, {@code outcome}): time from
+ *     {@code send} to the broker acknowledgement, with percentile histogram</li>
+ *     <li>{@code wmp.kafka.producer.payload.size} (tags {@code topic}, {@code type}): serialized record value in bytes,
+ *     envelope included for {@code STRUCTURED} encoding</li>
+ *     <li>{@code wmp.kafka.producer.failures} (tags {@code topic}, {@code type}, {@code exception})</li>
+ *     <li>{@code wmp.kafka.consumer.lag} (tags {@code listener}, {@code type}): age of the event when it reaches
+ *     the listener, measured from the CloudEvent {@code time}</li>
+ *     <li>{@code wmp.kafka.consumer.deserialization} (tags {@code listener}, {@code type}): payload decoding time</li>
+ *     <li>{@code wmp.kafka.consumer.handler} (tags {@code listener}, {@code type}, {@code outcome}): handler time,
+ *     with percentile histogram</li>
+ * </ul>
+ * The {@code listener} tag is the simple name of the {@code WMPBaseEventConsumer} subclass.
+ * Offset lag per partition comes from the Kafka client metrics ({@code kafka.consumer.fetch.manager.records.lag}).
+ */
+@Component
+public class EventMetrics {
+
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_FAILURE = "failure";
+    private static final String UNKNOWN = "unknown";
+
+    private final MeterRegistry meterRegistry;
+
+    public EventMetrics(ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.meterRegistry = PlatformMeterRegistry.resolve(meterRegistryProvider);
+    }
+
+    /**
+     * @return the start of a timed section, to pass back to one of the {@code record*} methods
+     */
+    public long start() {
+        return meterRegistry.config().clock().monotonicTime();
+    }
+
+    public void recordPublished(String topic, CloudEvent cloudEvent, long start, RecordMetadata recordMetadata, Exception exception) {
+        final String type = typeOf(cloudEvent);
+        Timer.builder("wmp.kafka.producer.publish")
+                .tags("topic", topic, "type", type, "outcome", exception == null ? OUTCOME_SUCCESS : OUTCOME_FAILURE)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(elapsedNanos(start), TimeUnit.NANOSECONDS);
+        if (exception != null) {
+            meterRegistry.counter("wmp.kafka.producer.failures",
+                    "topic", topic, "type", type, "exception", exception.getClass().getSimpleName())
+                    .increment();
+        } else if (recordMetadata != null && recordMetadata.serializedValueSize() >= 0) {
+            DistributionSummary.builder("wmp.kafka.producer.payload.size")
+                    .baseUnit("bytes")
+                    .tags("topic", topic, "type", type)
+                    .register(meterRegistry)
+                    .record(recordMetadata.serializedValueSize());
+        }
+    }
+
+    public void recordReceived(String listener, CloudEvent cloudEvent) {
+        final OffsetDateTime time = cloudEvent.getTime();
+        if (time == null) {
+            return;
+        }
+        final Duration lag = Duration.between(time, OffsetDateTime.now(time.getOffset()));
+        // producer and consumer clocks are not in sync, skew can make a fresh event look like it comes from the future
+        meterRegistry.timer("wmp.kafka.consumer.lag", "listener", listener, "type", typeOf(cloudEvent))
+                .record(lag.isNegative() ? Duration.ZERO : lag);
+    }
+
+    public void recordDeserialization(String listener, CloudEvent cloudEvent, long start) {
+        meterRegistry.timer("wmp.kafka.consumer.deserialization", "listener", listener, "type", typeOf(cloudEvent))
+                .record(elapsedNanos(start), TimeUnit.NANOSECONDS);
+    }
+
+    public void recordHandled(String listener, CloudEvent cloudEvent, long start, boolean success) {
+        Timer.builder("wmp.kafka.consumer.handler")
+                .tags("listener", listener, "type", typeOf(cloudEvent), "outcome", success ? OUTCOME_SUCCESS : OUTCOME_FAILURE)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(elapsedNanos(start), TimeUnit.NANOSECONDS);
+    }
+
+    private long elapsedNanos(long start) {
+        return meterRegistry.config().clock().monotonicTime() - start;
+    }
+
+    private static String typeOf(CloudEvent cloudEvent) {
+        return cloudEvent != null && cloudEvent.getType() != null ? cloudEvent.getType() : UNKNOWN;
+    }
+}
@@ -0,0 +1,16 @@
+package raff.stein.platformcore.messaging.outbox;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Row of the outbox table: a fully built CloudEvent, serialized in structured JSON format,
+ * waiting to be published to {@code topic} with {@code recordKey}.
+ */
+public record OutboxEvent(
+        UUID id,
+        String topic,
+        String recordKey,
+        byte[] cloudEvent,
+        Instant createdAt) {
+}
@@ -0,0 +1,82 @@
+package raff.stein.platformcore.messaging.outbox;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.format.EventFormat;
+import io.cloudevents.core.provider.EventFormatProvider;
+import io.cloudevents.jackson.JsonFormat;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import raff.stein.platformcore.messaging.publisher.EventPublisher;
+import raff.stein.platformcore.messaging.publisher.WMPBaseEventPublisher;
+import raff.stein.platformcore.messaging.publisher.model.EventData;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link EventPublisher} writing events to the outbox table instead of Kafka.
+ * <p>
+ * Events are appended in the caller's transaction, so they are published if and only if the business
+ * changes commit; without an active transaction each call commits its own rows. The CloudEvent (id, key,
+ * {@code WMPContext} extensions) is built on the calling thread and relayed as is by {@link OutboxRelay}.
+ */
+@Slf4j
+@Primary
+@Component
+@ConditionalOnProperty(prefix = "kafka.outbox", name = "enabled", havingValue = "true")
+public class OutboxEventPublisher implements EventPublisher {
+
+    private final WMPBaseEventPublisher wmpBaseEventPublisher;
+    private final OutboxRepository outboxRepository;
+    private final EventFormat eventFormat;
+
+    public OutboxEventPublisher(WMPBaseEventPublisher wmpBaseEventPublisher, OutboxRepository outboxRepository) {
+        this.wmpBaseEventPublisher = wmpBaseEventPublisher;
+        this.outboxRepository = outboxRepository;
+        this.eventFormat = EventFormatProvider.getInstance().resolveFormat(JsonFormat.CONTENT_TYPE);
+    }
+
+    @Override
+    @Transactional
+    public void publishCloudEvent(@NonNull String topic, @NonNull EventData eventData) {
+        final OutboxEvent outboxEvent = toOutboxEvent(topic, eventData);
+        outboxRepository.append(List.of(outboxEvent));
+        log.info("CloudEvent appended to outbox for topic: [{}], outboxEventId: [{}], key: [{}]",
+                topic,
+                outboxEvent.id(),
+                outboxEvent.recordKey());
+    }
+
+    /**
+     * Appends the whole batch; the returned future is already complete since delivery is up to the relay.
+     */
+    @Override
+    @Transactional
+    public CompletableFuture<Void> publishBatch(@NonNull String topic, @NonNull List<EventData> eventDataList) {
+        if (!eventDataList.isEmpty()) {
+            outboxRepository.append(eventDataList.stream()
+                    .map(eventData -> toOutboxEvent(topic, eventData))
+                    .toList());
+            log.info("Batch of [{}] CloudEvents appended to outbox for topic: [{}]", eventDataList.size(), topic);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private OutboxEvent toOutboxEvent(String topic, EventData eventData) {
+        final ProducerRecord<String, CloudEvent> producerRecord = wmpBaseEventPublisher.createProducerRecord(topic, eventData);
+        final CloudEvent cloudEvent = producerRecord.value();
+        return new OutboxEvent(
+                UUID.fromString(cloudEvent.getId()),
+                topic,
+                producerRecord.key(),
+                eventFormat.serialize(cloudEvent),
+                Instant.now());
+    }
+}
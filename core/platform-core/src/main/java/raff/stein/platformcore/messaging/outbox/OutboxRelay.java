@@ -0,0 +1,126 @@
+package raff.stein.platformcore.messaging.outbox;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.format.EventFormat;
+import io.cloudevents.core.provider.EventFormatProvider;
+import io.cloudevents.jackson.JsonFormat;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import raff.stein.platformcore.bean.PlatformMeterRegistry;
+import raff.stein.platformcore.messaging.outbox.config.OutboxProperties;
+import raff.stein.platformcore.messaging.publisher.WMPBaseEventPublisher;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes outbox rows to Kafka.
+ * <p>
+ * Each batch is locked with {@code FOR UPDATE SKIP LOCKED}, sent through {@link WMPBaseEventPublisher#publishRecords}
+ * and deleted in the same transaction once every record is acknowledged. A failed or timed out batch is rolled
+ * back and retried on the next poll, so delivery is at-least-once: consumers must be idempotent. Events of the same
+ * record key are never split across instances while one of them is in flight, see {@link OutboxRepository#lockNextBatch}.
+ * <p>
+ * Metrics: {@code wmp.outbox.relay.published} (events), {@code wmp.outbox.relay.failures} (batches),
+ * {@code wmp.outbox.relay.batch} (batch duration) and {@code wmp.outbox.relay.lag} (age in seconds of the oldest
+ * event seen by the last poll, 0 when the outbox is empty).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "kafka.outbox", name = "enabled", havingValue = "true")
+public class OutboxRelay {
+
+    private final OutboxRepository outboxRepository;
+    private final WMPBaseEventPublisher wmpBaseEventPublisher;
+    private final TransactionOperations transactionOperations;
+    private final OutboxProperties outboxProperties;
+    private final EventFormat eventFormat;
+
+    private final Counter publishedCounter;
+    private final Counter failureCounter;
+    private final Timer batchTimer;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public OutboxRelay(
+            OutboxRepository outboxRepository,
+            WMPBaseEventPublisher wmpBaseEventPublisher,
+            TransactionOperations transactionOperations,
+            OutboxProperties outboxProperties,
+            ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.outboxRepository = outboxRepository;
+        this.wmpBaseEventPublisher = wmpBaseEventPublisher;
+        this.transactionOperations = transactionOperations;
+        this.outboxProperties = outboxProperties;
+        this.eventFormat = EventFormatProvider.getInstance().resolveFormat(JsonFormat.CONTENT_TYPE);
+        final MeterRegistry meterRegistry = PlatformMeterRegistry.resolve(meterRegistryProvider);
+        this.publishedCounter = meterRegistry.counter("wmp.outbox.relay.published");
+        this.failureCounter = meterRegistry.counter("wmp.outbox.relay.failures");
+        this.batchTimer = meterRegistry.timer("wmp.outbox.relay.batch");
+        Gauge.builder("wmp.outbox.relay.lag", lagMillis, lag -> lag.get() / 1000.0)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${kafka.outbox.poll-interval:500ms}")
+    public void relay() {
+        // keep draining while batches come back full, bounded to leave room for other instances
+        for (int i = 0; i < outboxProperties.getMaxBatchesPerPoll(); i++) {
+            final int relayed;
+            try {
+                final Integer result = batchTimer.record(() -> transactionOperations.execute(status -> relayBatch()));
+                relayed = result != null ? result : 0;
+            } catch (Exception e) {
+                failureCounter.increment();
+                log.error("Outbox relay batch failed, it will be retried on next poll: {}", e.getMessage(), e);
+                return;
+            }
+            if (relayed < outboxProperties.getBatchSize()) {
+                return;
+            }
+        }
+    }
+
+    private int relayBatch() {
+        final List<OutboxEvent> outboxEvents = outboxRepository.lockNextBatch(outboxProperties.getBatchSize());
+        if (outboxEvents.isEmpty()) {
+            lagMillis.set(0);
+            return 0;
+        }
+        // rows are in insertion order, the first one is the oldest pending event
+        lagMillis.set(Duration.between(outboxEvents.getFirst().createdAt(), Instant.now()).toMillis());
+
+        final List<ProducerRecord<String, CloudEvent>> producerRecords = outboxEvents.stream()
+                .map(outboxEvent -> new ProducerRecord<>(
+                        outboxEvent.topic(),
+                        outboxEvent.recordKey(),
+                        eventFormat.deserialize(outboxEvent.cloudEvent())))
+                .toList();
+        try {
+            wmpBaseEventPublisher.publishRecords(producerRecords)
+                    .get(outboxProperties.getSendTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while relaying outbox batch", e);
+        } catch (Exception e) {
+            // roll back: the rows are unlocked and picked up again by the next poll
+            throw new IllegalStateException("Failed to relay outbox batch of " + outboxEvents.size() + " events", e);
+        }
+
+        outboxRepository.delete(outboxEvents.stream().map(OutboxEvent::id).toList());
+        publishedCounter.increment(outboxEvents.size());
+        log.debug("Relayed [{}] outbox events", outboxEvents.size());
+        return outboxEvents.size();
+    }
+}
@@ -0,0 +1,69 @@
+package raff.stein.platformcore.messaging.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Plain JDBC access to the outbox table, so that services do not need to scan a platform entity.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "kafka.outbox", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class OutboxRepository {
+
+    public static final String TABLE_NAME = "wmp_outbox_event";
+
+    private static final String INSERT_SQL = "INSERT INTO " + TABLE_NAME
+            + " (id, topic, record_key, cloud_event, created_at) VALUES (?, ?, ?, ?, ?)";
+    // The oldest rows are picked first, in insertion order (seq), and only those candidates are checked against a
+    // transaction advisory lock on their topic and record key: the instance relaying a key keeps it until commit, when
+    // the relayed rows are gone, so no other instance takes the next event of a key still in flight. SKIP LOCKED lets
+    // several relay instances drain the outbox concurrently without waiting on each other. Keyless events have no
+    // order to keep. The candidate CTE is materialized so the volatile advisory lock never runs on rows past the limit.
+    private static final String LOCK_NEXT_BATCH_SQL = "WITH candidate AS MATERIALIZED ("
+            + "SELECT id, topic, record_key FROM " + TABLE_NAME + " ORDER BY seq LIMIT ?)"
+            + " SELECT e.id, e.topic, e.record_key, e.cloud_event, e.created_at FROM " + TABLE_NAME + " e"
+            + " JOIN candidate c ON c.id = e.id"
+            + " WHERE c.record_key IS NULL OR pg_try_advisory_xact_lock(hashtextextended(c.topic || '/' || c.record_key, 0))"
+            + " ORDER BY e.seq FOR UPDATE OF e SKIP LOCKED";
+    private static final String DELETE_SQL = "DELETE FROM " + TABLE_NAME + " WHERE id = ?";
+
+    private static final RowMapper<OutboxEvent> ROW_MAPPER = (rs, rowNum) -> new OutboxEvent(
+            rs.getObject("id", UUID.class),
+            rs.getString("topic"),
+            rs.getString("record_key"),
+            rs.getBytes("cloud_event"),
+            rs.getTimestamp("created_at").toInstant());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void append(List<OutboxEvent> outboxEvents) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, outboxEvents, outboxEvents.size(), (ps, outboxEvent) -> {
+            ps.setObject(1, outboxEvent.id());
+            ps.setString(2, outboxEvent.topic());
+            ps.setString(3, outboxEvent.recordKey());
+            ps.setBytes(4, outboxEvent.cloudEvent());
+            ps.setTimestamp(5, Timestamp.from(outboxEvent.createdAt()));
+        });
+    }
+
+    /**
+     * Locks, among the {@code batchSize} oldest rows, those whose record key is not being relayed by another
+     * transaction. Fewer rows come back while other instances relay the head of the outbox. Must run inside a
+     * transaction.
+     */
+    public List<OutboxEvent> lockNextBatch(int batchSize) {
+        return jdbcTemplate.query(LOCK_NEXT_BATCH_SQL, ROW_MAPPER, batchSize);
+    }
+
+    public void delete(List<UUID> ids) {
+        jdbcTemplate.batchUpdate(DELETE_SQL, ids, ids.size(), (ps, id) -> ps.setObject(1, id));
+    }
+}
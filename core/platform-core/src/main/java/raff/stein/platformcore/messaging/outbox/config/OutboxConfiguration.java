@@ -0,0 +1,29 @@
+package raff.stein.platformcore.messaging.outbox.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.DataSourceInitializer;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import javax.sql.DataSource;
+
+/**
+ * Wiring of the transactional outbox, active only with {@code kafka.outbox.enabled=true}.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "kafka.outbox", name = "enabled", havingValue = "true")
+public class OutboxConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "kafka.outbox", name = "initialize-schema", havingValue = "true", matchIfMissing = true)
+    public DataSourceInitializer outboxSchemaInitializer(DataSource dataSource) {
+        DataSourceInitializer initializer = new DataSourceInitializer();
+        initializer.setDataSource(dataSource);
+        initializer.setDatabasePopulator(new ResourceDatabasePopulator(new ClassPathResource("outbox/outbox-schema-postgresql.sql")));
+        return initializer;
+    }
+}
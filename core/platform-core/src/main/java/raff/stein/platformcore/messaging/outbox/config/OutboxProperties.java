@@ -0,0 +1,49 @@
+package raff.stein.platformcore.messaging.outbox.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Transactional outbox properties, bound from the {@code kafka.outbox} prefix.
+ * <p>
+ * When enabled, {@code EventPublisher} injection points receive the outbox publisher, which appends events
+ * to the {@code wmp_outbox_event} table inside the current transaction; the relay publishes them to Kafka.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "kafka.outbox")
+@Data
+public class OutboxProperties {
+
+    /**
+     * Enables the outbox publisher and relay for this service.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Creates the outbox table and index on startup if they do not exist (PostgreSQL DDL).
+     */
+    private boolean initializeSchema = true;
+
+    /**
+     * Delay between two relay polls once the outbox has been drained.
+     */
+    private Duration pollInterval = Duration.ofMillis(500);
+
+    /**
+     * Maximum number of rows locked and published in a single relay transaction.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Maximum number of consecutive batches relayed in a single poll, so one instance does not monopolize a backlog.
+     */
+    private int maxBatchesPerPoll = 20;
+
+    /**
+     * Maximum time the relay waits for the broker to acknowledge a batch before rolling it back.
+     */
+    private Duration sendTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,53 @@
+package raff.stein.platformcore.messaging.payload;
+
+import org.springframework.stereotype.Component;
+import tools.jackson.dataformat.avro.AvroMapper;
+import tools.jackson.dataformat.avro.AvroSchema;
+
+import java.net.URI;
+
+/**
+ * Compact binary codec writing the event-data POJOs with Avro, using schemas from the {@link PayloadSchemaRegistry}.
+ */
+@Component
+public class AvroPayloadCodec implements PayloadCodec {
+
+    private final AvroMapper avroMapper;
+    private final PayloadSchemaRegistry schemaRegistry;
+
+    public AvroPayloadCodec(PayloadSchemaRegistry schemaRegistry) {
+        this.avroMapper = schemaRegistry.getAvroMapper();
+        this.schemaRegistry = schemaRegistry;
+    }
+
+    @Override
+    public PayloadFormat format() {
+        return PayloadFormat.AVRO;
+    }
+
+    @Override
+    public byte[] encode(Object payload) {
+        return avroMapper.writer(schemaRegistry.schemaFor(payload.getClass())).writeValueAsBytes(payload);
+    }
+
+    @Override
+    public URI dataSchema(Class<?> payloadClass) {
+        return schemaRegistry.schemaUri(payloadClass);
+    }
+
+    /**
+     * Reads with the writer schema named by {@code dataSchema}, resolved against the reader schema of {@code clazz}
+     * when they differ.
+     *
+     * @throws IllegalStateException when the writer schema is not known to the {@link PayloadSchemaRegistry}
+     */
+    @Override
+    public <T> T decode(byte[] bytes, Class<T> clazz, URI dataSchema) {
+        final AvroSchema readerSchema = schemaRegistry.schemaFor(clazz);
+        final AvroSchema writerSchema = schemaRegistry.writerSchema(dataSchema);
+        final AvroSchema schema = writerSchema.getAvroSchema().equals(readerSchema.getAvroSchema())
+                ? readerSchema
+                : writerSchema.withReaderSchema(readerSchema);
+        return avroMapper.readerFor(clazz).with(schema).readValue(bytes);
+    }
+}
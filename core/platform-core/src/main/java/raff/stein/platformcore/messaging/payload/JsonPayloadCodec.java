@@ -0,0 +1,35 @@
+package raff.stein.platformcore.messaging.payload;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+
+@Component
+@RequiredArgsConstructor
+public class JsonPayloadCodec implements PayloadCodec {
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public PayloadFormat format() {
+        return PayloadFormat.JSON;
+    }
+
+    @Override
+    public byte[] encode(Object payload) {
+        return objectMapper.writeValueAsBytes(payload);
+    }
+
+    @Override
+    public URI dataSchema(Class<?> payloadClass) {
+        // JSON payloads are self-describing
+        return null;
+    }
+
+    @Override
+    public <T> T decode(byte[] bytes, Class<T> clazz, URI dataSchema) {
+        return objectMapper.readValue(bytes, clazz);
+    }
+}
@@ -0,0 +1,23 @@
+package raff.stein.platformcore.messaging.payload;
+
+import java.net.URI;
+
+/**
+ * Encodes and decodes CloudEvent payloads in a given {@link PayloadFormat}.
+ */
+public interface PayloadCodec {
+
+    PayloadFormat format();
+
+    byte[] encode(Object payload);
+
+    /**
+     * @return the CloudEvent {@code dataschema} identifying the schema used by {@link #encode}, or {@code null}
+     */
+    URI dataSchema(Class<?> payloadClass);
+
+    /**
+     * @param dataSchema the {@code dataschema} of the received CloudEvent, used to resolve the writer schema
+     */
+    <T> T decode(byte[] bytes, Class<T> clazz, URI dataSchema);
+}
@@ -0,0 +1,40 @@
+package raff.stein.platformcore.messaging.payload;
+
+import org.springframework.stereotype.Component;
+import raff.stein.platformcore.messaging.publisher.config.KafkaProducerProperties;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Selects the {@link PayloadCodec} for a published topic ({@code kafka.producer.payload-formats.*})
+ * or for a received CloudEvent data content type.
+ */
+@Component
+public class PayloadCodecResolver {
+
+    private final Map<PayloadFormat, PayloadCodec> codecsByFormat = new EnumMap<>(PayloadFormat.class);
+    private final Map<String, PayloadFormat> payloadFormatsByTopic;
+
+    public PayloadCodecResolver(List<PayloadCodec> payloadCodecs, KafkaProducerProperties kafkaProducerProperties) {
+        payloadCodecs.forEach(codec -> codecsByFormat.put(codec.format(), codec));
+        this.payloadFormatsByTopic = kafkaProducerProperties.getPayloadFormats();
+    }
+
+    public PayloadCodec forTopic(String topic) {
+        return forFormat(payloadFormatsByTopic.getOrDefault(topic, PayloadFormat.JSON));
+    }
+
+    public PayloadCodec forContentType(String contentType) {
+        return forFormat(PayloadFormat.fromContentType(contentType));
+    }
+
+    private PayloadCodec forFormat(PayloadFormat format) {
+        PayloadCodec codec = codecsByFormat.get(format);
+        if (codec == null) {
+            throw new IllegalStateException("No payload codec registered for format " + format);
+        }
+        return codec;
+    }
+}
@@ -0,0 +1,39 @@
+package raff.stein.platformcore.messaging.payload;
+
+import lombok.Getter;
+
+/**
+ * Wire format of the CloudEvent data, selected per topic on the producer side and detected from the
+ * CloudEvent {@code datacontenttype} on the consumer side.
+ */
+@Getter
+public enum PayloadFormat {
+    /**
+     * Jackson JSON, the historical format of every WMP event.
+     */
+    JSON("application/json"),
+    /**
+     * Avro binary encoding, with the schema derived from the event-data POJOs.
+     */
+    AVRO("application/avro");
+
+    private final String contentType;
+
+    PayloadFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    /**
+     * Resolves the format from a CloudEvent data content type, defaulting to {@link #JSON} when absent or unknown.
+     */
+    public static PayloadFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            for (PayloadFormat format : values()) {
+                if (contentType.startsWith(format.contentType)) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+}
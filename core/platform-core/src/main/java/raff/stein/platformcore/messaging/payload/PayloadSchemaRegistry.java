@@ -0,0 +1,183 @@
+package raff.stein.platformcore.messaging.payload;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.SchemaParseException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import raff.stein.platformcore.messaging.publisher.config.KafkaProducerProperties;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ArrayNode;
+import tools.jackson.databind.node.ObjectNode;
+import tools.jackson.dataformat.avro.AvroMapper;
+import tools.jackson.dataformat.avro.AvroSchema;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process stand-in for a schema registry.
+ * <p>
+ * Avro schemas are derived from the Jackson POJOs generated out of the {@code *-event-data} OpenAPI definitions,
+ * so the YAML stays the single source of truth. Each schema is identified by its 64-bit parsing fingerprint,
+ * which travels with the event as CloudEvent {@code dataschema} ({@value #SCHEMA_URN_PREFIX}{fingerprint}).
+ * <p>
+ * Known schemas are the ones derived in this JVM plus the schema set shipped on the classpath under
+ * {@code avro-schemas/<topic>/}: the {@code *-event-data} modules keep there the schemas of the versions still
+ * published, so a consumer can read an event written with a version other than its own. An event whose schema is
+ * not known cannot be decoded, so a topic published in {@code AVRO} without any shipped schema fails the startup.
+ */
+@Slf4j
+@Component
+public class PayloadSchemaRegistry {
+
+    public static final String SCHEMA_URN_PREFIX = "urn:wmp:schema:avro:";
+    public static final String SHIPPED_SCHEMAS_LOCATION = "classpath*:avro-schemas/*/*.avsc";
+
+    private static final JsonMapper JSON_MAPPER = new JsonMapper();
+
+    private final AvroMapper avroMapper;
+    private final Map<Class<?>, AvroSchema> schemasByClass = new ConcurrentHashMap<>();
+    private final Map<Long, AvroSchema> schemasByFingerprint = new ConcurrentHashMap<>();
+    private final Set<String> topicsWithShippedSchemas = new HashSet<>();
+
+    public PayloadSchemaRegistry() {
+        // kept private to this registry: an AvroMapper bean would compete with the JSON ObjectMapper for injection
+        this.avroMapper = new AvroMapper();
+        registerShippedSchemas();
+    }
+
+    /**
+     * @throws IllegalStateException when a topic of {@code kafka.producer.payload-formats} is published in
+     *                               {@code AVRO} without a schema shipped under {@code avro-schemas/<topic>/}
+     */
+    @Autowired
+    public PayloadSchemaRegistry(KafkaProducerProperties kafkaProducerProperties) {
+        this();
+        final List<String> topicsWithoutSchema = kafkaProducerProperties.getPayloadFormats().entrySet().stream()
+                .filter(topicFormat -> topicFormat.getValue() == PayloadFormat.AVRO)
+                .map(Map.Entry::getKey)
+                .filter(topic -> !topicsWithShippedSchemas.contains(topic))
+                .sorted()
+                .toList();
+        if (!topicsWithoutSchema.isEmpty()) {
+            throw new IllegalStateException("No Avro schema shipped for the AVRO topics " + topicsWithoutSchema
+                    + ": consumers could not decode their events, ship the schemas under avro-schemas/<topic>/");
+        }
+    }
+
+    public AvroMapper getAvroMapper() {
+        return avroMapper;
+    }
+
+    /**
+     * Returns the (cached) schema for the given payload class, registering it on first use.
+     */
+    public AvroSchema schemaFor(Class<?> payloadClass) {
+        return schemasByClass.computeIfAbsent(payloadClass, this::register);
+    }
+
+    public URI schemaUri(Class<?> payloadClass) {
+        return URI.create(SCHEMA_URN_PREFIX + fingerprint(schemaFor(payloadClass)));
+    }
+
+    /**
+     * Looks up a registered schema by the {@code dataschema} URI of a received event.
+     */
+    public Optional<AvroSchema> findBySchemaUri(URI schemaUri) {
+        if (schemaUri == null || !schemaUri.toString().startsWith(SCHEMA_URN_PREFIX)) {
+            return Optional.empty();
+        }
+        try {
+            long fingerprint = Long.parseLong(schemaUri.toString().substring(SCHEMA_URN_PREFIX.length()));
+            return Optional.ofNullable(schemasByFingerprint.get(fingerprint));
+        } catch (NumberFormatException e) {
+            log.warn("Malformed Avro schema URI: [{}]", schemaUri);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the schema a received event was written with.
+     *
+     * @throws IllegalStateException when the {@code dataschema} is missing or not a known schema: decoding with
+     *                               another schema would silently misread the fields
+     */
+    public AvroSchema writerSchema(URI schemaUri) {
+        return findBySchemaUri(schemaUri).orElseThrow(() -> new IllegalStateException(
+                "Unknown Avro writer schema [" + schemaUri + "], ship it under avro-schemas/<topic>/"));
+    }
+
+    private void registerShippedSchemas() {
+        final Resource[] resources;
+        try {
+            resources = new PathMatchingResourcePatternResolver().getResources(SHIPPED_SCHEMAS_LOCATION);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot list the Avro schemas under " + SHIPPED_SCHEMAS_LOCATION, e);
+        }
+        for (Resource resource : resources) {
+            try (InputStream inputStream = resource.getInputStream()) {
+                AvroSchema schema = new AvroSchema(new Schema.Parser().parse(inputStream));
+                schemasByFingerprint.putIfAbsent(fingerprint(schema), schema);
+                // avro-schemas/<topic>/<schema>.avsc
+                final String topic = topicOf(resource);
+                topicsWithShippedSchemas.add(topic);
+                log.info("Registered shipped Avro schema [{}] of topic [{}] with fingerprint [{}]",
+                        resource.getFilename(), topic, fingerprint(schema));
+            } catch (IOException | SchemaParseException e) {
+                throw new IllegalStateException("Cannot read the Avro schema " + resource.getDescription(), e);
+            }
+        }
+    }
+
+    private static String topicOf(Resource resource) throws IOException {
+        final String path = resource.getURI().toString();
+        final String directory = path.substring(0, path.lastIndexOf('/'));
+        return directory.substring(directory.lastIndexOf('/') + 1);
+    }
+
+    private AvroSchema register(Class<?> payloadClass) {
+        AvroSchema schema = new AvroSchema(withNullDefaults(avroMapper.schemaFor(payloadClass).getAvroSchema()));
+        long fingerprint = fingerprint(schema);
+        schemasByFingerprint.putIfAbsent(fingerprint, schema);
+        log.info("Registered Avro schema for [{}] with fingerprint [{}]", payloadClass.getName(), fingerprint);
+        return schema;
+    }
+
+    /**
+     * Gives the nullable fields a {@code null} default, which Avro schema resolution needs to read events written
+     * before the field was added.
+     */
+    private static Schema withNullDefaults(Schema schema) {
+        final JsonNode root = JSON_MAPPER.readTree(schema.toString());
+        addNullDefaults(root);
+        return new Schema.Parser().parse(root.toString());
+    }
+
+    private static void addNullDefaults(JsonNode node) {
+        if (node instanceof ObjectNode objectNode && objectNode.get("fields") instanceof ArrayNode fields) {
+            for (JsonNode field : fields) {
+                final JsonNode type = field.get("type");
+                if (type.isArray() && "null".equals(type.get(0).asString()) && !field.has("default")) {
+                    ((ObjectNode) field).putNull("default");
+                }
+            }
+        }
+        node.forEach(PayloadSchemaRegistry::addNullDefaults);
+    }
+
+    private static long fingerprint(AvroSchema schema) {
+        return SchemaNormalization.parsingFingerprint64(schema.getAvroSchema());
+    }
+}
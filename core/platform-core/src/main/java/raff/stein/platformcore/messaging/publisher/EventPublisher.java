@@ -3,7 +3,17 @@ package raff.stein.platformcore.messaging.publisher;
 import lombok.NonNull;
 import raff.stein.platformcore.messaging.publisher.model.EventData;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public interface EventPublisher {
 
     void publishCloudEvent(@NonNull String topic, @NonNull EventData eventData);
+
+    /**
+     * Publishes a batch of events to the given topic, bounding the number of records awaiting
+     * a broker acknowledgement. The returned future completes once every record of the batch
+     * has been acknowledged, or exceptionally with the first failure.
+     */
+    CompletableFuture<Void> publishBatch(@NonNull String topic, @NonNull List<EventData> eventDataList);
 }
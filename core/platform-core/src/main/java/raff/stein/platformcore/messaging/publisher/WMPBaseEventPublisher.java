@@ -7,52 +7,166 @@ import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
+import raff.stein.platformcore.messaging.extension.WMPCloudEventExtensions;
+import raff.stein.platformcore.messaging.metrics.EventMetrics;
+import raff.stein.platformcore.messaging.payload.PayloadCodec;
+import raff.stein.platformcore.messaging.payload.PayloadCodecResolver;
+import raff.stein.platformcore.messaging.publisher.config.KafkaProducerProperties;
+import raff.stein.platformcore.messaging.publisher.key.PartitionKeyStrategy;
 import raff.stein.platformcore.messaging.publisher.model.EventData;
 import raff.stein.platformcore.security.context.SecurityContextHolder;
 import raff.stein.platformcore.security.context.WMPContext;
-import tools.jackson.databind.ObjectMapper;
 
 import java.net.URI;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Component
 public class WMPBaseEventPublisher implements EventPublisher {
 
     private final Producer<String, CloudEvent> kafkaCloudEventProducer;
-    private final ObjectMapper objectMapper;
+    private final PayloadCodecResolver payloadCodecResolver;
     private final URI producerSource;
+    private final PartitionKeyStrategy partitionKeyStrategy;
+    private final EventMetrics eventMetrics;
+    // bounds the records published through publishBatch that are still awaiting a broker ack
+    private final Semaphore inFlightRecords;
+    private final long inFlightAcquireTimeoutMs;
 
     public WMPBaseEventPublisher(
             Producer<String, CloudEvent> kafkaCloudEventProducer,
-            ObjectMapper objectMapper,
-            @Value("${kafka.producer.source}") String producerSource) {
+            PayloadCodecResolver payloadCodecResolver,
+            KafkaProducerProperties kafkaProducerProperties,
+            PartitionKeyStrategy partitionKeyStrategy,
+            EventMetrics eventMetrics) {
         this.kafkaCloudEventProducer = kafkaCloudEventProducer;
-        this.objectMapper = objectMapper;
+        this.payloadCodecResolver = payloadCodecResolver;
+        this.partitionKeyStrategy = partitionKeyStrategy;
+        this.eventMetrics = eventMetrics;
+        final String producerSource = kafkaProducerProperties.getSource();
         this.producerSource = URI.create(StringUtils.hasText(producerSource) ? producerSource : "");
+        this.inFlightRecords = new Semaphore(kafkaProducerProperties.getMaxInFlightRecords());
+        this.inFlightAcquireTimeoutMs = kafkaProducerProperties.getInFlightAcquireTimeout().toMillis();
     }
 
     @Override
     public void publishCloudEvent(@NonNull String topic, @NonNull EventData eventData) {
 
-        CloudEvent cloudEvent = createCloudEvent(eventData);
-        log.info("Publishing CloudEvent to topic: [{}], cloudEventId: [{}], cloudEventType: [{}]",
+        ProducerRecord<String, CloudEvent> producerRecord = createProducerRecord(topic, eventData);
+        log.info("Publishing CloudEvent to topic: [{}], cloudEventId: [{}], cloudEventType: [{}], key: [{}]",
                 topic,
-                cloudEvent.getId(),
-                cloudEvent.getType());
+                producerRecord.value().getId(),
+                producerRecord.value().getType(),
+                producerRecord.key());
 
-        sendCloudEvent(topic, cloudEvent);
+        sendCloudEvent(producerRecord);
 
     }
 
-    private void sendCloudEvent(@NonNull String topic, CloudEvent cloudEvent) {
+    @Override
+    public CompletableFuture<Void> publishBatch(@NonNull String topic, @NonNull List<EventData> eventDataList) {
+        if (eventDataList.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        log.info("Publishing batch of [{}] CloudEvents to topic: [{}]", eventDataList.size(), topic);
+        final List<ProducerRecord<String, CloudEvent>> producerRecords;
+        try {
+            producerRecords = eventDataList.stream()
+                    .map(eventData -> createProducerRecord(topic, eventData))
+                    .toList();
+        } catch (Exception e) {
+            // payload encoding errors
+            return CompletableFuture.failedFuture(e);
+        }
+        return publishRecords(producerRecords);
+    }
+
+    /**
+     * Sends already built records, bounding the records awaiting a broker acknowledgement
+     * ({@code kafka.producer.max-in-flight-records}). Records may target different topics.
+     *
+     * @return a future completing once every record is acknowledged, or exceptionally with the first failure
+     */
+    public CompletableFuture<Void> publishRecords(@NonNull List<ProducerRecord<String, CloudEvent>> producerRecords) {
+        if (producerRecords.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        final List<CompletableFuture<Void>> recordFutures = new ArrayList<>(producerRecords.size());
+        for (ProducerRecord<String, CloudEvent> producerRecord : producerRecords) {
+            final CompletableFuture<Void> recordFuture = new CompletableFuture<>();
+            recordFutures.add(recordFuture);
+            if (!acquireInFlightPermit(producerRecord.topic(), recordFuture)) {
+                // stop feeding the producer: the batch is already failed
+                break;
+            }
+            final long start = eventMetrics.start();
+            try {
+                kafkaCloudEventProducer.send(
+                        producerRecord, (recordMetadata, e) -> {
+                            inFlightRecords.release();
+                            eventMetrics.recordPublished(producerRecord.topic(), producerRecord.value(), start, recordMetadata, e);
+                            if (e != null) {
+                                recordFuture.completeExceptionally(e);
+                            } else {
+                                recordFuture.complete(null);
+                            }
+                        });
+            } catch (Exception e) {
+                // serialization errors or max.block.ms exceeded while waiting for buffer space
+                inFlightRecords.release();
+                eventMetrics.recordPublished(producerRecord.topic(), producerRecord.value(), start, null, e);
+                recordFuture.completeExceptionally(e);
+                break;
+            }
+        }
+
+        final Set<String> topics = producerRecords.stream()
+                .map(ProducerRecord::topic)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        return CompletableFuture.allOf(recordFutures.toArray(CompletableFuture[]::new))
+                .whenComplete((ignored, e) -> {
+                    if (e != null) {
+                        log.error("Failed to publish CloudEvent batch to topics: {}, error: {}", topics, e.getMessage());
+                    } else {
+                        log.info("CloudEvent batch of [{}] events published to topics: {}", recordFutures.size(), topics);
+                    }
+                });
+    }
+
+    private boolean acquireInFlightPermit(String topic, CompletableFuture<Void> recordFuture) {
+        try {
+            if (inFlightRecords.tryAcquire(inFlightAcquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+            recordFuture.completeExceptionally(new TimeoutException(
+                    "Timed out after " + inFlightAcquireTimeoutMs + " ms waiting for an in-flight slot on topic " + topic));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            recordFuture.completeExceptionally(e);
+        }
+        return false;
+    }
+
+    private void sendCloudEvent(ProducerRecord<String, CloudEvent> producerRecord) {
+        final String topic = producerRecord.topic();
+        final long start = eventMetrics.start();
         kafkaCloudEventProducer.send(
-                new ProducerRecord<>(topic, cloudEvent), (recordMetadata, e) -> {
+                producerRecord, (recordMetadata, e) -> {
+                    eventMetrics.recordPublished(topic, producerRecord.value(), start, recordMetadata, e);
                     if (e != null) {
                         log.error("Failed to publish CloudEvent to topic: [{}], error: {}", topic, e.getMessage());
                     } else {
@@ -63,34 +177,50 @@ public class WMPBaseEventPublisher implements EventPublisher {
         );
     }
 
-    private CloudEvent createCloudEvent(@NonNull EventData eventData) {
+    /**
+     * Builds the keyed CloudEvent record for the given event, reading the {@code WMPContext} of the calling thread.
+     */
+    public ProducerRecord<String, CloudEvent> createProducerRecord(@NonNull String topic, @NonNull EventData eventData) {
+        // events sharing a key land on the same partition and are consumed in publishing order
+        final String partitionKey = partitionKeyStrategy.resolvePartitionKey(eventData);
+        return new ProducerRecord<>(topic, partitionKey, createCloudEvent(topic, eventData, partitionKey));
+    }
+
+    private CloudEvent createCloudEvent(@NonNull String topic, @NonNull EventData eventData, String partitionKey) {
 
         Object data = eventData.data();
+        final PayloadCodec payloadCodec = payloadCodecResolver.forTopic(topic);
         CloudEventBuilder cloudEventBuilder = CloudEventBuilder.v1()
-                .withDataContentType("application/json")
+                .withDataContentType(payloadCodec.format().getContentType())
+                .withDataSchema(payloadCodec.dataSchema(data.getClass()))
                 .withType(data.getClass().getName())
                 .withSource(producerSource)
-                .withData(PojoCloudEventData.wrap(data, objectMapper::writeValueAsBytes))
+                .withData(PojoCloudEventData.wrap(data, payloadCodec::encode))
                 .withTime(OffsetDateTime.now(ZoneOffset.UTC))
                 .withId(UUID.randomUUID().toString())
                 .withSubject("");
 
+        if (StringUtils.hasText(partitionKey)) {
+            // CloudEvents partitioning extension, lets consumers see the key without reading Kafka metadata
+            cloudEventBuilder.withExtension(WMPCloudEventExtensions.PARTITION_KEY, partitionKey);
+        }
+
         // forward user information from the security context
         final WMPContext wmpContext = SecurityContextHolder.getContext();
 
         if (wmpContext != null) {
             // add extensions only if values are present to avoid builder errors
             if (StringUtils.hasText(wmpContext.getUserId())) {
-                cloudEventBuilder.withExtension("userid", wmpContext.getUserId());
+                cloudEventBuilder.withExtension(WMPCloudEventExtensions.USER_ID, wmpContext.getUserId());
             }
             if (StringUtils.hasText(wmpContext.getEmail())) {
-                cloudEventBuilder.withExtension("email", wmpContext.getEmail());
+                cloudEventBuilder.withExtension(WMPCloudEventExtensions.EMAIL, wmpContext.getEmail());
             }
             if (StringUtils.hasText(wmpContext.getBankCode())) {
-                cloudEventBuilder.withExtension("bankcode", wmpContext.getBankCode());
+                cloudEventBuilder.withExtension(WMPCloudEventExtensions.BANK_CODE, wmpContext.getBankCode());
             }
             if (StringUtils.hasText(wmpContext.getCorrelationId())) {
-                cloudEventBuilder.withExtension("correlationid", wmpContext.getCorrelationId());
+                cloudEventBuilder.withExtension(WMPCloudEventExtensions.CORRELATION_ID, wmpContext.getCorrelationId());
             }
         }
         return cloudEventBuilder.build();
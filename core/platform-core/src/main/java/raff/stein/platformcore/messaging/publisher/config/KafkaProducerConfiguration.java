@@ -5,16 +5,23 @@ import io.cloudevents.core.message.Encoding;
 import io.cloudevents.core.provider.EventFormatProvider;
 import io.cloudevents.jackson.JsonFormat;
 import io.cloudevents.kafka.CloudEventSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import raff.stein.platformcore.messaging.configuration.kafka.KafkaConfiguration;
+import raff.stein.platformcore.messaging.publisher.key.AggregateIdPartitionKeyStrategy;
+import raff.stein.platformcore.messaging.publisher.key.PartitionKeyStrategy;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
@@ -24,17 +31,49 @@ import java.util.UUID;
 public class KafkaProducerConfiguration {
 
     private final KafkaConfiguration kafkaConfiguration;
+    private final KafkaProducerProperties kafkaProducerProperties;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
 
     @Bean
     public Producer<String, CloudEvent> kafkaCloudEventProducer() {
         Map<String, Object> props = kafkaConfiguration.getBasicBrokerProperties();
         props.put(ProducerConfig.CLIENT_ID_CONFIG, "wmp-cloud-event-producer-" + UUID.randomUUID());
-        props.put(CloudEventSerializer.ENCODING_CONFIG, Encoding.STRUCTURED);
-        props.put(CloudEventSerializer.EVENT_FORMAT_CONFIG, EventFormatProvider.getInstance().resolveFormat(JsonFormat.CONTENT_TYPE));
+        props.putAll(cloudEventSerializerProperties(kafkaProducerProperties.getEncoding()));
         props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, CloudEventSerializer.class);
         props.put(ProducerConfig.MAX_REQUEST_SIZE_CONFIG, 1000000); // 1 MB
-        return new DefaultKafkaProducerFactory<String, CloudEvent>(props).createProducer();
+        // batching knobs, tunable per service for bulk flows
+        props.put(ProducerConfig.LINGER_MS_CONFIG, kafkaProducerProperties.getLingerMs());
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, kafkaProducerProperties.getBatchSize());
+        props.put(ProducerConfig.BUFFER_MEMORY_CONFIG, kafkaProducerProperties.getBufferMemory());
+        final DefaultKafkaProducerFactory<String, CloudEvent> producerFactory = new DefaultKafkaProducerFactory<>(props);
+        // native client metrics (kafka.producer.*: record-send-rate, request-latency-avg, buffer-available-bytes, ...)
+        meterRegistry.ifAvailable(registry -> producerFactory.addListener(new MicrometerProducerListener<>(registry)));
+        return producerFactory.createProducer();
+    }
+
+    /**
+     * {@link CloudEventSerializer} settings for the encoding, shared by every producer writing CloudEvents: the
+     * serializer refuses the STRUCTURED encoding without an event format.
+     */
+    public static Map<String, Object> cloudEventSerializerProperties(Encoding encoding) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(CloudEventSerializer.ENCODING_CONFIG, encoding);
+        if (encoding == Encoding.STRUCTURED) {
+            // the event format is only used to write the envelope, binary mode sends the raw payload
+            props.put(CloudEventSerializer.EVENT_FORMAT_CONFIG, EventFormatProvider.getInstance().resolveFormat(JsonFormat.CONTENT_TYPE));
+        }
+        return props;
+    }
+
+    /**
+     * Default record key strategy (aggregate id, then {@code WMPContext.userId}).
+     * Services can declare their own {@link PartitionKeyStrategy} bean to override it.
+     */
+    @Bean
+    @ConditionalOnMissingBean(PartitionKeyStrategy.class)
+    public PartitionKeyStrategy partitionKeyStrategy() {
+        return new AggregateIdPartitionKeyStrategy();
     }
 }
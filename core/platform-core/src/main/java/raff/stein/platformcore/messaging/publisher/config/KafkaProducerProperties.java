@@ -0,0 +1,69 @@
+package raff.stein.platformcore.messaging.publisher.config;
+
+import io.cloudevents.core.message.Encoding;
+import lombok.Data;
+import raff.stein.platformcore.messaging.payload.PayloadFormat;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tuning properties for the shared CloudEvent producer, bound from the {@code kafka.producer} prefix.
+ * <p>
+ * Business microservices can override these values in their own {@code kafka-properties.yaml}
+ * to trade latency for throughput on bulk flows (mass imports, onboarding re-runs).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "kafka.producer")
+@Data
+public class KafkaProducerProperties {
+
+    /**
+     * Source URI set on every published CloudEvent.
+     */
+    private String source;
+
+    /**
+     * CloudEvents Kafka encoding. {@code STRUCTURED} wraps the payload in a JSON envelope;
+     * {@code BINARY} sends the raw payload as record value and every attribute and extension
+     * ({@code userid}, {@code bankcode}, {@code correlationid}, ...) as a {@code ce_*} header.
+     * Consumers detect the encoding of each record automatically.
+     */
+    private Encoding encoding = Encoding.STRUCTURED;
+
+    /**
+     * Payload format per topic; topics not listed are published as {@code JSON}.
+     * {@code AVRO} pays off on high-volume topics, best combined with {@code BINARY} encoding
+     * so the payload is not re-wrapped in a JSON envelope.
+     */
+    private Map<String, PayloadFormat> payloadFormats = new HashMap<>();
+
+    /**
+     * Time in milliseconds the producer waits for more records before sending a batch ({@code linger.ms}).
+     */
+    private int lingerMs = 5;
+
+    /**
+     * Upper bound in bytes of a single per-partition batch ({@code batch.size}).
+     */
+    private int batchSize = 64 * 1024;
+
+    /**
+     * Total memory in bytes the producer can use to buffer records waiting to be sent ({@code buffer.memory}).
+     */
+    private long bufferMemory = 32L * 1024 * 1024;
+
+    /**
+     * Maximum number of records published through {@code publishBatch} that can be awaiting
+     * a broker acknowledgement at the same time, across all callers.
+     */
+    private int maxInFlightRecords = 10_000;
+
+    /**
+     * Maximum time a batch publisher waits for an in-flight slot before failing the batch.
+     */
+    private Duration inFlightAcquireTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,81 @@
+package raff.stein.platformcore.messaging.publisher.key;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+import raff.stein.platformcore.messaging.publisher.model.EventData;
+import raff.stein.platformcore.security.context.SecurityContextHolder;
+import raff.stein.platformcore.security.context.WMPContext;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Default {@link PartitionKeyStrategy} keying events by the aggregate they belong to.
+ * <p>
+ * Resolution order:
+ * <ol>
+ *     <li>the explicit {@link EventData#partitionKey()}, when set, e.g. by the customer-service publishers whose
+ *     payloads nest the customer id, so that every event of a customer is still keyed by it;</li>
+ *     <li>the first non-null aggregate id exposed by the payload ({@code customerId}, {@code userId}, {@code documentId});</li>
+ *     <li>the {@code userId} of the current {@link WMPContext};</li>
+ *     <li>{@code null}, leaving partition assignment to the producer.</li>
+ * </ol>
+ * Getter lookups are resolved once per payload class and cached.
+ */
+@Slf4j
+public class AggregateIdPartitionKeyStrategy implements PartitionKeyStrategy {
+
+    private static final List<String> AGGREGATE_ID_GETTERS = List.of("getCustomerId", "getUserId", "getDocumentId");
+
+    private final Map<Class<?>, List<Method>> aggregateIdGettersByClass = new ConcurrentHashMap<>();
+
+    @Override
+    public String resolvePartitionKey(EventData eventData) {
+        if (StringUtils.hasText(eventData.partitionKey())) {
+            return eventData.partitionKey();
+        }
+        return resolveAggregateId(eventData.data())
+                .or(AggregateIdPartitionKeyStrategy::resolveContextUserId)
+                .orElse(null);
+    }
+
+    private Optional<String> resolveAggregateId(Object data) {
+        for (Method getter : aggregateIdGettersByClass.computeIfAbsent(data.getClass(), this::findAggregateIdGetters)) {
+            try {
+                Object value = getter.invoke(data);
+                if (value != null && StringUtils.hasText(value.toString())) {
+                    return Optional.of(value.toString());
+                }
+            } catch (ReflectiveOperationException e) {
+                log.warn("Unable to read [{}] from [{}]: {}", getter.getName(), data.getClass().getName(), e.getMessage());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private List<Method> findAggregateIdGetters(Class<?> clazz) {
+        return AGGREGATE_ID_GETTERS.stream()
+                .map(name -> findPublicGetter(clazz, name))
+                .flatMap(Optional::stream)
+                .toList();
+    }
+
+    private static Optional<Method> findPublicGetter(Class<?> clazz, String name) {
+        try {
+            return Optional.of(clazz.getMethod(name));
+        } catch (NoSuchMethodException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<String> resolveContextUserId() {
+        final WMPContext wmpContext = SecurityContextHolder.getContext();
+        if (wmpContext != null && StringUtils.hasText(wmpContext.getUserId())) {
+            return Optional.of(wmpContext.getUserId());
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,20 @@
+package raff.stein.platformcore.messaging.publisher.key;
+
+import raff.stein.platformcore.messaging.publisher.model.EventData;
+
+/**
+ * Strategy used by the event publisher to derive the Kafka record key of an outgoing event.
+ * <p>
+ * Events sharing the same key land on the same partition, so they are consumed in publishing order
+ * and consumers can safely keep per-partition state. Services can provide their own bean to override
+ * the platform default.
+ */
+@FunctionalInterface
+public interface PartitionKeyStrategy {
+
+    /**
+     * @param eventData the event about to be published
+     * @return the record key, or {@code null} to let the producer spread the record across partitions
+     */
+    String resolvePartitionKey(EventData eventData);
+}
@@ -2,5 +2,16 @@ package raff.stein.platformcore.messaging.publisher.model;
 
 import lombok.NonNull;
 
-public record EventData(@NonNull Object data) {
+/**
+ * Envelope for a domain payload to be published as a CloudEvent.
+ *
+ * @param data         the domain payload
+ * @param partitionKey optional explicit Kafka record key; when {@code null} the configured
+ *                     {@code PartitionKeyStrategy} derives one from the payload or the security context
+ */
+public record EventData(@NonNull Object data, String partitionKey) {
+
+    public EventData(@NonNull Object data) {
+        this(data, null);
+    }
 }
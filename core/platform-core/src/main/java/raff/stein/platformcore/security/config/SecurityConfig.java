@@ -83,8 +83,12 @@ public class SecurityConfig {
                         // Example public endpoints for auth (login/register)
                         .requestMatchers(HttpMethod.POST, "/auth/login").permitAll()
                         .requestMatchers(HttpMethod.POST, "/auth/register").permitAll()
+                        // Public keys of the token issuer
+                        .requestMatchers(HttpMethod.GET, "/.well-known/jwks.json").permitAll()
                         // Actuator health/info could be public depending on needs
                         .requestMatchers("/actuator/health", "/actuator/info").permitAll()
+                        // Cache admin operations evict or clear caches on every node
+                        .requestMatchers(HttpMethod.DELETE, "/actuator/platformcaches/**").hasRole("ADMIN")
                         // Everything else requires authentication
                         .anyRequest().authenticated()
                 )
@@ -7,8 +7,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
 import org.springframework.util.StringUtils;
 import raff.stein.platformcore.security.jwt.JwtProperties;
-import raff.stein.platformcore.security.jwt.JwtTokenParser;
 import raff.stein.platformcore.security.jwt.TokenRevocationService;
+import raff.stein.platformcore.security.jwt.VerifiedTokenCache;
 
 import java.io.IOException;
 import java.util.Optional;
@@ -20,19 +20,22 @@ import java.util.Optional;
  * <p>
  * This filter is non-blocking: if no token is present or token is invalid,
  * it does not fail the request. Authorization is handled by Spring Security downstream.
+ * <p>
+ * Tokens already verified by this node are served from the {@link VerifiedTokenCache};
+ * revocation is checked on every request.
  */
 @Slf4j
 public class SecurityContextFilter implements Filter {
 
-    private final JwtTokenParser tokenParser;
+    private final VerifiedTokenCache verifiedTokenCache;
     private final JwtProperties jwtProperties;
     private final TokenRevocationService tokenRevocationService;
 
     public SecurityContextFilter(
-            JwtTokenParser tokenParser,
+            VerifiedTokenCache verifiedTokenCache,
             JwtProperties jwtProperties,
             TokenRevocationService tokenRevocationService) {
-        this.tokenParser = tokenParser;
+        this.verifiedTokenCache = verifiedTokenCache;
         this.jwtProperties = jwtProperties;
         this.tokenRevocationService = tokenRevocationService;
     }
@@ -48,7 +51,7 @@ public class SecurityContextFilter implements Filter {
 
             if (isTokenPresent(authHeader)) {
                 String token = extractToken(authHeader);
-                Optional<WMPContext> wmpContextOptional = tokenParser.parseTokenAndBuildContext(token, correlationId);
+                Optional<WMPContext> wmpContextOptional = verifiedTokenCache.parseTokenAndBuildContext(token, correlationId);
                 if (wmpContextOptional.isPresent()) {
                     WMPContext context = wmpContextOptional.get();
                     // Use jti from context to check revocation without reparsing/reflection
@@ -7,7 +7,7 @@ import lombok.ToString;
 import java.util.Set;
 
 @ToString
-@Builder
+@Builder(toBuilder = true)
 @Data
 public class WMPContext {
 
@@ -0,0 +1,34 @@
+package raff.stein.platformcore.security.jwt;
+
+import com.nimbusds.jose.jwk.JWKSet;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+
+/**
+ * Source of the token verification keys refreshed by the {@link JwtKeyRing}.
+ * <p>
+ * Services consume the JWKS of the issuer through {@code security.jwt.jwks.uri}; the issuer itself declares a bean
+ * reading its own keys, without an HTTP round trip.
+ */
+@FunctionalInterface
+public interface JwkSetSource {
+
+    int CONNECT_TIMEOUT_MILLIS = 2_000;
+    int READ_TIMEOUT_MILLIS = 2_000;
+    int SIZE_LIMIT_BYTES = 256 * 1024;
+
+    /**
+     * @return the keys currently published, public parts only
+     */
+    JWKSet load() throws Exception;
+
+    static JwkSetSource remote(String uri) {
+        try {
+            final var url = URI.create(uri).toURL();
+            return () -> JWKSet.load(url, CONNECT_TIMEOUT_MILLIS, READ_TIMEOUT_MILLIS, SIZE_LIMIT_BYTES);
+        } catch (MalformedURLException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid JWKS uri [" + uri + "]", e);
+        }
+    }
+}
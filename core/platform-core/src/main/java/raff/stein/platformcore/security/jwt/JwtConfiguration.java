@@ -1,11 +1,12 @@
 package raff.stein.platformcore.security.jwt;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.util.StringUtils;
 import raff.stein.platformcore.security.context.SecurityContextFilter;
 
 import java.security.PublicKey;
@@ -20,19 +21,41 @@ public class JwtConfiguration {
         this.resourceLoader = resourceLoader;
     }
 
+    /**
+     * Verification keys of every JWT check, loaded once on startup and refreshed in background.
+     */
+    @Bean
+    public JwtKeyRing jwtKeyRing(JwtProperties properties, ObjectProvider<JwkSetSource> jwkSetSource) {
+        PublicKey publicKey = StringUtils.hasText(properties.getPublicKeyPath())
+                ? JwtPublicKeyProvider.loadPublicKey(resourceLoader.getResource(properties.getPublicKeyPath()))
+                : null;
+        JwkSetSource source = jwkSetSource.getIfAvailable(() -> StringUtils.hasText(properties.getJwks().getUri())
+                ? JwkSetSource.remote(properties.getJwks().getUri())
+                : null);
+        JwtKeyRing jwtKeyRing = new JwtKeyRing(publicKey, properties.getKeyId(), source, properties.getJwks());
+        jwtKeyRing.refresh();
+        return jwtKeyRing;
+    }
+
+    @Bean
+    public JwtTokenParser jwtTokenParser(JwtKeyRing jwtKeyRing) {
+        return new JwtTokenParser(jwtKeyRing);
+    }
+
     @Bean
-    public JwtTokenParser jwtTokenParser(JwtProperties properties) {
-        PublicKey publicKey = JwtPublicKeyProvider.loadPublicKey(resourceLoader.getResource(properties.getPublicKeyPath()));
-        return new JwtTokenParser(publicKey);
+    public VerifiedTokenCache verifiedTokenCache(JwtTokenParser parser, JwtProperties properties, JwtKeyRing jwtKeyRing) {
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(parser, properties.getVerifiedTokenCache());
+        // contexts verified with a key that is no longer trusted must be verified again
+        jwtKeyRing.onKeyRemoval(verifiedTokenCache::invalidateAll);
+        return verifiedTokenCache;
     }
 
     /**
      * JwtDecoder used by Spring Security OAuth2 Resource Server.
      */
     @Bean
-    public JwtDecoder jwtDecoder(JwtProperties properties) {
-        PublicKey publicKey = JwtPublicKeyProvider.loadPublicKey(resourceLoader.getResource(properties.getPublicKeyPath()));
-        return NimbusJwtDecoder.withPublicKey((java.security.interfaces.RSAPublicKey) publicKey).build();
+    public JwtDecoder jwtDecoder(JwtKeyRing jwtKeyRing) {
+        return new KeyRingJwtDecoder(jwtKeyRing);
     }
 
     /**
@@ -40,9 +63,9 @@ public class JwtConfiguration {
      */
     @Bean
     public SecurityContextFilter securityContextFilter(
-            JwtTokenParser parser,
+            VerifiedTokenCache verifiedTokenCache,
             JwtProperties properties,
             TokenRevocationService tokenRevocationService) {
-        return new SecurityContextFilter(parser, properties, tokenRevocationService);
+        return new SecurityContextFilter(verifiedTokenCache, properties, tokenRevocationService);
     }
 }
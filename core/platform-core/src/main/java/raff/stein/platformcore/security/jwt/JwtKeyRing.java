@@ -0,0 +1,257 @@
+package raff.stein.platformcore.security.jwt;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.AsymmetricJWK;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.util.Base64URL;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.EdECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token verification keys indexed by key id (kid), shared by every JWT check of the service.
+ * <p>
+ * Keys are parsed once, off the request path: the key at {@code security.jwt.public-key-path} on startup, the keys
+ * of the {@link JwkSetSource} on startup and every {@code security.jwt.jwks.refresh-interval}. A key removed from
+ * the source keeps verifying tokens for {@code security.jwt.jwks.key-retention}, so that the validity windows of
+ * the old and the new key overlap during a rotation. RSA, EC (ES256) and Ed25519 (EdDSA) keys are supported. A token signed with an unknown kid is rejected and triggers
+ * a background refresh.
+ * <p>
+ * Tokens without kid, issued before kids were introduced, are verified with the key at {@code public-key-path}.
+ */
+@Slf4j
+public class JwtKeyRing {
+
+    // unknown kids trigger at most one refresh in this interval
+    private static final Duration MIN_REFRESH_GAP = Duration.ofSeconds(30);
+    // X.509 encoding of an Ed25519 public key: this prefix, then the 32 bytes of the key
+    private static final byte[] ED25519_X509_PREFIX = {0x30, 0x2a, 0x30, 0x05, 0x06, 0x03, 0x2b, 0x65, 0x70, 0x03, 0x21, 0x00};
+
+    private final JwkSetSource jwkSetSource;
+    private final Duration keyRetention;
+    private final Clock clock;
+    private final KeyEntry defaultKey;
+    private final JwtParser parser;
+    private final AtomicLong lastRefreshRequest = new AtomicLong();
+    private final List<Runnable> keyRemovalListeners = new CopyOnWriteArrayList<>();
+    // immutable snapshots, replaced on refresh
+    private volatile Map<String, KeyEntry> keys;
+
+    /**
+     * @param defaultKey   key of tokens without kid, {@code null} if the service relies on the source only
+     * @param defaultKeyId kid of {@code defaultKey}, {@code null} for its thumbprint
+     * @param jwkSetSource {@code null} if the service relies on {@code defaultKey} only
+     */
+    public JwtKeyRing(PublicKey defaultKey, String defaultKeyId, JwkSetSource jwkSetSource, JwtProperties.Jwks jwks) {
+        this(defaultKey, defaultKeyId, jwkSetSource, jwks, Clock.systemUTC());
+    }
+
+    JwtKeyRing(PublicKey defaultKey, String defaultKeyId, JwkSetSource jwkSetSource, JwtProperties.Jwks jwks, Clock clock) {
+        this.jwkSetSource = jwkSetSource;
+        this.keyRetention = jwks.getKeyRetention();
+        this.clock = clock;
+        if (defaultKey != null) {
+            final JWK jwk = toJwk(defaultKey, defaultKeyId != null ? defaultKeyId : thumbprint(defaultKey));
+            this.defaultKey = new KeyEntry(jwk, defaultKey, null);
+            this.keys = Map.of(jwk.getKeyID(), this.defaultKey);
+        } else {
+            this.defaultKey = null;
+            this.keys = Map.of();
+        }
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return locateKey(header.getKeyId());
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * @return a parser verifying tokens against the keys of this ring, immutable and thread-safe
+     */
+    public JwtParser getParser() {
+        return parser;
+    }
+
+    /**
+     * @return the verification key with the given kid, or the default key when {@code kid} is {@code null}
+     */
+    public PublicKey find(String kid) {
+        final KeyEntry entry = kid != null ? keys.get(kid) : defaultKey;
+        return entry != null ? entry.publicKey() : null;
+    }
+
+    /**
+     * @return the kids currently trusted, retained keys included
+     */
+    public List<String> getKeyIds() {
+        return List.copyOf(keys.keySet());
+    }
+
+    /**
+     * Registers a callback run when keys stop being trusted, e.g. to drop the contexts verified with them.
+     */
+    public void onKeyRemoval(Runnable listener) {
+        keyRemovalListeners.add(listener);
+    }
+
+    /**
+     * Reloads the keys of the source. A failure keeps the current keys.
+     */
+    @Scheduled(
+            initialDelayString = "${security.jwt.jwks.refresh-interval:5m}",
+            fixedDelayString = "${security.jwt.jwks.refresh-interval:5m}")
+    public synchronized void refresh() {
+        if (jwkSetSource == null) {
+            return;
+        }
+        final JWKSet loaded;
+        try {
+            loaded = jwkSetSource.load();
+        } catch (Exception e) {
+            log.warn("Could not refresh the JWT verification keys, keeping the [{}] current ones: {}",
+                    keys.size(), e.getMessage());
+            return;
+        }
+        final Instant now = clock.instant();
+        final Map<String, KeyEntry> refreshed = new LinkedHashMap<>();
+        if (defaultKey != null) {
+            refreshed.put(defaultKey.jwk().getKeyID(), defaultKey);
+        }
+        for (JWK jwk : loaded.getKeys()) {
+            final KeyEntry entry = toKeyEntry(jwk);
+            if (entry != null) {
+                refreshed.putIfAbsent(jwk.getKeyID(), entry);
+            }
+        }
+        final List<String> removed = new ArrayList<>();
+        keys.forEach((kid, entry) -> {
+            if (refreshed.containsKey(kid)) {
+                return;
+            }
+            final Instant retiredAt = entry.retiredAt() != null ? entry.retiredAt() : now;
+            if (now.isBefore(retiredAt.plus(keyRetention))) {
+                refreshed.put(kid, new KeyEntry(entry.jwk(), entry.publicKey(), retiredAt));
+            } else {
+                removed.add(kid);
+            }
+        });
+        final List<String> added = refreshed.keySet().stream().filter(kid -> !keys.containsKey(kid)).toList();
+
+        keys = Map.copyOf(refreshed);
+        if (!added.isEmpty() || !removed.isEmpty()) {
+            log.info("JWT verification keys refreshed: added {}, removed {}, trusted {}", added, removed, keys.keySet());
+        }
+        if (!removed.isEmpty()) {
+            keyRemovalListeners.forEach(Runnable::run);
+        }
+    }
+
+    private Key locateKey(String kid) {
+        final PublicKey publicKey = find(kid);
+        if (publicKey == null) {
+            requestRefresh();
+            throw new UnsupportedJwtException("Unknown JWT signing key [" + kid + "]");
+        }
+        return publicKey;
+    }
+
+    private void requestRefresh() {
+        if (jwkSetSource == null) {
+            return;
+        }
+        final long now = clock.millis();
+        final long last = lastRefreshRequest.get();
+        if (now - last >= MIN_REFRESH_GAP.toMillis() && lastRefreshRequest.compareAndSet(last, now)) {
+            Thread.ofVirtual().name("jwks-refresh").start(this::refresh);
+        }
+    }
+
+    private static KeyEntry toKeyEntry(JWK jwk) {
+        if (jwk.getKeyID() == null || (jwk.getKeyUse() != null && !KeyUse.SIGNATURE.equals(jwk.getKeyUse()))) {
+            return null;
+        }
+        try {
+            return switch (jwk) {
+                case OctetKeyPair octetKeyPair when Curve.Ed25519.equals(octetKeyPair.getCurve()) ->
+                        new KeyEntry(jwk.toPublicJWK(), toEd25519PublicKey(octetKeyPair.getDecodedX()), null);
+                case OctetKeyPair octetKeyPair -> null;
+                case AsymmetricJWK asymmetricJwk -> new KeyEntry(jwk.toPublicJWK(), asymmetricJwk.toPublicKey(), null);
+                default -> null;
+            };
+        } catch (JOSEException | GeneralSecurityException e) {
+            log.warn("Ignoring JWT verification key [{}]: {}", jwk.getKeyID(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return the public JWK of {@code publicKey}, for verification
+     */
+    public static JWK toJwk(PublicKey publicKey, String kid) {
+        return switch (publicKey) {
+            case RSAPublicKey rsaPublicKey -> new RSAKey.Builder(rsaPublicKey).keyID(kid).keyUse(KeyUse.SIGNATURE).build();
+            case ECPublicKey ecPublicKey -> new ECKey.Builder(Curve.forECParameterSpec(ecPublicKey.getParams()), ecPublicKey)
+                    .keyID(kid)
+                    .keyUse(KeyUse.SIGNATURE)
+                    .build();
+            case EdECPublicKey edEcPublicKey when "Ed25519".equals(edEcPublicKey.getParams().getName()) -> {
+                final byte[] encoded = edEcPublicKey.getEncoded();
+                final byte[] x = Arrays.copyOfRange(encoded, ED25519_X509_PREFIX.length, encoded.length);
+                yield new OctetKeyPair.Builder(Curve.Ed25519, Base64URL.encode(x)).keyID(kid).keyUse(KeyUse.SIGNATURE).build();
+            }
+            default -> throw new IllegalArgumentException("Unsupported JWT key type [" + publicKey.getAlgorithm() + "]");
+        };
+    }
+
+    private static PublicKey toEd25519PublicKey(byte[] x) throws GeneralSecurityException {
+        final byte[] encoded = Arrays.copyOf(ED25519_X509_PREFIX, ED25519_X509_PREFIX.length + x.length);
+        System.arraycopy(x, 0, encoded, ED25519_X509_PREFIX.length, x.length);
+        return KeyFactory.getInstance("Ed25519").generatePublic(new X509EncodedKeySpec(encoded));
+    }
+
+    /**
+     * @return the RFC 7638 thumbprint of {@code publicKey}, the default kid of the platform keys
+     */
+    public static String thumbprint(PublicKey publicKey) {
+        try {
+            return toJwk(publicKey, null).computeThumbprint().toString();
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Cannot compute the thumbprint of the JWT key", e);
+        }
+    }
+
+    private record KeyEntry(JWK jwk, PublicKey publicKey, Instant retiredAt) {
+    }
+}
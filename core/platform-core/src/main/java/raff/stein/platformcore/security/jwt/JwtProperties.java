@@ -4,6 +4,8 @@ import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+
 @Getter
 @Setter
 @ConfigurationProperties(prefix = "security.jwt")
@@ -13,7 +15,102 @@ public class JwtProperties {
      * Location of the public key file (e.g., classpath:keys/public_key.pem)
      */
     private String publicKeyPath;
+    /**
+     * Key id (kid) of the key at {@code public-key-path}; defaults to its RFC 7638 thumbprint, as published by
+     * the user-service JWKS.
+     */
+    private String keyId;
     private String header = "Authorization";
     private String prefix = "Bearer ";
 
+    /**
+     * Cache of the verified tokens, sparing the signature check of a token already seen by this node.
+     */
+    private TokenCacheConfig verifiedTokenCache = new TokenCacheConfig();
+
+    /**
+     * Remote JWKS the verification keys are refreshed from, on top of the key at {@code public-key-path}.
+     */
+    private Jwks jwks = new Jwks();
+
+    /**
+     * Store of the revoked token ids (jti).
+     */
+    private Revocation revocation = new Revocation();
+
+    @Getter
+    @Setter
+    public static class TokenCacheConfig {
+
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of tokens kept, the least recently used are dropped beyond it.
+         */
+        private long maximumSize = 10_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Jwks {
+
+        /**
+         * JWKS URL of the token issuer, e.g. http://user-service/user-service/.well-known/jwks.json. Not needed by
+         * the service providing its own JwkSetSource bean.
+         */
+        private String uri;
+
+        /**
+         * Interval between two background refreshes of the JWKS. The issuer publishes a new key at least this long
+         * before signing with it.
+         */
+        private Duration refreshInterval = Duration.ofMinutes(5);
+
+        /**
+         * How long a key removed from the JWKS still verifies tokens; at least the token lifetime, so tokens signed
+         * just before a rotation stay valid.
+         */
+        private Duration keyRetention = Duration.ofHours(1);
+    }
+
+    @Getter
+    @Setter
+    public static class Revocation {
+
+        /**
+         * IN_MEMORY keeps revocations on this node only; JDBC shares them across nodes through the database.
+         */
+        private RevocationStore store = RevocationStore.IN_MEMORY;
+
+        /**
+         * Creates the revoked tokens table on startup if it does not exist (PostgreSQL DDL).
+         */
+        private boolean initializeSchema = true;
+
+        /**
+         * Revocations alive at the same time the Bloom filter is sized for; beyond it the filter lets more
+         * lookups through to the database, it does not grow.
+         */
+        private long expectedRevocations = 1_000_000;
+
+        /**
+         * Share of the non-revoked tokens the Bloom filter sends to the database.
+         */
+        private double falsePositiveRate = 0.01;
+
+        /**
+         * Interval between two reads of the revocations made on other nodes, i.e. the propagation delay.
+         */
+        private Duration syncInterval = Duration.ofSeconds(5);
+
+        /**
+         * Interval between two deletions of the expired revocations, each followed by a rebuild of the Bloom filter.
+         */
+        private Duration purgeInterval = Duration.ofMinutes(15);
+    }
+
+    public enum RevocationStore {
+        IN_MEMORY,
+        JDBC
+    }
 }
@@ -20,6 +20,13 @@ public class JwtPublicKeyProvider {
     }
 
     public static PublicKey loadPublicKey(Resource pemResource) {
+        return loadPublicKey(pemResource, "RSA");
+    }
+
+    /**
+     * @param keyAlgorithm {@link KeyFactory} algorithm of the key: RSA, EC or Ed25519
+     */
+    public static PublicKey loadPublicKey(Resource pemResource, String keyAlgorithm) {
         try (InputStream is = pemResource.getInputStream()) {
             String key = StreamUtils.copyToString(is, StandardCharsets.UTF_8)
                     .replace("-----BEGIN PUBLIC KEY-----", "")
@@ -28,7 +35,7 @@ public class JwtPublicKeyProvider {
 
             byte[] decoded = Base64.getDecoder().decode(key);
             X509EncodedKeySpec spec = new X509EncodedKeySpec(decoded);
-            return KeyFactory.getInstance("RSA").generatePublic(spec);
+            return KeyFactory.getInstance(keyAlgorithm).generatePublic(spec);
         } catch (Exception e) {
             throw new RuntimeException("Failed to load public key", e);
         }
@@ -3,6 +3,7 @@ package raff.stein.platformcore.security.jwt;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import lombok.extern.slf4j.Slf4j;
 import raff.stein.platformcore.security.context.WMPContext;
@@ -17,10 +18,20 @@ import java.util.stream.Collectors;
 @Slf4j
 public class JwtTokenParser {
 
-    private final PublicKey publicKey;
+    // immutable and thread-safe, built once rather than per request
+    private final JwtParser jwtParser;
 
     public JwtTokenParser(PublicKey publicKey) {
-        this.publicKey = publicKey;
+        this.jwtParser = Jwts.parser()
+                .verifyWith(publicKey)
+                .build();
+    }
+
+    /**
+     * Verifies tokens against every key of the ring, selected by the kid of the token.
+     */
+    public JwtTokenParser(JwtKeyRing jwtKeyRing) {
+        this.jwtParser = jwtKeyRing.getParser();
     }
 
     /**
@@ -31,10 +42,7 @@ public class JwtTokenParser {
      */
     public Optional<WMPContext> parseTokenAndBuildContext(String token, String correlationId) {
         try {
-            Jws<Claims> claimsJws = Jwts.parser()
-                    .verifyWith(publicKey)
-                    .build()
-                    .parseSignedClaims(token);
+            Jws<Claims> claimsJws = jwtParser.parseSignedClaims(token);
             Claims claims = claimsJws.getPayload();
 
             Long expEpoch = Optional.ofNullable(claims.getExpiration())
@@ -0,0 +1,52 @@
+package raff.stein.platformcore.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtException;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link JwtDecoder} of the OAuth2 Resource Server verifying tokens with the parser of the {@link JwtKeyRing}, so that
+ * Spring Security accepts the same keys and algorithms (RS256, ES256, EdDSA) as the rest of the platform.
+ * Signature, {@code exp} and {@code nbf} are checked by the parser.
+ */
+public class KeyRingJwtDecoder implements JwtDecoder {
+
+    private final JwtKeyRing jwtKeyRing;
+
+    public KeyRingJwtDecoder(JwtKeyRing jwtKeyRing) {
+        this.jwtKeyRing = jwtKeyRing;
+    }
+
+    @Override
+    public Jwt decode(String token) {
+        final Jws<Claims> jws;
+        try {
+            jws = jwtKeyRing.getParser().parseSignedClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new BadJwtException("Invalid JWT: " + e.getMessage(), e);
+        }
+        final Claims payload = jws.getPayload();
+        final Map<String, Object> claims = new LinkedHashMap<>(payload);
+        // Spring reads the time claims as Instants, jjwt keeps them in seconds
+        putInstant(claims, Claims.EXPIRATION, payload.getExpiration());
+        putInstant(claims, Claims.NOT_BEFORE, payload.getNotBefore());
+        putInstant(claims, Claims.ISSUED_AT, payload.getIssuedAt());
+        return Jwt.withTokenValue(token)
+                .headers(headers -> headers.putAll(jws.getHeader()))
+                .claims(jwtClaims -> jwtClaims.putAll(claims))
+                .build();
+    }
+
+    private static void putInstant(Map<String, Object> claims, String name, Date value) {
+        if (value != null) {
+            claims.put(name, value.toInstant());
+        }
+    }
+}
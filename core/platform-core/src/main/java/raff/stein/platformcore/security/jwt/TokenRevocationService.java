@@ -1,27 +1,30 @@
 package raff.stein.platformcore.security.jwt;
 
 import org.springframework.stereotype.Service;
+import raff.stein.platformcore.security.jwt.revocation.TokenRevocationStore;
 
 import java.time.Instant;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * In-memory token revocation store. Keeps track of revoked JWT IDs (jti) until they expire.
+ * Token revocation entry point. Keeps track of revoked JWT IDs (jti) until they expire, in the
+ * {@link TokenRevocationStore} selected by {@code security.jwt.revocation.store}.
  */
 
 @Service
 public class TokenRevocationService {
 
-    private final Map<String, Long> revoked = new ConcurrentHashMap<>(); // jti -> expEpochSeconds
+    private final TokenRevocationStore tokenRevocationStore;
+
+    public TokenRevocationService(TokenRevocationStore tokenRevocationStore) {
+        this.tokenRevocationStore = tokenRevocationStore;
+    }
 
     /**
      * Revoke a token given its jti and expiration epoch seconds.
      */
     public void revoke(String jti, long expEpochSeconds) {
         if (jti == null || jti.isBlank()) return;
-        // TODO: in production, consider a persistent store or distributed cache
-        revoked.putIfAbsent(jti, expEpochSeconds);
+        tokenRevocationStore.revoke(jti, Instant.ofEpochSecond(expEpochSeconds));
     }
 
     /**
@@ -29,15 +32,6 @@ public class TokenRevocationService {
      */
     public boolean isRevoked(String jti) {
         if (jti == null || jti.isBlank()) return false;
-        Long exp = revoked.get(jti);
-        if (exp == null) return false;
-        long now = Instant.now().getEpochSecond();
-        if (now >= exp) {
-            // cleanup expired entry lazily
-            revoked.remove(jti);
-            return false;
-        }
-        return true;
+        return tokenRevocationStore.isRevoked(jti);
     }
 }
-
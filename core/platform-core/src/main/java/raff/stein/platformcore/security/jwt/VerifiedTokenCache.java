@@ -0,0 +1,87 @@
+package raff.stein.platformcore.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import raff.stein.platformcore.security.context.WMPContext;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the context built from each verified token until the token expires, so a bearer token sent again to this
+ * node skips the signature check.
+ * <p>
+ * Entries are keyed by the SHA-256 of the token and bounded by {@code security.jwt.verified-token-cache.maximum-size}.
+ * Tokens without {@code exp} are verified on every request. Revocation is not cached: callers check the
+ * {@link TokenRevocationService} on every request, hit or miss.
+ */
+public class VerifiedTokenCache {
+
+    private final JwtTokenParser tokenParser;
+    // null when the cache is disabled
+    private final Cache<String, WMPContext> contexts;
+
+    public VerifiedTokenCache(JwtTokenParser tokenParser, JwtProperties.TokenCacheConfig cacheConfig) {
+        this(tokenParser, cacheConfig, Clock.systemUTC());
+    }
+
+    VerifiedTokenCache(JwtTokenParser tokenParser, JwtProperties.TokenCacheConfig cacheConfig, Clock clock) {
+        this.tokenParser = tokenParser;
+        if (!cacheConfig.isEnabled()) {
+            this.contexts = null;
+            return;
+        }
+        this.contexts = Caffeine.newBuilder()
+                .maximumSize(cacheConfig.getMaximumSize())
+                .expireAfter(Expiry.creating((String tokenHash, WMPContext context) -> Duration.ofMillis(
+                        Math.max(0, TimeUnit.SECONDS.toMillis(context.getTokenExpEpochSeconds()) - clock.millis()))))
+                // exp is a wall-clock instant
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .build();
+    }
+
+    /**
+     * Same contract as {@link JwtTokenParser#parseTokenAndBuildContext(String, String)}, verifying the token only
+     * when this node has not verified it yet.
+     */
+    public Optional<WMPContext> parseTokenAndBuildContext(String token, String correlationId) {
+        if (contexts == null) {
+            return tokenParser.parseTokenAndBuildContext(token, correlationId);
+        }
+        final String tokenHash = sha256(token);
+        final WMPContext cached = contexts.getIfPresent(tokenHash);
+        if (cached != null && token.equals(cached.getRawToken())) {
+            // the correlation id belongs to the request, not to the token
+            return Optional.of(cached.toBuilder().correlationId(correlationId).build());
+        }
+        final Optional<WMPContext> context = tokenParser.parseTokenAndBuildContext(token, correlationId);
+        context.filter(c -> c.getTokenExpEpochSeconds() != null)
+                .ifPresent(c -> contexts.put(tokenHash, c));
+        return context;
+    }
+
+    /**
+     * Drops every cached context, e.g. after a key rotation.
+     */
+    public void invalidateAll() {
+        if (contexts != null) {
+            contexts.invalidateAll();
+        }
+    }
+
+    private static String sha256(String token) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
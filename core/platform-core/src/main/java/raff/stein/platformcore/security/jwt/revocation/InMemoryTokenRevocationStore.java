@@ -0,0 +1,38 @@
+package raff.stein.platformcore.security.jwt.revocation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link TokenRevocationStore} of this node only: a logout on another node is not seen here.
+ */
+@Slf4j
+public class InMemoryTokenRevocationStore implements TokenRevocationStore {
+
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>(); // jti -> expiresAt
+
+    @Override
+    public void revoke(String jti, Instant expiresAt) {
+        revoked.putIfAbsent(jti, expiresAt);
+    }
+
+    @Override
+    public boolean isRevoked(String jti) {
+        final Instant expiresAt = revoked.get(jti);
+        return expiresAt != null && Instant.now().isBefore(expiresAt);
+    }
+
+    @Scheduled(
+            initialDelayString = "${security.jwt.revocation.purge-interval:15m}",
+            fixedDelayString = "${security.jwt.revocation.purge-interval:15m}")
+    public void purgeExpired() {
+        final Instant now = Instant.now();
+        final int before = revoked.size();
+        revoked.values().removeIf(expiresAt -> !now.isBefore(expiresAt));
+        log.debug("Purged [{}] expired token revocations", before - revoked.size());
+    }
+}
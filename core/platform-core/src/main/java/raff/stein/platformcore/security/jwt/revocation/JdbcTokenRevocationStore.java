@@ -0,0 +1,149 @@
+package raff.stein.platformcore.security.jwt.revocation;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import raff.stein.platformcore.security.jwt.JwtProperties;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * {@link TokenRevocationStore} backed by the {@code wmp_revoked_token} table, shared by every node of the service,
+ * with a local Bloom filter of the revoked ids in front of it.
+ * <p>
+ * The Bloom filter answers "not revoked", the common case, without a database lookup; only the ids it might
+ * contain are looked up. Revocations made on other nodes are added to it every
+ * {@code security.jwt.revocation.sync-interval}, which bounds their propagation delay. Every
+ * {@code security.jwt.revocation.purge-interval} the expired rows are deleted in bulk and the filter is rebuilt from
+ * the remaining ones, so its size stays fixed whatever the number of revocations over time.
+ * <p>
+ * Until the filter is first built, every lookup goes to the database.
+ */
+@Slf4j
+public class JdbcTokenRevocationStore implements TokenRevocationStore {
+
+    public static final String TABLE_NAME = "wmp_revoked_token";
+
+    private static final String INSERT_SQL = "INSERT INTO " + TABLE_NAME
+            + " (jti, expires_at, revoked_at) VALUES (?, ?, ?) ON CONFLICT DO NOTHING";
+    private static final String EXISTS_SQL = "SELECT COUNT(*) FROM " + TABLE_NAME
+            + " WHERE jti = ? AND expires_at > ?";
+    private static final String SYNC_SQL = "SELECT jti, revoked_at FROM " + TABLE_NAME
+            + " WHERE revoked_at > ? AND expires_at > ?";
+    private static final String LOAD_PAGE_SQL = "SELECT jti FROM " + TABLE_NAME
+            + " WHERE expires_at > ? AND jti > ? ORDER BY jti LIMIT ?";
+    private static final String PURGE_SQL = "DELETE FROM " + TABLE_NAME + " WHERE expires_at <= ?";
+
+    // re-reads the revocations of the last minute on each sync: rows committed late or stamped by a node whose
+    // clock lags behind are not missed
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+    private static final int LOAD_PAGE_SIZE = 10_000;
+    private static final int LOOKUP_CACHE_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+    private final Clock clock;
+    // answers of the database lookups, for the ids the Bloom filter lets through
+    private final Cache<String, Boolean> lookups;
+    private volatile RevokedTokenBloomFilter bloomFilter;
+    // revocations stamped after this instant are read by the next sync
+    private Instant syncedUntil;
+
+    public JdbcTokenRevocationStore(JdbcTemplate jdbcTemplate, JwtProperties.Revocation revocation) {
+        this(jdbcTemplate, revocation, Clock.systemUTC());
+    }
+
+    JdbcTokenRevocationStore(JdbcTemplate jdbcTemplate, JwtProperties.Revocation revocation, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.expectedRevocations = revocation.getExpectedRevocations();
+        this.falsePositiveRate = revocation.getFalsePositiveRate();
+        this.clock = clock;
+        // a cached answer is at most as stale as the Bloom filter itself
+        this.lookups = Caffeine.newBuilder()
+                .maximumSize(LOOKUP_CACHE_SIZE)
+                .expireAfterWrite(revocation.getSyncInterval())
+                .build();
+    }
+
+    @Override
+    public void revoke(String jti, Instant expiresAt) {
+        jdbcTemplate.update(INSERT_SQL, jti, Timestamp.from(expiresAt), Timestamp.from(clock.instant()));
+        final RevokedTokenBloomFilter current = bloomFilter;
+        if (current != null) {
+            current.put(jti);
+        }
+        lookups.put(jti, Boolean.TRUE);
+    }
+
+    @Override
+    public boolean isRevoked(String jti) {
+        final RevokedTokenBloomFilter current = bloomFilter;
+        if (current != null && !current.mightContain(jti)) {
+            return false;
+        }
+        return lookups.get(jti, id -> jdbcTemplate.queryForObject(
+                EXISTS_SQL, Long.class, id, Timestamp.from(clock.instant())) > 0);
+    }
+
+    /**
+     * Adds the revocations made on other nodes since the last sync to the Bloom filter.
+     */
+    @Scheduled(
+            initialDelayString = "${security.jwt.revocation.sync-interval:5s}",
+            fixedDelayString = "${security.jwt.revocation.sync-interval:5s}")
+    public synchronized void syncRevocations() {
+        final RevokedTokenBloomFilter current = bloomFilter;
+        if (current == null) {
+            return;
+        }
+        final Instant since = syncedUntil.minus(SYNC_OVERLAP);
+        jdbcTemplate.query(SYNC_SQL, rs -> {
+            current.put(rs.getString(1));
+            final Instant revokedAt = rs.getTimestamp(2).toInstant();
+            if (revokedAt.isAfter(syncedUntil)) {
+                syncedUntil = revokedAt;
+            }
+        }, Timestamp.from(since), Timestamp.from(clock.instant()));
+    }
+
+    /**
+     * Deletes the expired revocations and rebuilds the Bloom filter from the remaining ones. Runs on startup.
+     */
+    @Scheduled(
+            initialDelay = 0,
+            fixedDelayString = "${security.jwt.revocation.purge-interval:15m}")
+    public synchronized void purgeExpiredAndRebuild() {
+        final Instant start = clock.instant();
+        final int purged = jdbcTemplate.update(PURGE_SQL, Timestamp.from(start));
+
+        final RevokedTokenBloomFilter rebuilt = new RevokedTokenBloomFilter(expectedRevocations, falsePositiveRate);
+        // keyset pages on the primary key: the rows are never held in memory all at once
+        String lastJti = "";
+        List<String> page;
+        do {
+            page = jdbcTemplate.queryForList(LOAD_PAGE_SQL, String.class, Timestamp.from(start), lastJti, LOAD_PAGE_SIZE);
+            page.forEach(rebuilt::put);
+            if (!page.isEmpty()) {
+                lastJti = page.getLast();
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+        bloomFilter = rebuilt;
+        // revocations made on any node while the filter was loading
+        syncedUntil = start;
+        syncRevocations();
+
+        log.info("Purged [{}] expired token revocations, [{}] revocations loaded in the Bloom filter",
+                purged, rebuilt.insertions());
+        if (rebuilt.insertions() > expectedRevocations) {
+            log.warn("[{}] revocations exceed security.jwt.revocation.expected-revocations [{}]: more lookups reach the database",
+                    rebuilt.insertions(), expectedRevocations);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package raff.stein.platformcore.security.jwt.revocation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.DataSourceInitializer;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import raff.stein.platformcore.security.jwt.JwtProperties;
+
+import javax.sql.DataSource;
+
+/**
+ * Wiring of the {@link TokenRevocationStore} selected by {@code security.jwt.revocation.store}.
+ */
+@Configuration
+@EnableScheduling
+public class TokenRevocationConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "security.jwt.revocation", name = "store", havingValue = "IN_MEMORY", matchIfMissing = true)
+    public TokenRevocationStore inMemoryTokenRevocationStore() {
+        return new InMemoryTokenRevocationStore();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "security.jwt.revocation", name = "store", havingValue = "JDBC")
+    public TokenRevocationStore jdbcTokenRevocationStore(JdbcTemplate jdbcTemplate, JwtProperties jwtProperties) {
+        return new JdbcTokenRevocationStore(jdbcTemplate, jwtProperties.getRevocation());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "security.jwt.revocation", name = "store", havingValue = "JDBC")
+    public DataSourceInitializer revokedTokenSchemaInitializer(DataSource dataSource, JwtProperties jwtProperties) {
+        DataSourceInitializer initializer = new DataSourceInitializer();
+        initializer.setDataSource(dataSource);
+        initializer.setEnabled(jwtProperties.getRevocation().isInitializeSchema());
+        initializer.setDatabasePopulator(new ResourceDatabasePopulator(new ClassPathResource("revocation/revoked-token-schema-postgresql.sql")));
+        return initializer;
+    }
+}
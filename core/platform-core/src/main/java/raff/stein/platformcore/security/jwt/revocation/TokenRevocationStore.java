@@ -0,0 +1,16 @@
+package raff.stein.platformcore.security.jwt.revocation;
+
+import java.time.Instant;
+
+/**
+ * Keeps the ids (jti) of the revoked tokens until the tokens expire.
+ */
+public interface TokenRevocationStore {
+
+    void revoke(String jti, Instant expiresAt);
+
+    /**
+     * @return true if the jti has been revoked and the token has not expired yet
+     */
+    boolean isRevoked(String jti);
+}
@@ -0,0 +1,8 @@
+CREATE TABLE IF NOT EXISTS wmp_processed_event (
+    scope        VARCHAR(255) NOT NULL,
+    event_id     VARCHAR(255) NOT NULL,
+    processed_at TIMESTAMP    NOT NULL,
+    PRIMARY KEY (scope, event_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_wmp_processed_event_processed_at ON wmp_processed_event (processed_at);
@@ -0,0 +1,14 @@
+CREATE TABLE IF NOT EXISTS wmp_outbox_event (
+    id          UUID PRIMARY KEY,
+    seq         BIGINT GENERATED ALWAYS AS IDENTITY,
+    topic       VARCHAR(255) NOT NULL,
+    record_key  VARCHAR(255),
+    cloud_event BYTEA        NOT NULL,
+    created_at  TIMESTAMP    NOT NULL
+);
+
+-- relay order: assigned by the database, unlike created_at which comes from the clock of each node
+ALTER TABLE wmp_outbox_event ADD COLUMN IF NOT EXISTS seq BIGINT GENERATED ALWAYS AS IDENTITY;
+
+DROP INDEX IF EXISTS idx_wmp_outbox_event_created_at;
+CREATE INDEX IF NOT EXISTS idx_wmp_outbox_event_seq ON wmp_outbox_event (seq);
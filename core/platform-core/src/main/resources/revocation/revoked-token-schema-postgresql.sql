@@ -0,0 +1,8 @@
+CREATE TABLE IF NOT EXISTS wmp_revoked_token (
+    jti        VARCHAR(255) NOT NULL PRIMARY KEY,
+    expires_at TIMESTAMP    NOT NULL,
+    revoked_at TIMESTAMP    NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_wmp_revoked_token_expires_at ON wmp_revoked_token (expires_at);
+CREATE INDEX IF NOT EXISTS idx_wmp_revoked_token_revoked_at ON wmp_revoked_token (revoked_at);
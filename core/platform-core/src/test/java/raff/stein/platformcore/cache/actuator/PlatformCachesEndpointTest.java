@@ -0,0 +1,100 @@
+package raff.stein.platformcore.cache.actuator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import raff.stein.platformcore.cache.PlatformCacheProperties;
+import raff.stein.platformcore.cache.local.PlatformCaffeineCacheManager;
+import raff.stein.platformcore.cache.metrics.CacheInstrumentation;
+import raff.stein.platformcore.cache.stampede.StampedeProtection;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlatformCachesEndpointTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CacheInstrumentation cacheInstrumentation = new CacheInstrumentation(meterRegistry);
+    private final PlatformCachesEndpoint endpoint = new PlatformCachesEndpoint(cacheInstrumentation);
+
+    @Test
+    void shouldReportStatisticsByLogicalCacheName() {
+        Cache cache = newCacheManager().getCache("customerProfileById");
+
+        cache.get(42L, () -> "customer-42");
+        cache.get(42L, () -> "customer-42");
+        cache.get(43L);
+
+        PlatformCachesEndpoint.CacheDescriptor descriptor = endpoint.caches().caches().get("customerProfileById");
+        assertThat(descriptor.hits()).isEqualTo(1);
+        assertThat(descriptor.misses()).isEqualTo(2);
+        assertThat(descriptor.hitRatio()).isEqualTo(1.0 / 3);
+        assertThat(descriptor.loads()).isEqualTo(1);
+        assertThat(descriptor.entries()).isEqualTo(1);
+        assertThat(descriptor.evictions()).isZero();
+        // "customer-42" as JSON
+        assertThat(descriptor.estimatedMemoryBytes()).isEqualTo(13);
+        assertThat(descriptor.scope()).isEqualTo(PlatformCachesEndpoint.Scope.NODE);
+
+        assertThat(meterRegistry.get("platform.cache.gets").tags("cache", "customerProfileById", "result", "hit")
+                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("platform.cache.loads").tags("cache", "customerProfileById", "outcome", "success")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("platform.cache.entries").tags("cache", "customerProfileById").gauge().value())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldSampleEstimatedMemoryAgainOnlyAfterManyWrites() {
+        Cache cache = newCacheManager().getCache("customerProfileById");
+        cache.put(42L, "customer-42");
+        assertThat(endpoint.cache("customerProfileById").estimatedMemoryBytes()).isEqualTo(13);
+
+        // 100 bytes as JSON
+        cache.put(43L, "x".repeat(98));
+        cache.put(44L, "x".repeat(98));
+        assertThat(endpoint.cache("customerProfileById").estimatedMemoryBytes()).isEqualTo(3 * 13);
+
+        for (int i = 0; i < 1_000; i++) {
+            cache.put(44L, "x".repeat(98));
+        }
+        assertThat(endpoint.cache("customerProfileById").estimatedMemoryBytes()).isEqualTo(3 * ((13 + 100 + 100) / 3));
+    }
+
+    @Test
+    void shouldEvictKeyByItsStringFormAndClearCache() {
+        Cache cache = newCacheManager().getCache("customerProfileById");
+        cache.put(42L, "customer-42");
+        cache.put(43L, "customer-43");
+
+        PlatformCachesEndpoint.CacheOperationDescriptor eviction = endpoint.evictKey("customerProfileById", "42");
+
+        assertThat(eviction.scope()).isEqualTo(PlatformCachesEndpoint.Scope.NODE);
+        assertThat(cache.get(42L)).isNull();
+        assertThat(cache.get(43L)).isNotNull();
+
+        endpoint.clearCache("customerProfileById");
+        assertThat(cache.get(43L)).isNull();
+    }
+
+    @Test
+    void shouldReturnNothingForUnknownCache() {
+        newCacheManager();
+
+        assertThat(endpoint.cache("unknown")).isNull();
+        assertThat(endpoint.clearCache("unknown")).isNull();
+        assertThat(endpoint.evictKey("unknown", "42")).isNull();
+    }
+
+    private PlatformCaffeineCacheManager newCacheManager() {
+        PlatformCacheProperties cacheProperties = new PlatformCacheProperties();
+        cacheProperties.getCaches().put("customerProfileById", new PlatformCacheProperties.CacheConfig());
+        PlatformCaffeineCacheManager cacheManager = new PlatformCaffeineCacheManager(
+                cacheProperties, Map.of(), meterRegistry, "cacheManager",
+                new StampedeProtection(cacheProperties, Runnable::run).andThen(cacheInstrumentation));
+        cacheManager.setCacheNames(cacheProperties.getCaches().keySet());
+        return cacheManager;
+    }
+}
@@ -0,0 +1,88 @@
+package raff.stein.platformcore.cache.local;
+
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import raff.stein.platformcore.cache.PlatformCacheProperties;
+import raff.stein.platformcore.cache.stampede.StampedeProtection;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PlatformCaffeineCacheManagerTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldBoundCacheSizeAndMeterHitsAndMisses() {
+        PlatformCacheProperties.CacheConfig cacheConfig = new PlatformCacheProperties.CacheConfig();
+        cacheConfig.setMaxSize(2L);
+        PlatformCaffeineCacheManager cacheManager = newCacheManager(Map.of("countries", cacheConfig), Map.of());
+
+        Cache cache = cacheManager.getCache("countries");
+        cache.put("IT", "Italy");
+        cache.put("DE", "Germany");
+        cache.put("FR", "France");
+        cache.get("FR");
+        cache.get("ES");
+        com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache = (com.github.benmanes.caffeine.cache.Cache<?, ?>) cache.getNativeCache();
+        nativeCache.cleanUp();
+
+        assertThat(nativeCache.estimatedSize()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "countries", "result", "hit").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "countries", "result", "miss").functionCounter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldUseDefaultsForCachesCreatedOnFirstUse() {
+        PlatformCaffeineCacheManager cacheManager = newCacheManager(Map.of(), Map.of());
+
+        Cache cache = cacheManager.getCache("undeclared");
+
+        com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache = (com.github.benmanes.caffeine.cache.Cache<?, ?>) cache.getNativeCache();
+        assertThat(nativeCache.policy().eviction().orElseThrow().getMaximum()).isEqualTo(10_000);
+        assertThat(nativeCache.policy().expireAfterWrite().orElseThrow().getExpiresAfter()).isEqualTo(Duration.ofMinutes(5));
+    }
+
+    @Test
+    void shouldRequireLoaderForRefreshAfterWrite() {
+        PlatformCacheProperties.CacheConfig cacheConfig = new PlatformCacheProperties.CacheConfig();
+        cacheConfig.setRefreshAfterWrite(Duration.ofMinutes(1));
+
+        assertThatThrownBy(() -> newCacheManager(Map.of("rates", cacheConfig), Map.of()).getCache("rates"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("rates");
+
+        PlatformCacheLoader loader = new PlatformCacheLoader() {
+            @Override
+            public String cacheName() {
+                return "rates";
+            }
+
+            @Override
+            public Object load(Object key) {
+                return key + "-rate";
+            }
+        };
+        Cache cache = newCacheManager(Map.of("rates", cacheConfig), Map.of("rates", loader)).getCache("rates");
+        assertThat(cache.getNativeCache()).isInstanceOf(LoadingCache.class);
+        assertThat(cache.get("EUR", String.class)).isEqualTo("EUR-rate");
+    }
+
+    private PlatformCaffeineCacheManager newCacheManager(
+            Map<String, PlatformCacheProperties.CacheConfig> caches,
+            Map<String, PlatformCacheLoader> loaders) {
+        PlatformCacheProperties cacheProperties = new PlatformCacheProperties();
+        cacheProperties.setDefaultTtl(Duration.ofMinutes(5));
+        cacheProperties.setCaches(caches);
+        return new PlatformCaffeineCacheManager(cacheProperties, loaders, meterRegistry, "cacheManager",
+                new StampedeProtection(cacheProperties, Runnable::run));
+    }
+}
@@ -0,0 +1,83 @@
+package raff.stein.platformcore.cache.redis;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.util.unit.DataSize;
+import raff.stein.platformcore.cache.PlatformCacheProperties.ValueCodec;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RedisCacheValueSerializersTest {
+
+    private static final List<String> TRUSTED_PACKAGES = List.of("raff.stein.");
+
+    @Test
+    void shouldRoundTripTypedGraphWithBinaryCodecs() {
+        Questionnaire questionnaire = questionnaire(50);
+
+        for (ValueCodec valueCodec : List.of(ValueCodec.SMILE, ValueCodec.CBOR)) {
+            RedisSerializer<Object> serializer = RedisCacheValueSerializers.create(valueCodec, null, TRUSTED_PACKAGES);
+
+            assertThat(serializer.deserialize(serializer.serialize(questionnaire))).isEqualTo(questionnaire);
+            assertThat(serializer.deserialize(serializer.serialize(NullValue.INSTANCE))).isInstanceOf(NullValue.class);
+        }
+    }
+
+    @Test
+    void shouldCompressOnlyValuesAboveThreshold() {
+        RedisSerializer<Object> plain = RedisCacheValueSerializers.create(ValueCodec.SMILE, null, TRUSTED_PACKAGES);
+        RedisSerializer<Object> compressing = RedisCacheValueSerializers.create(
+                ValueCodec.SMILE, DataSize.ofBytes(512), TRUSTED_PACKAGES);
+        Questionnaire small = questionnaire(1);
+        Questionnaire large = questionnaire(200);
+
+        byte[] smallBytes = compressing.serialize(small);
+        byte[] largeBytes = compressing.serialize(large);
+
+        // one marker byte on uncompressed values
+        assertThat(smallBytes).hasSize(plain.serialize(small).length + 1);
+        assertThat(largeBytes.length).isLessThan(plain.serialize(large).length / 2);
+        assertThat(compressing.deserialize(smallBytes)).isEqualTo(small);
+        assertThat(compressing.deserialize(largeBytes)).isEqualTo(large);
+    }
+
+    @Test
+    void shouldRejectLengthHeaderLargerThanTheBlockCanHold() {
+        RedisSerializer<Object> compressing = RedisCacheValueSerializers.create(
+                ValueCodec.SMILE, DataSize.ofBytes(512), TRUSTED_PACKAGES);
+        byte[] bytes = compressing.serialize(questionnaire(200));
+        ByteBuffer.wrap(bytes, 1, Integer.BYTES).putInt(Integer.MAX_VALUE);
+
+        assertThatThrownBy(() -> compressing.deserialize(bytes))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("length " + Integer.MAX_VALUE);
+    }
+
+    @Test
+    void shouldRejectUntrustedTypes() {
+        RedisSerializer<Object> serializer = RedisCacheValueSerializers.create(ValueCodec.SMILE, null, List.of("com.example."));
+
+        byte[] bytes = RedisCacheValueSerializers.create(ValueCodec.SMILE, null, TRUSTED_PACKAGES).serialize(questionnaire(1));
+
+        assertThatThrownBy(() -> serializer.deserialize(bytes)).isInstanceOf(SerializationException.class);
+    }
+
+    private static Questionnaire questionnaire(int questions) {
+        return new Questionnaire("mifid", IntStream.range(0, questions)
+                .mapToObj(i -> new Question("question-" + i, "What is your investment horizon?", List.of("short", "medium", "long")))
+                .toList());
+    }
+
+    public record Questionnaire(String code, List<Question> questions) {
+    }
+
+    public record Question(String code, String text, List<String> answers) {
+    }
+}
@@ -0,0 +1,114 @@
+package raff.stein.platformcore.cache.redis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisOperations;
+import raff.stein.platformcore.cache.PlatformCacheProperties;
+import raff.stein.platformcore.cache.stampede.StampedeProtection;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class TwoLevelCacheManagerTest {
+
+    private static final String CHANNEL = "wmp:cache:invalidation";
+
+    // stands for the Redis L2 and the pub/sub channel shared by two nodes
+    private final ConcurrentMapCacheManager remoteCacheManager = new ConcurrentMapCacheManager();
+    private final List<TwoLevelCacheManager> nodes = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldServeRepeatedReadsFromLocalLevel() {
+        TwoLevelCacheManager node = newNode();
+        Cache cache = node.getCache("questionnaires");
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("mifid", () -> "config-" + loads.incrementAndGet());
+        remoteCacheManager.getCache("wmp:test-service::questionnaires").clear();
+
+        // L2 lost the entry, the local level still serves it
+        assertThat(cache.get("mifid", () -> "config-" + loads.incrementAndGet())).isEqualTo("config-1");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void shouldEvictOtherNodesLocalLevelOnWrite() {
+        TwoLevelCacheManager nodeA = newNode();
+        TwoLevelCacheManager nodeB = newNode();
+        Cache cacheA = nodeA.getCache("questionnaires");
+        Cache cacheB = nodeB.getCache("questionnaires");
+
+        cacheA.put("mifid", "v1");
+        assertThat(cacheB.get("mifid", String.class)).isEqualTo("v1");
+
+        cacheA.put("mifid", "v2");
+        assertThat(cacheB.get("mifid", String.class)).isEqualTo("v2");
+
+        cacheA.evict("mifid");
+        assertThat(cacheB.get("mifid")).isNull();
+    }
+
+    @Test
+    void shouldClearOtherNodesLocalLevel() {
+        TwoLevelCacheManager nodeA = newNode();
+        TwoLevelCacheManager nodeB = newNode();
+        nodeA.getCache("questionnaires").put("mifid", "v1");
+        Cache cacheB = nodeB.getCache("questionnaires");
+        assertThat(cacheB.get("mifid", String.class)).isEqualTo("v1");
+
+        nodeA.getCache("questionnaires").clear();
+
+        assertThat(cacheB.get("mifid")).isNull();
+    }
+
+    @Test
+    void shouldTagLocalLevelMetersWithManagerName() {
+        newNode("twoLevelCacheManager");
+        newNode("auditCacheManager");
+
+        assertThat(meterRegistry.find("cache.size").tags("cache", "questionnaires").gauges())
+                .extracting(gauge -> gauge.getId().getTag("cache.manager"))
+                .containsExactlyInAnyOrder("twoLevelCacheManager", "auditCacheManager");
+    }
+
+    private TwoLevelCacheManager newNode() {
+        return newNode("twoLevelCacheManager");
+    }
+
+    @SuppressWarnings("unchecked")
+    private TwoLevelCacheManager newNode(String cacheManagerName) {
+        PlatformCacheProperties cacheProperties = new PlatformCacheProperties();
+        cacheProperties.getCaches().put("questionnaires", new PlatformCacheProperties.CacheConfig());
+
+        RedisOperations<String, String> redisOperations = mock(RedisOperations.class);
+        doAnswer(invocation -> {
+            DefaultMessage message = new DefaultMessage(
+                    CHANNEL.getBytes(StandardCharsets.UTF_8),
+                    invocation.<String>getArgument(1).getBytes(StandardCharsets.UTF_8));
+            nodes.forEach(node -> node.onMessage(message, null));
+            return 1L;
+        }).when(redisOperations).convertAndSend(anyString(), anyString());
+
+        TwoLevelCacheManager node = new TwoLevelCacheManager(
+                remoteCacheManager,
+                name -> "wmp:test-service::" + name,
+                cacheProperties,
+                redisOperations,
+                meterRegistry,
+                cacheManagerName,
+                new StampedeProtection(cacheProperties, Runnable::run));
+        nodes.add(node);
+        return node;
+    }
+}
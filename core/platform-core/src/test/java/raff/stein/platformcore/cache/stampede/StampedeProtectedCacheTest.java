@@ -0,0 +1,179 @@
+package raff.stein.platformcore.cache.stampede;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import raff.stein.platformcore.cache.PlatformCacheProperties;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StampedeProtectedCacheTest {
+
+    private static final int CALLERS = 32;
+
+    private final MutableClock clock = new MutableClock();
+    private final List<Runnable> refreshTasks = new CopyOnWriteArrayList<>();
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void shouldLoadOncePerKeyPerExpiryUnderContention() throws Exception {
+        PlatformCacheProperties.CacheConfig cacheConfig = new PlatformCacheProperties.CacheConfig();
+        cacheConfig.setTtl(Duration.ofMinutes(1));
+        cacheConfig.setSingleFlight(true);
+        // the provider expires the entries, on the same clock
+        Cache cache = decorate("quotes", cacheConfig, new CaffeineCache("quotes", Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(1))
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .build()));
+        Map<String, AtomicInteger> loads = new ConcurrentHashMap<>();
+
+        concurrently(i -> cache.get("ISIN-" + i % 2, slowLoader("ISIN-" + i % 2, loads)));
+        assertThat(loads).containsOnlyKeys("ISIN-0", "ISIN-1");
+        assertThat(loads.values()).allSatisfy(count -> assertThat(count).hasValue(1));
+
+        clock.advance(Duration.ofSeconds(61));
+        List<Object> values = concurrently(i -> cache.get("ISIN-" + i % 2, slowLoader("ISIN-" + i % 2, loads)));
+
+        assertThat(loads.values()).allSatisfy(count -> assertThat(count).hasValue(2));
+        assertThat(values).containsOnly("ISIN-0@2", "ISIN-1@2");
+    }
+
+    @Test
+    void shouldServeStaleValueWhileASingleReloadRunsInBackground() throws Exception {
+        PlatformCacheProperties.CacheConfig cacheConfig = new PlatformCacheProperties.CacheConfig();
+        cacheConfig.setTtl(Duration.ofMinutes(1));
+        cacheConfig.setSingleFlight(true);
+        cacheConfig.setStaleWhileRevalidate(Duration.ofMinutes(5));
+        Cache cache = decorate("quotes", cacheConfig, new ConcurrentMapCache("quotes"));
+        Map<String, AtomicInteger> loads = new ConcurrentHashMap<>();
+        cache.get("ISIN-0", slowLoader("ISIN-0", loads));
+
+        clock.advance(Duration.ofSeconds(90));
+        List<Object> values = concurrently(i -> cache.get("ISIN-0", slowLoader("ISIN-0", loads)));
+
+        assertThat(values).containsOnly("ISIN-0@1");
+        assertThat(refreshTasks).hasSize(1);
+        refreshTasks.getFirst().run();
+        assertThat(cache.get("ISIN-0", slowLoader("ISIN-0", loads))).isEqualTo("ISIN-0@2");
+        assertThat(loads.get("ISIN-0")).hasValue(2);
+
+        // past the stale window the entry is a miss again
+        clock.advance(Duration.ofMinutes(7));
+        assertThat(cache.get("ISIN-0")).isNull();
+        assertThat(cache.get("ISIN-0", slowLoader("ISIN-0", loads))).isEqualTo("ISIN-0@3");
+    }
+
+    @Test
+    void shouldRefreshSlowEntriesEarlyInBackground() {
+        PlatformCacheProperties.CacheConfig cacheConfig = new PlatformCacheProperties.CacheConfig();
+        cacheConfig.setTtl(Duration.ofMinutes(1));
+        cacheConfig.setEarlyRefresh(true);
+        // makes the early refresh certain for any measurable compute time
+        cacheConfig.setEarlyRefreshBeta(1e9);
+        cacheConfig.setStaleWhileRevalidate(Duration.ofMinutes(1));
+        Cache cache = decorate("quotes", cacheConfig, new ConcurrentMapCache("quotes"));
+        Map<String, AtomicInteger> loads = new ConcurrentHashMap<>();
+        cache.get("ISIN-0", slowLoader("ISIN-0", loads));
+
+        // the entry is still fresh: served as is while one caller scheduled its reload
+        assertThat(cache.get("ISIN-0", slowLoader("ISIN-0", loads))).isEqualTo("ISIN-0@1");
+        assertThat(cache.get("ISIN-0", slowLoader("ISIN-0", loads))).isEqualTo("ISIN-0@1");
+        assertThat(refreshTasks).hasSize(1);
+        refreshTasks.getFirst().run();
+
+        assertThat(cache.get("ISIN-0")).isNotNull().extracting(Cache.ValueWrapper::get).isEqualTo("ISIN-0@2");
+    }
+
+    private Cache decorate(String name, PlatformCacheProperties.CacheConfig cacheConfig, Cache cache) {
+        PlatformCacheProperties cacheProperties = new PlatformCacheProperties();
+        cacheProperties.getCaches().put(name, cacheConfig);
+        return new StampedeProtection(cacheProperties, refreshTasks::add, clock).decorate(name, cache);
+    }
+
+    private static Callable<String> slowLoader(String key, Map<String, AtomicInteger> loads) {
+        return () -> {
+            // a database query, long enough for every caller to miss the key
+            Thread.sleep(50);
+            return key + "@" + loads.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+        };
+    }
+
+    private List<Object> concurrently(CallerTask task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            final int caller = i;
+            futures.add(callers.submit(() -> {
+                start.await();
+                return task.call(caller);
+            }));
+        }
+        start.countDown();
+        List<Object> values = new ArrayList<>();
+        for (Future<Object> future : futures) {
+            values.add(future.get(10, TimeUnit.SECONDS));
+        }
+        return values;
+    }
+
+    @FunctionalInterface
+    private interface CallerTask {
+        Object call(int caller);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private final AtomicLong millis = new AtomicLong(Instant.parse("2026-01-01T00:00:00Z").toEpochMilli());
+
+        void advance(Duration duration) {
+            millis.addAndGet(duration.toMillis());
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package raff.stein.platformcore.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestResponseLoggingFilterTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(RequestResponseLoggingFilter.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void attachAppender() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void detachAppender() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void shouldTruncateLoggedPayloadsAndStreamTheFullResponse() throws Exception {
+        RequestResponseLoggingProperties properties = new RequestResponseLoggingProperties();
+        properties.setMaxPayloadBytes(16);
+        RequestResponseLoggingFilter filter = new RequestResponseLoggingFilter(properties);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/mifid/questionnaires");
+        request.setContentType("application/json");
+        request.setContent("{ \"answers\": [1, 2, 3, 4, 5, 6, 7, 8] }".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        String responseBody = "{\"id\":\"" + "x".repeat(100) + "\"}";
+
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                StreamUtils.drain(req.getInputStream());
+                res.setContentType("application/json");
+                res.getOutputStream().write(responseBody.getBytes(StandardCharsets.UTF_8));
+            }
+        }));
+
+        assertThat(response.getContentAsString()).isEqualTo(responseBody);
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage).containsExactly(
+                "[REQUEST] POST /api/mifid/questionnaires | Payload: {\"answers\":[1,... [truncated, 39 total]",
+                "[RESPONSE] Status: 200 | Payload: {\"id\":\"xxxxxxxxx... [truncated, 109 total]");
+    }
+
+    @Test
+    void shouldOnlyLogTheSizeOfBinaryPayloads() throws Exception {
+        RequestResponseLoggingFilter filter = new RequestResponseLoggingFilter(new RequestResponseLoggingProperties());
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/documents/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        byte[] document = new byte[64 * 1024];
+
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                res.setContentType("application/pdf");
+                res.getOutputStream().write(document);
+            }
+        }));
+
+        assertThat(response.getContentAsByteArray()).hasSize(document.length);
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage).containsExactly(
+                "[REQUEST] GET /api/documents/1",
+                "[RESPONSE] Status: 200 | Payload omitted: 65536 bytes of application/pdf");
+    }
+
+    @Test
+    void shouldApplyTheSampleRateOfTheMatchingPath() throws Exception {
+        RequestResponseLoggingProperties properties = new RequestResponseLoggingProperties();
+        properties.setPathSampleRates(Map.of("/api/documents/**", 0.0));
+        RequestResponseLoggingFilter filter = new RequestResponseLoggingFilter(properties);
+
+        MockFilterChain documentChain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/documents/1"), new MockHttpServletResponse(), documentChain);
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health/liveness"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/users/1"), new MockHttpServletResponse(), new MockFilterChain());
+
+        // requests not sampled reach the application unwrapped
+        assertThat(documentChain.getResponse()).isInstanceOf(MockHttpServletResponse.class);
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage).containsExactly(
+                "[REQUEST] GET /api/users/1",
+                "[RESPONSE] Status: 200");
+    }
+}
@@ -0,0 +1,274 @@
+package raff.stein.platformcore.messaging.consumer;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import raff.stein.platformcore.messaging.consumer.config.KafkaConsumerProperties;
+import raff.stein.platformcore.messaging.consumer.exception.EventPayloadDeserializationException;
+import raff.stein.platformcore.messaging.consumer.idempotency.ProcessedEventStore;
+import raff.stein.platformcore.messaging.consumer.parallel.KeyOrderedParallelProcessor;
+import raff.stein.platformcore.messaging.extension.WMPCloudEventExtensions;
+import raff.stein.platformcore.messaging.metrics.EventMetrics;
+import raff.stein.platformcore.security.context.SecurityContextHolder;
+import tools.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WMPBaseEventConsumerTest {
+
+    @Test
+    void shouldDecodeBatchAndGroupConsecutivePayloadsBySecurityContext() {
+        WMPBaseEventConsumer consumer = new WMPBaseEventConsumer();
+        consumer.setObjectMapper(new ObjectMapper());
+
+        List<CloudEvent> cloudEvents = List.of(
+                cloudEvent("{\"id\":1}", "user-a"),
+                cloudEvent("{\"id\":2}", "user-a"),
+                cloudEvent("{\"id\":3}", "user-b"),
+                cloudEvent("{\"id\":4}", "user-a"));
+
+        List<String> invocations = new ArrayList<>();
+        consumer.withEventPayloads(cloudEvents, Map.class, payloads -> invocations.add(
+                SecurityContextHolder.getContextOrThrow().getUserId() + "=" + payloads.stream().map(p -> p.get("id")).toList()));
+
+        assertThat(invocations).containsExactly("user-a=[1, 2]", "user-b=[3]", "user-a=[4]");
+        assertThat(SecurityContextHolder.getContext()).isNull();
+    }
+
+    @Test
+    void shouldProcessRecordsBeforeUndecodableOneAndReportItsIndex() {
+        WMPBaseEventConsumer consumer = new WMPBaseEventConsumer();
+        consumer.setObjectMapper(new ObjectMapper());
+
+        List<CloudEvent> cloudEvents = Arrays.asList(
+                cloudEvent("{\"id\":1}", "user-a"),
+                cloudEvent("{\"id\":2}", "user-b"),
+                null, // record that failed deserialization
+                cloudEvent("{\"id\":3}", "user-a"));
+
+        List<String> invocations = new ArrayList<>();
+        assertThatThrownBy(() -> consumer.withEventPayloads(cloudEvents, Map.class, payloads -> invocations.add(
+                SecurityContextHolder.getContextOrThrow().getUserId() + "=" + payloads.stream().map(p -> p.get("id")).toList())))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class, e -> {
+                    assertThat(e.getIndex()).isEqualTo(2);
+                    assertThat(e.getCause()).isInstanceOf(EventPayloadDeserializationException.class);
+                });
+
+        // the records after the undecodable one are redelivered by the error handler
+        assertThat(invocations).containsExactly("user-a=[1]", "user-b=[2]");
+    }
+
+    @Test
+    void shouldReportFirstRecordOfFailedGroup() {
+        WMPBaseEventConsumer consumer = new WMPBaseEventConsumer();
+        consumer.setObjectMapper(new ObjectMapper());
+
+        List<CloudEvent> cloudEvents = List.of(
+                cloudEvent("{\"id\":1}", "user-a"),
+                cloudEvent("{\"id\":2}", "user-b"),
+                cloudEvent("{\"id\":3}", "user-a"),
+                cloudEvent("{\"id\":4}", "user-b"));
+
+        List<Object> handled = new ArrayList<>();
+        assertThatThrownBy(() -> consumer.withEventPayloads(cloudEvents, Map.class, payloads -> {
+            if ("user-b".equals(SecurityContextHolder.getContextOrThrow().getUserId())) {
+                throw new IllegalStateException("database unavailable");
+            }
+            payloads.forEach(payload -> handled.add(payload.get("id")));
+        }))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class, e -> {
+                    assertThat(e.getIndex()).isEqualTo(1);
+                    assertThat(e.getCause()).isInstanceOf(IllegalStateException.class);
+                });
+        // the records from the failed one on are redelivered: none of them was handled
+        assertThat(handled).containsExactly(1);
+        assertThat(SecurityContextHolder.getContext()).isNull();
+    }
+
+    @Test
+    void shouldSkipRedeliveredEvents() {
+        WMPBaseEventConsumer consumer = new WMPBaseEventConsumer();
+        consumer.setObjectMapper(new ObjectMapper());
+        consumer.setProcessedEventStore(new InMemoryProcessedEventStore());
+
+        List<Object> consumed = new ArrayList<>();
+        consumer.withEventPayload(cloudEvent("{\"id\":1}", "user-a"), Map.class, payload -> consumed.add(payload.get("id")));
+        // redelivery of the same event, alone and inside a batch
+        consumer.withEventPayload(cloudEvent("{\"id\":1}", "user-a"), Map.class, payload -> consumed.add(payload.get("id")));
+        consumer.withEventPayloads(
+                List.of(cloudEvent("{\"id\":1}", "user-a"), cloudEvent("{\"id\":2}", "user-a")),
+                Map.class,
+                payloads -> payloads.forEach(payload -> consumed.add(payload.get("id"))));
+
+        assertThat(consumed).containsExactly(1, 2);
+    }
+
+    @Test
+    void shouldRethrowFailuresSoTheRecordCanBeRetried() {
+        WMPBaseEventConsumer consumer = new WMPBaseEventConsumer();
+        consumer.setObjectMapper(new ObjectMapper());
+
+        assertThatThrownBy(() -> consumer.withEventPayload(cloudEvent("not-json", "user-a"), Map.class, payload -> {
+        })).isInstanceOf(EventPayloadDeserializationException.class);
+        assertThatThrownBy(() -> consumer.withEventPayload(cloudEvent("{\"id\":1}", "user-a"), Map.class, payload -> {
+            throw new IllegalStateException("database unavailable");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(SecurityContextHolder.getContext()).isNull();
+    }
+
+    @Test
+    void shouldProcessKeysInParallelKeepingPerKeyOrder() {
+        WMPBaseEventConsumer consumer = new WMPBaseEventConsumer();
+        consumer.setObjectMapper(new ObjectMapper());
+        consumer.setKeyOrderedParallelProcessor(new KeyOrderedParallelProcessor(new KafkaConsumerProperties()));
+
+        List<CloudEvent> cloudEvents = List.of(
+                keyedCloudEvent("{\"id\":1}", "customer-1"),
+                keyedCloudEvent("{\"id\":2}", "customer-1"),
+                keyedCloudEvent("{\"id\":3}", "customer-2"),
+                keyedCloudEvent("{\"id\":4}", "customer-1"));
+
+        // the first event of customer-1 only completes once customer-2 ran, which needs two lanes at once
+        CountDownLatch customer2Processed = new CountDownLatch(1);
+        Map<String, List<Object>> consumedByUser = new ConcurrentHashMap<>();
+        consumer.withEventPayloadsInParallel(cloudEvents, Map.class, payload -> {
+            String userId = SecurityContextHolder.getContextOrThrow().getUserId();
+            if (payload.get("id").equals(1)) {
+                awaitQuietly(customer2Processed);
+            }
+            consumedByUser.computeIfAbsent(userId, k -> new CopyOnWriteArrayList<>()).add(payload.get("id"));
+            if (payload.get("id").equals(3)) {
+                customer2Processed.countDown();
+            }
+        });
+
+        assertThat(customer2Processed.getCount()).isZero();
+        assertThat(consumedByUser.get("customer-1")).containsExactly(1, 2, 4);
+        assertThat(consumedByUser.get("customer-2")).containsExactly(3);
+    }
+
+    @Test
+    void shouldStopFailedLaneAndRethrowAfterOtherLanesComplete() {
+        WMPBaseEventConsumer consumer = new WMPBaseEventConsumer();
+        consumer.setObjectMapper(new ObjectMapper());
+        consumer.setKeyOrderedParallelProcessor(new KeyOrderedParallelProcessor(new KafkaConsumerProperties()));
+
+        List<Object> consumed = new CopyOnWriteArrayList<>();
+        assertThatThrownBy(() -> consumer.withEventPayloadsInParallel(
+                List.of(
+                        keyedCloudEvent("{\"id\":1}", "customer-1"),
+                        keyedCloudEvent("{\"id\":2}", "customer-1"),
+                        keyedCloudEvent("{\"id\":3}", "customer-2")),
+                Map.class,
+                payload -> {
+                    if (payload.get("id").equals(1)) {
+                        throw new IllegalStateException("smtp unavailable");
+                    }
+                    consumed.add(payload.get("id"));
+                }))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class, e -> {
+                    assertThat(e.getIndex()).isZero();
+                    assertThat(e.getCause()).isInstanceOf(IllegalStateException.class);
+                });
+
+        // customer-1 stopped at its failing event, customer-2 was not affected
+        assertThat(consumed).containsExactly(3);
+    }
+
+    @Test
+    void shouldMeterDeserializationAndHandlerTimeByListenerAndType() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", meterRegistry);
+        WMPBaseEventConsumer consumer = new WMPBaseEventConsumer();
+        consumer.setObjectMapper(new ObjectMapper());
+        consumer.setEventMetrics(new EventMetrics(beanFactory.getBeanProvider(MeterRegistry.class)));
+
+        consumer.withEventPayload(cloudEvent("{\"id\":1}", "user-a"), Map.class, payload -> {
+        });
+        assertThatThrownBy(() -> consumer.withEventPayload(cloudEvent("{\"id\":2}", "user-a"), Map.class, payload -> {
+            throw new IllegalStateException("database unavailable");
+        })).isInstanceOf(IllegalStateException.class);
+
+        String listener = WMPBaseEventConsumer.class.getSimpleName();
+        assertThat(meterRegistry.timer("wmp.kafka.consumer.deserialization",
+                "listener", listener, "type", "test.Type").count()).isEqualTo(2);
+        assertThat(meterRegistry.timer("wmp.kafka.consumer.handler",
+                "listener", listener, "type", "test.Type", "outcome", "success").count()).isEqualTo(1);
+        assertThat(meterRegistry.timer("wmp.kafka.consumer.handler",
+                "listener", listener, "type", "test.Type", "outcome", "failure").count()).isEqualTo(1);
+        assertThat(meterRegistry.timer("wmp.kafka.consumer.lag", "listener", listener, "type", "test.Type").count())
+                .isEqualTo(2);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("lanes were not processed in parallel");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class InMemoryProcessedEventStore implements ProcessedEventStore {
+
+        private final Set<String> processed = new HashSet<>();
+
+        @Override
+        public boolean isProcessed(String scope, String eventId) {
+            return processed.contains(scope + eventId);
+        }
+
+        @Override
+        public Set<String> findProcessed(String scope, Collection<String> eventIds) {
+            Set<String> result = new HashSet<>();
+            eventIds.stream().filter(eventId -> isProcessed(scope, eventId)).forEach(result::add);
+            return result;
+        }
+
+        @Override
+        public void markProcessed(String scope, Collection<String> eventIds) {
+            eventIds.forEach(eventId -> processed.add(scope + eventId));
+        }
+    }
+
+    private static CloudEvent cloudEvent(String json, String userId) {
+        return CloudEventBuilder.v1()
+                .withId(json)
+                .withType("test.Type")
+                .withSource(URI.create("test"))
+                .withTime(OffsetDateTime.now(ZoneOffset.UTC))
+                .withData(json.getBytes(StandardCharsets.UTF_8))
+                .withExtension(WMPCloudEventExtensions.USER_ID, userId)
+                .build();
+    }
+
+    private static CloudEvent keyedCloudEvent(String json, String partitionKey) {
+        return CloudEventBuilder.v1(cloudEvent(json, partitionKey))
+                .withExtension(WMPCloudEventExtensions.PARTITION_KEY, partitionKey)
+                .build();
+    }
+}
@@ -0,0 +1,54 @@
+package raff.stein.platformcore.messaging.consumer.config;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import io.cloudevents.core.message.Encoding;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Serializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import raff.stein.platformcore.messaging.configuration.kafka.KafkaConfiguration;
+import raff.stein.platformcore.messaging.publisher.config.KafkaProducerProperties;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class KafkaConsumerConfigurationTest {
+
+    private final KafkaConfiguration kafkaConfiguration = mock(KafkaConfiguration.class);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldPublishStructuredCloudEventsToDeadLetterTopics() {
+        when(kafkaConfiguration.getBasicBrokerProperties())
+                .thenReturn(new HashMap<>(Map.of("bootstrap.servers", "localhost:9092")));
+        KafkaProducerProperties producerProperties = new KafkaProducerProperties();
+        producerProperties.setEncoding(Encoding.STRUCTURED);
+        KafkaConsumerConfiguration configuration = new KafkaConsumerConfiguration(kafkaConfiguration,
+                new KafkaConsumerProperties(), producerProperties, mock(ObjectProvider.class), mock(ObjectProvider.class));
+
+        KafkaTemplate<String, Object> template = configuration.deadLetterKafkaTemplate();
+        Serializer<Object> valueSerializer =
+                ((DefaultKafkaProducerFactory<String, Object>) template.getProducerFactory()).getValueSerializer();
+        CloudEvent event = CloudEventBuilder.v1()
+                .withId("event-1")
+                .withSource(URI.create("/customer-service"))
+                .withType("CustomerOnboarded")
+                .withDataContentType("application/json")
+                .withData("{\"customerId\":\"1\"}".getBytes(StandardCharsets.UTF_8))
+                .build();
+
+        byte[] structured = valueSerializer.serialize("orders-retry-1000", new RecordHeaders(), event);
+
+        // the JSON envelope carries the attributes, the headers stay empty
+        assertThat(new String(structured, StandardCharsets.UTF_8)).contains("\"id\":\"event-1\"");
+    }
+}
@@ -0,0 +1,68 @@
+package raff.stein.platformcore.messaging.consumer.retry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.kafka.support.KafkaHeaders;
+import raff.stein.platformcore.messaging.configuration.kafka.KafkaConfiguration;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class DeadLetterReplayServiceTest {
+
+    private static final TopicPartition DLT_PARTITION = new TopicPartition("orders-dlt", 0);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DeadLetterReplayService replayService =
+            new DeadLetterReplayService(mock(KafkaConfiguration.class), newMetrics());
+
+    @Test
+    void shouldStopAtMaxRecordsAndCommitOnlyReplayedOffsets() {
+        MockConsumer<byte[], byte[]> consumer = new MockConsumer<>("earliest");
+        MockProducer<byte[], byte[]> producer = new MockProducer<>(true, null, new ByteArraySerializer(), new ByteArraySerializer());
+        consumer.updateBeginningOffsets(Map.of(DLT_PARTITION, 0L));
+        // one poll returning more records than asked for
+        consumer.schedulePollTask(() -> {
+            consumer.rebalance(List.of(DLT_PARTITION));
+            for (long offset = 0; offset < 3; offset++) {
+                consumer.addRecord(deadLetter(offset));
+            }
+        });
+
+        DeadLetterReplayResult result = replayService.replay(consumer, producer, DLT_PARTITION.topic(), 2);
+
+        assertThat(result.replayed()).isEqualTo(2);
+        assertThat(producer.history()).extracting(ProducerRecord::topic).containsExactly("orders", "orders");
+        assertThat(producer.history().getFirst().headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_TOPIC)).isNull();
+        // the third record stays on the DLT for the next call
+        assertThat(consumer.committed(Set.of(DLT_PARTITION)).get(DLT_PARTITION).offset()).isEqualTo(2);
+        assertThat(meterRegistry.counter("wmp.kafka.consumer.dead-letters.replayed", "topic", "orders").count())
+                .isEqualTo(2);
+    }
+
+    private static ConsumerRecord<byte[], byte[]> deadLetter(long offset) {
+        ConsumerRecord<byte[], byte[]> deadLetter = new ConsumerRecord<>(DLT_PARTITION.topic(), DLT_PARTITION.partition(),
+                offset, "key".getBytes(StandardCharsets.UTF_8), ("value-" + offset).getBytes(StandardCharsets.UTF_8));
+        deadLetter.headers().add(KafkaHeaders.DLT_ORIGINAL_TOPIC, "orders".getBytes(StandardCharsets.UTF_8));
+        return deadLetter;
+    }
+
+    private RetryTopicMetrics newMetrics() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", meterRegistry);
+        return new RetryTopicMetrics(beanFactory.getBeanProvider(MeterRegistry.class));
+    }
+}
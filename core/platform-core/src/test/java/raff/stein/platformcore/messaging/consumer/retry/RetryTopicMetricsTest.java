@@ -0,0 +1,51 @@
+package raff.stein.platformcore.messaging.consumer.retry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryTopicMetricsTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RetryTopicMetrics retryTopicMetrics = newMetrics();
+
+    @Test
+    void shouldCountRetriesByMainTopicAndAttempt() {
+        ConsumerRecord<String, String> mainRecord = new ConsumerRecord<>("orders", 0, 0L, "key", "value");
+        ConsumerRecord<String, String> retryRecord = new ConsumerRecord<>("orders-retry-1", 0, 0L, "key", "value");
+        retryRecord.headers().add(RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS, ByteBuffer.allocate(4).putInt(2).array());
+        retryRecord.headers().add(KafkaHeaders.ORIGINAL_TOPIC, "orders".getBytes(StandardCharsets.UTF_8));
+
+        retryTopicMetrics.recordDelivery(mainRecord);
+        retryTopicMetrics.recordDelivery(retryRecord);
+
+        assertThat(meterRegistry.find("wmp.kafka.consumer.retries").counters()).hasSize(1);
+        assertThat(meterRegistry.counter("wmp.kafka.consumer.retries", "topic", "orders", "attempt", "2").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldCountDeadLettersByMainTopic() {
+        ConsumerRecord<String, String> deadLetter = new ConsumerRecord<>("orders-dlt", 0, 0L, "key", "value");
+        deadLetter.headers().add(KafkaHeaders.DLT_ORIGINAL_TOPIC, "orders".getBytes(StandardCharsets.UTF_8));
+
+        retryTopicMetrics.handleDeadLetter(deadLetter);
+
+        assertThat(meterRegistry.counter("wmp.kafka.consumer.dead-letters", "topic", "orders").count()).isEqualTo(1);
+    }
+
+    private RetryTopicMetrics newMetrics() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", meterRegistry);
+        return new RetryTopicMetrics(beanFactory.getBeanProvider(MeterRegistry.class));
+    }
+}
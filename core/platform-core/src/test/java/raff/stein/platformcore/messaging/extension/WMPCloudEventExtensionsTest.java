@@ -0,0 +1,70 @@
+package raff.stein.platformcore.messaging.extension;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import io.cloudevents.core.message.Encoding;
+import io.cloudevents.kafka.CloudEventDeserializer;
+import io.cloudevents.kafka.CloudEventSerializer;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import raff.stein.platformcore.security.context.WMPContext;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WMPCloudEventExtensionsTest {
+
+    private static final String TOPIC = "test-topic";
+    private static final byte[] PAYLOAD = "{\"customerId\":\"c-1\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void shouldRebuildContextFromBinaryHeadersWithoutReadingPayload() {
+        RecordHeaders headers = new RecordHeaders();
+        byte[] value = serialize(Encoding.BINARY, headers);
+
+        // binary mode sends the raw payload as record value
+        assertThat(value).isEqualTo(PAYLOAD);
+
+        WMPContext context = WMPCloudEventExtensions.fromBinaryHeaders(headers);
+        assertThat(context).isNotNull();
+        assertThat(context.getUserId()).isEqualTo("user-1");
+        assertThat(context.getBankCode()).isEqualTo("BANK1");
+        assertThat(context.getCorrelationId()).isEqualTo("corr-1");
+
+        try (CloudEventDeserializer deserializer = new CloudEventDeserializer()) {
+            CloudEvent cloudEvent = deserializer.deserialize(TOPIC, headers, value);
+            assertThat(WMPCloudEventExtensions.fromCloudEvent(cloudEvent)).isEqualTo(context);
+        }
+    }
+
+    @Test
+    void shouldNotResolveHeaderContextForStructuredRecords() {
+        RecordHeaders headers = new RecordHeaders();
+        serialize(Encoding.STRUCTURED, headers);
+
+        assertThat(WMPCloudEventExtensions.isBinaryEncoded(headers)).isFalse();
+        assertThat(WMPCloudEventExtensions.fromBinaryHeaders(headers)).isNull();
+    }
+
+    private static byte[] serialize(Encoding encoding, RecordHeaders headers) {
+        CloudEvent cloudEvent = CloudEventBuilder.v1()
+                .withId("event-1")
+                .withType("test.Type")
+                .withSource(URI.create("test"))
+                .withDataContentType("application/json")
+                .withData(PAYLOAD)
+                .withExtension(WMPCloudEventExtensions.USER_ID, "user-1")
+                .withExtension(WMPCloudEventExtensions.BANK_CODE, "BANK1")
+                .withExtension(WMPCloudEventExtensions.CORRELATION_ID, "corr-1")
+                .build();
+        try (CloudEventSerializer serializer = new CloudEventSerializer()) {
+            serializer.configure(Map.of(
+                    CloudEventSerializer.ENCODING_CONFIG, encoding,
+                    CloudEventSerializer.EVENT_FORMAT_CONFIG, "application/cloudevents+json"), false);
+            return serializer.serialize(TOPIC, headers, cloudEvent);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package raff.stein.platformcore.messaging.outbox;
+
+import io.cloudevents.CloudEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.transaction.support.TransactionOperations;
+import raff.stein.platformcore.messaging.metrics.EventMetrics;
+import raff.stein.platformcore.messaging.outbox.config.OutboxProperties;
+import raff.stein.platformcore.messaging.payload.JsonPayloadCodec;
+import raff.stein.platformcore.messaging.payload.PayloadCodecResolver;
+import raff.stein.platformcore.messaging.publisher.WMPBaseEventPublisher;
+import raff.stein.platformcore.messaging.publisher.config.KafkaProducerProperties;
+import raff.stein.platformcore.messaging.publisher.key.AggregateIdPartitionKeyStrategy;
+import raff.stein.platformcore.messaging.publisher.model.EventData;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    private static final String TOPIC = "test-topic";
+
+    private final OutboxRepository outboxRepository = mock(OutboxRepository.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldPublishAppendedEventsAndDeleteThemOnceAcknowledged() {
+        MockProducer<String, CloudEvent> producer = newMockProducer(true);
+        WMPBaseEventPublisher wmpBaseEventPublisher = newPublisher(producer);
+        List<OutboxEvent> outboxEvents = appendEvents(wmpBaseEventPublisher);
+        when(outboxRepository.lockNextBatch(anyInt())).thenReturn(outboxEvents);
+
+        newRelay(wmpBaseEventPublisher).relay();
+
+        assertThat(producer.history()).hasSize(2);
+        assertThat(producer.history().getFirst().key()).isEqualTo("key-1");
+        assertThat(producer.history().getFirst().value().getId()).isEqualTo(outboxEvents.getFirst().id().toString());
+        verify(outboxRepository).delete(outboxEvents.stream().map(OutboxEvent::id).toList());
+        assertThat(meterRegistry.counter("wmp.outbox.relay.published").count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldKeepEventsWhenBrokerDoesNotAcknowledge() {
+        MockProducer<String, CloudEvent> producer = newMockProducer(false);
+        WMPBaseEventPublisher wmpBaseEventPublisher = newPublisher(producer);
+        List<OutboxEvent> outboxEvents = appendEvents(wmpBaseEventPublisher);
+        when(outboxRepository.lockNextBatch(anyInt())).thenReturn(outboxEvents);
+
+        newRelay(wmpBaseEventPublisher).relay();
+
+        verify(outboxRepository, never()).delete(anyList());
+        assertThat(meterRegistry.counter("wmp.outbox.relay.failures").count()).isEqualTo(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<OutboxEvent> appendEvents(WMPBaseEventPublisher wmpBaseEventPublisher) {
+        OutboxEventPublisher outboxEventPublisher = new OutboxEventPublisher(wmpBaseEventPublisher, outboxRepository);
+        outboxEventPublisher.publishBatch(TOPIC, List.of(
+                new EventData(Map.of("id", 1), "key-1"),
+                new EventData(Map.of("id", 2), "key-2")));
+        ArgumentCaptor<List<OutboxEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(outboxRepository).append(captor.capture());
+        return captor.getValue();
+    }
+
+    private OutboxRelay newRelay(WMPBaseEventPublisher wmpBaseEventPublisher) {
+        OutboxProperties outboxProperties = new OutboxProperties();
+        outboxProperties.setSendTimeout(Duration.ofMillis(50));
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", meterRegistry);
+        return new OutboxRelay(
+                outboxRepository,
+                wmpBaseEventPublisher,
+                TransactionOperations.withoutTransaction(),
+                outboxProperties,
+                beanFactory.getBeanProvider(MeterRegistry.class));
+    }
+
+    private static WMPBaseEventPublisher newPublisher(MockProducer<String, CloudEvent> producer) {
+        KafkaProducerProperties properties = new KafkaProducerProperties();
+        properties.setSource("test");
+        return new WMPBaseEventPublisher(
+                producer,
+                new PayloadCodecResolver(List.of(new JsonPayloadCodec(new ObjectMapper())), properties),
+                properties,
+                new AggregateIdPartitionKeyStrategy(),
+                new EventMetrics(new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class)));
+    }
+
+    private static MockProducer<String, CloudEvent> newMockProducer(boolean autoComplete) {
+        Serializer<CloudEvent> noOpSerializer = (topic, data) -> new byte[0];
+        return new MockProducer<>(autoComplete, null, new StringSerializer(), noOpSerializer);
+    }
+}
@@ -0,0 +1,94 @@
+package raff.stein.platformcore.messaging.payload;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.junit.jupiter.api.Test;
+import raff.stein.platformcore.messaging.publisher.config.KafkaProducerProperties;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.dataformat.avro.AvroSchema;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AvroPayloadCodecTest {
+
+    private final PayloadSchemaRegistry schemaRegistry = new PayloadSchemaRegistry();
+    private final AvroPayloadCodec avroCodec = new AvroPayloadCodec(schemaRegistry);
+
+    @Test
+    void shouldRoundTripEventPayload() {
+        SamplePayload payload = SamplePayload.sample();
+
+        byte[] bytes = avroCodec.encode(payload);
+        URI dataSchema = avroCodec.dataSchema(SamplePayload.class);
+
+        assertThat(dataSchema.toString()).startsWith(PayloadSchemaRegistry.SCHEMA_URN_PREFIX);
+        assertThat(avroCodec.decode(bytes, SamplePayload.class, dataSchema)).isEqualTo(payload);
+    }
+
+    @Test
+    void shouldReadEventsWrittenWithShippedSchemaVersion() {
+        AvroSchema v1Schema = schemaRegistry.writerSchema(v1SchemaUri());
+        Map<String, Object> v1Payload = new LinkedHashMap<>();
+        v1Payload.put("firstName", "Mario");
+        v1Payload.put("lastName", "Rossi");
+        byte[] bytes = schemaRegistry.getAvroMapper().writer(v1Schema).writeValueAsBytes(v1Payload);
+
+        SamplePayload decoded = avroCodec.decode(bytes, SamplePayload.class, v1SchemaUri());
+
+        assertThat(decoded.getFirstName()).isEqualTo("Mario");
+        assertThat(decoded.getLastName()).isEqualTo("Rossi");
+        assertThat(decoded.getGoals()).isNull();
+    }
+
+    @Test
+    void shouldRejectUnknownWriterSchema() {
+        byte[] bytes = avroCodec.encode(SamplePayload.sample());
+
+        assertThatThrownBy(() -> avroCodec.decode(bytes, SamplePayload.class,
+                URI.create(PayloadSchemaRegistry.SCHEMA_URN_PREFIX + "42")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Unknown Avro writer schema");
+        assertThatThrownBy(() -> avroCodec.decode(bytes, SamplePayload.class, null))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shouldRequireShippedSchemasForAvroTopics() {
+        KafkaProducerProperties kafkaProducerProperties = new KafkaProducerProperties();
+        kafkaProducerProperties.getPayloadFormats().put("sample-topic", PayloadFormat.AVRO);
+        kafkaProducerProperties.getPayloadFormats().put("json-topic", PayloadFormat.JSON);
+        new PayloadSchemaRegistry(kafkaProducerProperties);
+
+        kafkaProducerProperties.getPayloadFormats().put("customer-created", PayloadFormat.AVRO);
+        assertThatThrownBy(() -> new PayloadSchemaRegistry(kafkaProducerProperties))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("[customer-created]");
+    }
+
+    @Test
+    void shouldBeSmallerThanJson() {
+        SamplePayload payload = SamplePayload.sample();
+
+        byte[] avro = avroCodec.encode(payload);
+        byte[] json = new JsonPayloadCodec(new ObjectMapper()).encode(payload);
+
+        assertThat(avro.length).isLessThan(json.length);
+    }
+
+    private static URI v1SchemaUri() {
+        try (InputStream inputStream = AvroPayloadCodecTest.class.getResourceAsStream("/avro-schemas/sample-topic/sample-payload-v1.avsc")) {
+            Schema schema = new Schema.Parser().parse(inputStream);
+            return URI.create(PayloadSchemaRegistry.SCHEMA_URN_PREFIX + SchemaNormalization.parsingFingerprint64(schema));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package raff.stein.platformcore.messaging.payload;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import tools.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encode/decode cost of the JSON and Avro payload codecs.
+ * Not part of the test suite: run {@link #main} from the IDE after {@code mvn test-compile}.
+ * Payload sizes are logged once per trial.
+ */
+@Slf4j
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadCodecBenchmark {
+
+    @Param({"JSON", "AVRO"})
+    private PayloadFormat format;
+
+    private PayloadCodec codec;
+    private SamplePayload payload;
+    private byte[] encoded;
+    private URI dataSchema;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        codec = switch (format) {
+            case JSON -> new JsonPayloadCodec(new ObjectMapper());
+            case AVRO -> new AvroPayloadCodec(new PayloadSchemaRegistry());
+        };
+        payload = SamplePayload.sample();
+        encoded = codec.encode(payload);
+        dataSchema = codec.dataSchema(SamplePayload.class);
+        log.info("{} payload size: {} bytes", format, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return codec.encode(payload);
+    }
+
+    @Benchmark
+    public SamplePayload decode() {
+        return codec.decode(encoded, SamplePayload.class, dataSchema);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PayloadCodecBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
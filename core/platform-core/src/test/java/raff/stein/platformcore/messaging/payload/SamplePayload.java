@@ -0,0 +1,49 @@
+package raff.stein.platformcore.messaging.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Shaped like the OpenAPI-generated event-data models (UUID ids, dates, enums, nested lists).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SamplePayload {
+
+    public enum Status { ACTIVE, SUSPENDED }
+
+    private UUID customerId;
+    private String firstName;
+    private String lastName;
+    private LocalDate dateOfBirth;
+    private Status status;
+    private List<Goal> goals;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Goal {
+        private String goalType;
+        private BigDecimal targetAmount;
+        private LocalDate targetDate;
+    }
+
+    public static SamplePayload sample() {
+        return new SamplePayload(
+                UUID.randomUUID(),
+                "Mario",
+                "Rossi",
+                LocalDate.of(1985, 4, 12),
+                Status.ACTIVE,
+                List.of(
+                        new Goal("RETIREMENT", new BigDecimal("250000.00"), LocalDate.of(2050, 1, 1)),
+                        new Goal("HOUSE", new BigDecimal("80000.00"), LocalDate.of(2030, 6, 30))));
+    }
+}
@@ -0,0 +1,141 @@
+package raff.stein.platformcore.messaging.publisher;
+
+import io.cloudevents.CloudEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import raff.stein.platformcore.messaging.metrics.EventMetrics;
+import raff.stein.platformcore.messaging.payload.JsonPayloadCodec;
+import raff.stein.platformcore.messaging.payload.PayloadCodecResolver;
+import raff.stein.platformcore.messaging.publisher.config.KafkaProducerProperties;
+import raff.stein.platformcore.messaging.publisher.key.AggregateIdPartitionKeyStrategy;
+import raff.stein.platformcore.messaging.publisher.model.EventData;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WMPBaseEventPublisherTest {
+
+    private static final String TOPIC = "test-topic";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final EventMetrics eventMetrics = newEventMetrics();
+
+    @Test
+    void shouldCompleteBatchOnceEveryRecordIsAcknowledged() throws Exception {
+        MockProducer<String, CloudEvent> producer = newMockProducer();
+        WMPBaseEventPublisher publisher = new WMPBaseEventPublisher(
+                producer, jsonCodecResolver(), properties(10), new AggregateIdPartitionKeyStrategy(), eventMetrics);
+
+        CompletableFuture<Void> batch = publisher.publishBatch(TOPIC, List.of(
+                new EventData(Map.of("id", 1)),
+                new EventData(Map.of("id", 2)),
+                new EventData(Map.of("id", 3))));
+
+        assertThat(producer.history()).hasSize(3);
+        producer.completeNext();
+        producer.completeNext();
+        assertThat(batch).isNotDone();
+
+        producer.completeNext();
+        batch.get();
+        assertThat(batch).isCompleted();
+    }
+
+    @Test
+    void shouldFailBatchWhenInFlightLimitCannotBeAcquired() {
+        MockProducer<String, CloudEvent> producer = newMockProducer();
+        WMPBaseEventPublisher publisher = new WMPBaseEventPublisher(
+                producer, jsonCodecResolver(), properties(1), new AggregateIdPartitionKeyStrategy(), eventMetrics);
+
+        CompletableFuture<Void> batch = publisher.publishBatch(TOPIC, List.of(
+                new EventData(Map.of("id", 1)),
+                new EventData(Map.of("id", 2))));
+
+        // only the first record was handed to the producer, the second timed out waiting for a slot
+        assertThat(producer.history()).hasSize(1);
+        producer.completeNext();
+        assertThatThrownBy(batch::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    void shouldKeyRecordsByExplicitKeyThenAggregateId() {
+        MockProducer<String, CloudEvent> producer = newMockProducer();
+        WMPBaseEventPublisher publisher = new WMPBaseEventPublisher(
+                producer, jsonCodecResolver(), properties(10), new AggregateIdPartitionKeyStrategy(), eventMetrics);
+
+        publisher.publishCloudEvent(TOPIC, new EventData(new CustomerPayload("customer-1"), "explicit-key"));
+        publisher.publishCloudEvent(TOPIC, new EventData(new CustomerPayload("customer-1")));
+
+        assertThat(producer.history())
+                .extracting(ProducerRecord::key)
+                .containsExactly("explicit-key", "customer-1");
+        assertThat(producer.history().get(1).value().getExtension("partitionkey")).isEqualTo("customer-1");
+    }
+
+    @Test
+    void shouldMeterPublishLatencyPayloadSizeAndFailuresByType() {
+        MockProducer<String, CloudEvent> producer = newMockProducer();
+        WMPBaseEventPublisher publisher = new WMPBaseEventPublisher(
+                producer, jsonCodecResolver(), properties(10), new AggregateIdPartitionKeyStrategy(), eventMetrics);
+
+        publisher.publishCloudEvent(TOPIC, new EventData(new CustomerPayload("customer-1")));
+        publisher.publishCloudEvent(TOPIC, new EventData(new CustomerPayload("customer-2")));
+        producer.completeNext();
+        producer.errorNext(new IllegalStateException("broker unavailable"));
+
+        String type = CustomerPayload.class.getName();
+        assertThat(meterRegistry.timer("wmp.kafka.producer.publish",
+                "topic", TOPIC, "type", type, "outcome", "success").count()).isEqualTo(1);
+        // MockProducer reports a zero serialized size, only the sample count is meaningful here
+        assertThat(meterRegistry.summary("wmp.kafka.producer.payload.size", "topic", TOPIC, "type", type).count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.counter("wmp.kafka.producer.failures",
+                "topic", TOPIC, "type", type, "exception", "IllegalStateException").count()).isEqualTo(1);
+    }
+
+    public record CustomerPayload(String customerId) {
+
+        public String getCustomerId() {
+            return customerId;
+        }
+    }
+
+    private static MockProducer<String, CloudEvent> newMockProducer() {
+        Serializer<CloudEvent> noOpSerializer = (topic, data) -> new byte[0];
+        return new MockProducer<>(false, null, new StringSerializer(), noOpSerializer);
+    }
+
+    private static PayloadCodecResolver jsonCodecResolver() {
+        return new PayloadCodecResolver(List.of(new JsonPayloadCodec(new ObjectMapper())), new KafkaProducerProperties());
+    }
+
+    private static KafkaProducerProperties properties(int maxInFlightRecords) {
+        KafkaProducerProperties properties = new KafkaProducerProperties();
+        properties.setSource("test");
+        properties.setMaxInFlightRecords(maxInFlightRecords);
+        properties.setInFlightAcquireTimeout(Duration.ofMillis(50));
+        return properties;
+    }
+
+    private EventMetrics newEventMetrics() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", meterRegistry);
+        return new EventMetrics(beanFactory.getBeanProvider(MeterRegistry.class));
+    }
+}
@@ -0,0 +1,151 @@
+package raff.stein.platformcore.security.jwt;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.security.KeyPair;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtKeyRingTest {
+
+    private static final KeyPair LEGACY_KEY = Jwts.SIG.RS256.keyPair().build();
+    private static final KeyPair CURRENT_KEY = Jwts.SIG.RS256.keyPair().build();
+    private static final KeyPair NEXT_KEY = Jwts.SIG.RS256.keyPair().build();
+
+    private final MutableClock clock = new MutableClock();
+    private final AtomicReference<List<KeyPair>> publishedKeys = new AtomicReference<>(List.of(CURRENT_KEY));
+
+    @Test
+    void shouldVerifyTokensByKidAndLegacyTokensWithTheDefaultKey() {
+        JwtKeyRing jwtKeyRing = newKeyRing();
+
+        assertThat(jwtKeyRing.getParser().parseSignedClaims(token(CURRENT_KEY, true)).getPayload().getSubject())
+                .isEqualTo("user-1");
+        assertThat(jwtKeyRing.getParser().parseSignedClaims(token(LEGACY_KEY, false)).getPayload().getSubject())
+                .isEqualTo("user-1");
+        assertThatThrownBy(() -> jwtKeyRing.getParser().parseSignedClaims(token(NEXT_KEY, true)))
+                .isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void shouldKeepVerifyingWithARotatedKeyDuringTheRetention() {
+        JwtKeyRing jwtKeyRing = newKeyRing();
+        AtomicInteger removals = new AtomicInteger();
+        jwtKeyRing.onKeyRemoval(removals::incrementAndGet);
+        String tokenOfCurrentKey = token(CURRENT_KEY, true);
+
+        // the next key is published ahead of the rotation, then replaces the current one
+        publishedKeys.set(List.of(CURRENT_KEY, NEXT_KEY));
+        jwtKeyRing.refresh();
+        publishedKeys.set(List.of(NEXT_KEY));
+        jwtKeyRing.refresh();
+
+        assertThat(jwtKeyRing.getParser().parseSignedClaims(token(NEXT_KEY, true))).isNotNull();
+        clock.advance(Duration.ofMinutes(59));
+        jwtKeyRing.refresh();
+        assertThat(jwtKeyRing.getParser().parseSignedClaims(tokenOfCurrentKey)).isNotNull();
+        assertThat(removals).hasValue(0);
+
+        clock.advance(Duration.ofMinutes(2));
+        jwtKeyRing.refresh();
+        assertThatThrownBy(() -> jwtKeyRing.getParser().parseSignedClaims(tokenOfCurrentKey))
+                .isInstanceOf(JwtException.class);
+        assertThat(jwtKeyRing.getKeyIds())
+                .containsExactlyInAnyOrder(JwtKeyRing.thumbprint(LEGACY_KEY.getPublic()), JwtKeyRing.thumbprint(NEXT_KEY.getPublic()));
+        assertThat(removals).hasValue(1);
+    }
+
+    @Test
+    void shouldKeepTheCurrentKeysWhenTheSourceFails() {
+        JwtKeyRing jwtKeyRing = newKeyRing();
+        publishedKeys.set(null);
+        jwtKeyRing.refresh();
+
+        assertThat(jwtKeyRing.getParser().parseSignedClaims(token(CURRENT_KEY, true))).isNotNull();
+        assertThatThrownBy(() -> jwtKeyRing.getParser().parseSignedClaims(token(NEXT_KEY, true)))
+                .isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void shouldDecodeEcAndEd25519TokensForTheResourceServer() {
+        KeyPair ecKey = Jwts.SIG.ES256.keyPair().build();
+        KeyPair edKey = Jwks.CRV.Ed25519.keyPair().build();
+        publishedKeys.set(List.of(ecKey, edKey));
+        KeyRingJwtDecoder jwtDecoder = new KeyRingJwtDecoder(newKeyRing());
+
+        for (KeyPair keyPair : List.of(ecKey, edKey)) {
+            Jwt jwt = jwtDecoder.decode(token(keyPair, true));
+            assertThat(jwt.getSubject()).isEqualTo("user-1");
+            assertThat(jwt.getExpiresAt()).isAfter(Instant.now());
+        }
+        assertThatThrownBy(() -> jwtDecoder.decode(token(CURRENT_KEY, true)))
+                .isInstanceOf(BadJwtException.class);
+    }
+
+    private JwtKeyRing newKeyRing() {
+        JwkSetSource source = () -> new JWKSet(publishedKeys.get().stream()
+                .map(keyPair -> JwtKeyRing.toJwk(keyPair.getPublic(), JwtKeyRing.thumbprint(keyPair.getPublic())))
+                .toList());
+        JwtKeyRing jwtKeyRing = new JwtKeyRing(LEGACY_KEY.getPublic(), null, source, new JwtProperties.Jwks(), clock);
+        jwtKeyRing.refresh();
+        return jwtKeyRing;
+    }
+
+    private static String token(KeyPair keyPair, boolean withKid) {
+        var builder = Jwts.builder();
+        if (withKid) {
+            builder.header().keyId(JwtKeyRing.thumbprint(keyPair.getPublic()));
+        }
+        return builder
+                .subject("user-1")
+                .expiration(Date.from(Instant.now().plus(Duration.ofHours(1))))
+                .signWith(keyPair.getPrivate())
+                .compact();
+    }
+
+    private static class MutableClock extends Clock {
+
+        private final AtomicLong millis = new AtomicLong(System.currentTimeMillis());
+
+        void advance(Duration duration) {
+            millis.addAndGet(duration.toMillis());
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package raff.stein.platformcore.security.jwt;
+
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import raff.stein.platformcore.security.context.WMPContext;
+
+import java.security.KeyPair;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class VerifiedTokenCacheTest {
+
+    private static final KeyPair KEY_PAIR = Jwts.SIG.RS256.keyPair().build();
+
+    private final MutableClock clock = new MutableClock();
+    private final JwtTokenParser tokenParser = spy(new JwtTokenParser(KEY_PAIR.getPublic()));
+
+    @Test
+    void shouldVerifyATokenOnceUntilItExpires() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(tokenParser, new JwtProperties.TokenCacheConfig(), clock);
+        String token = token(Duration.ofMinutes(15));
+
+        WMPContext first = cache.parseTokenAndBuildContext(token, "corr-1").orElseThrow();
+        WMPContext second = cache.parseTokenAndBuildContext(token, "corr-2").orElseThrow();
+
+        verify(tokenParser, times(1)).parseTokenAndBuildContext(anyString(), any());
+        assertThat(second.getUserId()).isEqualTo("user-1");
+        assertThat(second.getRoles()).containsExactlyInAnyOrder("ADMIN", "ADVISOR");
+        assertThat(second.getJti()).isEqualTo(first.getJti());
+        assertThat(first.getCorrelationId()).isEqualTo("corr-1");
+        assertThat(second.getCorrelationId()).isEqualTo("corr-2");
+
+        // past exp the cached context is dropped and the token goes through verification again
+        clock.advance(Duration.ofMinutes(16));
+        cache.parseTokenAndBuildContext(token, "corr-3");
+        verify(tokenParser, times(2)).parseTokenAndBuildContext(anyString(), any());
+    }
+
+    @Test
+    void shouldNotCacheInvalidTokens() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(tokenParser, new JwtProperties.TokenCacheConfig(), clock);
+        String token = token(Duration.ofMinutes(15));
+        String tampered = token.substring(0, token.length() - 4) + "AAAA";
+
+        assertThat(cache.parseTokenAndBuildContext(tampered, "corr-1")).isEmpty();
+        assertThat(cache.parseTokenAndBuildContext(tampered, "corr-2")).isEmpty();
+
+        verify(tokenParser, times(2)).parseTokenAndBuildContext(anyString(), any());
+    }
+
+    @Test
+    void shouldVerifyEveryRequestWhenDisabled() {
+        JwtProperties.TokenCacheConfig cacheConfig = new JwtProperties.TokenCacheConfig();
+        cacheConfig.setEnabled(false);
+        VerifiedTokenCache cache = new VerifiedTokenCache(tokenParser, cacheConfig, clock);
+        String token = token(Duration.ofMinutes(15));
+
+        cache.parseTokenAndBuildContext(token, "corr-1");
+        cache.parseTokenAndBuildContext(token, "corr-2");
+
+        verify(tokenParser, times(2)).parseTokenAndBuildContext(anyString(), any());
+    }
+
+    private String token(Duration validity) {
+        return Jwts.builder()
+                .id(UUID.randomUUID().toString())
+                .subject("user-1")
+                .claim("userId", "user-1")
+                .claim("email", "user-1@bank.com")
+                .claim("roles", List.of("ADMIN", "ADVISOR"))
+                .expiration(Date.from(clock.instant().plus(validity)))
+                .signWith(KEY_PAIR.getPrivate())
+                .compact();
+    }
+
+    private static class MutableClock extends Clock {
+
+        private final AtomicLong millis = new AtomicLong(System.currentTimeMillis());
+
+        void advance(Duration duration) {
+            millis.addAndGet(duration.toMillis());
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package raff.stein.platformcore.security.jwt.revocation;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import raff.stein.platformcore.security.jwt.JwtProperties;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JdbcTokenRevocationStoreTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final JdbcTokenRevocationStore store = new JdbcTokenRevocationStore(jdbcTemplate, new JwtProperties.Revocation());
+
+    @Test
+    void shouldLookUpTheDatabaseUntilTheBloomFilterIsBuilt() {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COUNT(*)"), eq(Long.class), any(), any())).thenReturn(1L);
+
+        assertThat(store.isRevoked("jti-1")).isTrue();
+        verify(jdbcTemplate).queryForObject(startsWith("SELECT COUNT(*)"), eq(Long.class), any(), any());
+    }
+
+    @Test
+    void shouldAnswerNotRevokedWithoutDatabaseLookup() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT jti FROM"), eq(String.class), any(), any(), any()))
+                .thenReturn(List.of("jti-1"));
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COUNT(*)"), eq(Long.class), any(), any())).thenReturn(1L);
+        store.purgeExpiredAndRebuild();
+
+        assertThat(store.isRevoked("jti-2")).isFalse();
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Long.class), any(), any());
+
+        // ids the filter might contain are confirmed by the database, then served from the lookup cache
+        assertThat(store.isRevoked("jti-1")).isTrue();
+        assertThat(store.isRevoked("jti-1")).isTrue();
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Long.class), any(), any());
+        verify(jdbcTemplate).update(startsWith("DELETE FROM"), any(Object[].class));
+    }
+
+    @Test
+    void shouldSeeRevocationsMadeOnOtherNodesAfterSync() throws Exception {
+        when(jdbcTemplate.queryForList(startsWith("SELECT jti FROM"), eq(String.class), any(), any(), any()))
+                .thenReturn(List.of());
+        store.purgeExpiredAndRebuild();
+        assertThat(store.isRevoked("jti-remote")).isFalse();
+
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getString(1)).thenReturn("jti-remote");
+        when(resultSet.getTimestamp(2)).thenReturn(Timestamp.from(Instant.now()));
+        doAnswer(invocation -> {
+            invocation.getArgument(1, RowCallbackHandler.class).processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT jti, revoked_at"), any(RowCallbackHandler.class), any(), any());
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COUNT(*)"), eq(Long.class), any(), any())).thenReturn(1L);
+        store.syncRevocations();
+
+        assertThat(store.isRevoked("jti-remote")).isTrue();
+    }
+
+    @Test
+    void shouldAddLocalRevocationsToTheBloomFilterImmediately() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT jti FROM"), eq(String.class), any(), any(), any()))
+                .thenReturn(List.of());
+        store.purgeExpiredAndRebuild();
+
+        store.revoke("jti-1", Instant.now().plusSeconds(900));
+
+        assertThat(store.isRevoked("jti-1")).isTrue();
+        verify(jdbcTemplate).update(startsWith("INSERT INTO"), eq("jti-1"), any(), any());
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Long.class), any(), any());
+    }
+}
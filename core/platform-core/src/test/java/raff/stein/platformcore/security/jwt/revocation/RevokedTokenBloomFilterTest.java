@@ -0,0 +1,25 @@
+package raff.stein.platformcore.security.jwt.revocation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RevokedTokenBloomFilterTest {
+
+    @Test
+    void shouldContainEveryPutIdAndFewOthers() {
+        RevokedTokenBloomFilter bloomFilter = new RevokedTokenBloomFilter(100_000, 0.01);
+        IntStream.range(0, 100_000).forEach(i -> bloomFilter.put("revoked-" + i));
+
+        assertThat(IntStream.range(0, 100_000).allMatch(i -> bloomFilter.mightContain("revoked-" + i))).isTrue();
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> bloomFilter.mightContain(UUID.randomUUID().toString()))
+                .count();
+        assertThat(falsePositives).isLessThan(1_500);
+        // about 9.6 bits per expected id, whatever is put afterwards
+        assertThat(bloomFilter.bitCount()).isLessThan(1_000_000);
+    }
+}